@@ -0,0 +1,23 @@
+package fr.dior.patientNote.config;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
+
+/**
+ * Recalcule la longueur et le début du contenu d'une note avant chaque enregistrement,
+ * quelle que soit la façon dont la note a été construite ou modifiée.
+ */
+@Component
+public class NoteHeaderCallback implements BeforeConvertCallback<Note> {
+
+	@Override
+	public Note onBeforeConvert(Note note, String collection) {
+		note.setBodyLength(NoteHeader.bodyLength(note.getBody()));
+		note.setPreview(NoteHeader.preview(note.getBody()));
+		return note;
+	}
+
+}
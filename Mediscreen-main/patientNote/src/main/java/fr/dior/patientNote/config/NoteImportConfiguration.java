@@ -0,0 +1,27 @@
+package fr.dior.patientNote.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration du pool de threads des écritures en masse des imports de notes.
+ */
+@Configuration
+public class NoteImportConfiguration {
+
+	/**
+	 * Pool borné des écritures des lots de notes, pour que la lecture du lot suivant se poursuive
+	 * pendant l'écriture du lot précédent
+	 * @param threads : Nombre maximal de lots écrits simultanément
+	 * @return Le pool des écritures en masse
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService importExecutor(@Value("${patientNote.import.threads:4}") int threads) {
+		return Executors.newFixedThreadPool(threads);
+	}
+
+}
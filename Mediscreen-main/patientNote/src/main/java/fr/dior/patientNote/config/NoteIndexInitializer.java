@@ -0,0 +1,70 @@
+package fr.dior.patientNote.config;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import fr.dior.patientNote.model.QueryPlanCheck;
+import fr.dior.patientNote.service.INoteIndexService;
+
+/**
+ * Ajout des en-têtes aux notes qui n'en ont pas (une seule fois, voir INoteIndexService.ensureHeaders), création des index des notes puis vérification des plans d'exécution au démarrage, avant l'initialisation
+ * des données. Selon patientNote.indexes.check, une requête qui n'est pas servie par un index
+ * arrête le démarrage (fail), est signalée dans les journaux (warn) ou la vérification n'est pas faite (off).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class NoteIndexInitializer implements ApplicationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(NoteIndexInitializer.class);
+
+	/**
+	 * Comportement lorsqu'une requête n'est pas servie par un index
+	 */
+	public enum CheckMode {
+		FAIL, WARN, OFF
+	}
+
+	private final INoteIndexService noteIndexService;
+
+	private final CheckMode checkMode;
+
+	public NoteIndexInitializer(INoteIndexService noteIndexService,
+			@Value("${patientNote.indexes.check:warn}") String checkMode) {
+		this.noteIndexService = noteIndexService;
+		this.checkMode = CheckMode.valueOf(checkMode.trim().toUpperCase(Locale.ROOT));
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		noteIndexService.ensureHeaders();
+		noteIndexService.ensureIndexes();
+		if (checkMode == CheckMode.OFF) {
+			return;
+		}
+		List<QueryPlanCheck> unindexed = noteIndexService.checkQueryPlans().stream()
+				.filter(check -> !check.isIndexed())
+				.collect(Collectors.toList());
+		if (unindexed.isEmpty()) {
+			log.info("Every note query is served by an index");
+			return;
+		}
+		for (QueryPlanCheck check : unindexed) {
+			log.warn("Note query {} is not served by an index, plan stages : {}", check.getQuery(), check.getStages());
+		}
+		if (checkMode == CheckMode.FAIL) {
+			throw new IllegalStateException("Note queries not served by an index : "
+					+ unindexed.stream().map(QueryPlanCheck::getQuery).collect(Collectors.joining(", ")));
+		}
+	}
+
+}
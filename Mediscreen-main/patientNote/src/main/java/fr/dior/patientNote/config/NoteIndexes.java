@@ -0,0 +1,112 @@
+package fr.dior.patientNote.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.Index;
+
+import fr.dior.patientNote.repository.PatientNoteRepository;
+
+/**
+ * Déclaration des index de la collection des notes et des formes de requête qu'ils doivent servir.
+ * Les index sont créés au démarrage (la création d'un index existant est sans effet), puis le plan
+ * d'exécution de chaque forme de requête est vérifié : il ne doit contenir ni parcours de la collection
+ * (COLLSCAN) ni tri en mémoire (SORT), ni lecture des documents (FETCH) pour une requête d'en-têtes.
+ */
+public final class NoteIndexes {
+
+	/**
+	 * Index des notes d'un patient triées par date décroissante, l'identifiant départageant les notes de même date :
+	 * historique complet, période, pagination par clé et export (imposé par hint). La longueur et le début du contenu lui sont ajoutés
+	 * pour que la lecture des en-têtes soit couverte par l'index.
+	 */
+	public static final Index PATIENT_DATE_ID_HEADER = new Index()
+			.on("patId", Direction.ASC)
+			.on("date", Direction.DESC)
+			.on("_id", Direction.DESC)
+			.on("bodyLength", Direction.ASC)
+			.on("preview", Direction.ASC)
+			.named("patId_date_id_header");
+
+	/**
+	 * Index des notes par date d'enregistrement : patients dont les notes ont changé depuis une date,
+	 * lus dans l'index sans charger les notes.
+	 */
+	public static final Index MODIFIED_AT_PATIENT = new Index()
+			.on("modifiedAt", Direction.ASC)
+			.on("patId", Direction.ASC)
+			.named("modifiedAt_patId");
+
+	/**
+	 * Index gérés de la collection des notes.
+	 */
+	public static final List<Index> INDEXES = List.of(PATIENT_DATE_ID_HEADER, MODIFIED_AT_PATIENT);
+
+	/**
+	 * Anciens index remplacés par un index géré, supprimés au démarrage s'ils existent encore.
+	 */
+	public static final List<String> OBSOLETE_INDEXES = List.of("patId_date", "patId_date_id");
+
+	/**
+	 * Formes des requêtes du repository : nom de la méthode, filtre, tri et éventuellement champs lus,
+	 * tels que déclarés par @Query. Une requête dont les champs lus sont précisés doit être couverte
+	 * par un index (plan sans étape FETCH).
+	 */
+	public static final Map<String, List<String>> QUERY_SHAPES;
+
+	static {
+		Map<String, List<String>> queryShapes = new LinkedHashMap<String, List<String>>();
+		queryShapes.put("findByPatIdOrderByDateDesc",
+				List.of(PatientNoteRepository.BY_PATIENT_FILTER, PatientNoteRepository.DATE_SORT));
+		queryShapes.put("findByPatIdAndDateRange",
+				List.of(PatientNoteRepository.DATE_RANGE_FILTER, PatientNoteRepository.DATE_SORT));
+		queryShapes.put("findFirstPage",
+				List.of(PatientNoteRepository.BY_PATIENT_FILTER, PatientNoteRepository.PAGE_SORT));
+		queryShapes.put("findPageAfter",
+				List.of(PatientNoteRepository.PAGE_AFTER_FILTER, PatientNoteRepository.PAGE_SORT));
+		queryShapes.put("findPageAfterObjectId",
+				List.of(PatientNoteRepository.PAGE_AFTER_OBJECT_ID_FILTER, PatientNoteRepository.PAGE_SORT));
+		queryShapes.put("findUndatedPageAfter",
+				List.of(PatientNoteRepository.UNDATED_PAGE_AFTER_FILTER, PatientNoteRepository.PAGE_SORT));
+		queryShapes.put("findUndatedPageAfterObjectId",
+				List.of(PatientNoteRepository.UNDATED_PAGE_AFTER_OBJECT_ID_FILTER, PatientNoteRepository.PAGE_SORT));
+		queryShapes.put("findHeadersFirstPage", List.of(PatientNoteRepository.BY_PATIENT_FILTER,
+				PatientNoteRepository.PAGE_SORT, PatientNoteRepository.HEADER_FIELDS));
+		queryShapes.put("findHeadersPageAfter", List.of(PatientNoteRepository.PAGE_AFTER_FILTER,
+				PatientNoteRepository.PAGE_SORT, PatientNoteRepository.HEADER_FIELDS));
+		queryShapes.put("findHeadersPageAfterObjectId", List.of(PatientNoteRepository.PAGE_AFTER_OBJECT_ID_FILTER,
+				PatientNoteRepository.PAGE_SORT, PatientNoteRepository.HEADER_FIELDS));
+		queryShapes.put("findHeadersUndatedPageAfter", List.of(PatientNoteRepository.UNDATED_PAGE_AFTER_FILTER,
+				PatientNoteRepository.PAGE_SORT, PatientNoteRepository.HEADER_FIELDS));
+		queryShapes.put("findHeadersUndatedPageAfterObjectId", List.of(PatientNoteRepository.UNDATED_PAGE_AFTER_OBJECT_ID_FILTER,
+				PatientNoteRepository.PAGE_SORT, PatientNoteRepository.HEADER_FIELDS));
+		// Étape $match de l'agrégation, suivie du regroupement par patient
+		queryShapes.put("findPatientIdsModifiedSince", List.of(PatientNoteRepository.MODIFIED_SINCE_FILTER,
+				"{}", PatientNoteRepository.PATIENT_FIELDS));
+		QUERY_SHAPES = Collections.unmodifiableMap(queryShapes);
+	}
+
+	/**
+	 * Valeurs d'exemple des paramètres ?0, ?1, ?2 des requêtes, en JSON étendu ; l'identifiant ?1 des requêtes
+	 * qui suivent une note sans date reçoit la date d'exemple, sans effet sur le choix de l'index
+	 */
+	public static final List<String> SAMPLE_PARAMETERS = List.of(
+			"0", "{ '$date': '2000-01-01T00:00:00Z' }", "{ '$oid': '000000000000000000000000' }");
+
+	/**
+	 * Étapes d'un plan d'exécution révélant un index manquant
+	 */
+	public static final List<String> FORBIDDEN_STAGES = List.of("COLLSCAN", "SORT");
+
+	/**
+	 * Étape d'un plan d'exécution lisant les documents, absente d'une requête couverte par un index
+	 */
+	public static final String FETCH_STAGE = "FETCH";
+
+	private NoteIndexes() {
+	}
+
+}
@@ -0,0 +1,23 @@
+package fr.dior.patientNote.config;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import fr.dior.patientNote.model.Note;
+
+/**
+ * Date chaque enregistrement d'une note, pour que PatientReport retrouve les patients
+ * dont les notes ont changé quel que soit le point d'entrée (création, modification ou import).
+ */
+@Component
+public class NoteModificationCallback implements BeforeConvertCallback<Note> {
+
+	@Override
+	public Note onBeforeConvert(Note note, String collection) {
+		note.setModifiedAt(LocalDateTime.now());
+		return note;
+	}
+
+}
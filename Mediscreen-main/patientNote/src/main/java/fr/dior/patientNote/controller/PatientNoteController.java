@@ -1,20 +1,41 @@
 package fr.dior.patientNote.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteExportFilter;
+import fr.dior.patientNote.model.NoteHeaderPage;
+import fr.dior.patientNote.model.NoteImportResult;
+import fr.dior.patientNote.model.NotePage;
+import fr.dior.patientNote.model.QueryPlanCheck;
+import fr.dior.patientNote.service.INoteExportService;
+import fr.dior.patientNote.service.INoteImportService;
+import fr.dior.patientNote.service.INoteIndexService;
 import fr.dior.patientNote.service.IPatientNoteService;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @ComponentScan
@@ -26,6 +47,18 @@ public class PatientNoteController {
 	@Autowired
 	private IPatientNoteService patientNoteService;
 
+	@Autowired
+	private INoteIndexService noteIndexService;
+
+	@Autowired
+	private INoteImportService noteImportService;
+
+	@Autowired
+	private INoteExportService noteExportService;
+
+	@Value("${patientNote.page.default-size:20}")
+	private int defaultPageSize;
+
 	/**
 	 * Récupérer toutes les notes d'un patient identifié par son ID
 	 * @param patId : L'ID du patient
@@ -37,6 +70,79 @@ public class PatientNoteController {
 		return patientNoteService.getNotesByPatientId(patId);
 	}
 
+	/**
+	 * Récupérer une page de l'historique des notes d'un patient identifié par son ID
+	 * @param patId : L'ID du patient
+	 * @param size : Nombre maximal de notes de la page (patientNote.page.default-size s'il est absent)
+	 * @param after : Jeton "next" de la page précédente, absent pour la première page
+	 * @return Les notes de la page, de la plus récente à la plus ancienne, et le jeton de la page suivante
+	 */
+	@GetMapping("/PatientNote/byPatient/page")
+	public NotePage getNotesPageByPatientId (
+			@RequestParam Integer patId,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String after)
+	{
+		log.info("Get a page of notes for patient with id = {} after {}",patId,after);
+		try {
+			return patientNoteService.getNotesPageByPatientId(patId, size == null ? defaultPageSize : size, after);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+	/**
+	 * Récupérer une page des en-têtes des notes d'un patient identifié par son ID, pour les listes :
+	 * identifiant, date, longueur et début du contenu, lus dans l'index sans charger le contenu des notes
+	 * @param patId : L'ID du patient
+	 * @param size : Nombre maximal d'en-têtes de la page (patientNote.page.default-size s'il est absent)
+	 * @param after : Jeton "next" de la page précédente, absent pour la première page
+	 * @return Les en-têtes de la page, de la note la plus récente à la plus ancienne, et le jeton de la page suivante
+	 */
+	@GetMapping("/PatientNote/headers/byPatient")
+	public NoteHeaderPage getNoteHeadersPageByPatientId (
+			@RequestParam Integer patId,
+			@RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String after)
+	{
+		log.info("Get a page of note headers for patient with id = {} after {}",patId,after);
+		try {
+			return patientNoteService.getNoteHeadersPageByPatientId(patId, size == null ? defaultPageSize : size, after);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+	/**
+	 * Récupérer les notes d'un patient identifié par son ID écrites sur une période
+	 * @param patId : L'ID du patient
+	 * @param from : Premier jour de la période (yyyy-MM-dd), tout l'historique s'il est absent
+	 * @param to : Dernier jour de la période (yyyy-MM-dd), jusqu'à la dernière note s'il est absent
+	 * @return Les notes de la période, de la plus récente à la plus ancienne
+	 */
+	@GetMapping("/PatientNote/byPatientAndDate")
+	public Iterable<Note> getNotesByPatientIdAndDate (
+			@RequestParam Integer patId,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to)
+	{
+		log.info("Get notes for patient with id = {} from {} to {}",patId,from,to);
+		return patientNoteService.getNotesByPatientIdAndDate(patId, from, to);
+	}
+
+	/**
+	 * Récupérer les patients dont au moins une note a été créée, modifiée ou importée depuis une date
+	 * @param since : Date à partir de laquelle les enregistrements sont pris en compte (yyyy-MM-ddTHH:mm:ss)
+	 * @return Les identifiants des patients
+	 */
+	@GetMapping("/PatientNote/modifiedPatients")
+	public List<Integer> getPatientIdsWithNotesModifiedSince (
+			@RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime since)
+	{
+		log.info("Get patients with notes modified since {}",since);
+		return patientNoteService.getPatientIdsWithNotesModifiedSince(since);
+	}
+
 	/**
 	 * Obtenir la note identifiée par son ID
 	 * @param id : L'ID de la note
@@ -76,4 +182,66 @@ public class PatientNoteController {
 		log.info("Create note {} for patient with id = {}",note, patId);
 		return patientNoteService.createNote(patId, note);
 	}
+
+	/**
+	 * Vérifier que chaque requête sur les notes est servie par un index (plan sans COLLSCAN ni SORT)
+	 * @return Le plan d'exécution retenu par MongoDB pour chaque requête
+	 */
+	@GetMapping("/PatientNote/indexes/check")
+	public List<QueryPlanCheck> checkQueryPlans (){
+		log.info("Check the query plans of the notes collection");
+		return noteIndexService.checkQueryPlans();
+	}
+
+	/**
+	 * Importer des notes en masse, sous forme d'un tableau JSON ou d'une note par ligne (NDJSON)
+	 * @param notes : Le flux des notes, lu au fur et à mesure de leur enregistrement
+	 * @return Le bilan de l'import et les notes qui n'ont pas été enregistrées
+	 */
+	@PostMapping(value = "/PatientNote/import",
+			consumes = { "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE })
+	public NoteImportResult importNotes (InputStream notes)
+	{
+		log.info("Import notes");
+		try {
+			return noteImportService.importNotes(notes);
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+	/**
+	 * Exporter les notes au format NDJSON, par patient puis de la plus récente à la plus ancienne
+	 * @param fromPatId : Premier patient exporté, tous les patients s'il est absent
+	 * @param toPatId : Dernier patient exporté, jusqu'au dernier patient s'il est absent
+	 * @param from : Premier jour des notes exportées (yyyy-MM-dd), tout l'historique s'il est absent
+	 * @param to : Dernier jour des notes exportées (yyyy-MM-dd), jusqu'à la dernière note s'il est absent
+	 * @param after : Identifiant de la dernière note reçue, pour reprendre un export interrompu
+	 * @param response : La réponse sur laquelle les notes sont écrites au fur et à mesure
+	 */
+	@GetMapping("/PatientNote/export")
+	public void exportNotes (
+			@RequestParam(required = false) Integer fromPatId,
+			@RequestParam(required = false) Integer toPatId,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+			@RequestParam(required = false) String after,
+			HttpServletResponse response) throws IOException
+	{
+		log.info("Export notes of patients {} to {} from {} to {} after {}",fromPatId,toPatId,from,to,after);
+		NoteExportFilter filter = NoteExportFilter.builder()
+				.fromPatId(fromPatId)
+				.toPatId(toPatId)
+				.from(from)
+				.to(to)
+				.after(after)
+				.build();
+		response.setContentType("application/x-ndjson");
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		try {
+			noteExportService.exportNotes(filter, response.getOutputStream());
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
 }
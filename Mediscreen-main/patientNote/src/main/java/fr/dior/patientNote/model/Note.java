@@ -6,6 +6,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 /**
  * Représente une note médicale associée à un patient.
+ * Les index de la collection sont déclarés et créés au démarrage par NoteIndexes.
+ * La longueur et le début du contenu sont recalculés à chaque enregistrement (voir NoteHeaderCallback)
+ * pour que les en-têtes soient lus dans l'index, sans charger le contenu, avec la date de l'enregistrement
+ * (voir NoteModificationCallback).
  */
 @Data
 @Builder
@@ -31,6 +36,15 @@ public class Note {
 
 	private String body; // Contenu de la note
 
+	@JsonIgnore
+	private Integer bodyLength; // Nombre de caractères du contenu
+
+	@JsonIgnore
+	private String preview; // Début du contenu, au plus NoteHeader.PREVIEW_LENGTH caractères
+
+	@JsonIgnore
+	private LocalDateTime modifiedAt; // Date du dernier enregistrement, pour signaler les patients dont les notes ont changé
+
 	/**
 	 * Constructeur pour créer une nouvelle instance de Note avec les détails spécifiés.
 	 * @param patId Identifiant du patient associé à la note.
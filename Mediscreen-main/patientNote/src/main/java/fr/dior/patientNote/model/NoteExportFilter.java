@@ -0,0 +1,28 @@
+package fr.dior.patientNote.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Critères d'un export des notes, tous facultatifs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteExportFilter {
+
+	private Integer fromPatId; // Premier patient exporté, inclus
+
+	private Integer toPatId; // Dernier patient exporté, inclus
+
+	private LocalDate from; // Premier jour des notes exportées, inclus
+
+	private LocalDate to; // Dernier jour des notes exportées, inclus
+
+	private String after; // Identifiant de la dernière note reçue d'un export interrompu, pour le reprendre
+
+}
@@ -0,0 +1,55 @@
+package fr.dior.patientNote.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * En-tête d'une note médicale pour les listes : identifiant, date, longueur et début du contenu.
+ * Les en-têtes sont lus dans l'index (patId, date, _id, bodyLength, preview), sans charger le contenu des notes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteHeader {
+
+	/**
+	 * Nombre maximal de caractères du début du contenu
+	 */
+	public static final int PREVIEW_LENGTH = 100;
+
+	private String id; // Identifiant unique de la note
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+	private LocalDateTime date; // Date de la note
+
+	private Integer bodyLength; // Nombre de caractères du contenu
+
+	private String preview; // Début du contenu
+
+	/**
+	 * @param body : Contenu d'une note
+	 * @return Le nombre de caractères (points de code) du contenu, null pour une note sans contenu
+	 */
+	public static Integer bodyLength(String body) {
+		return body == null ? null : body.codePointCount(0, body.length());
+	}
+
+	/**
+	 * @param body : Contenu d'une note
+	 * @return Ses PREVIEW_LENGTH premiers caractères, sans couper un caractère en deux, null pour une note sans contenu
+	 */
+	public static String preview(String body) {
+		if (body == null) {
+			return null;
+		}
+		int length = Math.min(PREVIEW_LENGTH, body.codePointCount(0, body.length()));
+		return body.substring(0, body.offsetByCodePoints(0, length));
+	}
+
+}
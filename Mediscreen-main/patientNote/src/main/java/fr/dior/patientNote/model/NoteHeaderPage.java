@@ -0,0 +1,22 @@
+package fr.dior.patientNote.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Page des en-têtes de l'historique des notes d'un patient, de la plus récente à la plus ancienne.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteHeaderPage {
+
+	private List<NoteHeader> headers; // En-têtes des notes de la page
+
+	private String next; // Jeton opaque de la page suivante, null pour la dernière page
+
+}
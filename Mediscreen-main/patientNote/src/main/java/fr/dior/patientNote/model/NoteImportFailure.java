@@ -0,0 +1,22 @@
+package fr.dior.patientNote.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Note d'un import qui n'a pas été enregistrée.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteImportFailure {
+
+	private long record; // Position de la note dans le flux importé, à partir de 0
+
+	private Integer patId; // Identifiant du patient de la note, s'il a pu être lu
+
+	private String message; // Cause de l'échec
+
+}
@@ -0,0 +1,30 @@
+package fr.dior.patientNote.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Bilan d'un import de notes en masse.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteImportResult {
+
+	private long received; // Nombre de notes lues dans le flux
+
+	private long inserted; // Nombre de notes enregistrées
+
+	private long failed; // Nombre de notes non enregistrées
+
+	private List<NoteImportFailure> failures; // Détail des échecs, limité aux premiers échecs
+
+	private boolean aborted; // Vrai si la lecture du flux a été interrompue par une erreur de syntaxe
+
+	private long durationMillis; // Durée de l'import
+
+}
@@ -0,0 +1,28 @@
+package fr.dior.patientNote.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * Résultat de la vérification du plan d'exécution d'une requête sur les notes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryPlanCheck {
+
+	private String query; // Méthode du repository
+
+	private List<String> stages; // Étapes du plan retenu par MongoDB
+
+	private List<String> indexes; // Index utilisés par le plan
+
+	private boolean covered; // Vrai si le plan ne lit pas les documents
+
+	private boolean indexed; // Faux si le plan parcourt la collection ou trie en mémoire, ou lit les documents d'une requête d'en-têtes
+
+}
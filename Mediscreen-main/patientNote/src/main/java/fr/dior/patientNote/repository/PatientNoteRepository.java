@@ -1,21 +1,180 @@
 package fr.dior.patientNote.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
 /**
  * Interface de repository pour les opérations liées aux notes médicales dans la base de données MongoDB.
  */
 @Repository
 public interface PatientNoteRepository extends MongoRepository<Note, String> {
+
+	// Filtres et tris des requêtes, repris par la vérification des plans d'exécution (voir NoteIndexes)
+	String BY_PATIENT_FILTER = "{ 'patId': ?0 }";
+	String DATE_RANGE_FILTER = "{ 'patId': ?0, 'date': { $gte: ?1, $lt: ?2 } }";
+	// Les notes sans date, triées après toutes les autres, suivent toute note datée : $lt n'atteint pas la valeur null
+	String PAGE_AFTER_FILTER = "{ 'patId': ?0, $or: [ { 'date': { $lt: ?1 } }, { 'date': ?1, '_id': { $lt: ?2 } }, { 'date': null } ] }";
+	// Après une note d'identifiant ObjectId, les notes de même date d'identifiant chaîne suivent toutes, la comparaison
+	// $lt ne portant que sur les valeurs du même type
+	String PAGE_AFTER_OBJECT_ID_FILTER = "{ 'patId': ?0, $or: [ { 'date': { $lt: ?1 } }, { 'date': ?1, '_id': { $lt: ?2 } }, { 'date': ?1, '_id': { $type: 'string' } }, { 'date': null } ] }";
+	// Après une note sans date, seules les notes sans date d'identifiant inférieur suivent
+	String UNDATED_PAGE_AFTER_FILTER = "{ 'patId': ?0, 'date': null, '_id': { $lt: ?1 } }";
+	String UNDATED_PAGE_AFTER_OBJECT_ID_FILTER = "{ 'patId': ?0, 'date': null, $or: [ { '_id': { $lt: ?1 } }, { '_id': { $type: 'string' } } ] }";
+	String DATE_SORT = "{ 'date': -1 }";
+	String PAGE_SORT = "{ 'date': -1, '_id': -1 }";
+	String HEADER_FIELDS = "{ '_id': 1, 'date': 1, 'bodyLength': 1, 'preview': 1 }";
+	String MODIFIED_SINCE_FILTER = "{ 'modifiedAt': { $gte: ?0 } }";
+	String PATIENT_FIELDS = "{ '_id': 0, 'patId': 1 }";
+
 	/**
 	 * Récupère une liste de notes médicales associées à un patient triées par date de manière décroissante.
 	 * @param patId Identifiant du patient.
 	 * @return Liste de notes médicales triées par date de manière décroissante.
 	 */
+	@Query(value = BY_PATIENT_FILTER, sort = DATE_SORT)
 	List<Note> findByPatIdOrderByDateDesc(Integer patId);
 
+	/**
+	 * Récupère les notes médicales d'un patient écrites sur une période, triées par date de manière décroissante.
+	 * La recherche est servie par l'index (patId, date, _id, bodyLength, preview).
+	 * @param patId Identifiant du patient.
+	 * @param from Début de la période, inclus.
+	 * @param to Fin de la période, exclue.
+	 * @return Liste des notes de la période triées par date de manière décroissante.
+	 */
+	@Query(value = DATE_RANGE_FILTER, sort = DATE_SORT)
+	List<Note> findByPatIdAndDateRange(Integer patId, LocalDateTime from, LocalDateTime to);
+
+	/**
+	 * Récupère la première page des notes médicales d'un patient, triées par date puis par identifiant
+	 * de manière décroissante. La recherche est servie par l'index (patId, date, _id, bodyLength, preview).
+	 * @param patId Identifiant du patient.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les notes les plus récentes du patient.
+	 */
+	@Query(value = BY_PATIENT_FILTER, sort = PAGE_SORT)
+	List<Note> findFirstPage(Integer patId, Pageable pageable);
+
+	/**
+	 * Récupère la page des notes médicales d'un patient qui suivent une note, triées par date puis par identifiant
+	 * de manière décroissante. La recherche reprend l'index des notes à la date de la note,
+	 * sans parcourir les notes des pages précédentes ; seules les notes de même date sont filtrées par identifiant,
+	 * et les notes sans date, classées en dernier, sont toutes retenues.
+	 * @param patId Identifiant du patient.
+	 * @param date Date de la dernière note de la page précédente.
+	 * @param id Identifiant chaîne de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les notes suivantes du patient.
+	 */
+	@Query(value = PAGE_AFTER_FILTER, sort = PAGE_SORT)
+	List<Note> findPageAfter(Integer patId, LocalDateTime date, String id, Pageable pageable);
+
+	/**
+	 * Récupère la page des notes médicales d'un patient qui suivent une note d'identifiant ObjectId : les notes
+	 * de même date d'identifiant chaîne, qui suivent les ObjectId dans l'ordre décroissant, sont toutes retenues.
+	 * @param patId Identifiant du patient.
+	 * @param date Date de la dernière note de la page précédente.
+	 * @param id Identifiant ObjectId de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les notes suivantes du patient.
+	 */
+	@Query(value = PAGE_AFTER_OBJECT_ID_FILTER, sort = PAGE_SORT)
+	List<Note> findPageAfterObjectId(Integer patId, LocalDateTime date, ObjectId id, Pageable pageable);
+
+	/**
+	 * Récupère la page des notes médicales d'un patient qui suivent une note sans date : les notes sans date
+	 * d'identifiant inférieur, triées par identifiant de manière décroissante.
+	 * @param patId Identifiant du patient.
+	 * @param id Identifiant chaîne de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les notes suivantes du patient.
+	 */
+	@Query(value = UNDATED_PAGE_AFTER_FILTER, sort = PAGE_SORT)
+	List<Note> findUndatedPageAfter(Integer patId, String id, Pageable pageable);
+
+	/**
+	 * Récupère la page des notes médicales d'un patient qui suivent une note sans date d'identifiant ObjectId :
+	 * les notes sans date d'identifiant chaîne sont toutes retenues.
+	 * @param patId Identifiant du patient.
+	 * @param id Identifiant ObjectId de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les notes suivantes du patient.
+	 */
+	@Query(value = UNDATED_PAGE_AFTER_OBJECT_ID_FILTER, sort = PAGE_SORT)
+	List<Note> findUndatedPageAfterObjectId(Integer patId, ObjectId id, Pageable pageable);
+
+	/**
+	 * Récupère les en-têtes de la première page des notes médicales d'un patient, triées par date puis
+	 * par identifiant de manière décroissante. Tous les champs lus étant dans l'index (patId, date, _id,
+	 * bodyLength, preview), la requête est couverte : les notes elles-mêmes ne sont pas lues.
+	 * @param patId Identifiant du patient.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les en-têtes des notes les plus récentes du patient.
+	 */
+	@Query(value = BY_PATIENT_FILTER, fields = HEADER_FIELDS, sort = PAGE_SORT)
+	List<NoteHeader> findHeadersFirstPage(Integer patId, Pageable pageable);
+
+	/**
+	 * Récupère les en-têtes de la page des notes médicales d'un patient qui suivent une note,
+	 * par une requête couverte par l'index (patId, date, _id, bodyLength, preview).
+	 * @param patId Identifiant du patient.
+	 * @param date Date de la dernière note de la page précédente.
+	 * @param id Identifiant chaîne de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les en-têtes des notes suivantes du patient.
+	 */
+	@Query(value = PAGE_AFTER_FILTER, fields = HEADER_FIELDS, sort = PAGE_SORT)
+	List<NoteHeader> findHeadersPageAfter(Integer patId, LocalDateTime date, String id, Pageable pageable);
+
+	/**
+	 * Récupère les en-têtes de la page des notes médicales d'un patient qui suivent une note d'identifiant ObjectId,
+	 * par une requête couverte par l'index (patId, date, _id, bodyLength, preview).
+	 * @param patId Identifiant du patient.
+	 * @param date Date de la dernière note de la page précédente.
+	 * @param id Identifiant ObjectId de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les en-têtes des notes suivantes du patient.
+	 */
+	@Query(value = PAGE_AFTER_OBJECT_ID_FILTER, fields = HEADER_FIELDS, sort = PAGE_SORT)
+	List<NoteHeader> findHeadersPageAfterObjectId(Integer patId, LocalDateTime date, ObjectId id, Pageable pageable);
+
+	/**
+	 * Récupère les en-têtes de la page des notes médicales d'un patient qui suivent une note sans date.
+	 * @param patId Identifiant du patient.
+	 * @param id Identifiant chaîne de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les en-têtes des notes suivantes du patient.
+	 */
+	@Query(value = UNDATED_PAGE_AFTER_FILTER, fields = HEADER_FIELDS, sort = PAGE_SORT)
+	List<NoteHeader> findHeadersUndatedPageAfter(Integer patId, String id, Pageable pageable);
+
+	/**
+	 * Récupère les en-têtes de la page des notes médicales d'un patient qui suivent une note sans date
+	 * d'identifiant ObjectId.
+	 * @param patId Identifiant du patient.
+	 * @param id Identifiant ObjectId de la dernière note de la page précédente.
+	 * @param pageable Taille de la page (la première page seulement).
+	 * @return Les en-têtes des notes suivantes du patient.
+	 */
+	@Query(value = UNDATED_PAGE_AFTER_OBJECT_ID_FILTER, fields = HEADER_FIELDS, sort = PAGE_SORT)
+	List<NoteHeader> findHeadersUndatedPageAfterObjectId(Integer patId, ObjectId id, Pageable pageable);
+
+	/**
+	 * Récupère les patients dont au moins une note a été créée ou modifiée depuis une date.
+	 * La recherche et le regroupement sont servis par l'index (modifiedAt, patId), sans lire les notes.
+	 * @param since Date à partir de laquelle les enregistrements sont pris en compte, incluse.
+	 * @return Les identifiants des patients, sans doublon.
+	 */
+	@Aggregation(pipeline = { "{ $match: " + MODIFIED_SINCE_FILTER + " }", "{ $group: { '_id': '$patId' } }" })
+	List<Integer> findPatientIdsModifiedSince(LocalDateTime since);
+
 }
@@ -0,0 +1,22 @@
+package fr.dior.patientNote.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import fr.dior.patientNote.model.NoteExportFilter;
+/**
+ * Interface de service pour l'export des notes.
+ */
+public interface INoteExportService {
+
+	/**
+	 * Exporte les notes au format NDJSON (une note par ligne), par patient puis de la plus récente à la plus ancienne.
+	 * @param filter : Patients, période et note après laquelle reprendre un export interrompu.
+	 * @param out : Flux sur lequel les notes sont écrites au fur et à mesure de leur lecture.
+	 * @return Le nombre de notes exportées.
+	 * @throws IllegalArgumentException si la note de reprise n'existe pas.
+	 * @throws IOException si le flux ne peut pas être écrit.
+	 */
+	long exportNotes(NoteExportFilter filter, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,20 @@
+package fr.dior.patientNote.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import fr.dior.patientNote.model.NoteImportResult;
+/**
+ * Interface de service pour l'import de notes en masse.
+ */
+public interface INoteImportService {
+
+	/**
+	 * Importe les notes d'un flux JSON, tableau de notes ou une note par ligne (NDJSON).
+	 * @param notes : Flux des notes à importer, lu au fur et à mesure.
+	 * @return Le bilan de l'import, avec les notes qui n'ont pas été enregistrées.
+	 * @throws IOException si le flux ne peut pas être lu.
+	 */
+	NoteImportResult importNotes(InputStream notes) throws IOException;
+
+}
@@ -0,0 +1,29 @@
+package fr.dior.patientNote.service;
+
+import java.util.List;
+
+import fr.dior.patientNote.model.QueryPlanCheck;
+/**
+ * Interface de service pour la gestion des index de la collection des notes.
+ */
+public interface INoteIndexService {
+
+	/**
+	 * Calcule la longueur et le début du contenu des notes enregistrées sans ces champs, une seule fois.
+	 * @return Le nombre de notes complétées, 0 si c'était déjà fait.
+	 */
+	long ensureHeaders();
+
+	/**
+	 * Crée les index déclarés qui n'existent pas encore et supprime les anciens index remplacés.
+	 * @return Les noms des index gérés.
+	 */
+	List<String> ensureIndexes();
+
+	/**
+	 * Vérifie le plan d'exécution de chaque requête du repository avec explain.
+	 * @return Le résultat de la vérification de chaque requête.
+	 */
+	List<QueryPlanCheck> checkQueryPlans();
+
+}
@@ -1,13 +1,23 @@
 package fr.dior.patientNote.service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeaderPage;
+import fr.dior.patientNote.model.NotePage;
 /**
  * Interface de service pour les opérations liées aux notes médicales.
  */
 public interface IPatientNoteService {
 
+	/**
+	 * Nombre maximal de notes d'une page de l'historique.
+	 */
+	int MAX_PAGE_SIZE = 100;
+
 	/**
 	 * Récupère toutes les notes d'un patient identifié par son ID.
 	 * @param patId : Identifiant du patient.
@@ -15,6 +25,43 @@ public interface IPatientNoteService {
 	 */
 	Iterable<Note> getNotesByPatientId(Integer patId);
 
+	/**
+	 * Récupère une page de l'historique des notes d'un patient, de la plus récente à la plus ancienne.
+	 * @param patId : Identifiant du patient.
+	 * @param size : Nombre maximal de notes de la page, entre 1 et MAX_PAGE_SIZE.
+	 * @param after : Jeton de la page suivante renvoyé par la page précédente, null pour la première page.
+	 * @return La page de notes et le jeton de la page suivante.
+	 * @throws IllegalArgumentException si la taille ou le jeton n'est pas valide.
+	 */
+	NotePage getNotesPageByPatientId(Integer patId, int size, String after);
+
+	/**
+	 * Récupère une page des en-têtes (identifiant, date, longueur et début du contenu) de l'historique
+	 * des notes d'un patient, de la plus récente à la plus ancienne, sans charger le contenu des notes.
+	 * @param patId : Identifiant du patient.
+	 * @param size : Nombre maximal d'en-têtes de la page, entre 1 et MAX_PAGE_SIZE.
+	 * @param after : Jeton de la page suivante renvoyé par la page précédente, null pour la première page.
+	 * @return La page d'en-têtes et le jeton de la page suivante.
+	 * @throws IllegalArgumentException si la taille ou le jeton n'est pas valide.
+	 */
+	NoteHeaderPage getNoteHeadersPageByPatientId(Integer patId, int size, String after);
+
+	/**
+	 * Récupère les notes d'un patient écrites sur une période.
+	 * @param patId : Identifiant du patient.
+	 * @param from : Premier jour de la période, null pour le début de l'historique.
+	 * @param to : Dernier jour de la période, null pour la fin de l'historique.
+	 * @return Liste des notes de la période triées par date de manière décroissante.
+	 */
+	Iterable<Note> getNotesByPatientIdAndDate(Integer patId, LocalDate from, LocalDate to);
+
+	/**
+	 * Récupère les patients dont au moins une note a été créée, modifiée ou importée depuis une date.
+	 * @param since : Date à partir de laquelle les enregistrements sont pris en compte, incluse.
+	 * @return Les identifiants des patients, sans doublon.
+	 */
+	List<Integer> getPatientIdsWithNotesModifiedSince(LocalDateTime since);
+
 	/**
 	 * Récupère la note identifiée par son ID.
 	 * @param id : Identifiant de la note.
@@ -0,0 +1,156 @@
+package fr.dior.patientNote.serviceImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import fr.dior.patientNote.config.NoteIndexes;
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteExportFilter;
+import fr.dior.patientNote.service.INoteExportService;
+
+/**
+ * Export des notes par un curseur MongoDB : les notes sont lues par lots et écrites une à une sur le flux
+ * de la réponse. L'écriture étant bloquante, un client lent ralentit la lecture du curseur, dont le lot
+ * suivant n'est demandé qu'une fois le précédent écrit ; la mémoire utilisée ne dépend donc pas
+ * du nombre de notes exportées.
+ */
+@Service
+public class NoteExportServiceImpl implements INoteExportService {
+
+	private static final Logger log = LoggerFactory.getLogger(NoteExportServiceImpl.class);
+
+	// Ordre de l'index (patId, date, _id, bodyLength, preview), que le curseur parcourt sans tri en mémoire
+	private static final Sort EXPORT_SORT = Sort.by(Direction.ASC, "patId")
+			.and(Sort.by(Direction.DESC, "date"))
+			.and(Sort.by(Direction.DESC, "id"));
+
+	private static final String EXPORT_INDEX = NoteIndexes.PATIENT_DATE_ID_HEADER.getIndexOptions().getString("name");
+
+	private final MongoTemplate mongoTemplate;
+
+	private final ObjectWriter noteWriter;
+
+	private final int batchSize;
+
+	public NoteExportServiceImpl(
+			MongoTemplate mongoTemplate,
+			ObjectMapper objectMapper,
+			@Value("${patientNote.export.batch-size:1000}") int batchSize) {
+		this.mongoTemplate = mongoTemplate;
+		// Le flux est vidé par le serveur à chaque tampon rempli, et non après chaque note
+		this.noteWriter = objectMapper.writerFor(Note.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Exporte les notes au format NDJSON (une note par ligne), par patient puis de la plus récente à la plus ancienne.
+	 * Un export interrompu est repris avec l'identifiant de la dernière note reçue : le curseur repart
+	 * de sa position (patId, date, _id) dans l'index, sans relire les notes déjà exportées.
+	 * @param filter : Patients, période et note après laquelle reprendre un export interrompu.
+	 * @param out : Flux sur lequel les notes sont écrites au fur et à mesure de leur lecture.
+	 * @return Le nombre de notes exportées.
+	 * @throws IllegalArgumentException si la note de reprise n'existe pas.
+	 * @throws IOException si le flux ne peut pas être écrit, notamment si le client s'est déconnecté.
+	 */
+	@Override
+	public long exportNotes(NoteExportFilter filter, OutputStream out) throws IOException {
+		Query query = new Query(exportCriteria(filter))
+				.with(EXPORT_SORT)
+				.withHint(EXPORT_INDEX)
+				.cursorBatchSize(batchSize)
+				.noCursorTimeout();
+		long exported = 0;
+		try (Stream<Note> notes = mongoTemplate.stream(query, Note.class);
+				JsonGenerator generator = noteWriter.getFactory().createGenerator(out)) {
+			// Le flux de la réponse reste à fermer par le serveur
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			Iterator<Note> iterator = notes.iterator();
+			while (iterator.hasNext()) {
+				noteWriter.writeValue(generator, iterator.next());
+				generator.writeRaw('\n');
+				exported++;
+			}
+		} catch (IOException e) {
+			log.warn("Notes export interrupted after {} notes", exported);
+			throw e;
+		}
+		log.info("Exported {} notes", exported);
+		return exported;
+	}
+
+	// Filtre de l'export : bornes de patients et de dates sur l'index, puis position de reprise
+	private Criteria exportCriteria(NoteExportFilter filter) {
+		List<Criteria> criteria = new ArrayList<Criteria>();
+		Note last = null;
+		if (filter.getAfter() != null && !filter.getAfter().isEmpty()) {
+			last = mongoTemplate.findById(filter.getAfter(), Note.class);
+			if (last == null) {
+				throw new IllegalArgumentException("Unknown note " + filter.getAfter());
+			}
+		}
+		Integer fromPatId = last != null ? last.getPatId() : filter.getFromPatId();
+		if (fromPatId != null || filter.getToPatId() != null) {
+			Criteria patId = Criteria.where("patId");
+			if (fromPatId != null) {
+				patId.gte(fromPatId);
+			}
+			if (filter.getToPatId() != null) {
+				patId.lte(filter.getToPatId());
+			}
+			criteria.add(patId);
+		}
+		if (filter.getFrom() != null || filter.getTo() != null) {
+			Criteria date = Criteria.where("date");
+			if (filter.getFrom() != null) {
+				date.gte(filter.getFrom().atStartOfDay());
+			}
+			if (filter.getTo() != null) {
+				date.lt(filter.getTo().plusDays(1).atStartOfDay());
+			}
+			criteria.add(date);
+		}
+		if (last != null) {
+			criteria.add(after(last));
+		}
+		return criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria);
+	}
+
+	// Notes qui suivent une note dans l'ordre de l'export : patients suivants, notes plus anciennes du même patient,
+	// puis notes de même date d'identifiant inférieur (les identifiants chaînes suivant les ObjectId en ordre décroissant)
+	private static Criteria after(Note last) {
+		LocalDateTime date = last.getDate();
+		List<Criteria> next = new ArrayList<Criteria>();
+		next.add(Criteria.where("patId").gt(last.getPatId()));
+		next.add(Criteria.where("date").lt(date));
+		if (ObjectId.isValid(last.getId())) {
+			next.add(Criteria.where("date").is(date).and("id").lt(new ObjectId(last.getId())));
+			next.add(Criteria.where("date").is(date).and("id").type(JsonSchemaObject.Type.stringType()));
+		} else {
+			next.add(Criteria.where("date").is(date).and("id").lt(last.getId()));
+		}
+		return new Criteria().orOperator(next);
+	}
+
+}
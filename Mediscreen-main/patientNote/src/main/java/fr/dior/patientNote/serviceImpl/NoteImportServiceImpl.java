@@ -0,0 +1,247 @@
+package fr.dior.patientNote.serviceImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
+import fr.dior.patientNote.model.NoteImportFailure;
+import fr.dior.patientNote.model.NoteImportResult;
+import fr.dior.patientNote.service.INoteImportService;
+
+/**
+ * Import de notes en masse : le flux est lu note par note, les notes sont regroupées en lots
+ * écrits par insertMany non ordonné, au plus un lot par thread d'écriture étant en cours.
+ * La mémoire utilisée est donc bornée par la taille des lots, quel que soit le nombre de notes importées.
+ */
+@Service
+public class NoteImportServiceImpl implements INoteImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(NoteImportServiceImpl.class);
+
+	private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+	private final MongoTemplate mongoTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	private final ExecutorService importExecutor;
+
+	private final int batchSize;
+
+	private final int maxInFlight;
+
+	private final int maxReportedFailures;
+
+	public NoteImportServiceImpl(
+			MongoTemplate mongoTemplate,
+			ObjectMapper objectMapper,
+			@Qualifier("importExecutor") ExecutorService importExecutor,
+			@Value("${patientNote.import.batch-size:1000}") int batchSize,
+			@Value("${patientNote.import.threads:4}") int maxInFlight,
+			@Value("${patientNote.import.max-reported-failures:1000}") int maxReportedFailures) {
+		this.mongoTemplate = mongoTemplate;
+		this.objectMapper = objectMapper;
+		this.importExecutor = importExecutor;
+		this.batchSize = batchSize;
+		this.maxInFlight = maxInFlight;
+		this.maxReportedFailures = maxReportedFailures;
+	}
+
+	/**
+	 * Importe les notes d'un flux JSON, tableau de notes ou une note par ligne (NDJSON).
+	 * Une note mal formée, sans patient ou sans contenu, ou refusée par MongoDB (identifiant déjà présent)
+	 * est signalée sans empêcher l'import des autres ; une erreur de syntaxe JSON interrompt la lecture du flux,
+	 * les notes déjà lues étant enregistrées. Une note sans date est datée de l'import.
+	 * @param notes : Flux des notes à importer, lu au fur et à mesure.
+	 * @return Le bilan de l'import, avec les premières notes qui n'ont pas été enregistrées.
+	 * @throws IOException si le flux ne peut pas être lu.
+	 */
+	@Override
+	public NoteImportResult importNotes(InputStream notes) throws IOException {
+		long start = System.currentTimeMillis();
+		MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Note.class));
+		NoteImportResult result = NoteImportResult.builder().failures(new ArrayList<NoteImportFailure>()).build();
+		Deque<CompletableFuture<BatchResult>> inFlight = new ArrayDeque<CompletableFuture<BatchResult>>();
+		Batch batch = new Batch(batchSize);
+		LocalDateTime importDate = LocalDateTime.now();
+		try (MappingIterator<Note> iterator = objectMapper.readerFor(Note.class).readValues(notes)) {
+			long record = 0;
+			while (true) {
+				try {
+					if (!iterator.hasNextValue()) {
+						break;
+					}
+					Note note = iterator.nextValue();
+					String invalid = note.getPatId() == null ? "patId is required"
+							: note.getBody() == null ? "body is required" : null;
+					if (invalid != null) {
+						addFailure(result, record, note.getPatId(), invalid);
+					} else {
+						batch.add(record, toDocument(note, importDate));
+					}
+				} catch (JsonParseException e) {
+					addFailure(result, record, null, e.getOriginalMessage());
+					result.setAborted(true);
+					record++;
+					break;
+				} catch (JsonMappingException e) {
+					addFailure(result, record, null, e.getOriginalMessage());
+				}
+				record++;
+				if (batch.size() == batchSize) {
+					submit(collection, batch, inFlight, result);
+					batch = new Batch(batchSize);
+				}
+			}
+			result.setReceived(record);
+		} finally {
+			if (batch.size() > 0) {
+				submit(collection, batch, inFlight, result);
+			}
+			while (!inFlight.isEmpty()) {
+				merge(result, inFlight.poll().join());
+			}
+		}
+		result.setDurationMillis(System.currentTimeMillis() - start);
+		log.info("Imported {} notes out of {} in {} ms, {} failed", result.getInserted(), result.getReceived(),
+				result.getDurationMillis(), result.getFailed());
+		return result;
+	}
+
+	// Document tel qu'écrit par Spring Data pour une note, avec la longueur et le début de son contenu ;
+	// la date d'enregistrement est ajoutée à l'envoi du lot
+	private Document toDocument(Note note, LocalDateTime importDate) {
+		Document document = new Document();
+		if (note.getId() != null) {
+			document.put("_id", ObjectId.isValid(note.getId()) ? new ObjectId(note.getId()) : note.getId());
+		}
+		LocalDateTime date = note.getDate() == null ? importDate : note.getDate();
+		return document
+				.append("patId", note.getPatId())
+				.append("date", mongoTemplate.getConverter().convertToMongoType(date))
+				.append("body", note.getBody())
+				.append("bodyLength", NoteHeader.bodyLength(note.getBody()))
+				.append("preview", NoteHeader.preview(note.getBody()))
+				.append("_class", Note.class.getName());
+	}
+
+	// Écrit un lot sur le pool d'écriture, après avoir attendu le plus ancien lot si trop de lots sont en cours
+	private void submit(MongoCollection<Document> collection, Batch batch, Deque<CompletableFuture<BatchResult>> inFlight,
+			NoteImportResult result) {
+		if (inFlight.size() >= maxInFlight) {
+			merge(result, inFlight.poll().join());
+		}
+		// Date d'enregistrement des notes du lot, comme pour une note enregistrée par Spring Data
+		Object modifiedAt = mongoTemplate.getConverter().convertToMongoType(LocalDateTime.now());
+		for (Document document : batch.documents) {
+			document.put("modifiedAt", modifiedAt);
+		}
+		inFlight.add(CompletableFuture.supplyAsync(() -> insert(collection, batch), importExecutor));
+	}
+
+	// Écriture d'un lot par un seul insertMany non ordonné : une note refusée n'empêche pas l'écriture des autres
+	private static BatchResult insert(MongoCollection<Document> collection, Batch batch) {
+		BatchResult batchResult = new BatchResult();
+		try {
+			collection.insertMany(batch.documents, UNORDERED);
+			batchResult.inserted = batch.size();
+		} catch (MongoBulkWriteException e) {
+			batchResult.inserted = e.getWriteResult().getInsertedCount();
+			for (BulkWriteError error : e.getWriteErrors()) {
+				batchResult.failures.add(batch.failure(error.getIndex(), error.getMessage()));
+			}
+		} catch (RuntimeException e) {
+			log.error("A batch of {} notes could not be written", batch.size(), e);
+			for (int i = 0; i < batch.size(); i++) {
+				batchResult.failures.add(batch.failure(i, e.getMessage()));
+			}
+		}
+		return batchResult;
+	}
+
+	private void merge(NoteImportResult result, BatchResult batchResult) {
+		result.setInserted(result.getInserted() + batchResult.inserted);
+		for (NoteImportFailure failure : batchResult.failures) {
+			addFailure(result, failure);
+		}
+	}
+
+	private void addFailure(NoteImportResult result, long record, Integer patId, String message) {
+		addFailure(result, NoteImportFailure.builder().record(record).patId(patId).message(message).build());
+	}
+
+	// Seuls les premiers échecs sont détaillés, pour que le bilan reste de taille bornée
+	private void addFailure(NoteImportResult result, NoteImportFailure failure) {
+		result.setFailed(result.getFailed() + 1);
+		if (result.getFailures().size() < maxReportedFailures) {
+			result.getFailures().add(failure);
+		}
+	}
+
+	// Lot de documents à écrire, avec la position de chacun dans le flux importé
+	private static final class Batch {
+
+		private final List<Document> documents;
+
+		private final long[] records;
+
+		private Batch(int capacity) {
+			this.documents = new ArrayList<Document>(capacity);
+			this.records = new long[capacity];
+		}
+
+		private void add(long record, Document document) {
+			records[documents.size()] = record;
+			documents.add(document);
+		}
+
+		private int size() {
+			return documents.size();
+		}
+
+		private NoteImportFailure failure(int index, String message) {
+			return NoteImportFailure.builder()
+					.record(records[index])
+					.patId(documents.get(index).getInteger("patId"))
+					.message(message)
+					.build();
+		}
+
+	}
+
+	// Bilan de l'écriture d'un lot, fusionné dans le bilan de l'import par le thread de lecture
+	private static final class BatchResult {
+
+		private long inserted;
+
+		private final List<NoteImportFailure> failures = new ArrayList<NoteImportFailure>();
+
+	}
+
+}
@@ -0,0 +1,168 @@
+package fr.dior.patientNote.serviceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientNote.config.NoteIndexes;
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
+import fr.dior.patientNote.model.QueryPlanCheck;
+import fr.dior.patientNote.service.INoteIndexService;
+
+@Service
+public class NoteIndexServiceImpl implements INoteIndexService {
+
+	private static final Logger log = LoggerFactory.getLogger(NoteIndexServiceImpl.class);
+
+	// Paramètre ?n d'une requête déclarée par @Query
+	private static final Pattern PARAMETER = Pattern.compile("\\?(\\d+)");
+
+	// Collection des migrations appliquées, un document par migration
+	static final String MIGRATIONS_COLLECTION = "migrations";
+
+	// Migration d'ajout des en-têtes, à appliquer de nouveau si la longueur du début du contenu change
+	static final String HEADERS_MIGRATION = "note-headers-" + NoteHeader.PREVIEW_LENGTH;
+
+	private final MongoTemplate mongoTemplate;
+
+	public NoteIndexServiceImpl(MongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	/**
+	 * Calcule la longueur et le début du contenu des notes enregistrées sans ces champs,
+	 * par une seule mise à jour exécutée par MongoDB. La recherche des notes sans en-tête parcourt
+	 * toute la collection : elle n'est faite qu'une fois, un document de migration la marquant comme appliquée
+	 * (les notes enregistrées ou importées ensuite reçoivent leur en-tête à l'écriture).
+	 * @return Le nombre de notes complétées, 0 si la migration était déjà appliquée.
+	 */
+	@Override
+	public long ensureHeaders() {
+		if (mongoTemplate.exists(new Query(Criteria.where("_id").is(HEADERS_MIGRATION)), MIGRATIONS_COLLECTION)) {
+			return 0;
+		}
+		Query withoutHeader = new Query(Criteria.where("preview").exists(false)
+				.and("body").type(JsonSchemaObject.Type.stringType()));
+		AggregationUpdate header = AggregationUpdate.update()
+				.set("bodyLength").toValue(StringOperators.valueOf("body").lengthCP())
+				.set("preview").toValue(StringOperators.valueOf("body").substringCP(0, NoteHeader.PREVIEW_LENGTH));
+		long updated = mongoTemplate.updateMulti(withoutHeader, header, Note.class).getModifiedCount();
+		log.info("Header added to {} notes", updated);
+		mongoTemplate.save(new Document("_id", HEADERS_MIGRATION)
+				.append("appliedAt", LocalDateTime.now())
+				.append("updated", updated), MIGRATIONS_COLLECTION);
+		return updated;
+	}
+
+	/**
+	 * Crée les index déclarés dans NoteIndexes qui n'existent pas encore et supprime les anciens index remplacés.
+	 * @return Les noms des index gérés.
+	 */
+	@Override
+	public List<String> ensureIndexes() {
+		IndexOperations indexOperations = mongoTemplate.indexOps(Note.class);
+		List<String> names = new ArrayList<String>();
+		for (Index index : NoteIndexes.INDEXES) {
+			names.add(indexOperations.ensureIndex(index));
+		}
+		for (IndexInfo indexInfo : indexOperations.getIndexInfo()) {
+			if (NoteIndexes.OBSOLETE_INDEXES.contains(indexInfo.getName())) {
+				log.info("Drop obsolete index {} of the notes collection", indexInfo.getName());
+				indexOperations.dropIndex(indexInfo.getName());
+			}
+		}
+		log.info("Indexes of the notes collection : {}", names);
+		return names;
+	}
+
+	/**
+	 * Vérifie le plan d'exécution de chaque requête du repository avec explain, les paramètres
+	 * étant remplacés par des valeurs d'exemple. Un plan contenant une étape COLLSCAN ou SORT
+	 * n'est pas servi par un index ; un plan d'une requête d'en-têtes contenant une étape FETCH n'est pas couvert.
+	 * @return Le résultat de la vérification de chaque requête.
+	 */
+	@Override
+	public List<QueryPlanCheck> checkQueryPlans() {
+		String collection = mongoTemplate.getCollectionName(Note.class);
+		List<QueryPlanCheck> checks = new ArrayList<QueryPlanCheck>();
+		for (Map.Entry<String, List<String>> shape : NoteIndexes.QUERY_SHAPES.entrySet()) {
+			Document find = new Document("find", collection)
+					.append("filter", Document.parse(bind(shape.getValue().get(0))))
+					.append("sort", Document.parse(shape.getValue().get(1)));
+			boolean projected = shape.getValue().size() > 2;
+			if (projected) {
+				find.append("projection", Document.parse(shape.getValue().get(2)));
+			}
+			Document explain = mongoTemplate.getDb().runCommand(
+					new Document("explain", find).append("verbosity", "queryPlanner"));
+			Document queryPlanner = explain.get("queryPlanner", Document.class);
+			Set<String> stages = new LinkedHashSet<String>();
+			Set<String> indexes = new LinkedHashSet<String>();
+			collect(queryPlanner == null ? null : queryPlanner.get("winningPlan"), stages, indexes);
+			boolean covered = !stages.contains(NoteIndexes.FETCH_STAGE);
+			boolean indexed = stages.stream().noneMatch(NoteIndexes.FORBIDDEN_STAGES::contains)
+					&& (!projected || covered);
+			checks.add(QueryPlanCheck.builder()
+					.query(shape.getKey())
+					.stages(new ArrayList<String>(stages))
+					.indexes(new ArrayList<String>(indexes))
+					.covered(covered)
+					.indexed(indexed)
+					.build());
+		}
+		return checks;
+	}
+
+	// Remplace les paramètres ?n d'une requête par leurs valeurs d'exemple
+	private static String bind(String query) {
+		Matcher matcher = PARAMETER.matcher(query);
+		StringBuilder bound = new StringBuilder();
+		while (matcher.find()) {
+			String value = NoteIndexes.SAMPLE_PARAMETERS.get(Integer.parseInt(matcher.group(1)));
+			matcher.appendReplacement(bound, Matcher.quoteReplacement(value));
+		}
+		matcher.appendTail(bound);
+		return bound.toString();
+	}
+
+	// Parcourt un plan d'exécution et relève ses étapes et les index utilisés
+	private static void collect(Object plan, Set<String> stages, Set<String> indexes) {
+		if (plan instanceof Document) {
+			Document document = (Document) plan;
+			if (document.get("stage") instanceof String) {
+				stages.add(document.getString("stage"));
+			}
+			if (document.get("indexName") instanceof String) {
+				indexes.add(document.getString("indexName"));
+			}
+			for (Object value : document.values()) {
+				collect(value, stages, indexes);
+			}
+		} else if (plan instanceof List) {
+			for (Object value : (List<?>) plan) {
+				collect(value, stages, indexes);
+			}
+		}
+	}
+
+}
@@ -1,15 +1,24 @@
 package fr.dior.patientNote.serviceImpl;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
+import fr.dior.patientNote.model.NoteHeaderPage;
+import fr.dior.patientNote.model.NotePage;
 import fr.dior.patientNote.repository.PatientNoteRepository;
 import fr.dior.patientNote.service.IPatientNoteService;
 
@@ -18,6 +27,14 @@ public class PatientNoteServiceImpl implements IPatientNoteService {
 
 	private static final Logger log = LoggerFactory.getLogger(PatientNoteServiceImpl.class); 
 
+	// Bornes utilisées lorsque le début ou la fin de la période n'est pas précisé
+	private static final LocalDateTime FIRST_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+	private static final LocalDateTime LAST_DATE = LocalDateTime.of(10000, 1, 1, 0, 0);
+
+	// Séparateur de la date et de l'identifiant dans un jeton de page, dont la date est vide pour une note sans date
+	private static final char CURSOR_SEPARATOR = '|';
+
 	private PatientNoteRepository patientNoteRepository;
 	
 	public PatientNoteServiceImpl(PatientNoteRepository patientNoteRepository) {
@@ -40,6 +57,149 @@ public class PatientNoteServiceImpl implements IPatientNoteService {
 		return noteList;
 	}
 
+	/**
+	 * Récupère une page de l'historique des notes d'un patient, de la plus récente à la plus ancienne.
+	 * La page est lue à partir de la position (date, identifiant) de la dernière note de la page précédente,
+	 * son coût ne dépend donc pas de la profondeur de l'historique.
+	 * @param patId : Identifiant du patient.
+	 * @param size : Nombre maximal de notes de la page, entre 1 et MAX_PAGE_SIZE.
+	 * @param after : Jeton de la page suivante renvoyé par la page précédente, null pour la première page.
+	 * @return La page de notes et le jeton de la page suivante, null s'il n'y a plus de notes.
+	 * @throws IllegalArgumentException si la taille ou le jeton n'est pas valide.
+	 */
+	@Override
+	public NotePage getNotesPageByPatientId(Integer patId, int size, String after) {
+		log.info("Get a page of {} notes for patient with id = {} after {}",size,patId,after);
+		checkPageSize(size);
+		// Une note de plus que la taille de la page indique qu'il existe une page suivante
+		PageRequest limit = PageRequest.of(0, size + 1);
+		List<Note> notes;
+		if (after == null || after.isEmpty()) {
+			notes = patientNoteRepository.findFirstPage(patId, limit);
+		} else {
+			Note last = decodeCursor(after);
+			// Les identifiants au format ObjectId sont enregistrés comme tels par Spring Data
+			boolean objectId = ObjectId.isValid(last.getId());
+			if (last.getDate() == null) {
+				notes = objectId
+						? patientNoteRepository.findUndatedPageAfterObjectId(patId, new ObjectId(last.getId()), limit)
+						: patientNoteRepository.findUndatedPageAfter(patId, last.getId(), limit);
+			} else {
+				notes = objectId
+						? patientNoteRepository.findPageAfterObjectId(patId, last.getDate(), new ObjectId(last.getId()), limit)
+						: patientNoteRepository.findPageAfter(patId, last.getDate(), last.getId(), limit);
+			}
+		}
+		if (notes.size() <= size) {
+			return NotePage.builder().notes(notes).build();
+		}
+		List<Note> page = new ArrayList<Note>(notes.subList(0, size));
+		Note last = page.get(size - 1);
+		return NotePage.builder()
+				.notes(page)
+				.next(encodeCursor(last.getDate(), last.getId()))
+				.build();
+	}
+
+	/**
+	 * Récupère une page des en-têtes de l'historique des notes d'un patient, de la plus récente à la plus ancienne.
+	 * Les en-têtes sont lus dans l'index des notes sans charger leur contenu ; les jetons de page sont
+	 * les mêmes que ceux des pages de notes.
+	 * @param patId : Identifiant du patient.
+	 * @param size : Nombre maximal d'en-têtes de la page, entre 1 et MAX_PAGE_SIZE.
+	 * @param after : Jeton de la page suivante renvoyé par la page précédente, null pour la première page.
+	 * @return La page d'en-têtes et le jeton de la page suivante, null s'il n'y a plus de notes.
+	 * @throws IllegalArgumentException si la taille ou le jeton n'est pas valide.
+	 */
+	@Override
+	public NoteHeaderPage getNoteHeadersPageByPatientId(Integer patId, int size, String after) {
+		log.info("Get a page of {} note headers for patient with id = {} after {}",size,patId,after);
+		checkPageSize(size);
+		PageRequest limit = PageRequest.of(0, size + 1);
+		List<NoteHeader> headers;
+		if (after == null || after.isEmpty()) {
+			headers = patientNoteRepository.findHeadersFirstPage(patId, limit);
+		} else {
+			Note last = decodeCursor(after);
+			boolean objectId = ObjectId.isValid(last.getId());
+			if (last.getDate() == null) {
+				headers = objectId
+						? patientNoteRepository.findHeadersUndatedPageAfterObjectId(patId, new ObjectId(last.getId()), limit)
+						: patientNoteRepository.findHeadersUndatedPageAfter(patId, last.getId(), limit);
+			} else {
+				headers = objectId
+						? patientNoteRepository.findHeadersPageAfterObjectId(patId, last.getDate(), new ObjectId(last.getId()), limit)
+						: patientNoteRepository.findHeadersPageAfter(patId, last.getDate(), last.getId(), limit);
+			}
+		}
+		if (headers.size() <= size) {
+			return NoteHeaderPage.builder().headers(headers).build();
+		}
+		List<NoteHeader> page = new ArrayList<NoteHeader>(headers.subList(0, size));
+		NoteHeader last = page.get(size - 1);
+		return NoteHeaderPage.builder()
+				.headers(page)
+				.next(encodeCursor(last.getDate(), last.getId()))
+				.build();
+	}
+
+	private static void checkPageSize(int size) {
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+	}
+
+	// Jeton opaque d'une note : sa date (vide si elle n'en a pas) et son identifiant encodés en base64
+	private static String encodeCursor(LocalDateTime date, String id) {
+		String cursor = (date == null ? "" : date.toString()) + CURSOR_SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Date et identifiant de la note d'un jeton
+	private static Note decodeCursor(String token) {
+		try {
+			String cursor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = cursor.indexOf(CURSOR_SEPARATOR);
+			if (separator < 0 || separator == cursor.length() - 1) {
+				throw new IllegalArgumentException("Invalid page token " + token);
+			}
+			return Note.builder()
+					.date(separator == 0 ? null : LocalDateTime.parse(cursor.substring(0, separator)))
+					.id(cursor.substring(separator + 1))
+					.build();
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid page token " + token, e);
+		}
+	}
+
+	/**
+	 * Récupère les notes d'un patient écrites sur une période. Une note sans date n'appartient à aucune période,
+	 * même ouverte : PatientReport applique la même règle aux fenêtres d'historique.
+	 * @param patId : Identifiant du patient.
+	 * @param from : Premier jour de la période, null pour le début de l'historique.
+	 * @param to : Dernier jour de la période, null pour la fin de l'historique.
+	 * @return Liste des notes de la période triées par date de manière décroissante.
+	 */
+	@Override
+	public Iterable<Note> getNotesByPatientIdAndDate(Integer patId, LocalDate from, LocalDate to) {
+		log.info("Get notes for patient with id = {} from {} to {}",patId,from,to);
+		return patientNoteRepository.findByPatIdAndDateRange(patId,
+				from == null ? FIRST_DATE : from.atStartOfDay(),
+				to == null ? LAST_DATE : to.plusDays(1).atStartOfDay());
+	}
+
+	/**
+	 * Récupère les patients dont au moins une note a été créée, modifiée ou importée depuis une date,
+	 * pour que PatientReport réévalue leur risque.
+	 * @param since : Date à partir de laquelle les enregistrements sont pris en compte, incluse.
+	 * @return Les identifiants des patients, sans doublon.
+	 */
+	@Override
+	public List<Integer> getPatientIdsWithNotesModifiedSince(LocalDateTime since) {
+		log.info("Get patients with notes modified since {}",since);
+		return patientNoteRepository.findPatientIdsModifiedSince(since);
+	}
+
 	/**
 	 * Récupère la note identifiée par son ID.
 	 * @param id : Identifiant de la note.
@@ -0,0 +1,36 @@
+package fr.dior.patientNote.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
+
+public class NoteHeaderCallbackTest {
+
+	private final NoteHeaderCallback callback = new NoteHeaderCallback();
+
+	@Test
+	public void header_should_be_computed_from_the_body() {
+		Note note = callback.onBeforeConvert(Note.builder().body("Patient states that they are a Smoker").build(), "notes");
+		assertThat(note.getBodyLength()).isEqualTo(37);
+		assertThat(note.getPreview()).isEqualTo("Patient states that they are a Smoker");
+	}
+
+	@Test
+	public void preview_should_be_cut_without_splitting_a_character() {
+		String body = "x".repeat(NoteHeader.PREVIEW_LENGTH - 1) + "😀" + "end";
+		Note note = callback.onBeforeConvert(Note.builder().body(body).build(), "notes");
+		assertThat(note.getBodyLength()).isEqualTo(NoteHeader.PREVIEW_LENGTH + 3);
+		assertThat(note.getPreview()).endsWith("😀").hasSize(NoteHeader.PREVIEW_LENGTH + 1);
+	}
+
+	@Test
+	public void note_without_body_should_have_no_header() {
+		Note note = callback.onBeforeConvert(Note.builder().build(), "notes");
+		assertThat(note.getBodyLength()).isNull();
+		assertThat(note.getPreview()).isNull();
+	}
+
+}
@@ -0,0 +1,52 @@
+package fr.dior.patientNote.config;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.dior.patientNote.model.QueryPlanCheck;
+import fr.dior.patientNote.service.INoteIndexService;
+
+@ExtendWith(MockitoExtension.class)
+public class NoteIndexInitializerTest {
+
+	@Mock
+	private INoteIndexService noteIndexService;
+
+	private final List<QueryPlanCheck> checks = List.of(
+			QueryPlanCheck.builder().query("findFirstPage").indexed(true).build(),
+			QueryPlanCheck.builder().query("findPageAfter").stages(List.of("SORT", "COLLSCAN")).indexed(false).build());
+
+	@Test
+	public void fail_mode_should_stop_the_startup() {
+		when(noteIndexService.checkQueryPlans()).thenReturn(checks);
+		assertThatThrownBy(() -> new NoteIndexInitializer(noteIndexService, "fail").run(null))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("findPageAfter");
+		verify(noteIndexService).ensureIndexes();
+	}
+
+	@Test
+	public void warn_mode_should_only_log() {
+		when(noteIndexService.checkQueryPlans()).thenReturn(checks);
+		assertThatCode(() -> new NoteIndexInitializer(noteIndexService, "warn").run(null)).doesNotThrowAnyException();
+	}
+
+	@Test
+	public void off_mode_should_only_create_indexes() {
+		new NoteIndexInitializer(noteIndexService, "off").run(null);
+		verify(noteIndexService).ensureHeaders();
+		verify(noteIndexService).ensureIndexes();
+		verify(noteIndexService, never()).checkQueryPlans();
+	}
+
+}
@@ -0,0 +1,25 @@
+package fr.dior.patientNote.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import fr.dior.patientNote.model.Note;
+
+public class NoteModificationCallbackTest {
+
+	private final NoteModificationCallback callback = new NoteModificationCallback();
+
+	@Test
+	public void each_save_should_be_dated() {
+		LocalDateTime before = LocalDateTime.now();
+		Note note = callback.onBeforeConvert(Note.builder()
+				.body("Fumeur")
+				.modifiedAt(LocalDateTime.of(2020, 1, 1, 0, 0))
+				.build(), "notes");
+		assertThat(note.getModifiedAt()).isAfterOrEqualTo(before);
+	}
+
+}
@@ -0,0 +1,166 @@
+package fr.dior.patientNote.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteExportFilter;
+
+@ExtendWith(MockitoExtension.class)
+public class NoteExportServiceImplTest {
+
+	private NoteExportServiceImpl noteExportService;
+
+	@Mock
+	private MongoTemplate mongoTemplate;
+
+	@Captor
+	ArgumentCaptor<Query> queryCaptor;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@BeforeEach
+	public void init() {
+		noteExportService = new NoteExportServiceImpl(mongoTemplate, objectMapper, 500);
+	}
+
+	private static Note note(String id, Integer patId, String body) {
+		return Note.builder()
+				.id(id)
+				.patId(patId)
+				.date(LocalDateTime.of(2023, 4, 1, 10, 0))
+				.body(body)
+				.bodyLength(body.length())
+				.preview(body)
+				.build();
+	}
+
+	@Test
+	public void exportNotesTest() throws IOException {
+		//GIVEN
+		AtomicBoolean closed = new AtomicBoolean();
+		when(mongoTemplate.stream(queryCaptor.capture(), eq(Note.class))).thenReturn(
+				Stream.of(note("n1", 1, "Fumeur"), note("n2", 2, "Poids\nen hausse")).onClose(() -> closed.set(true)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		//WHEN
+		long exported = noteExportService.exportNotes(new NoteExportFilter(), out);
+
+		//THEN
+		assertThat(exported).isEqualTo(2);
+		assertThat(closed).isTrue();
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(2);
+		Note first = objectMapper.readValue(lines[0], Note.class);
+		assertThat(first.getId()).isEqualTo("n1");
+		assertThat(first.getDate()).isEqualTo(LocalDateTime.of(2023, 4, 1, 10, 0));
+		assertThat(lines[0]).doesNotContain("preview");
+		assertThat(objectMapper.readValue(lines[1], Note.class).getBody()).isEqualTo("Poids\nen hausse");
+		Query query = queryCaptor.getValue();
+		assertThat(query.getQueryObject()).isEmpty();
+		assertThat(query.getSortObject()).isEqualTo(new Document("patId", 1).append("date", -1).append("id", -1));
+		assertThat(query.getHint()).isEqualTo("patId_date_id_header");
+		assertThat(query.getMeta().getCursorBatchSize()).isEqualTo(500);
+	}
+
+	@Test
+	public void exportNotesFilterTest() throws IOException {
+		//GIVEN
+		when(mongoTemplate.stream(queryCaptor.capture(), eq(Note.class))).thenReturn(Stream.empty());
+		NoteExportFilter filter = NoteExportFilter.builder()
+				.fromPatId(10)
+				.toPatId(20)
+				.from(LocalDate.of(2021, 1, 1))
+				.to(LocalDate.of(2021, 12, 31))
+				.build();
+
+		//WHEN
+		long exported = noteExportService.exportNotes(filter, new ByteArrayOutputStream());
+
+		//THEN
+		assertThat(exported).isZero();
+		List<Document> and = queryCaptor.getValue().getQueryObject().getList("$and", Document.class);
+		assertThat(and.get(0)).isEqualTo(new Document("patId", new Document("$gte", 10).append("$lte", 20)));
+		assertThat(and.get(1)).isEqualTo(new Document("date", new Document("$gte", LocalDateTime.of(2021, 1, 1, 0, 0))
+				.append("$lt", LocalDateTime.of(2022, 1, 1, 0, 0))));
+	}
+
+	@Test
+	public void exportNotesAfterTest() throws IOException {
+		//GIVEN
+		when(mongoTemplate.findById("n1", Note.class)).thenReturn(note("n1", 12, "Fumeur"));
+		when(mongoTemplate.stream(queryCaptor.capture(), eq(Note.class))).thenReturn(Stream.empty());
+
+		//WHEN
+		noteExportService.exportNotes(NoteExportFilter.builder().fromPatId(10).after("n1").build(),
+				new ByteArrayOutputStream());
+
+		//THEN
+		List<Document> and = queryCaptor.getValue().getQueryObject().getList("$and", Document.class);
+		assertThat(and.get(0)).isEqualTo(new Document("patId", new Document("$gte", 12)));
+		List<Document> or = and.get(1).getList("$or", Document.class);
+		assertThat(or).hasSize(3);
+		assertThat(or.get(0)).isEqualTo(new Document("patId", new Document("$gt", 12)));
+		assertThat(or.get(2)).isEqualTo(new Document("date", LocalDateTime.of(2023, 4, 1, 10, 0))
+				.append("id", new Document("$lt", "n1")));
+	}
+
+	@Test
+	public void exportNotesUnknownAfterTest() {
+		//GIVEN
+		when(mongoTemplate.findById("n1", Note.class)).thenReturn(null);
+
+		//WHEN THEN
+		assertThatThrownBy(() -> noteExportService.exportNotes(NoteExportFilter.builder().after("n1").build(),
+				new ByteArrayOutputStream())).isInstanceOf(IllegalArgumentException.class);
+		verify(mongoTemplate, never()).stream(any(Query.class), eq(Note.class));
+	}
+
+	@Test
+	public void exportNotesClientDisconnectedTest() {
+		//GIVEN
+		AtomicBoolean closed = new AtomicBoolean();
+		when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(
+				Stream.of(note("n1", 1, "Fumeur")).onClose(() -> closed.set(true)));
+		OutputStream disconnected = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Broken pipe");
+			}
+		};
+
+		//WHEN THEN
+		assertThatThrownBy(() -> noteExportService.exportNotes(new NoteExportFilter(), disconnected))
+				.isInstanceOf(IOException.class);
+		assertThat(closed).isTrue();
+	}
+
+}
@@ -0,0 +1,224 @@
+package fr.dior.patientNote.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteImportResult;
+
+@ExtendWith(MockitoExtension.class)
+public class NoteImportServiceImplTest {
+
+	private NoteImportServiceImpl noteImportService;
+
+	private ExecutorService importExecutor;
+
+	@Mock
+	private MongoTemplate mongoTemplate;
+
+	@Mock
+	private MongoCollection<Document> collection;
+
+	@Captor
+	ArgumentCaptor<List<Document>> documentsCaptor;
+
+	@Captor
+	ArgumentCaptor<InsertManyOptions> optionsCaptor;
+
+	@BeforeEach
+	public void init() {
+		// Un seul thread d'écriture : les lots sont écrits dans l'ordre du flux
+		importExecutor = Executors.newSingleThreadExecutor();
+		noteImportService = new NoteImportServiceImpl(mongoTemplate, new ObjectMapper().findAndRegisterModules(),
+				importExecutor, 2, 2, 10);
+		when(mongoTemplate.getCollectionName(Note.class)).thenReturn("note");
+		when(mongoTemplate.getCollection("note")).thenReturn(collection);
+	}
+
+	@AfterEach
+	public void shutdown() {
+		importExecutor.shutdownNow();
+	}
+
+	private static ByteArrayInputStream stream(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void useConverter() {
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+		converter.afterPropertiesSet();
+		when(mongoTemplate.getConverter()).thenReturn(converter);
+	}
+
+	@Test
+	public void importNotesTest() throws IOException {
+		//GIVEN
+		useConverter();
+		String id = new ObjectId().toHexString();
+		String notes = "{\"id\":\"" + id + "\",\"patId\":1,\"date\":\"2023-04-01T10:00:00\",\"body\":\"Fumeur\"}\n"
+				+ "{\"patId\":2,\"date\":\"2023-04-02T10:00:00\",\"body\":\"Poids\"}\n"
+				+ "{\"patId\":3,\"body\":\"Vertiges\"}\n";
+
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(notes));
+
+		//THEN
+		verify(collection, times(2)).insertMany(documentsCaptor.capture(), optionsCaptor.capture());
+		assertThat(optionsCaptor.getValue().isOrdered()).isFalse();
+		List<Document> first = documentsCaptor.getAllValues().get(0);
+		assertThat(first).hasSize(2);
+		assertThat(first.get(0).get("_id")).isEqualTo(new ObjectId(id));
+		assertThat(first.get(0).get("date")).isInstanceOf(Date.class);
+		assertThat(first.get(0).get("bodyLength")).isEqualTo(6);
+		assertThat(first.get(0).get("preview")).isEqualTo("Fumeur");
+		assertThat(first.get(1).containsKey("_id")).isFalse();
+		assertThat(first.get(1).get("modifiedAt")).isInstanceOf(Date.class);
+		assertThat(documentsCaptor.getAllValues().get(1).get(0).get("date")).isNotNull();
+		assertThat(result.getReceived()).isEqualTo(3);
+		assertThat(result.getInserted()).isEqualTo(3);
+		assertThat(result.getFailed()).isZero();
+		assertThat(result.isAborted()).isFalse();
+	}
+
+	@Test
+	public void importNotesArrayTest() throws IOException {
+		//GIVEN
+		useConverter();
+		String notes = "[{\"patId\":1,\"body\":\"Fumeur\"},{\"patId\":2,\"body\":\"Poids\"}]";
+
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(notes));
+
+		//THEN
+		verify(collection).insertMany(anyList(), any(InsertManyOptions.class));
+		assertThat(result.getReceived()).isEqualTo(2);
+		assertThat(result.getInserted()).isEqualTo(2);
+	}
+
+	@Test
+	public void importNotesInvalidRecordTest() throws IOException {
+		//GIVEN
+		useConverter();
+		String notes = "{\"patId\":1,\"body\":\"Fumeur\"}\n"
+				+ "{\"patId\":\"un\",\"body\":\"Poids\"}\n"
+				+ "{\"body\":\"Vertiges\"}\n"
+				+ "{\"patId\":4,\"body\":\"Rechute\"}\n";
+
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(notes));
+
+		//THEN
+		verify(collection).insertMany(documentsCaptor.capture(), any(InsertManyOptions.class));
+		assertThat(documentsCaptor.getValue()).extracting(document -> document.get("patId")).containsExactly(1, 4);
+		assertThat(result.getReceived()).isEqualTo(4);
+		assertThat(result.getInserted()).isEqualTo(2);
+		assertThat(result.getFailed()).isEqualTo(2);
+		assertThat(result.getFailures()).extracting(failure -> failure.getRecord()).containsExactly(1L, 2L);
+		assertThat(result.getFailures().get(1).getMessage()).isEqualTo("patId is required");
+	}
+
+	@Test
+	public void importNotesDuplicateKeyTest() throws IOException {
+		//GIVEN
+		useConverter();
+		String notes = "{\"patId\":1,\"body\":\"Fumeur\"}\n"
+				+ "{\"id\":\"note-1\",\"patId\":2,\"body\":\"Poids\"}\n";
+		MongoBulkWriteException duplicate = new MongoBulkWriteException(
+				BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+				List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1)),
+				null, new ServerAddress(), Set.of());
+		doThrow(duplicate).when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(notes));
+
+		//THEN
+		assertThat(result.getInserted()).isEqualTo(1);
+		assertThat(result.getFailed()).isEqualTo(1);
+		assertThat(result.getFailures().get(0).getRecord()).isEqualTo(1);
+		assertThat(result.getFailures().get(0).getPatId()).isEqualTo(2);
+	}
+
+	@Test
+	public void importNotesFailedBatchTest() throws IOException {
+		//GIVEN
+		useConverter();
+		String notes = "{\"patId\":1,\"body\":\"Fumeur\"}\n{\"patId\":2,\"body\":\"Poids\"}\n";
+		doThrow(new MongoSocketReadException("Connection reset", new ServerAddress()))
+				.when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(notes));
+
+		//THEN
+		assertThat(result.getInserted()).isZero();
+		assertThat(result.getFailed()).isEqualTo(2);
+	}
+
+	@Test
+	public void importNotesSyntaxErrorTest() throws IOException {
+		//GIVEN
+		useConverter();
+		String notes = "{\"patId\":1,\"body\":\"Fumeur\"}\n{\"patId\":2,\"body\":\n";
+
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(notes));
+
+		//THEN
+		verify(collection).insertMany(anyList(), any(InsertManyOptions.class));
+		assertThat(result.isAborted()).isTrue();
+		assertThat(result.getInserted()).isEqualTo(1);
+		assertThat(result.getFailed()).isEqualTo(1);
+	}
+
+	@Test
+	public void importNotesEmptyTest() throws IOException {
+		//WHEN
+		NoteImportResult result = noteImportService.importNotes(stream(""));
+
+		//THEN
+		verify(collection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+		assertThat(result.getReceived()).isZero();
+	}
+
+}
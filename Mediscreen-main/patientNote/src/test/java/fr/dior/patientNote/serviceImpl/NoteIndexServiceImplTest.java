@@ -0,0 +1,164 @@
+package fr.dior.patientNote.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.result.UpdateResult;
+
+import fr.dior.patientNote.config.NoteIndexes;
+import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.QueryPlanCheck;
+
+@ExtendWith(MockitoExtension.class)
+public class NoteIndexServiceImplTest {
+
+	private NoteIndexServiceImpl noteIndexService;
+
+	@Mock
+	private MongoTemplate mongoTemplate;
+
+	@Mock
+	private IndexOperations indexOperations;
+
+	@Mock
+	private MongoDatabase database;
+
+	@Captor
+	ArgumentCaptor<Bson> commandCaptor;
+
+	@Captor
+	ArgumentCaptor<Document> documentCaptor;
+
+	@BeforeEach
+	public void init() {
+		noteIndexService = new NoteIndexServiceImpl(mongoTemplate);
+	}
+
+	private Document plan(String... stages) {
+		Document plan = null;
+		for (int i = stages.length - 1; i >= 0; i--) {
+			Document stage = new Document("stage", stages[i]);
+			if (stages[i].equals("IXSCAN")) {
+				stage.append("indexName", "patId_date_id_header");
+			}
+			if (plan != null) {
+				stage.append("inputStage", plan);
+			}
+			plan = stage;
+		}
+		return new Document("queryPlanner", new Document("winningPlan", plan));
+	}
+
+	@Test
+	public void ensureHeaders_should_run_once_and_record_the_migration() {
+		when(mongoTemplate.exists(any(Query.class), eq(NoteIndexServiceImpl.MIGRATIONS_COLLECTION))).thenReturn(false);
+		when(mongoTemplate.updateMulti(any(Query.class), any(AggregationUpdate.class), eq(Note.class)))
+			.thenReturn(UpdateResult.acknowledged(3, 3L, null));
+		assertThat(noteIndexService.ensureHeaders()).isEqualTo(3);
+		verify(mongoTemplate).save(documentCaptor.capture(), eq(NoteIndexServiceImpl.MIGRATIONS_COLLECTION));
+		assertThat(documentCaptor.getValue().get("_id")).isEqualTo(NoteIndexServiceImpl.HEADERS_MIGRATION);
+	}
+
+	@Test
+	public void ensureHeaders_should_not_scan_the_notes_once_the_migration_is_applied() {
+		when(mongoTemplate.exists(any(Query.class), eq(NoteIndexServiceImpl.MIGRATIONS_COLLECTION))).thenReturn(true);
+		assertThat(noteIndexService.ensureHeaders()).isZero();
+		verify(mongoTemplate, never()).updateMulti(any(Query.class), any(AggregationUpdate.class), eq(Note.class));
+	}
+
+	@Test
+	public void ensureIndexes_should_create_declared_indexes_and_drop_obsolete_ones() {
+		when(mongoTemplate.indexOps(Note.class)).thenReturn(indexOperations);
+		when(indexOperations.ensureIndex(NoteIndexes.PATIENT_DATE_ID_HEADER)).thenReturn("patId_date_id_header");
+		when(indexOperations.ensureIndex(NoteIndexes.MODIFIED_AT_PATIENT)).thenReturn("modifiedAt_patId");
+		when(indexOperations.getIndexInfo()).thenReturn(List.of(
+				new IndexInfo(List.of(), "_id_", false, false, ""),
+				new IndexInfo(List.of(), "patId_date", false, false, ""),
+				new IndexInfo(List.of(), "patId_date_id_header", false, false, "")));
+		assertThat(noteIndexService.ensureIndexes()).containsExactly("patId_date_id_header", "modifiedAt_patId");
+		verify(indexOperations).dropIndex("patId_date");
+		verify(indexOperations, never()).dropIndex("patId_date_id_header");
+		verify(indexOperations, never()).dropIndex("_id_");
+	}
+
+	@Test
+	public void checkQueryPlans_should_flag_collection_scans_and_in_memory_sorts() {
+		when(mongoTemplate.getCollectionName(Note.class)).thenReturn("notes");
+		when(mongoTemplate.getDb()).thenReturn(database);
+		when(database.runCommand(any(Bson.class)))
+			.thenReturn(plan("FETCH", "IXSCAN"))
+			.thenReturn(plan("SORT", "COLLSCAN"))
+			.thenReturn(plan("LIMIT", "FETCH", "IXSCAN"))
+			.thenReturn(plan("FETCH", "IXSCAN"))
+			.thenReturn(plan("FETCH", "IXSCAN"))
+			.thenReturn(plan("FETCH", "IXSCAN"))
+			.thenReturn(plan("FETCH", "IXSCAN"))
+			.thenReturn(plan("LIMIT", "PROJECTION_COVERED", "IXSCAN"))
+			.thenReturn(plan("LIMIT", "PROJECTION_SIMPLE", "FETCH", "IXSCAN"))
+			.thenReturn(plan("LIMIT", "PROJECTION_COVERED", "IXSCAN"))
+			.thenReturn(plan("LIMIT", "PROJECTION_COVERED", "IXSCAN"))
+			.thenReturn(plan("LIMIT", "PROJECTION_COVERED", "IXSCAN"))
+			.thenReturn(plan("PROJECTION_COVERED", "IXSCAN"));
+		List<QueryPlanCheck> checks = noteIndexService.checkQueryPlans();
+		assertThat(checks).extracting(QueryPlanCheck::getQuery)
+			.containsExactly("findByPatIdOrderByDateDesc", "findByPatIdAndDateRange", "findFirstPage", "findPageAfter",
+					"findPageAfterObjectId", "findUndatedPageAfter", "findUndatedPageAfterObjectId", "findHeadersFirstPage",
+					"findHeadersPageAfter", "findHeadersPageAfterObjectId", "findHeadersUndatedPageAfter",
+					"findHeadersUndatedPageAfterObjectId", "findPatientIdsModifiedSince");
+		// Une requête d'en-têtes qui lit les documents n'est pas couverte par l'index
+		assertThat(checks).extracting(QueryPlanCheck::isIndexed)
+			.containsExactly(true, false, true, true, true, true, true, true, false, true, true, true, true);
+		assertThat(checks.get(7).isCovered()).isTrue();
+		assertThat(checks.get(0).getIndexes()).containsExactly("patId_date_id_header");
+		assertThat(checks.get(1).getStages()).containsExactly("SORT", "COLLSCAN");
+
+		// Les paramètres des requêtes sont remplacés par des valeurs d'exemple
+		verify(database, times(13)).runCommand(commandCaptor.capture());
+		Document find = ((Document) commandCaptor.getAllValues().get(3)).get("explain", Document.class);
+		assertThat(find.getString("find")).isEqualTo("notes");
+		Document filter = find.get("filter", Document.class);
+		assertThat(filter.get("patId")).isEqualTo(0);
+		assertThat(filter.getList("$or", Document.class).get(0).get("date", Document.class).get("$lt"))
+			.isInstanceOf(Date.class);
+		assertThat(filter.getList("$or", Document.class).get(1).get("_id", Document.class).get("$lt"))
+			.isInstanceOf(ObjectId.class);
+		// Les notes sans date suivent toute note datée
+		assertThat(filter.getList("$or", Document.class).get(2)).isEqualTo(new Document("date", null));
+		assertThat(find.get("sort", Document.class)).isEqualTo(new Document("date", -1).append("_id", -1));
+		assertThat(find.containsKey("projection")).isFalse();
+		Document objectIdFilter = ((Document) commandCaptor.getAllValues().get(4)).get("explain", Document.class)
+			.get("filter", Document.class);
+		assertThat(objectIdFilter.getList("$or", Document.class).get(2).get("_id", Document.class).get("$type"))
+			.isEqualTo("string");
+		Document headers = ((Document) commandCaptor.getAllValues().get(8)).get("explain", Document.class);
+		assertThat(headers.get("projection", Document.class).keySet()).containsExactly("_id", "date", "bodyLength", "preview");
+		Document modified = ((Document) commandCaptor.getAllValues().get(12)).get("explain", Document.class);
+		assertThat(modified.get("projection", Document.class)).isEqualTo(new Document("_id", 0).append("patId", 1));
+	}
+
+}
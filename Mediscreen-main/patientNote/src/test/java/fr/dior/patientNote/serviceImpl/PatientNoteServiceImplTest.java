@@ -1,15 +1,19 @@
 package fr.dior.patientNote.serviceImpl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -18,8 +22,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import fr.dior.patientNote.model.Note;
+import fr.dior.patientNote.model.NoteHeader;
+import fr.dior.patientNote.model.NoteHeaderPage;
+import fr.dior.patientNote.model.NotePage;
 import fr.dior.patientNote.repository.PatientNoteRepository;
 import fr.dior.patientNote.service.IPatientNoteService;
 
@@ -76,6 +84,145 @@ public class PatientNoteServiceImplTest {
 		}
 	}
 	
+	@Nested
+	class GetPatientIdsWithNotesModifiedSince {
+		@Test
+		public void success() {
+			LocalDateTime since = LocalDateTime.of(2023, 4, 1, 10, 0);
+			when(patientNoteRepository.findPatientIdsModifiedSince(since)).thenReturn(List.of(1, 3));
+			assertThat(patientNoteService.getPatientIdsWithNotesModifiedSince(since)).containsExactly(1, 3);
+		}
+	}
+
+	@Nested
+	class GetNotesPageByPatientId {
+		@Test
+		public void first_page_should_return_the_token_of_its_last_note() {
+			when(patientNoteRepository.findFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(note2,note1));
+			NotePage page = patientNoteService.getNotesPageByPatientId(1, 1, null);
+			assertThat(page.getNotes()).containsExactly(note2);
+			assertThat(page.getNext()).isNotNull();
+
+			when(patientNoteRepository.findPageAfter(1, note2.getDate(), "2", PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(note1));
+			NotePage next = patientNoteService.getNotesPageByPatientId(1, 1, page.getNext());
+			assertThat(next.getNotes()).containsExactly(note1);
+			assertThat(next.getNext()).isNull();
+		}
+
+		@Test
+		public void object_id_should_be_compared_as_stored() {
+			ObjectId id = new ObjectId();
+			note2.setId(id.toHexString());
+			when(patientNoteRepository.findFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(note2,note1));
+			String token = patientNoteService.getNotesPageByPatientId(1, 1, null).getNext();
+			patientNoteService.getNotesPageByPatientId(1, 1, token);
+			verify(patientNoteRepository).findPageAfterObjectId(1, note2.getDate(), id, PageRequest.of(0, 2));
+		}
+
+		@Test
+		public void undated_note_past_the_first_page_should_be_reached() {
+			Note undated3 = Note.builder().id("3").patId(1).body("Body3").build();
+			Note undated0 = Note.builder().id("0").patId(1).body("Body0").build();
+			when(patientNoteRepository.findFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(note2,note1));
+			String token = patientNoteService.getNotesPageByPatientId(1, 1, null).getNext();
+			when(patientNoteRepository.findPageAfter(1, note2.getDate(), "2", PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(note1,undated3));
+			token = patientNoteService.getNotesPageByPatientId(1, 1, token).getNext();
+			// Après la dernière note datée, les notes sans date, classées en dernier, sont lues par la même requête
+			when(patientNoteRepository.findPageAfter(1, note1.getDate(), "1", PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(undated3,undated0));
+			NotePage page = patientNoteService.getNotesPageByPatientId(1, 1, token);
+			assertThat(page.getNotes()).containsExactly(undated3);
+			assertThat(page.getNext()).isNotNull();
+
+			when(patientNoteRepository.findUndatedPageAfter(1, "3", PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(undated0));
+			NotePage next = patientNoteService.getNotesPageByPatientId(1, 1, page.getNext());
+			assertThat(next.getNotes()).containsExactly(undated0);
+			assertThat(next.getNext()).isNull();
+		}
+
+		@Test
+		public void invalid_size_or_token_should_throw() {
+			assertThatThrownBy(() -> patientNoteService.getNotesPageByPatientId(1, 0, null))
+				.isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> patientNoteService.getNotesPageByPatientId(1, IPatientNoteService.MAX_PAGE_SIZE + 1, null))
+				.isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> patientNoteService.getNotesPageByPatientId(1, 10, "not a token"))
+				.isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Nested
+	class GetNoteHeadersPageByPatientId {
+		@Test
+		public void pages_of_headers_should_share_the_tokens_of_pages_of_notes() {
+			NoteHeader header2 = NoteHeader.builder().id("2").date(note2.getDate()).bodyLength(5).preview("Body2").build();
+			NoteHeader header1 = NoteHeader.builder().id("1").date(note1.getDate()).bodyLength(5).preview("Body1").build();
+			when(patientNoteRepository.findHeadersFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(header2,header1));
+			NoteHeaderPage page = patientNoteService.getNoteHeadersPageByPatientId(1, 1, null);
+			assertThat(page.getHeaders()).containsExactly(header2);
+
+			when(patientNoteRepository.findFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(note2,note1));
+			assertThat(page.getNext()).isEqualTo(patientNoteService.getNotesPageByPatientId(1, 1, null).getNext());
+
+			when(patientNoteRepository.findHeadersPageAfter(1, note2.getDate(), "2", PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(header1));
+			NoteHeaderPage next = patientNoteService.getNoteHeadersPageByPatientId(1, 1, page.getNext());
+			assertThat(next.getHeaders()).containsExactly(header1);
+			assertThat(next.getNext()).isNull();
+		}
+
+		@Test
+		public void object_id_should_also_select_the_string_ids_of_the_same_date() {
+			ObjectId id = new ObjectId();
+			NoteHeader header2 = NoteHeader.builder().id(id.toHexString()).date(note2.getDate()).build();
+			when(patientNoteRepository.findHeadersFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(header2, NoteHeader.builder().id("1").date(note1.getDate()).build()));
+			String token = patientNoteService.getNoteHeadersPageByPatientId(1, 1, null).getNext();
+			patientNoteService.getNoteHeadersPageByPatientId(1, 1, token);
+			verify(patientNoteRepository).findHeadersPageAfterObjectId(1, note2.getDate(), id, PageRequest.of(0, 2));
+		}
+
+		@Test
+		public void undated_header_token_should_select_the_following_undated_notes() {
+			ObjectId id = new ObjectId();
+			when(patientNoteRepository.findHeadersFirstPage(1, PageRequest.of(0, 2)))
+				.thenReturn(Arrays.asList(NoteHeader.builder().id(id.toHexString()).build(),
+						NoteHeader.builder().id("1").build()));
+			String token = patientNoteService.getNoteHeadersPageByPatientId(1, 1, null).getNext();
+			patientNoteService.getNoteHeadersPageByPatientId(1, 1, token);
+			verify(patientNoteRepository).findHeadersUndatedPageAfterObjectId(1, id, PageRequest.of(0, 2));
+		}
+	}
+
+	@Nested
+	class GetNotesByPatientIdAndDate {
+		@Test
+		public void success() {
+			when(patientNoteRepository.findByPatIdAndDateRange(1,
+					LocalDateTime.of(2023, 4, 2, 0, 0), LocalDateTime.of(2023, 4, 3, 0, 0)))
+				.thenReturn(Arrays.asList(note2));
+			assertThat(patientNoteService.getNotesByPatientIdAndDate(1, LocalDate.of(2023, 4, 2), LocalDate.of(2023, 4, 2)))
+				.containsExactly(note2);
+		}
+
+		@Test
+		public void open_period() {
+			when(patientNoteRepository.findByPatIdAndDateRange(1,
+					LocalDateTime.of(1900, 1, 1, 0, 0), LocalDateTime.of(10000, 1, 1, 0, 0)))
+				.thenReturn(Arrays.asList(note2,note1));
+			assertThat(patientNoteService.getNotesByPatientIdAndDate(1, null, null))
+				.containsExactly(note2,note1);
+		}
+	}
+	
 	@Nested
 	class GetNoteById {
 		@Test
@@ -2,7 +2,13 @@ package fr.dior.patientReport;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+// Annotation pour activer la découverte des clients Feign dans le package "fr.dior.patientReport"
+@EnableFeignClients("fr.dior.patientReport")
+// Annotation pour activer le recalcul planifié de la table des risques
+@EnableScheduling
 @SpringBootApplication
 public class PatientReportApplication {
 
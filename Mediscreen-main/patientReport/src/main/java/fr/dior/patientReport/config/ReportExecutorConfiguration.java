@@ -0,0 +1,37 @@
+package fr.dior.patientReport.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration des pools de threads bornés utilisés pour les calculs de rapports et les appels distants.
+ */
+@Configuration
+public class ReportExecutorConfiguration {
+
+	/**
+	 * Pool fork-join dédié aux rapports, distinct du pool commun de la JVM
+	 * @param parallelism : Nombre de threads, par défaut le nombre de cœurs
+	 * @return Le pool des calculs de rapports
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ForkJoinPool reportExecutor(@Value("${patientReport.batch.parallelism:0}") int parallelism) {
+		return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Pool borné pour les appels aux autres services, qui sont bloquants et ne doivent pas occuper le pool de calcul
+	 * @param threads : Nombre maximal d'appels simultanés
+	 * @return Le pool des appels distants
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService fetchExecutor(@Value("${patientReport.fetch.threads:32}") int threads) {
+		return Executors.newFixedThreadPool(threads);
+	}
+
+}
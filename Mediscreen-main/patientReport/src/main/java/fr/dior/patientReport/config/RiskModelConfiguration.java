@@ -0,0 +1,53 @@
+package fr.dior.patientReport.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import fr.dior.patientReport.engine.RiskModel;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+/**
+ * Déclaration des modèles de dépistage. Un nouveau modèle s'ajoute en déclarant un autre bean RiskModel,
+ * par exemple un RuleBasedRiskModel construit à partir de ses termes et de ses règles.
+ */
+@Configuration
+public class RiskModelConfiguration {
+
+	public static final String DIABETES = "diabetes";
+
+	/**
+	 * Modèle du diabète, dont les termes et les règles sont ceux enregistrés en base de données
+	 * @param triggerDictionaryService : Service fournissant la photographie du dictionnaire
+	 * @param riskRuleService : Service fournissant la table de décision
+	 * @return Le modèle du diabète
+	 */
+	@Bean
+	public RiskModel diabetesRiskModel(ITriggerDictionaryService triggerDictionaryService,
+			IRiskRuleService riskRuleService) {
+		return new RiskModel() {
+
+			@Override
+			public String getName() {
+				return DIABETES;
+			}
+
+			@Override
+			public TriggerDictionary getDictionary() {
+				return triggerDictionaryService.getDictionary();
+			}
+
+			@Override
+			public String assess(Patient patient, int age, long[] triggerMask) {
+				return riskRuleService.getRiskTable().assess(RiskTable.sexCode(patient.getSex()), age,
+						TriggerMask.count(triggerMask));
+			}
+
+		};
+	}
+
+}
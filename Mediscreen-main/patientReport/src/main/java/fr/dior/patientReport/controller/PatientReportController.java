@@ -1,17 +1,46 @@
 package fr.dior.patientReport.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
+import fr.dior.patientReport.engine.NoteTriggerCache;
+import fr.dior.patientReport.engine.ReportCache;
+import fr.dior.patientReport.engine.ReportSingleFlight;
+import fr.dior.patientReport.model.BatchReportItem;
 import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.model.ReportWindow;
+import fr.dior.patientReport.model.RiskTimelinePoint;
+import fr.dior.patientReport.model.CacheStats;
+import fr.dior.patientReport.model.CoalescingStats;
+import fr.dior.patientReport.service.IPatientDataService;
+import fr.dior.patientReport.service.IPatientReportBatchService;
 import fr.dior.patientReport.service.IPatientReportService;
+import fr.dior.patientReport.service.IPatientReportStreamService;
+import fr.dior.patientReport.service.IRiskModelService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import fr.dior.patientReport.model.PatientAndNotes;
 
@@ -24,17 +53,225 @@ public class PatientReportController {
 	
 	@Autowired
 	private IPatientReportService patientReportService;
+
+	@Autowired
+	private IPatientReportBatchService patientReportBatchService;
+
+	@Autowired
+	private IPatientReportStreamService patientReportStreamService;
+
+	@Autowired
+	private IPatientDataService patientDataService;
+
+	@Autowired
+	private IRiskModelService riskModelService;
+
+	@Autowired
+	private ReportCache reportCache;
+
+	@Autowired
+	private NoteTriggerCache noteTriggerCache;
+
+	@Autowired
+	private ReportSingleFlight reportSingleFlight;
+
+	// Durée pendant laquelle le navigateur ou un proxy peut réutiliser un rapport
+	@Value("${patientReport.http.max-age:60}")
+	private long maxAge;
+
+	// Fenêtre d'historique et demi-vie de la pondération utilisées lorsque la requête ne les précise pas
+	@Value("${patientReport.window.lookback-months:0}")
+	private int defaultLookbackMonths;
+
+	@Value("${patientReport.window.half-life-months:0}")
+	private int defaultHalfLifeMonths;
 	
+	/**
+	 * Obtenir le rapport d'un patient à partir de ses informations et de ses notes
+	 * @param patientAndNotes : Le patient et ses notes médicales
+	 * @param lookbackMonths : Nombre de mois d'historique pris en compte (0 pour tout l'historique)
+	 * @param halfLifeMonths : Demi-vie en mois de la pondération des termes selon l'ancienneté des notes (0 sans pondération)
+	 * @return le rapport du patient, 400 si la fenêtre est négative
+	 */
 	@PostMapping("/PatientReport")
 	public Report getReport(
-			@RequestBody PatientAndNotes patientAndNotes) 
+			@RequestBody PatientAndNotes patientAndNotes,
+			@RequestParam(required = false) Integer lookbackMonths,
+			@RequestParam(required = false) Integer halfLifeMonths) 
 	{
 		log.info("Get report for patient with id = {}",patientAndNotes.getPatient().getId());
 		LocalDate currentDate = LocalDate.now();
 		return patientReportService.calculateDiabetesRisk(
 				patientAndNotes.getPatient(),
 				patientAndNotes.getNotes(),
-				currentDate);
+				currentDate,
+				window(lookbackMonths, halfLifeMonths));
+	}
+
+	// Fenêtre de la requête, complétée par la configuration
+	private ReportWindow window(Integer lookbackMonths, Integer halfLifeMonths) {
+		ReportWindow window = ReportWindow.builder()
+				.lookbackMonths(lookbackMonths == null ? defaultLookbackMonths : lookbackMonths)
+				.halfLifeMonths(halfLifeMonths == null ? defaultHalfLifeMonths : halfLifeMonths)
+				.build();
+		if (window.getLookbackMonths() < 0 || window.getHalfLifeMonths() < 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lookbackMonths and halfLifeMonths must be positive");
+		}
+		return window;
+	}
+
+	/**
+	 * Obtenir le rapport d'un patient en analysant ses notes au fil de la lecture de la requête,
+	 * pour les patients dont l'historique est volumineux
+	 * @param json : Le corps de la requête, même document que pour /PatientReport
+	 * @return le rapport du patient, 400 si le document est mal formé ou sans patient
+	 * @throws IOException si la lecture de la requête échoue
+	 */
+	@PostMapping(value = "/PatientReport/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Report getReportStreaming(InputStream json) throws IOException
+	{
+		log.info("Get report from a streamed request");
+		try {
+			return patientReportStreamService.calculateDiabetesRisk(json, LocalDate.now());
+		} catch (JsonProcessingException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getOriginalMessage(), e);
+		}
+	}
+
+	/**
+	 * Obtenir les rapports d'un lot de patients, calculés en parallèle
+	 * @param patientsAndNotes : Les patients et leurs notes médicales
+	 * @return les rapports indexés par identifiant de patient, avec une erreur par patient en échec
+	 */
+	@PostMapping("/PatientReport/batch")
+	public Map<String, BatchReportItem> getReports(
+			@RequestBody List<PatientAndNotes> patientsAndNotes)
+	{
+		log.info("Get reports for a batch of {} patients",patientsAndNotes.size());
+		return patientReportBatchService.calculateDiabetesRisks(patientsAndNotes, LocalDate.now());
+	}
+
+	/**
+	 * Obtenir le rapport d'un patient identifié par son ID, le patient et ses notes étant récupérés
+	 * par ce service auprès de PatientInfo et PatientNote
+	 * @param id : L'ID du patient
+	 * @param lookbackMonths : Nombre de mois d'historique pris en compte (0 pour tout l'historique),
+	 * seules les notes de cette période sont récupérées auprès de PatientNote
+	 * @param halfLifeMonths : Demi-vie en mois de la pondération des termes selon l'ancienneté des notes (0 sans pondération)
+	 * @param request : La requête, pour la gestion de l'en-tête If-None-Match
+	 * @return le rapport du patient avec un ETag, 304 s'il n'a pas changé, 404 si le patient n'existe pas
+	 */
+	@GetMapping("/PatientReport/byPatient")
+	public ResponseEntity<Report> getReportByPatientId(
+			@RequestParam Integer id,
+			@RequestParam(required = false) Integer lookbackMonths,
+			@RequestParam(required = false) Integer halfLifeMonths,
+			WebRequest request)
+	{
+		log.info("Get report for patient with id = {}",id);
+		LocalDate currentDate = LocalDate.now();
+		ReportWindow window = window(lookbackMonths, halfLifeMonths);
+		PatientAndNotes patientAndNotes = patientDataService.getPatientAndNotes(id, window.startDate(currentDate));
+		if (patientAndNotes == null) {
+			return ResponseEntity.notFound().build();
+		}
+		Report report = patientReportService.calculateDiabetesRisk(
+				patientAndNotes.getPatient(),
+				patientAndNotes.getNotes(),
+				currentDate,
+				window);
+		String eTag = "\"" + Integer.toHexString(Objects.hash(id, report)) + "\"";
+		if (request.checkNotModified(eTag)) {
+			return null;
+		}
+		return ResponseEntity.ok()
+				.eTag(eTag)
+				.cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate())
+				.body(report);
+	}
+
+	/**
+	 * Obtenir l'évaluation du risque d'un patient pour chaque modèle de dépistage (diabète, ...),
+	 * ses notes n'étant analysées qu'une seule fois pour l'ensemble des modèles
+	 * @param patientAndNotes : Le patient et ses notes médicales
+	 * @return un rapport par modèle, indexé par nom de modèle
+	 */
+	@PostMapping("/PatientReport/models")
+	public Map<String, Report> getModelReports(
+			@RequestBody PatientAndNotes patientAndNotes)
+	{
+		log.info("Get risk model reports for patient with id = {}",patientAndNotes.getPatient().getId());
+		return riskModelService.calculateRisks(
+				patientAndNotes.getPatient(),
+				patientAndNotes.getNotes(),
+				LocalDate.now());
+	}
+
+	/**
+	 * Obtenir l'évaluation du risque d'un patient identifié par son ID pour chaque modèle de dépistage,
+	 * le patient et ses notes étant récupérés par ce service auprès de PatientInfo et PatientNote
+	 * @param id : L'ID du patient
+	 * @return un rapport par modèle, indexé par nom de modèle, 404 si le patient n'existe pas
+	 */
+	@GetMapping("/PatientReport/models/byPatient")
+	public ResponseEntity<Map<String, Report>> getModelReportsByPatientId(@RequestParam Integer id)
+	{
+		log.info("Get risk model reports for patient with id = {}",id);
+		PatientAndNotes patientAndNotes = patientDataService.getPatientAndNotes(id);
+		if (patientAndNotes == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(riskModelService.calculateRisks(
+				patientAndNotes.getPatient(),
+				patientAndNotes.getNotes(),
+				LocalDate.now()));
+	}
+
+	/**
+	 * Obtenir l'évolution de l'évaluation du risque d'un patient note après note, le patient et ses notes
+	 * étant récupérés par ce service auprès de PatientInfo et PatientNote
+	 * @param id : L'ID du patient
+	 * @return la date, le nombre de termes et l'évaluation après chaque note, 404 si le patient n'existe pas
+	 */
+	@GetMapping("/PatientReport/timeline")
+	public ResponseEntity<List<RiskTimelinePoint>> getRiskTimeline(@RequestParam Integer id)
+	{
+		log.info("Get risk timeline for patient with id = {}",id);
+		PatientAndNotes patientAndNotes = patientDataService.getPatientAndNotes(id);
+		if (patientAndNotes == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(patientReportService.calculateRiskTimeline(
+				patientAndNotes.getPatient(),
+				patientAndNotes.getNotes(),
+				LocalDate.now()));
+	}
+
+	/**
+	 * Obtenir les compteurs du cache des rapports
+	 * @return la taille, les succès, les échecs et les évictions du cache
+	 */
+	@GetMapping("/PatientReport/cache/stats")
+	public CacheStats getCacheStats() {
+		return reportCache.getStats();
+	}
+
+	/**
+	 * Obtenir les compteurs du cache des termes déclencheurs trouvés dans chaque note
+	 * @return la taille, les succès, les échecs et les évictions du cache
+	 */
+	@GetMapping("/PatientReport/cache/notes/stats")
+	public CacheStats getNoteCacheStats() {
+		return noteTriggerCache.getStats();
+	}
+
+	/**
+	 * Obtenir les compteurs des calculs de rapport regroupés
+	 * @return le nombre de calculs en cours, d'appels, de calculs effectués et d'appels regroupés
+	 */
+	@GetMapping("/PatientReport/cache/inflight/stats")
+	public CoalescingStats getCoalescingStats() {
+		return reportSingleFlight.getStats();
 	}
 
 }
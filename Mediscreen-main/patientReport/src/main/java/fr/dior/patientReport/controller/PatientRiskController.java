@@ -0,0 +1,83 @@
+package fr.dior.patientReport.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import fr.dior.patientReport.model.PatientRisk;
+import fr.dior.patientReport.service.IPatientRiskService;
+
+@RestController
+public class PatientRiskController {
+
+	private static final Logger log = LoggerFactory.getLogger(PatientRiskController.class);
+
+	@Autowired
+	private IPatientRiskService patientRiskService;
+
+	/**
+	 * Obtenir les patients ayant une évaluation donnée, sans recalculer leur rapport
+	 * @param assessment : L'évaluation recherchée
+	 * @return les patients et leur dernière évaluation
+	 */
+	@GetMapping("/PatientReport/risks")
+	public List<PatientRisk> getPatientRisks(@RequestParam String assessment) {
+		log.info("Get patients with assessment {}", assessment);
+		return patientRiskService.getPatientRisks(assessment);
+	}
+
+	/**
+	 * Obtenir le nombre de patients par évaluation
+	 * @return le nombre de patients indexé par évaluation
+	 */
+	@GetMapping("/PatientReport/risks/counts")
+	public Map<String, Long> countByAssessment() {
+		log.info("Count patients by assessment");
+		return patientRiskService.countByAssessment();
+	}
+
+	/**
+	 * Obtenir la dernière évaluation d'un patient
+	 * @param id : L'ID du patient
+	 * @return la dernière évaluation, 404 si le patient n'a pas encore été évalué
+	 */
+	@GetMapping("/PatientReport/risks/byPatient")
+	public ResponseEntity<PatientRisk> getPatientRisk(@RequestParam Integer id) {
+		log.info("Get risk of patient with id = {}", id);
+		PatientRisk patientRisk = patientRiskService.getPatientRisk(id);
+		if (patientRisk == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(patientRisk);
+	}
+
+	/**
+	 * Signaler que les notes ou les informations d'un patient ont changé
+	 * @param id : L'ID du patient, réévalué lors du prochain recalcul
+	 */
+	@PostMapping("/PatientReport/risks/invalidate")
+	public void invalidate(@RequestParam Integer id) {
+		log.info("Invalidate risk of patient with id = {}", id);
+		patientRiskService.invalidate(id);
+	}
+
+	/**
+	 * Lancer immédiatement le recalcul des patients dont les données ont changé
+	 * @return le nombre de patients réévalués
+	 */
+	@PostMapping("/PatientReport/risks/refresh")
+	public int refresh() {
+		log.info("Refresh risk table");
+		return patientRiskService.refresh(LocalDate.now());
+	}
+
+}
@@ -0,0 +1,77 @@
+package fr.dior.patientReport.controller;
+
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import fr.dior.patientReport.model.RiskHistogram;
+import fr.dior.patientReport.model.TriggerFrequency;
+import fr.dior.patientReport.service.IPopulationAnalyticsService;
+
+@RestController
+public class PopulationAnalyticsController {
+
+	private static final Logger log = LoggerFactory.getLogger(PopulationAnalyticsController.class);
+
+	@Autowired
+	private IPopulationAnalyticsService populationAnalyticsService;
+
+	/**
+	 * Obtenir la répartition des évaluations du risque par sexe et tranche d'âge
+	 * @param ageBandWidth : La largeur des tranches d'âge en années
+	 * @return l'histogramme des évaluations, 400 si la largeur est invalide, 503 pendant la première construction
+	 */
+	@GetMapping("/PatientReport/analytics/risks")
+	public RiskHistogram getRiskHistogram(@RequestParam(defaultValue = "10") int ageBandWidth) {
+		log.info("Get risk histogram by age band of {} years", ageBandWidth);
+		try {
+			return populationAnalyticsService.getRiskHistogram(ageBandWidth);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		} catch (IllegalStateException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Obtenir la fréquence des termes déclencheurs dans une cohorte
+	 * @param sex : Le sexe de la cohorte, tous si absent
+	 * @param minAge : L'âge minimal inclus
+	 * @param maxAge : L'âge maximal inclus
+	 * @param assessment : L'évaluation de la cohorte, toutes si absente
+	 * @return le nombre de patients de la cohorte par terme, 503 pendant la première construction
+	 */
+	@GetMapping("/PatientReport/analytics/triggers")
+	public TriggerFrequency getTriggerFrequency(
+			@RequestParam(required = false) String sex,
+			@RequestParam(required = false) Integer minAge,
+			@RequestParam(required = false) Integer maxAge,
+			@RequestParam(required = false) String assessment)
+	{
+		log.info("Get trigger frequency for sex = {}, age = {}-{}, assessment = {}", sex, minAge, maxAge, assessment);
+		try {
+			return populationAnalyticsService.getTriggerFrequency(sex, minAge, maxAge, assessment);
+		} catch (IllegalStateException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reconstruire la photographie de la population
+	 * @return le nombre de patients de la nouvelle photographie
+	 */
+	@PostMapping("/PatientReport/analytics/rebuild")
+	public int rebuild() {
+		log.info("Rebuild population snapshot");
+		return populationAnalyticsService.rebuild(LocalDate.now()).size();
+	}
+
+}
@@ -0,0 +1,78 @@
+package fr.dior.patientReport.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.model.RiskTableStatus;
+import fr.dior.patientReport.model.SimulationRequest;
+import fr.dior.patientReport.model.SimulationResult;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.IRiskSimulationService;
+
+@RestController
+public class RiskRuleController {
+
+	private static final Logger log = LoggerFactory.getLogger(RiskRuleController.class);
+
+	@Autowired
+	private IRiskRuleService riskRuleService;
+
+	@Autowired
+	private IRiskSimulationService riskSimulationService;
+
+	/**
+	 * Obtenir les règles de la table de décision courante
+	 * @return la version et les règles de la table de décision
+	 */
+	@GetMapping("/PatientReport/rules")
+	public RiskTableStatus getRules() {
+		log.info("Get risk rules");
+		return toStatus(riskRuleService.getRiskTable());
+	}
+
+	/**
+	 * Recharger les règles depuis la base de données
+	 * @return la nouvelle version de la table de décision
+	 */
+	@PostMapping("/PatientReport/rules/reload")
+	public RiskTableStatus reloadRules() {
+		log.info("Reload risk rules");
+		return toStatus(riskRuleService.reload());
+	}
+
+	/**
+	 * Simuler des règles ou des termes déclencheurs candidats sur toute la population,
+	 * sans modifier ceux utilisés en production
+	 * @param request : Les règles et les termes candidats, absents pour garder ceux en production
+	 * @return la matrice de passage des évaluations actuelles aux évaluations proposées, 400 si une règle
+	 * est invalide ou si des termes inconnus sont proposés pour une population trop grande,
+	 * 503 pendant la première construction de la photographie de la population
+	 */
+	@PostMapping("/PatientReport/rules/simulate")
+	public SimulationResult simulate(@RequestBody SimulationRequest request) {
+		log.info("Simulate candidate rules and trigger terms");
+		try {
+			return riskSimulationService.simulate(request);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		} catch (IllegalStateException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+		}
+	}
+
+	private RiskTableStatus toStatus(RiskTable riskTable) {
+		return RiskTableStatus.builder()
+				.version(riskTable.getVersion())
+				.rules(riskTable.getRules())
+				.build();
+	}
+
+}
@@ -0,0 +1,84 @@
+package fr.dior.patientReport.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.model.TriggerDictionaryStatus;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+@RestController
+public class TriggerDictionaryController {
+
+	private static final Logger log = LoggerFactory.getLogger(TriggerDictionaryController.class);
+
+	@Autowired
+	private ITriggerDictionaryService triggerDictionaryService;
+
+	/**
+	 * Obtenir la photographie courante du dictionnaire des termes déclencheurs
+	 * @return la version et les termes du dictionnaire
+	 */
+	@GetMapping("/PatientReport/triggers")
+	public TriggerDictionaryStatus getTriggers() {
+		log.info("Get trigger dictionary");
+		return toStatus(triggerDictionaryService.getDictionary());
+	}
+
+	/**
+	 * Ajouter un terme déclencheur
+	 * @param term : Le terme à ajouter
+	 * @param language : La langue du terme (fr, en), toutes les notes si absente
+	 * @param concept : Le concept exprimé par le terme, commun à ses traductions, le terme lui-même si absent
+	 * @return la nouvelle version du dictionnaire, 400 si la langue est inconnue ou le terme trop long
+	 */
+	@PostMapping("/PatientReport/triggers/add")
+	public TriggerDictionaryStatus addTrigger(
+			@RequestParam String term,
+			@RequestParam(required = false) String language,
+			@RequestParam(required = false) String concept)
+	{
+		log.info("Add trigger term {} with language = {}, concept = {}", term, language, concept);
+		try {
+			return toStatus(triggerDictionaryService.addTerm(term, language, concept));
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Supprimer un terme déclencheur
+	 * @param term : Le terme à supprimer
+	 * @return la nouvelle version du dictionnaire
+	 */
+	@PostMapping("/PatientReport/triggers/delete")
+	public TriggerDictionaryStatus deleteTrigger(@RequestParam String term) {
+		log.info("Delete trigger term {}", term);
+		return toStatus(triggerDictionaryService.removeTerm(term));
+	}
+
+	/**
+	 * Recharger le dictionnaire depuis la base de données
+	 * @return la nouvelle version du dictionnaire
+	 */
+	@PostMapping("/PatientReport/triggers/reload")
+	public TriggerDictionaryStatus reloadTriggers() {
+		log.info("Reload trigger dictionary");
+		return toStatus(triggerDictionaryService.reload());
+	}
+
+	private TriggerDictionaryStatus toStatus(TriggerDictionary dictionary) {
+		return TriggerDictionaryStatus.builder()
+				.version(dictionary.getVersion())
+				.terms(dictionary.getTerms())
+				.build();
+	}
+
+}
@@ -0,0 +1,62 @@
+package fr.dior.patientReport.engine;
+
+/**
+ * Empreinte 64 bits (FNV-1a) construite incrémentalement à partir des données d'entrée d'un calcul.
+ * Deux jeux de données différents produisent, sauf collision improbable, deux empreintes différentes.
+ */
+public final class Fingerprint {
+
+	private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long PRIME = 0x100000001b3L;
+
+	private long hash = OFFSET_BASIS;
+
+	/**
+	 * Ajoute une valeur entière à l'empreinte
+	 * @param value : Valeur à ajouter
+	 * @return Cette empreinte
+	 */
+	public Fingerprint add(long value) {
+		for (int shift = 0; shift < 64; shift += 8) {
+			hash = (hash ^ ((value >>> shift) & 0xff)) * PRIME;
+		}
+		return this;
+	}
+
+	/**
+	 * Ajoute un texte à l'empreinte, précédé de sa longueur pour séparer les champs sans ambiguïté
+	 * @param text : Texte à ajouter, null étant distingué du texte vide
+	 * @return Cette empreinte
+	 */
+	public Fingerprint add(CharSequence text) {
+		if (text == null) {
+			return add(-1L);
+		}
+		int length = text.length();
+		add(length);
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			hash = (hash ^ (c & 0xff)) * PRIME;
+			hash = (hash ^ (c >>> 8)) * PRIME;
+		}
+		return this;
+	}
+
+	/**
+	 * @return La valeur de l'empreinte
+	 */
+	public long value() {
+		return hash;
+	}
+
+	/**
+	 * Empreinte d'un texte seul
+	 * @param text : Texte dont on veut l'empreinte
+	 * @return La valeur de l'empreinte
+	 */
+	public static long of(CharSequence text) {
+		return new Fingerprint().add(text).value();
+	}
+
+}
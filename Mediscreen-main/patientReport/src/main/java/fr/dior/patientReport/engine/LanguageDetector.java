@@ -0,0 +1,132 @@
+package fr.dior.patientReport.engine;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Détection peu coûteuse de la langue d'une note (français ou anglais) à partir des mots outils
+ * et des lettres accentuées de son début. Seuls les premiers caractères sont lus, et les mots outils
+ * sont recherchés par une clé numérique : aucun objet n'est créé pendant la détection.
+ */
+public final class LanguageDetector {
+
+	public static final String FRENCH = "fr";
+	public static final String ENGLISH = "en";
+
+	// Nombre de caractères lus au début de la note
+	private static final int SAMPLE_LENGTH = 1024;
+
+	// Longueur maximale d'un mot outil
+	private static final int MAX_WORD_LENGTH = 5;
+
+	// Bits par caractère de la clé d'un mot : 5 caractères jusqu'à U+0FFF tiennent dans un long
+	private static final int CHAR_BITS = 12;
+	private static final char MAX_KEY_CHAR = (1 << CHAR_BITS) - 1;
+
+	// Clé d'un mot qui ne peut pas être un mot outil
+	private static final long NO_KEY = -1;
+
+	// Nombre minimal d'indices, et rapport minimal entre les deux langues, pour retenir une langue
+	private static final int MIN_HINTS = 2;
+	private static final int MIN_RATIO = 2;
+
+	// Clés des mots outils triées pour une recherche dichotomique, et langue de chacun
+	private static final long[] STOP_WORD_KEYS;
+	private static final String[] STOP_WORD_LANGUAGES;
+
+	static {
+		Map<Long, String> stopWords = new TreeMap<Long, String>();
+		for (String word : new String[] { "le", "la", "les", "de", "des", "du", "un", "une", "et", "est", "au",
+				"aux", "avec", "pour", "dans", "sur", "pas", "que", "qui", "il", "elle", "ses", "son", "sa", "ce",
+				"cette", "mais", "ou", "par", "plus", "très", "été", "avoir", "être" }) {
+			stopWords.put(key(word), FRENCH);
+		}
+		for (String word : new String[] { "the", "and", "of", "is", "are", "with", "for", "that", "this", "to",
+				"was", "has", "have", "he", "she", "his", "her", "they", "their", "not", "but", "or", "by", "from",
+				"at", "be", "been", "which", "some", "any", "no" }) {
+			stopWords.put(key(word), ENGLISH);
+		}
+		STOP_WORD_KEYS = stopWords.keySet().stream().mapToLong(Long::longValue).toArray();
+		STOP_WORD_LANGUAGES = stopWords.values().toArray(new String[0]);
+	}
+
+	private LanguageDetector() {
+	}
+
+	/**
+	 * @param language : Code de langue normalisé
+	 * @return Vrai si la langue peut être détectée, et donc associée à un terme déclencheur
+	 */
+	public static boolean isSupported(String language) {
+		return FRENCH.equals(language) || ENGLISH.equals(language);
+	}
+
+	/**
+	 * @param text : Corps de la note
+	 * @return FRENCH ou ENGLISH, null si la langue n'est pas reconnue avec certitude
+	 */
+	public static String detect(CharSequence text) {
+		if (text == null) {
+			return null;
+		}
+		int french = 0;
+		int english = 0;
+		long wordKey = 0;
+		int wordLength = 0;
+		int end = Math.min(text.length(), SAMPLE_LENGTH);
+		for (int i = 0; i <= end; i++) {
+			char c = i < end ? Character.toLowerCase(text.charAt(i)) : ' ';
+			if (Character.isLetter(c)) {
+				// Lettres propres au français
+				if (c == 'é' || c == 'è' || c == 'ê' || c == 'à' || c == 'ù' || c == 'ç' || c == 'œ' || c == 'î'
+						|| c == 'ô' || c == 'û') {
+					french++;
+				}
+				wordKey = appendKey(wordKey, c);
+				wordLength++;
+				continue;
+			}
+			if (wordLength > 0 && wordLength <= MAX_WORD_LENGTH && wordKey != NO_KEY) {
+				String language = language(wordKey);
+				if (FRENCH.equals(language)) {
+					french++;
+				} else if (ENGLISH.equals(language)) {
+					english++;
+				}
+			}
+			wordKey = 0;
+			wordLength = 0;
+		}
+		if (french >= MIN_HINTS && french >= MIN_RATIO * english) {
+			return FRENCH;
+		}
+		if (english >= MIN_HINTS && english >= MIN_RATIO * french) {
+			return ENGLISH;
+		}
+		return null;
+	}
+
+	// Ajoute un caractère à la clé d'un mot ; les caractères sont non nuls, la clé d'un mot est donc unique
+	private static long appendKey(long key, char c) {
+		if (key == NO_KEY || c > MAX_KEY_CHAR) {
+			return NO_KEY;
+		}
+		return (key << CHAR_BITS) | c;
+	}
+
+	private static long key(String word) {
+		long key = 0;
+		for (int i = 0; i < word.length(); i++) {
+			key = appendKey(key, word.charAt(i));
+		}
+		return key;
+	}
+
+	// Langue d'un mot outil, null si la clé n'est pas celle d'un mot outil
+	private static String language(long key) {
+		int index = Arrays.binarySearch(STOP_WORD_KEYS, key);
+		return index < 0 ? null : STOP_WORD_LANGUAGES[index];
+	}
+
+}
@@ -0,0 +1,156 @@
+package fr.dior.patientReport.engine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.dior.patientReport.model.CacheStats;
+
+/**
+ * Cache borné dont les entrées les moins récemment utilisées sont évincées (LRU)
+ * au-delà du nombre maximal d'entrées ou du poids maximal, avec compteurs de succès, d'échecs et d'évictions.
+ * Le poids d'une entrée est estimé par weigh, nul par défaut : seul le nombre d'entrées borne alors le cache.
+ * @param <K> : Type des clés
+ * @param <V> : Type des valeurs
+ */
+public class LruCache<K, V> {
+
+	private final int maxEntries;
+
+	// Poids maximal en octets, 0 pour ne borner que le nombre d'entrées
+	private final long maxBytes;
+
+	private final Map<K, V> entries;
+
+	// Poids estimé des entrées présentes, modifié sous le verrou de entries
+	private long weight;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	public LruCache(int maxEntries) {
+		this(maxEntries, 0);
+	}
+
+	public LruCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				if (size() > LruCache.this.maxEntries) {
+					weight -= weigh(eldest.getValue());
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Estime la mémoire occupée par une valeur
+	 * @param value : Valeur conservée
+	 * @return Le poids estimé en octets
+	 */
+	protected long weigh(V value) {
+		return 0;
+	}
+
+	/**
+	 * Recherche une valeur dans le cache
+	 * @param key : Clé recherchée
+	 * @return La valeur, null si elle n'est pas dans le cache
+	 */
+	public V get(K key) {
+		V value;
+		synchronized (entries) {
+			value = entries.get(key);
+		}
+		if (value == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return value;
+	}
+
+	/**
+	 * Recherche une valeur sans modifier les compteurs, pour vérifier à nouveau le cache après un échec
+	 * déjà compté par get
+	 * @param key : Clé recherchée
+	 * @return La valeur, null si elle n'est pas dans le cache
+	 */
+	public V peek(K key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	/**
+	 * Ajoute une valeur au cache
+	 * @param key : Clé de la valeur
+	 * @param value : Valeur à conserver
+	 */
+	public void put(K key, V value) {
+		if (maxEntries <= 0) {
+			return;
+		}
+		long valueWeight = weigh(value);
+		if (maxBytes > 0 && valueWeight > maxBytes) {
+			// Valeur plus lourde que le cache entier : elle n'est pas conservée
+			return;
+		}
+		synchronized (entries) {
+			V previous = entries.put(key, value);
+			weight += valueWeight - (previous == null ? 0 : weigh(previous));
+			if (maxBytes > 0) {
+				// Éviction des entrées les moins récemment utilisées jusqu'à repasser sous le poids maximal
+				Iterator<V> eldest = entries.values().iterator();
+				while (weight > maxBytes && eldest.hasNext()) {
+					weight -= weigh(eldest.next());
+					eldest.remove();
+					evictions.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Vide le cache, sans remettre à zéro les compteurs
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+			weight = 0;
+		}
+	}
+
+	/**
+	 * @return Les compteurs d'utilisation du cache
+	 */
+	public CacheStats getStats() {
+		int size;
+		long currentWeight;
+		synchronized (entries) {
+			size = entries.size();
+			currentWeight = weight;
+		}
+		return CacheStats.builder()
+				.size(size)
+				.maxEntries(maxEntries)
+				.weight(currentWeight)
+				.maxBytes(maxBytes)
+				.hits(hits.get())
+				.misses(misses.get())
+				.evictions(evictions.get())
+				.build();
+	}
+
+}
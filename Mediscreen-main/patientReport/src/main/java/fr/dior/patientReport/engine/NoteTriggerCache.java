@@ -0,0 +1,17 @@
+package fr.dior.patientReport.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache borné des termes déclencheurs trouvés dans chaque note, indexé par identifiant de note.
+ * Seules les notes nouvelles ou modifiées sont à nouveau analysées.
+ */
+@Component
+public class NoteTriggerCache extends LruCache<String, NoteTriggers> {
+
+	public NoteTriggerCache(@Value("${patientReport.note-cache.max-entries:100000}") int maxEntries) {
+		super(maxEntries);
+	}
+
+}
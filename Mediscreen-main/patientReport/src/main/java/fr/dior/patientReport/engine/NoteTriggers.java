@@ -0,0 +1,35 @@
+package fr.dior.patientReport.engine;
+
+/**
+ * Termes déclencheurs trouvés dans une note, mémorisés avec ce qui permet de vérifier
+ * qu'ils sont toujours valables : l'empreinte du corps de la note et la version du dictionnaire.
+ */
+public final class NoteTriggers {
+
+	private final long bodyHash;
+
+	private final long dictionaryVersion;
+
+	// Masque des termes trouvés dans la note
+	private final long[] mask;
+
+	public NoteTriggers(long bodyHash, long dictionaryVersion, long[] mask) {
+		this.bodyHash = bodyHash;
+		this.dictionaryVersion = dictionaryVersion;
+		this.mask = mask;
+	}
+
+	/**
+	 * @param bodyHash : Empreinte du corps actuel de la note
+	 * @param dictionaryVersion : Version actuelle du dictionnaire
+	 * @return Vrai si le résultat mémorisé correspond toujours à la note et au dictionnaire
+	 */
+	public boolean matches(long bodyHash, long dictionaryVersion) {
+		return this.bodyHash == bodyHash && this.dictionaryVersion == dictionaryVersion;
+	}
+
+	public long[] getMask() {
+		return mask;
+	}
+
+}
@@ -0,0 +1,252 @@
+package fr.dior.patientReport.engine;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Photographie immuable de la population, rangée en colonnes de types primitifs :
+ * une ligne par patient, une colonne par donnée (âge, sexe, masque des termes, évaluation).
+ * Les agrégats sont calculés par balayage parallèle de tranches de lignes, chaque tranche
+ * produisant des compteurs partiels additionnés à la fin, sans objet par patient.
+ */
+public final class PopulationSnapshot {
+
+	// Nombre minimal de patients par tranche, en dessous duquel le découpage coûte plus qu'il ne rapporte
+	private static final int MIN_CHUNK_SIZE = 16384;
+
+	// Âge maximal stocké, les âges supérieurs étant ramenés à cette valeur
+	private static final int MAX_AGE = 255;
+
+	private final TriggerDictionary dictionary;
+
+	private final RiskTable riskTable;
+
+	// Date à laquelle les âges ont été calculés
+	private final LocalDate date;
+
+	private final int[] patientIds;
+
+	// Code du sexe (RiskTable.SEX_F, SEX_M ou SEX_OTHER)
+	private final byte[] sexCodes;
+
+	// Âge, lu comme un octet non signé
+	private final byte[] ages;
+
+	// Nombre de termes déclencheurs distincts
+	private final short[] triggerCounts;
+
+	// Index de l'évaluation dans riskTable.getAssessments()
+	private final byte[] assessmentCodes;
+
+	// Masques des termes, maskWords mots consécutifs par patient
+	private final long[] triggerMasks;
+
+	private final int maskWords;
+
+	private PopulationSnapshot(TriggerDictionary dictionary, RiskTable riskTable, LocalDate date, int[] patientIds,
+			byte[] sexCodes, byte[] ages, short[] triggerCounts, byte[] assessmentCodes, long[] triggerMasks, int maskWords) {
+		this.dictionary = dictionary;
+		this.riskTable = riskTable;
+		this.date = date;
+		this.patientIds = patientIds;
+		this.sexCodes = sexCodes;
+		this.ages = ages;
+		this.triggerCounts = triggerCounts;
+		this.assessmentCodes = assessmentCodes;
+		this.triggerMasks = triggerMasks;
+		this.maskWords = maskWords;
+	}
+
+	/**
+	 * Construit la photographie et évalue le risque de chaque patient
+	 * @param dictionary : Photographie du dictionnaire ayant produit les masques
+	 * @param riskTable : Table de décision utilisée pour les évaluations
+	 * @param date : Date de calcul des âges
+	 * @param patientIds : Identifiants des patients
+	 * @param sexCodes : Codes du sexe des patients
+	 * @param ages : Âges des patients
+	 * @param triggerMasks : Masques des patients, TriggerMask.empty(dictionary.size()).length mots par patient
+	 * @return La photographie
+	 */
+	public static PopulationSnapshot of(TriggerDictionary dictionary, RiskTable riskTable, LocalDate date,
+			int[] patientIds, int[] sexCodes, int[] ages, long[] triggerMasks) {
+		int size = patientIds.length;
+		int maskWords = TriggerMask.empty(dictionary.size()).length;
+		byte[] sexColumn = new byte[size];
+		byte[] ageColumn = new byte[size];
+		short[] triggerCounts = new short[size];
+		byte[] assessmentCodes = new byte[size];
+		for (int i = 0; i < size; i++) {
+			int age = Math.min(Math.max(ages[i], 0), MAX_AGE);
+			int triggers = 0;
+			for (int word = i * maskWords; word < (i + 1) * maskWords; word++) {
+				triggers += Long.bitCount(triggerMasks[word]);
+			}
+			sexColumn[i] = (byte) sexCodes[i];
+			ageColumn[i] = (byte) age;
+			triggerCounts[i] = (short) triggers;
+			assessmentCodes[i] = (byte) riskTable.assessmentCode(sexCodes[i], age, triggers);
+		}
+		return new PopulationSnapshot(dictionary, riskTable, date, patientIds.clone(), sexColumn, ageColumn,
+				triggerCounts, assessmentCodes, triggerMasks.clone(), maskWords);
+	}
+
+	/**
+	 * Compte les patients par sexe, tranche d'âge et évaluation
+	 * @param ageBandWidth : Largeur des tranches d'âge en années
+	 * @param pool : Pool exécutant les balayages
+	 * @return Les compteurs, à l'index (sexe * ageBandCount(ageBandWidth) + tranche) * nombre d'évaluations + évaluation
+	 */
+	public long[] riskHistogram(int ageBandWidth, ForkJoinPool pool) {
+		int bandCount = ageBandCount(ageBandWidth);
+		int assessmentCount = riskTable.getAssessments().size();
+		return scan(pool, (RiskTable.SEX_OTHER + 1) * bandCount * assessmentCount, (from, to, counts) -> {
+			for (int i = from; i < to; i++) {
+				int band = (ages[i] & 0xff) / ageBandWidth;
+				counts[(sexCodes[i] * bandCount + band) * assessmentCount + assessmentCodes[i]]++;
+			}
+		});
+	}
+
+	/**
+	 * @param ageBandWidth : Largeur des tranches d'âge en années
+	 * @return Le nombre de tranches d'âge de l'histogramme
+	 */
+	public int ageBandCount(int ageBandWidth) {
+		return MAX_AGE / ageBandWidth + 1;
+	}
+
+	/**
+	 * Compte, pour chaque terme du dictionnaire, les patients d'une cohorte chez qui il a été trouvé
+	 * @param sexCode : Code du sexe de la cohorte, négatif pour tous
+	 * @param minAge : Âge minimal inclus
+	 * @param maxAge : Âge maximal inclus
+	 * @param assessmentCode : Index de l'évaluation de la cohorte, négatif pour toutes
+	 * @param pool : Pool exécutant les balayages
+	 * @return Le nombre de patients par index de terme, suivi de la taille de la cohorte
+	 */
+	public long[] triggerFrequency(int sexCode, int minAge, int maxAge, int assessmentCode, ForkJoinPool pool) {
+		int termCount = dictionary.size();
+		return scan(pool, termCount + 1, (from, to, counts) -> {
+			for (int i = from; i < to; i++) {
+				int age = ages[i] & 0xff;
+				if ((sexCode >= 0 && sexCodes[i] != sexCode) || age < minAge || age > maxAge
+						|| (assessmentCode >= 0 && assessmentCodes[i] != assessmentCode)) {
+					continue;
+				}
+				counts[termCount]++;
+				for (int word = 0; word < maskWords; word++) {
+					long bits = triggerMasks[i * maskWords + word];
+					while (bits != 0) {
+						counts[(word << 6) + Long.numberOfTrailingZeros(bits)]++;
+						bits &= bits - 1;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Réévalue toute la population avec une autre table de décision et éventuellement un sous-ensemble
+	 * des termes, à partir des masques déjà calculés, sans analyser de nouveau les notes
+	 * @param proposedTable : Table de décision proposée
+	 * @param keepMask : Masque des termes conservés (index du dictionnaire de la photographie), null pour tous
+	 * @param pool : Pool exécutant les balayages
+	 * @return Le nombre de patients à l'index évaluation actuelle * nombre d'évaluations proposées + évaluation proposée
+	 */
+	public long[] transitions(RiskTable proposedTable, long[] keepMask, ForkJoinPool pool) {
+		return transitions(proposedTable, keepMask, null, pool);
+	}
+
+	/**
+	 * Réévalue toute la population comme transitions, en ajoutant aux termes conservés de chaque patient
+	 * des termes qui ne sont pas dans le dictionnaire de la photographie
+	 * @param proposedTable : Table de décision proposée
+	 * @param keepMask : Masque des termes conservés (index du dictionnaire de la photographie), null pour tous
+	 * @param addedTriggers : Nombre de termes ajoutés trouvés pour chaque identifiant de patient, null pour aucun
+	 * @param pool : Pool exécutant les balayages
+	 * @return Le nombre de patients à l'index évaluation actuelle * nombre d'évaluations proposées + évaluation proposée
+	 */
+	public long[] transitions(RiskTable proposedTable, long[] keepMask, Map<Integer, Integer> addedTriggers,
+			ForkJoinPool pool) {
+		int proposedCount = proposedTable.getAssessments().size();
+		return scan(pool, riskTable.getAssessments().size() * proposedCount, (from, to, counts) -> {
+			for (int i = from; i < to; i++) {
+				int triggers = triggerCounts[i];
+				if (keepMask != null) {
+					triggers = 0;
+					for (int word = 0; word < maskWords; word++) {
+						triggers += Long.bitCount(triggerMasks[i * maskWords + word] & keepMask[word]);
+					}
+				}
+				if (addedTriggers != null) {
+					triggers += addedTriggers.getOrDefault(patientIds[i], 0);
+				}
+				int proposed = proposedTable.assessmentCode(sexCodes[i], ages[i] & 0xff, triggers);
+				counts[assessmentCodes[i] * proposedCount + proposed]++;
+			}
+		});
+	}
+
+	// Balayage d'une tranche de lignes [from, to[, qui ajoute ses résultats aux compteurs de la tranche
+	private interface ChunkScan {
+		void scan(int from, int to, long[] counts);
+	}
+
+	// Découpe la population en tranches balayées en parallèle, puis additionne les compteurs partiels
+	private long[] scan(ForkJoinPool pool, int width, ChunkScan chunkScan) {
+		int size = patientIds.length;
+		int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, size / MIN_CHUNK_SIZE));
+		List<Callable<long[]>> tasks = new ArrayList<Callable<long[]>>(chunks);
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int from = (int) ((long) size * chunk / chunks);
+			int to = (int) ((long) size * (chunk + 1) / chunks);
+			tasks.add(() -> {
+				long[] counts = new long[width];
+				chunkScan.scan(from, to, counts);
+				return counts;
+			});
+		}
+		long[] total = new long[width];
+		try {
+			for (Future<long[]> result : pool.invokeAll(tasks)) {
+				long[] counts = result.get();
+				for (int i = 0; i < width; i++) {
+					total[i] += counts[i];
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Population scan failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Population scan interrupted", e);
+		}
+		return total;
+	}
+
+	/**
+	 * @return Le nombre de patients de la photographie
+	 */
+	public int size() {
+		return patientIds.length;
+	}
+
+	public TriggerDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public RiskTable getRiskTable() {
+		return riskTable;
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+}
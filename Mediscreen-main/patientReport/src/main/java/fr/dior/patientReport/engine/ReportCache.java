@@ -0,0 +1,53 @@
+package fr.dior.patientReport.engine;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import fr.dior.patientReport.model.Report;
+
+/**
+ * Cache borné des rapports calculés, indexé par l'empreinte des données d'entrée
+ * (patient, notes, version du dictionnaire, date du jour).
+ * La taille d'un rapport n'est pas fixe : elle croît avec le nombre de termes trouvés (liste des termes
+ * et masque hexadécimal). Le cache est donc borné à la fois par son nombre d'entrées et par le poids estimé
+ * de ses rapports, qui reste borné même si le dictionnaire grandit.
+ */
+@Component
+public class ReportCache extends LruCache<Long, Report> {
+
+	// Poids estimé d'une entrée hors chaînes : clé, entrée de la table, rapport et liste des termes
+	private static final long ENTRY_OVERHEAD = 160;
+
+	// Poids estimé d'une chaîne hors caractères, et de sa référence dans une liste
+	private static final long STRING_OVERHEAD = 48;
+
+	public ReportCache(@Value("${patientReport.cache.max-entries:10000}") int maxEntries,
+			@Value("${patientReport.cache.max-bytes:67108864}") long maxBytes) {
+		super(maxEntries, maxBytes);
+	}
+
+	/**
+	 * Estime la mémoire occupée par un rapport à partir de sa liste de termes et de la longueur de son masque
+	 * @param report : Rapport conservé
+	 * @return Le poids estimé en octets
+	 */
+	@Override
+	protected long weigh(Report report) {
+		long weight = ENTRY_OVERHEAD + weigh(report.getTriggerMask()) + weigh(report.getAssessment());
+		List<String> triggers = report.getTriggers();
+		if (triggers != null) {
+			for (String trigger : triggers) {
+				weight += weigh(trigger);
+			}
+		}
+		return weight;
+	}
+
+	// Au plus deux octets par caractère
+	private static long weigh(String value) {
+		return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+	}
+
+}
@@ -0,0 +1,14 @@
+package fr.dior.patientReport.engine;
+
+import org.springframework.stereotype.Component;
+
+import fr.dior.patientReport.model.Report;
+
+/**
+ * Regroupement des calculs de rapport simultanés, indexé par l'empreinte des données d'entrée
+ * (patient, notes, versions du dictionnaire et des règles, date du jour).
+ */
+@Component
+public class ReportSingleFlight extends SingleFlight<Long, Report> {
+
+}
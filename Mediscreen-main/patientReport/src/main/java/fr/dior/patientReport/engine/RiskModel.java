@@ -0,0 +1,34 @@
+package fr.dior.patientReport.engine;
+
+import fr.dior.patientReport.model.Patient;
+
+/**
+ * Modèle de dépistage enfichable (diabète, cardiovasculaire, rénal...) disposant de ses propres termes
+ * déclencheurs et de sa propre évaluation. Chaque modèle déclaré comme bean Spring est pris en compte :
+ * les notes sont analysées une seule fois avec l'union des termes de tous les modèles, puis chaque modèle
+ * évalue le risque à partir des seuls termes de son dictionnaire.
+ * Tous les modèles doivent utiliser le même mode de recherche (délimitation des termes).
+ */
+public interface RiskModel {
+
+	/**
+	 * @return Le nom du modèle, unique, utilisé comme clé des rapports
+	 */
+	String getName();
+
+	/**
+	 * @return La photographie courante des termes déclencheurs du modèle ; l'union est reconstruite
+	 * dès que l'empreinte d'une photographie change
+	 */
+	TriggerDictionary getDictionary();
+
+	/**
+	 * Évalue le risque d'un patient
+	 * @param patient : Patient évalué
+	 * @param age : Âge du patient
+	 * @param triggerMask : Masque des termes trouvés, indexé comme le dictionnaire du modèle
+	 * @return L'évaluation du risque
+	 */
+	String assess(Patient patient, int age, long[] triggerMask);
+
+}
@@ -0,0 +1,143 @@
+package fr.dior.patientReport.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Photographie immuable de l'union des dictionnaires des modèles de dépistage : un seul automate par langue
+ * pour analyser les notes, dont chaque terme distinct est son propre concept, et pour chaque modèle le concept
+ * de chacun de ces termes. Un terme commun à plusieurs modèles n'est recherché qu'une fois, même si les modèles
+ * le rangent sous des concepts différents ; s'ils ne l'associent pas à la même langue, il est recherché dans
+ * toutes les notes.
+ */
+public final class RiskModelSet {
+
+	private final List<RiskModel> models;
+
+	// Photographie du dictionnaire de chaque modèle utilisée pour construire l'union
+	private final List<TriggerDictionary> modelDictionaries;
+
+	// Dictionnaire de l'union des termes de tous les modèles, chaque terme distinct étant son propre concept
+	private final TriggerDictionary dictionary;
+
+	// Pour chaque modèle, index de son concept pour chaque terme de l'union, -1 si le modèle n'a pas ce terme
+	private final int[][] termToConcept;
+
+	// Empreinte des dictionnaires des modèles, pour savoir si l'union doit être reconstruite
+	private final long key;
+
+	private RiskModelSet(List<RiskModel> models, List<TriggerDictionary> modelDictionaries, TriggerDictionary dictionary,
+			int[][] termToConcept, long key) {
+		this.models = models;
+		this.modelDictionaries = modelDictionaries;
+		this.dictionary = dictionary;
+		this.termToConcept = termToConcept;
+		this.key = key;
+	}
+
+	/**
+	 * Construit l'union des dictionnaires des modèles
+	 * @param version : Numéro de version de l'union
+	 * @param models : Modèles de dépistage, dans l'ordre de présentation des rapports
+	 * @param dictionaries : Photographie du dictionnaire de chaque modèle
+	 * @return La photographie de l'union
+	 * @throws IllegalArgumentException si les modèles n'utilisent pas le même mode de recherche
+	 */
+	public static RiskModelSet of(long version, List<RiskModel> models, List<TriggerDictionary> dictionaries) {
+		boolean wordBoundary = !dictionaries.isEmpty() && dictionaries.get(0).isWordBoundary();
+		// Langue de chaque terme distinct, null si les modèles ne lui associent pas tous la même
+		Map<String, TriggerTerm> distinctTerms = new LinkedHashMap<String, TriggerTerm>();
+		for (int model = 0; model < models.size(); model++) {
+			if (dictionaries.get(model).isWordBoundary() != wordBoundary) {
+				throw new IllegalArgumentException("Risk model " + models.get(model).getName()
+						+ " does not use the same word boundary setting as the other models");
+			}
+			for (TriggerTerm term : dictionaries.get(model).getTriggerTerms()) {
+				TriggerTerm known = distinctTerms.get(term.getTerm());
+				if (known == null) {
+					distinctTerms.put(term.getTerm(), TriggerTerm.of(term.getTerm(), term.getLanguage(), term.getTerm()));
+				} else if (known.getLanguage() != null && !Objects.equals(known.getLanguage(), term.getLanguage())) {
+					distinctTerms.put(term.getTerm(), TriggerTerm.of(term.getTerm(), null, term.getTerm()));
+				}
+			}
+		}
+		TriggerDictionary dictionary = TriggerDictionary.compile(version, new ArrayList<TriggerTerm>(distinctTerms.values()),
+				wordBoundary);
+		int[][] termToConcept = new int[models.size()][dictionary.size()];
+		for (int model = 0; model < models.size(); model++) {
+			TriggerDictionary modelDictionary = dictionaries.get(model);
+			Arrays.fill(termToConcept[model], -1);
+			for (TriggerTerm term : modelDictionary.getTriggerTerms()) {
+				// Le concept est retrouvé par son nom, le terme par lui-même puisqu'il est son propre concept dans l'union
+				termToConcept[model][dictionary.indexOf(term.getTerm())] = modelDictionary.indexOf(term.getConcept());
+			}
+		}
+		return new RiskModelSet(List.copyOf(models), List.copyOf(dictionaries), dictionary, termToConcept,
+				key(dictionaries));
+	}
+
+	/**
+	 * @param dictionaries : Photographie du dictionnaire de chaque modèle
+	 * @return L'empreinte des dictionnaires, identique tant qu'aucun n'a changé
+	 */
+	public static long key(List<TriggerDictionary> dictionaries) {
+		Fingerprint fingerprint = new Fingerprint().add(dictionaries.size());
+		for (TriggerDictionary dictionary : dictionaries) {
+			fingerprint.add(dictionary.getFingerprint());
+		}
+		return fingerprint.value();
+	}
+
+	/**
+	 * Extrait le masque d'un modèle du masque de l'union
+	 * @param model : Index du modèle
+	 * @param unionMask : Masque des termes trouvés, indexé comme le dictionnaire de l'union
+	 * @return Le masque des concepts trouvés, indexé comme le dictionnaire du modèle
+	 */
+	public long[] modelMask(int model, long[] unionMask) {
+		int[] concepts = termToConcept[model];
+		long[] mask = TriggerMask.empty(modelDictionaries.get(model).size());
+		for (int term = 0; term < concepts.length; term++) {
+			if (concepts[term] >= 0 && TriggerMask.get(unionMask, term)) {
+				TriggerMask.set(mask, concepts[term]);
+			}
+		}
+		return mask;
+	}
+
+	public List<RiskModel> getModels() {
+		return models;
+	}
+
+	public TriggerDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @param model : Index du modèle
+	 * @return La photographie du dictionnaire du modèle utilisée pour construire l'union
+	 */
+	public TriggerDictionary getModelDictionary(int model) {
+		return modelDictionaries.get(model);
+	}
+
+	public long getKey() {
+		return key;
+	}
+
+	/**
+	 * @return Les noms des modèles
+	 */
+	public List<String> getNames() {
+		List<String> names = new ArrayList<String>(models.size());
+		for (RiskModel model : models) {
+			names.add(model.getName());
+		}
+		return names;
+	}
+
+}
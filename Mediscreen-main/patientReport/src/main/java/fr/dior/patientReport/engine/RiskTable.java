@@ -0,0 +1,281 @@
+package fr.dior.patientReport.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import fr.dior.patientReport.model.RiskRule;
+
+/**
+ * Table de décision compilée à partir des règles d'évaluation du risque.
+ * Les règles sont évaluées une fois pour toutes à la compilation, pour chaque combinaison
+ * (sexe, tranche d'âge, nombre de termes) : une évaluation n'est ensuite qu'une lecture de tableau.
+ */
+public final class RiskTable {
+
+	// Évaluation lorsqu'aucune règle n'est satisfaite
+	public static final String DEFAULT_ASSESSMENT = "None";
+
+	// Codes de sexe : F, M, puis toute autre valeur
+	public static final int SEX_F = 0;
+	public static final int SEX_M = 1;
+	public static final int SEX_OTHER = 2;
+	private static final int SEX_COUNT = 3;
+
+	// Âge maximal distingué, les âges supérieurs appartenant à la dernière tranche
+	private static final int MAX_AGE = 150;
+
+	// Bornes acceptées pour des règles reçues d'un utilisateur, qui limitent la taille de la table compilée
+	private static final int MAX_RULES = 100;
+	private static final int MAX_TRIGGERS = 1000;
+
+	private final long version;
+
+	private final List<RiskRule> rules;
+
+	// Empreinte du contenu des règles, stable entre deux démarrages
+	private final long fingerprint;
+
+	// Tranche de chaque âge de 0 à maxAge
+	private final int[] ageBands;
+
+	private final int bandCount;
+
+	// Nombre de termes à partir duquel l'évaluation ne change plus
+	private final int triggersCap;
+
+	// Évaluations distinctes, référencées par leur index dans la table
+	private final String[] assessments;
+
+	// Index de l'évaluation pour chaque (sexe, tranche d'âge, nombre de termes)
+	private final byte[] table;
+
+	private RiskTable(long version, List<RiskRule> rules, long fingerprint, int[] ageBands, int bandCount,
+			int triggersCap, String[] assessments, byte[] table) {
+		this.version = version;
+		this.rules = rules;
+		this.fingerprint = fingerprint;
+		this.ageBands = ageBands;
+		this.bandCount = bandCount;
+		this.triggersCap = triggersCap;
+		this.assessments = assessments;
+		this.table = table;
+	}
+
+	/**
+	 * Règles historiques de l'évaluation du risque de diabète, utilisées si aucune règle n'est en base
+	 * @return Les règles par défaut, dans leur ordre d'évaluation
+	 */
+	public static List<RiskRule> defaultRules() {
+		return List.of(
+				new RiskRule(null, 1, "F", null, 30, 4, 6, "Danger"),
+				new RiskRule(null, 2, "F", null, 30, 7, null, "Early onset"),
+				new RiskRule(null, 3, "M", null, 30, 3, 4, "Danger"),
+				new RiskRule(null, 4, "M", null, 30, 5, null, "Early onset"),
+				new RiskRule(null, 5, null, 31, null, 2, 5, "Borderline"),
+				new RiskRule(null, 6, null, 31, null, 6, 7, "Danger"),
+				new RiskRule(null, 7, null, 31, null, 8, null, "Early onset"));
+	}
+
+	/**
+	 * Vérifie des règles reçues d'un utilisateur avant leur compilation
+	 * @param rules : Règles à vérifier
+	 * @throws IllegalArgumentException si une règle est absente, sans évaluation, d'un sexe inconnu,
+	 * ou si une borne est négative, trop grande ou supérieure à la borne opposée
+	 */
+	public static void validate(List<RiskRule> rules) {
+		if (rules.size() > MAX_RULES) {
+			throw new IllegalArgumentException("At most " + MAX_RULES + " rules can be compiled");
+		}
+		for (int i = 0; i < rules.size(); i++) {
+			RiskRule rule = rules.get(i);
+			if (rule == null) {
+				throw new IllegalArgumentException("Rule " + i + " is missing");
+			}
+			if (rule.getAssessment() == null || rule.getAssessment().isBlank()) {
+				throw new IllegalArgumentException("Rule " + i + " has no assessment");
+			}
+			if (rule.getSex() != null && !"F".equals(rule.getSex()) && !"M".equals(rule.getSex())) {
+				throw new IllegalArgumentException("Rule " + i + " has an unknown sex " + rule.getSex());
+			}
+			checkBounds(i, "age", rule.getMinAge(), rule.getMaxAge(), MAX_AGE);
+			checkBounds(i, "triggers", rule.getMinTriggers(), rule.getMaxTriggers(), MAX_TRIGGERS);
+		}
+	}
+
+	private static void checkBounds(int index, String name, Integer min, Integer max, int limit) {
+		if ((min != null && (min < 0 || min > limit)) || (max != null && (max < 0 || max > limit))) {
+			throw new IllegalArgumentException("Rule " + index + " " + name + " bounds must be between 0 and " + limit);
+		}
+		if (min != null && max != null && min > max) {
+			throw new IllegalArgumentException("Rule " + index + " minimum " + name + " is greater than its maximum");
+		}
+	}
+
+	/**
+	 * Compile les règles en table de décision, après les avoir vérifiées
+	 * @param version : Numéro de version de la table
+	 * @param rules : Règles, dans leur ordre d'évaluation
+	 * @return La table compilée
+	 * @throws IllegalArgumentException si les règles ne sont pas valides ou comptent plus d'évaluations
+	 * distinctes que n'en référence un octet de la table
+	 */
+	public static RiskTable compile(long version, List<RiskRule> rules) {
+		validate(rules);
+		// Bornes des tranches d'âge et plafond du nombre de termes issus des règles
+		TreeSet<Integer> ageCuts = new TreeSet<Integer>();
+		int triggersCap = 0;
+		for (RiskRule rule : rules) {
+			if (rule.getMinAge() != null && rule.getMinAge() > 0) {
+				ageCuts.add(rule.getMinAge());
+			}
+			if (rule.getMaxAge() != null && rule.getMaxAge() >= 0) {
+				ageCuts.add(rule.getMaxAge() + 1);
+			}
+			if (rule.getMinTriggers() != null) {
+				triggersCap = Math.max(triggersCap, rule.getMinTriggers());
+			}
+			if (rule.getMaxTriggers() != null) {
+				triggersCap = Math.max(triggersCap, rule.getMaxTriggers() + 1);
+			}
+		}
+		int maxAge = Math.max(MAX_AGE, ageCuts.isEmpty() ? 0 : ageCuts.last());
+		int[] ageBands = new int[maxAge + 1];
+		List<Integer> bandAges = new ArrayList<Integer>();
+		bandAges.add(0);
+		for (int age = 0; age <= maxAge; age++) {
+			int band = ageCuts.headSet(age, true).size();
+			ageBands[age] = band;
+			if (band == bandAges.size()) {
+				bandAges.add(age);
+			}
+		}
+		int bandCount = bandAges.size();
+
+		// Évaluation des règles pour une valeur représentative de chaque case
+		List<String> assessments = new ArrayList<String>();
+		assessments.add(DEFAULT_ASSESSMENT);
+		byte[] table = new byte[SEX_COUNT * bandCount * (triggersCap + 1)];
+		for (int sex = 0; sex < SEX_COUNT; sex++) {
+			for (int band = 0; band < bandCount; band++) {
+				for (int triggers = 0; triggers <= triggersCap; triggers++) {
+					String assessment = firstMatch(rules, sex, bandAges.get(band), triggers);
+					int index = assessments.indexOf(assessment);
+					if (index < 0) {
+						index = assessments.size();
+						if (index > Byte.MAX_VALUE) {
+							throw new IllegalArgumentException("At most " + Byte.MAX_VALUE + " distinct assessments can be compiled");
+						}
+						assessments.add(assessment);
+					}
+					table[(sex * bandCount + band) * (triggersCap + 1) + triggers] = (byte) index;
+				}
+			}
+		}
+		return new RiskTable(version, Collections.unmodifiableList(new ArrayList<RiskRule>(rules)), fingerprint(rules),
+				ageBands, bandCount, triggersCap, assessments.toArray(new String[0]), table);
+	}
+
+	// Empreinte des règles dans leur ordre d'évaluation, indépendante de leurs identifiants en base
+	private static long fingerprint(List<RiskRule> rules) {
+		Fingerprint fingerprint = new Fingerprint().add(rules.size());
+		for (RiskRule rule : rules) {
+			fingerprint.add(rule.getSex())
+				.add(bound(rule.getMinAge()))
+				.add(bound(rule.getMaxAge()))
+				.add(bound(rule.getMinTriggers()))
+				.add(bound(rule.getMaxTriggers()))
+				.add(rule.getAssessment());
+		}
+		return fingerprint.value();
+	}
+
+	private static long bound(Integer value) {
+		return value == null ? Long.MIN_VALUE : value;
+	}
+
+	// Première règle satisfaite, évaluée uniquement à la compilation
+	private static String firstMatch(List<RiskRule> rules, int sex, int age, int triggers) {
+		for (RiskRule rule : rules) {
+			if (rule.getSex() != null && sexCode(rule.getSex()) != sex) {
+				continue;
+			}
+			if ((rule.getMinAge() != null && age < rule.getMinAge())
+					|| (rule.getMaxAge() != null && age > rule.getMaxAge())
+					|| (rule.getMinTriggers() != null && triggers < rule.getMinTriggers())
+					|| (rule.getMaxTriggers() != null && triggers > rule.getMaxTriggers())) {
+				continue;
+			}
+			return rule.getAssessment();
+		}
+		return DEFAULT_ASSESSMENT;
+	}
+
+	/**
+	 * @param sex : Sexe du patient
+	 * @return Le code du sexe : SEX_F, SEX_M ou SEX_OTHER
+	 */
+	public static int sexCode(String sex) {
+		if ("F".equals(sex)) {
+			return SEX_F;
+		}
+		if ("M".equals(sex)) {
+			return SEX_M;
+		}
+		return SEX_OTHER;
+	}
+
+	/**
+	 * Évalue le risque par simple lecture de la table
+	 * @param sexCode : Code du sexe du patient
+	 * @param age : Âge du patient
+	 * @param triggersNumber : Nombre de termes déclencheurs
+	 * @return L'évaluation du risque
+	 */
+	public String assess(int sexCode, int age, int triggersNumber) {
+		return assessments[assessmentCode(sexCode, age, triggersNumber)];
+	}
+
+	/**
+	 * Même évaluation, retournée sous forme d'index dans getAssessments()
+	 * @param sexCode : Code du sexe du patient
+	 * @param age : Âge du patient
+	 * @param triggersNumber : Nombre de termes déclencheurs
+	 * @return L'index de l'évaluation du risque
+	 */
+	public int assessmentCode(int sexCode, int age, int triggersNumber) {
+		int band = ageBands[Math.min(Math.max(age, 0), ageBands.length - 1)];
+		return table[(sexCode * bandCount + band) * (triggersCap + 1) + Math.min(triggersNumber, triggersCap)];
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return L'empreinte du contenu des règles, contrairement à la version stable entre deux démarrages
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	public List<RiskRule> getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return Le nombre de termes à partir duquel l'évaluation ne change plus
+	 */
+	public int getTriggersCap() {
+		return triggersCap;
+	}
+
+	/**
+	 * @return Les évaluations distinctes, la première étant l'évaluation par défaut
+	 */
+	public List<String> getAssessments() {
+		return List.of(assessments);
+	}
+
+}
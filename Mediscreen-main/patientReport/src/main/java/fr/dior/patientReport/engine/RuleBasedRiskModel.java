@@ -0,0 +1,42 @@
+package fr.dior.patientReport.engine;
+
+import fr.dior.patientReport.model.Patient;
+
+/**
+ * Modèle de dépistage immuable défini par une liste de termes et une table de décision,
+ * l'évaluation dépendant du sexe, de l'âge et du nombre de termes trouvés.
+ */
+public final class RuleBasedRiskModel implements RiskModel {
+
+	private final String name;
+
+	private final TriggerDictionary dictionary;
+
+	private final RiskTable riskTable;
+
+	public RuleBasedRiskModel(String name, TriggerDictionary dictionary, RiskTable riskTable) {
+		this.name = name;
+		this.dictionary = dictionary;
+		this.riskTable = riskTable;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public TriggerDictionary getDictionary() {
+		return dictionary;
+	}
+
+	@Override
+	public String assess(Patient patient, int age, long[] triggerMask) {
+		return riskTable.assess(RiskTable.sexCode(patient.getSex()), age, TriggerMask.count(triggerMask));
+	}
+
+	public RiskTable getRiskTable() {
+		return riskTable;
+	}
+
+}
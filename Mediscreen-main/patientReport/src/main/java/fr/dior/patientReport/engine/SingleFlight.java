@@ -0,0 +1,82 @@
+package fr.dior.patientReport.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import fr.dior.patientReport.model.CoalescingStats;
+
+/**
+ * Regroupe les calculs identiques demandés simultanément : le premier appel pour une clé effectue le calcul,
+ * les appels suivants arrivant avant la fin de celui-ci attendent et partagent son résultat (ou son erreur).
+ * La clé est libérée dès la fin du calcul, un appel ultérieur effectue donc un nouveau calcul.
+ * @param <K> : Type des clés
+ * @param <V> : Type des résultats
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<K, CompletableFuture<V>>();
+
+	private final AtomicLong calls = new AtomicLong();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Effectue le calcul associé à une clé, ou attend celui déjà en cours pour la même clé
+	 * @param key : Clé identifiant les données d'entrée du calcul
+	 * @param computation : Calcul à effectuer si aucun n'est en cours pour cette clé
+	 * @return Le résultat du calcul, partagé par tous les appels simultanés pour cette clé
+	 */
+	public V execute(K key, Supplier<V> computation) {
+		calls.incrementAndGet();
+		CompletableFuture<V> flight = new CompletableFuture<V>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+		if (running != null) {
+			coalesced.incrementAndGet();
+			return await(running);
+		}
+		try {
+			V value = computation.get();
+			flight.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, flight);
+		}
+	}
+
+	// Attente du calcul en cours, son erreur éventuelle est relancée telle quelle
+	private V await(CompletableFuture<V> running) {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return Les compteurs des calculs regroupés
+	 */
+	public CoalescingStats getStats() {
+		long callCount = calls.get();
+		long coalescedCount = coalesced.get();
+		return CoalescingStats.builder()
+				.inFlight(inFlight.size())
+				.calls(callCount)
+				.computations(callCount - coalescedCount)
+				.coalesced(coalescedCount)
+				.build();
+	}
+
+}
@@ -0,0 +1,231 @@
+package fr.dior.patientReport.engine;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Normalisation des termes déclencheurs et du corps des notes : minuscules, accents retirés
+ * (é → e, ç → c), ligatures développées (œ → oe) et racinisation légère du dernier mot des termes
+ * (pluriels et féminins français et anglais).
+ * La table de normalisation des caractères est calculée une seule fois ; le corps d'une note est
+ * normalisé caractère par caractère pendant son analyse, sans création de chaîne.
+ */
+public final class TextNormalizer {
+
+	// Version des règles de normalisation, à incrémenter à chaque modification pour invalider les empreintes
+	public static final int VERSION = 1;
+
+	// Caractères couverts par la table (latin étendu et diacritiques combinants), les autres sont seulement mis en minuscules
+	private static final int TABLE_SIZE = 0x370;
+
+	// Longueur minimale de la racine d'un terme
+	private static final int MIN_STEM_LENGTH = 4;
+
+	// Nombre maximal de caractères conservés d'une fin de mot, et position du nombre de caractères dans sa représentation
+	private static final int MAX_ENDING_LENGTH = 3;
+	private static final int COUNT_SHIFT = 48;
+
+	// Nombre de caractères normalisés de chaque caractère (0 pour un diacritique combinant, 2 pour une ligature)
+	private static final byte[] LENGTHS = new byte[TABLE_SIZE];
+
+	// Premier et second caractère normalisé de chaque caractère
+	private static final char[] FIRST = new char[TABLE_SIZE];
+	private static final char[] SECOND = new char[TABLE_SIZE];
+
+	// Caractères normalisés qui sont des lettres ou des chiffres
+	private static final boolean[] WORD_CHARS = new boolean[TABLE_SIZE];
+
+	// Fins de mot admises après la racine d'un terme
+	private static final long[] INFLECTIONS = {
+			pack(""), pack("s"), pack("x"), pack("e"), pack("es"), pack("y"), pack("ies") };
+
+	static {
+		for (char c = 0; c < TABLE_SIZE; c++) {
+			String folded = foldChar(c);
+			LENGTHS[c] = (byte) folded.length();
+			FIRST[c] = folded.isEmpty() ? c : folded.charAt(0);
+			SECOND[c] = folded.length() > 1 ? folded.charAt(1) : c;
+			WORD_CHARS[c] = Character.isLetterOrDigit(c);
+		}
+	}
+
+	private TextNormalizer() {
+	}
+
+	// Normalisation d'un caractère isolé, utilisée pour calculer la table
+	private static String foldChar(char c) {
+		switch (c) {
+		case 'œ':
+		case 'Œ':
+			return "oe";
+		case 'æ':
+		case 'Æ':
+			return "ae";
+		case 'ß':
+			return "ss";
+		default:
+			break;
+		}
+		if (Character.getType(c) == Character.NON_SPACING_MARK) {
+			return "";
+		}
+		StringBuilder folded = new StringBuilder(2);
+		for (char d : Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).toCharArray()) {
+			if (Character.getType(d) != Character.NON_SPACING_MARK) {
+				folded.append(Character.toLowerCase(d));
+			}
+		}
+		return folded.length() == 0 || folded.length() > 2 ? String.valueOf(Character.toLowerCase(c)) : folded.toString();
+	}
+
+	/**
+	 * @param c : Caractère du texte
+	 * @return Le nombre de caractères normalisés correspondants : 0, 1 ou 2
+	 */
+	public static int length(char c) {
+		return c < TABLE_SIZE ? LENGTHS[c] : 1;
+	}
+
+	/**
+	 * @param c : Caractère du texte
+	 * @param k : Rang du caractère normalisé, inférieur à length(c)
+	 * @return Le k-ième caractère normalisé
+	 */
+	public static char fold(char c, int k) {
+		if (c >= TABLE_SIZE) {
+			return Character.toLowerCase(c);
+		}
+		return k == 0 ? FIRST[c] : SECOND[c];
+	}
+
+	/**
+	 * @param c : Caractère normalisé
+	 * @return Vrai si le caractère est une lettre ou un chiffre
+	 */
+	public static boolean isWordChar(char c) {
+		return c < TABLE_SIZE ? WORD_CHARS[c] : Character.isLetterOrDigit(c);
+	}
+
+	/**
+	 * Normalise un texte (minuscules, accents retirés, ligatures développées)
+	 * @param text : Texte à normaliser
+	 * @return Le texte normalisé
+	 */
+	public static String fold(CharSequence text) {
+		StringBuilder folded = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			for (int k = 0; k < length(c); k++) {
+				folded.append(fold(c, k));
+			}
+		}
+		return folded.toString();
+	}
+
+	/**
+	 * Racinise le dernier mot d'un terme normalisé : -ies, -y, pluriel en -s ou -x puis -e final
+	 * sont retirés si la racine garde au moins quatre lettres. Un dernier mot contenant un chiffre est conservé.
+	 * @param term : Terme normalisé par fold
+	 * @return La racine du terme, le terme lui-même si rien n'est retiré
+	 */
+	public static String stem(String term) {
+		int start = term.length();
+		while (start > 0 && isWordChar(term.charAt(start - 1))) {
+			start--;
+		}
+		for (int i = start; i < term.length(); i++) {
+			if (!Character.isLetter(term.charAt(i))) {
+				return term;
+			}
+		}
+		if (start == term.length()) {
+			return term;
+		}
+		int end = term.length();
+		if (term.endsWith("ies") && end - 3 - start >= MIN_STEM_LENGTH) {
+			end -= 3;
+		} else if (term.endsWith("y") && end - 1 - start >= MIN_STEM_LENGTH) {
+			end -= 1;
+		} else {
+			boolean plural = (term.endsWith("s") && !term.endsWith("ss")) || term.endsWith("x");
+			if (plural && end - 1 - start >= MIN_STEM_LENGTH) {
+				end -= 1;
+			}
+			if (term.charAt(end - 1) == 'e' && (end == term.length() || term.endsWith("s"))
+					&& end - 1 - start >= MIN_STEM_LENGTH) {
+				end -= 1;
+			}
+		}
+		return term.substring(0, end);
+	}
+
+	/**
+	 * Ajoute un caractère à une fin de mot : ses trois premiers caractères sont conservés sur 16 bits chacun,
+	 * et son nombre de caractères, limité à quatre, au-delà du 48e bit
+	 * @param ending : Fin de mot, 0 pour une fin vide
+	 * @param c : Caractère normalisé à ajouter
+	 * @return La fin de mot complétée
+	 */
+	public static long append(long ending, char c) {
+		int count = count(ending);
+		if (count > MAX_ENDING_LENGTH) {
+			return ending;
+		}
+		long chars = count < MAX_ENDING_LENGTH ? (long) c << (16 * count) : 0;
+		return (ending | chars) + (1L << COUNT_SHIFT);
+	}
+
+	/**
+	 * @param ending : Fin de mot construite par append
+	 * @return Son nombre de caractères, 4 pour une fin de plus de trois caractères
+	 */
+	public static int count(long ending) {
+		return (int) (ending >>> COUNT_SHIFT);
+	}
+
+	/**
+	 * @param text : Fin de mot d'au plus trois caractères normalisés
+	 * @return Sa représentation, comparable à celle construite par append
+	 */
+	public static long pack(String text) {
+		long ending = 0;
+		for (int i = 0; i < text.length(); i++) {
+			ending = append(ending, text.charAt(i));
+		}
+		return ending;
+	}
+
+	/**
+	 * @param ending : Fin de mot construite par append
+	 * @param prefix : Fin de mot d'au plus trois caractères construite par pack
+	 * @return Vrai si la fin de mot commence par le préfixe
+	 */
+	public static boolean startsWith(long ending, long prefix) {
+		int length = count(prefix);
+		long chars = (1L << (16 * length)) - 1;
+		return count(ending) >= length && (ending & chars) == (prefix & chars);
+	}
+
+	/**
+	 * @param ending : Fin de mot construite par append
+	 * @return Vrai si la fin de mot est une marque de pluriel ou de féminin admise après une racine
+	 */
+	public static boolean isInflection(long ending) {
+		for (long inflection : INFLECTIONS) {
+			if (ending == inflection) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Normalise puis racinise un terme déclencheur
+	 * @param term : Terme tel qu'enregistré
+	 * @return La racine normalisée du terme
+	 */
+	public static String normalizeTerm(String term) {
+		return stem(fold(term.toLowerCase(Locale.ROOT)));
+	}
+
+}
@@ -0,0 +1,263 @@
+package fr.dior.patientReport.engine;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Photographie immuable et pré-normalisée du dictionnaire des termes déclencheurs.
+ * Elle est construite une fois à chaque modification du dictionnaire puis partagée
+ * sans verrou par tous les calculs de rapport.
+ * Les index rapportés lors d'une analyse, et donc les bits des masques, sont ceux des concepts :
+ * les termes d'un même concept dans plusieurs langues comptent pour un seul terme déclencheur.
+ * Lorsque des termes sont associés à une langue, chaque note n'est analysée qu'avec l'automate
+ * de sa langue détectée (termes de cette langue et termes sans langue), ou avec tous les termes
+ * si sa langue n'est pas reconnue.
+ */
+public final class TriggerDictionary {
+
+	// Numéro de version, incrémenté à chaque reconstruction
+	private final long version;
+
+	// Termes distincts normalisés, avec leur langue et leur concept
+	private final List<TriggerTerm> triggerTerms;
+
+	// Nom de chaque concept, dans l'ordre de leurs index
+	private final String[] concepts;
+
+	// Index du concept de chaque terme, de chaque terme sans accents et de chaque nom de concept
+	private final Map<String, Integer> conceptIndexes;
+
+	// Automate de tous les termes
+	private final ConceptMatcher allLanguages;
+
+	// Automate de chaque langue, vide si aucun terme n'est associé à une langue
+	private final Map<String, ConceptMatcher> byLanguage;
+
+	// Si vrai, un terme n'est retenu que s'il n'est pas collé à une lettre ou un chiffre
+	private final boolean wordBoundary;
+
+	// Empreinte du contenu (termes et mode de recherche), identique d'un redémarrage à l'autre
+	private final long fingerprint;
+
+	private TriggerDictionary(long version, List<TriggerTerm> triggerTerms, String[] concepts,
+			Map<String, Integer> conceptIndexes, ConceptMatcher allLanguages, Map<String, ConceptMatcher> byLanguage,
+			boolean wordBoundary, long fingerprint) {
+		this.version = version;
+		this.triggerTerms = triggerTerms;
+		this.concepts = concepts;
+		this.conceptIndexes = conceptIndexes;
+		this.allLanguages = allLanguages;
+		this.byLanguage = byLanguage;
+		this.wordBoundary = wordBoundary;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * Construit une photographie du dictionnaire dont chaque terme est son propre concept, sans langue
+	 * @param version : Numéro de version de la photographie
+	 * @param terms : Termes déclencheurs tels qu'enregistrés en base
+	 * @param wordBoundary : Vrai pour ne retenir que les termes délimités par des séparateurs
+	 * @return La photographie du dictionnaire
+	 */
+	public static TriggerDictionary of(long version, Iterable<String> terms, boolean wordBoundary) {
+		List<TriggerTerm> triggerTerms = new ArrayList<TriggerTerm>();
+		for (String term : terms) {
+			TriggerTerm triggerTerm = TriggerTerm.of(term, null, null);
+			if (triggerTerm != null) {
+				triggerTerms.add(triggerTerm);
+			}
+		}
+		return compile(version, triggerTerms, wordBoundary);
+	}
+
+	/**
+	 * Construit une photographie du dictionnaire à partir de termes associés à une langue et à un concept
+	 * @param version : Numéro de version de la photographie
+	 * @param terms : Termes normalisés ; un terme déjà présent est ignoré, même pour un autre concept
+	 * @param wordBoundary : Vrai pour ne retenir que les termes délimités par des séparateurs
+	 * @return La photographie du dictionnaire
+	 */
+	public static TriggerDictionary compile(long version, List<TriggerTerm> terms, boolean wordBoundary) {
+		Map<String, TriggerTerm> distinctTerms = new LinkedHashMap<String, TriggerTerm>();
+		Map<String, Integer> conceptIndexes = new LinkedHashMap<String, Integer>();
+		for (TriggerTerm term : terms) {
+			if (term != null && !distinctTerms.containsKey(term.getTerm())) {
+				distinctTerms.put(term.getTerm(), term);
+				conceptIndexes.putIfAbsent(term.getConcept(), conceptIndexes.size());
+			}
+		}
+		List<TriggerTerm> triggerTerms = List.copyOf(distinctTerms.values());
+		ConceptMatcher allLanguages = ConceptMatcher.compile(triggerTerms, null, conceptIndexes, wordBoundary);
+		Map<String, ConceptMatcher> byLanguage = new HashMap<String, ConceptMatcher>();
+		for (TriggerTerm term : triggerTerms) {
+			if (term.getLanguage() != null && !byLanguage.containsKey(term.getLanguage())) {
+				byLanguage.put(term.getLanguage(),
+						ConceptMatcher.compile(triggerTerms, term.getLanguage(), conceptIndexes, wordBoundary));
+			}
+		}
+		Fingerprint fingerprint = new Fingerprint().add(TextNormalizer.VERSION).add(wordBoundary ? 1 : 0)
+				.add(triggerTerms.size());
+		for (TriggerTerm term : triggerTerms) {
+			fingerprint.add(term.getTerm())
+				.add(term.getLanguage() == null ? "" : term.getLanguage())
+				.add(term.getConcept());
+		}
+		Map<String, Integer> termIndexes = new HashMap<String, Integer>(conceptIndexes);
+		for (TriggerTerm term : triggerTerms) {
+			termIndexes.putIfAbsent(term.getTerm(), conceptIndexes.get(term.getConcept()));
+		}
+		for (TriggerTerm term : triggerTerms) {
+			termIndexes.putIfAbsent(TextNormalizer.fold(term.getTerm()), conceptIndexes.get(term.getConcept()));
+		}
+		return new TriggerDictionary(version, triggerTerms, conceptIndexes.keySet().toArray(new String[0]),
+				termIndexes, allLanguages, Map.copyOf(byLanguage), wordBoundary, fingerprint.value());
+	}
+
+	/**
+	 * Normalise un terme déclencheur (espaces superflus retirés, minuscules)
+	 * @param term : Terme à normaliser
+	 * @return Le terme normalisé, null si le terme est vide
+	 */
+	public static String normalize(String term) {
+		if (term == null || term.isBlank()) {
+			return null;
+		}
+		return term.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Analyse le corps d'une note avec l'automate de sa langue
+	 * @param text : Corps de la note, null pour une note vide
+	 * @param onMatch : Appelé avec l'index du concept de chaque terme trouvé (éventuellement plusieurs fois)
+	 */
+	public void scan(CharSequence text, IntConsumer onMatch) {
+		if (text == null) {
+			return;
+		}
+		ConceptMatcher matcher = matcherFor(text);
+		matcher.matcher.scan(text, index -> onMatch.accept(matcher.concepts[index]));
+	}
+
+	/**
+	 * Analyse une portion de tableau de caractères avec l'automate de sa langue, sans copie
+	 * @param text : Tableau contenant le corps de la note
+	 * @param offset : Index du premier caractère
+	 * @param length : Nombre de caractères
+	 * @param onMatch : Appelé avec l'index du concept de chaque terme trouvé (éventuellement plusieurs fois)
+	 */
+	public void scan(char[] text, int offset, int length, IntConsumer onMatch) {
+		ConceptMatcher matcher = byLanguage.isEmpty() ? allLanguages : matcherFor(CharBuffer.wrap(text, offset, length));
+		matcher.matcher.scan(text, offset, length, index -> onMatch.accept(matcher.concepts[index]));
+	}
+
+	// Automate de la langue détectée, celui de tous les termes si la langue n'est pas reconnue
+	private ConceptMatcher matcherFor(CharSequence text) {
+		if (byLanguage.isEmpty()) {
+			return allLanguages;
+		}
+		String language = LanguageDetector.detect(text);
+		ConceptMatcher matcher = language == null ? null : byLanguage.get(language);
+		return matcher == null ? allLanguages : matcher;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return L'empreinte du contenu du dictionnaire, contrairement à la version stable entre deux démarrages
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	public boolean isWordBoundary() {
+		return wordBoundary;
+	}
+
+	/**
+	 * @return Le nombre de concepts distincts du dictionnaire, c'est-à-dire la taille des masques
+	 */
+	public int size() {
+		return concepts.length;
+	}
+
+	/**
+	 * @param index : Index du concept
+	 * @return Le nom du concept
+	 */
+	public String term(int index) {
+		return concepts[index];
+	}
+
+	/**
+	 * @param term : Nom d'un concept ou terme de l'un des concepts, normalisé ou non, avec ou sans accents
+	 * @return L'index du concept, -1 si le dictionnaire ne le contient pas
+	 */
+	public int indexOf(String term) {
+		String normalized = normalize(term);
+		if (normalized == null) {
+			return -1;
+		}
+		Integer index = conceptIndexes.get(normalized);
+		if (index == null) {
+			index = conceptIndexes.get(TextNormalizer.fold(normalized));
+		}
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return La liste des concepts distincts, dans l'ordre de leurs index
+	 */
+	public List<String> getTerms() {
+		return List.of(concepts);
+	}
+
+	/**
+	 * @return Les termes distincts avec leur langue et leur concept
+	 */
+	public List<TriggerTerm> getTriggerTerms() {
+		return triggerTerms;
+	}
+
+	// Automate et concept de chacun de ses termes
+	private static final class ConceptMatcher {
+
+		private final TriggerMatcher matcher;
+
+		// Index du concept de chaque terme de l'automate
+		private final int[] concepts;
+
+		private ConceptMatcher(TriggerMatcher matcher, int[] concepts) {
+			this.matcher = matcher;
+			this.concepts = concepts;
+		}
+
+		// Automate des termes d'une langue et des termes sans langue, ou de tous les termes si language est null
+		private static ConceptMatcher compile(List<TriggerTerm> terms, String language,
+				Map<String, Integer> conceptIndexes, boolean wordBoundary) {
+			List<String> matcherTerms = new ArrayList<String>();
+			List<Integer> matcherConcepts = new ArrayList<Integer>();
+			for (TriggerTerm term : terms) {
+				if (language == null || term.getLanguage() == null || language.equals(term.getLanguage())) {
+					matcherTerms.add(term.getTerm());
+					matcherConcepts.add(conceptIndexes.get(term.getConcept()));
+				}
+			}
+			TriggerMatcher matcher = TriggerMatcher.compile(matcherTerms, wordBoundary);
+			int[] concepts = new int[matcher.size()];
+			for (int index = 0; index < concepts.length; index++) {
+				concepts[index] = matcherConcepts.get(index);
+			}
+			return new ConceptMatcher(matcher, concepts);
+		}
+
+	}
+
+}
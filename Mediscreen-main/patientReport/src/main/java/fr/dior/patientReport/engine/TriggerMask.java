@@ -0,0 +1,119 @@
+package fr.dior.patientReport.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opérations sur les masques de termes déclencheurs : un masque est un tableau de mots de 64 bits
+ * dont le bit i est à 1 si le terme d'index i du dictionnaire a été trouvé.
+ * Le masque d'un patient est le OU des masques de ses notes, et le nombre de termes est un popcount.
+ */
+public final class TriggerMask {
+
+	private TriggerMask() {
+	}
+
+	/**
+	 * @param size : Nombre de termes du dictionnaire
+	 * @return Un masque vide pouvant contenir ce nombre de termes
+	 */
+	public static long[] empty(int size) {
+		return new long[(size + 63) >>> 6];
+	}
+
+	/**
+	 * Positionne le bit d'un terme
+	 * @param mask : Masque à modifier
+	 * @param index : Index du terme
+	 */
+	public static void set(long[] mask, int index) {
+		mask[index >>> 6] |= 1L << index;
+	}
+
+	/**
+	 * @param mask : Masque à lire
+	 * @param index : Index du terme
+	 * @return Vrai si le bit du terme est positionné
+	 */
+	public static boolean get(long[] mask, int index) {
+		return (mask[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Ajoute les termes d'un masque à un autre (OU bit à bit)
+	 * @param target : Masque modifié
+	 * @param source : Masque ajouté, de même taille
+	 */
+	public static void or(long[] target, long[] source) {
+		for (int i = 0; i < source.length; i++) {
+			target[i] |= source[i];
+		}
+	}
+
+	/**
+	 * @param mask : Masque à compter
+	 * @return Le nombre de termes distincts du masque
+	 */
+	public static int count(long[] mask) {
+		int count = 0;
+		for (long word : mask) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * @param mask : Masque à convertir
+	 * @return Le masque en hexadécimal, le bit de poids faible (terme 0) à droite
+	 */
+	public static String toHex(long[] mask) {
+		int highest = mask.length - 1;
+		while (highest > 0 && mask[highest] == 0) {
+			highest--;
+		}
+		if (highest < 0) {
+			return "0";
+		}
+		StringBuilder hex = new StringBuilder(Long.toHexString(mask[highest]));
+		for (int i = highest - 1; i >= 0; i--) {
+			String word = Long.toHexString(mask[i]);
+			hex.append("0".repeat(16 - word.length())).append(word);
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * @param hex : Masque en hexadécimal produit par toHex
+	 * @param size : Nombre de termes du dictionnaire qui a produit le masque
+	 * @return Le masque pouvant contenir ce nombre de termes
+	 */
+	public static long[] fromHex(String hex, int size) {
+		long[] mask = empty(size);
+		for (int end = hex.length(), word = 0; end > 0; end -= 16, word++) {
+			long value = Long.parseUnsignedLong(hex, Math.max(0, end - 16), end, 16);
+			if (value != 0) {
+				if (word >= mask.length) {
+					throw new IllegalArgumentException("The mask " + hex + " has more than " + size + " terms");
+				}
+				mask[word] = value;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * @param mask : Masque à convertir
+	 * @param dictionary : Photographie du dictionnaire qui a produit le masque
+	 * @return Les termes du masque, dans l'ordre de leurs index
+	 */
+	public static List<String> terms(long[] mask, TriggerDictionary dictionary) {
+		List<String> terms = new ArrayList<String>(count(mask));
+		for (int index = 0; index < dictionary.size(); index++) {
+			if (get(mask, index)) {
+				terms.add(dictionary.term(index));
+			}
+		}
+		return terms;
+	}
+
+}
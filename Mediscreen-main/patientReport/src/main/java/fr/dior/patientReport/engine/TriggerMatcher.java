@@ -0,0 +1,339 @@
+package fr.dior.patientReport.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Automate Aho-Corasick compilé une seule fois à partir du dictionnaire des termes déclencheurs.
+ * Les termes sont normalisés et racinisés à la compilation (voir TextNormalizer) ; le corps d'une note
+ * est parcouru en une seule passe, sa normalisation étant faite caractère par caractère, sans copie de la chaîne.
+ * Une racine n'est retenue que si la fin du mot qui la suit est la fin retirée du terme ou une marque
+ * de pluriel ou de féminin : « fumeurs », « réactions » ou « Cholesterol » sont reconnus.
+ */
+public final class TriggerMatcher {
+
+	// Nombre de caractères d'une fin de mot au-delà duquel elle ne peut plus être admise
+	private static final int MAX_ENDING_LENGTH = 3;
+
+	// Termes distincts, dans l'ordre du dictionnaire ; l'index d'un terme est celui rapporté lors d'une détection
+	private final String[] terms;
+
+	// Longueur de la racine normalisée de chaque terme
+	private final int[] lengths;
+
+	// Fin retirée de chaque terme par la racinisation, construite par TextNormalizer.pack
+	private final long[] endings;
+
+	// Si vrai, un terme n'est retenu que s'il n'est pas collé à une lettre ou un chiffre
+	private final boolean wordBoundary;
+
+	// Transitions de chaque état : caractères triés et états cibles correspondants
+	private final char[][] transitionChars;
+	private final int[][] transitionTargets;
+
+	// Lien d'échec de chaque état
+	private final int[] failure;
+
+	// Index des termes reconnus dans chaque état (y compris via les liens d'échec)
+	private final int[][] outputs;
+
+	// Index des termes vides, présents dans toute note (comme String.contains(""))
+	private final int[] emptyTerms;
+
+	private TriggerMatcher(String[] terms, int[] lengths, long[] endings, boolean wordBoundary,
+			char[][] transitionChars, int[][] transitionTargets, int[] failure, int[][] outputs, int[] emptyTerms) {
+		this.terms = terms;
+		this.lengths = lengths;
+		this.endings = endings;
+		this.wordBoundary = wordBoundary;
+		this.transitionChars = transitionChars;
+		this.transitionTargets = transitionTargets;
+		this.failure = failure;
+		this.outputs = outputs;
+		this.emptyTerms = emptyTerms;
+	}
+
+	/**
+	 * Compile l'automate pour une recherche de sous-chaînes (même sémantique que String.contains
+	 * sur les textes normalisés)
+	 * @param terms : Termes déclencheurs, en minuscules
+	 * @return L'automate compilé
+	 */
+	public static TriggerMatcher compile(Collection<String> terms) {
+		return compile(terms, false);
+	}
+
+	/**
+	 * Compile l'automate à partir d'une liste de termes
+	 * @param terms : Termes déclencheurs, en minuscules ; les doublons et les valeurs nulles sont ignorés
+	 * @param wordBoundary : Vrai pour ne retenir que les termes délimités par des séparateurs,
+	 * éventuellement suivis d'une marque de pluriel ou de féminin
+	 * @return L'automate compilé
+	 */
+	public static TriggerMatcher compile(Collection<String> terms, boolean wordBoundary) {
+		Set<String> distinctTerms = new LinkedHashSet<String>();
+		for (String term : terms) {
+			if (term != null) {
+				distinctTerms.add(term);
+			}
+		}
+		String[] termArray = distinctTerms.toArray(new String[0]);
+
+		// Normalisation des termes : l'automate contient leurs racines
+		String[] stems = new String[termArray.length];
+		int[] lengths = new int[termArray.length];
+		long[] endings = new long[termArray.length];
+		for (int index = 0; index < termArray.length; index++) {
+			String folded = TextNormalizer.fold(termArray[index]);
+			stems[index] = TextNormalizer.stem(folded);
+			lengths[index] = stems[index].length();
+			endings[index] = TextNormalizer.pack(folded.substring(stems[index].length()));
+		}
+
+		// Construction du trie
+		List<TreeMap<Character, Integer>> trie = new ArrayList<TreeMap<Character, Integer>>();
+		List<List<Integer>> trieOutputs = new ArrayList<List<Integer>>();
+		trie.add(new TreeMap<Character, Integer>());
+		trieOutputs.add(new ArrayList<Integer>());
+		List<Integer> emptyTerms = new ArrayList<Integer>();
+		for (int index = 0; index < stems.length; index++) {
+			String term = stems[index];
+			if (term.isEmpty()) {
+				emptyTerms.add(index);
+				continue;
+			}
+			int state = 0;
+			for (int i = 0; i < term.length(); i++) {
+				Integer next = trie.get(state).get(term.charAt(i));
+				if (next == null) {
+					next = trie.size();
+					trie.add(new TreeMap<Character, Integer>());
+					trieOutputs.add(new ArrayList<Integer>());
+					trie.get(state).put(term.charAt(i), next);
+				}
+				state = next;
+			}
+			trieOutputs.get(state).add(index);
+		}
+
+		// Aplatissement des transitions en tableaux triés
+		int size = trie.size();
+		char[][] transitionChars = new char[size][];
+		int[][] transitionTargets = new int[size][];
+		for (int state = 0; state < size; state++) {
+			TreeMap<Character, Integer> edges = trie.get(state);
+			transitionChars[state] = new char[edges.size()];
+			transitionTargets[state] = new int[edges.size()];
+			int i = 0;
+			for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+				transitionChars[state][i] = edge.getKey();
+				transitionTargets[state][i] = edge.getValue();
+				i++;
+			}
+		}
+
+		// Calcul des liens d'échec en largeur d'abord, les sorties héritant de celles de l'état d'échec
+		int[] failure = new int[size];
+		int[][] outputs = new int[size][];
+		outputs[0] = new int[0];
+		Deque<Integer> queue = new ArrayDeque<Integer>();
+		for (int target : transitionTargets[0]) {
+			failure[target] = 0;
+			outputs[target] = toArray(trieOutputs.get(target));
+			queue.add(target);
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			for (int i = 0; i < transitionChars[state].length; i++) {
+				char c = transitionChars[state][i];
+				int target = transitionTargets[state][i];
+				int fallback = failure[state];
+				int next;
+				while ((next = step(transitionChars, transitionTargets, fallback, c)) < 0 && fallback != 0) {
+					fallback = failure[fallback];
+				}
+				failure[target] = next < 0 ? 0 : next;
+				int[] own = toArray(trieOutputs.get(target));
+				int[] inherited = outputs[failure[target]];
+				int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+				System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+				outputs[target] = merged;
+				queue.add(target);
+			}
+		}
+
+		return new TriggerMatcher(termArray, lengths, endings, wordBoundary, transitionChars, transitionTargets,
+				failure, outputs, toArray(emptyTerms));
+	}
+
+	/**
+	 * @return Le nombre de termes distincts de l'automate
+	 */
+	public int size() {
+		return terms.length;
+	}
+
+	/**
+	 * @param index : Index d'un terme
+	 * @return Le terme correspondant à cet index
+	 */
+	public String term(int index) {
+		return terms[index];
+	}
+
+	/**
+	 * Parcourt un texte en une seule passe et signale chaque terme trouvé
+	 * @param text : Texte à analyser (le corps d'une note), la casse et les accents sont ignorés
+	 * @param onMatch : Reçoit l'index de chaque terme trouvé, éventuellement plusieurs fois
+	 */
+	public void scan(CharSequence text, IntConsumer onMatch) {
+		if (text == null) {
+			return;
+		}
+		for (int index : emptyTerms) {
+			onMatch.accept(index);
+		}
+		int state = 0;
+		// Un bit par caractère normalisé lu, le plus récent en bit 0, à 1 pour une lettre ou un chiffre
+		long wordChars = 0;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			int foldedLength = TextNormalizer.length(c);
+			for (int k = 0; k < foldedLength; k++) {
+				char folded = TextNormalizer.fold(c, k);
+				wordChars = wordChars << 1 | (TextNormalizer.isWordChar(folded) ? 1 : 0);
+				state = next(state, folded);
+				for (int index : outputs[state]) {
+					if (isDelimited(index, wordChars) && (!checksEnding(index) || accepts(index, ending(text, i, k)))) {
+						onMatch.accept(index);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parcourt une portion de tableau de caractères, par exemple le tampon d'un parseur JSON,
+	 * sans la copier dans une chaîne
+	 * @param text : Tableau contenant le texte à analyser, la casse et les accents sont ignorés
+	 * @param offset : Position du premier caractère du texte
+	 * @param length : Nombre de caractères du texte
+	 * @param onMatch : Reçoit l'index de chaque terme trouvé, éventuellement plusieurs fois
+	 */
+	public void scan(char[] text, int offset, int length, IntConsumer onMatch) {
+		for (int index : emptyTerms) {
+			onMatch.accept(index);
+		}
+		int state = 0;
+		long wordChars = 0;
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			char c = text[i];
+			int foldedLength = TextNormalizer.length(c);
+			for (int k = 0; k < foldedLength; k++) {
+				char folded = TextNormalizer.fold(c, k);
+				wordChars = wordChars << 1 | (TextNormalizer.isWordChar(folded) ? 1 : 0);
+				state = next(state, folded);
+				for (int index : outputs[state]) {
+					if (isDelimited(index, wordChars) && (!checksEnding(index) || accepts(index, ending(text, end, i, k)))) {
+						onMatch.accept(index);
+					}
+				}
+			}
+		}
+	}
+
+	// État suivant pour un caractère normalisé, en suivant les liens d'échec
+	private int next(int state, char c) {
+		int next;
+		while ((next = step(transitionChars, transitionTargets, state, c)) < 0 && state != 0) {
+			state = failure[state];
+		}
+		return next < 0 ? 0 : next;
+	}
+
+	// Transition depuis un état pour un caractère, ou -1 s'il n'y en a pas
+	private static int step(char[][] transitionChars, int[][] transitionTargets, int state, char c) {
+		int i = Arrays.binarySearch(transitionChars[state], c);
+		return i < 0 ? -1 : transitionTargets[state][i];
+	}
+
+	// Vérifie que la racine qui vient d'être lue n'est pas précédée d'une lettre ou d'un chiffre
+	// (au-delà de 63 caractères, le caractère précédent n'est plus connu et la racine est retenue)
+	private boolean isDelimited(int index, long wordChars) {
+		return !wordBoundary || lengths[index] >= Long.SIZE || (wordChars >>> lengths[index] & 1) == 0;
+	}
+
+	// La fin du mot n'a pas à être lue pour une recherche de sous-chaînes d'un terme non racinisé
+	private boolean checksEnding(int index) {
+		return wordBoundary || endings[index] != 0;
+	}
+
+	// Fin de mot admise : la fin retirée du terme (seulement son début pour une recherche de sous-chaînes),
+	// ou une marque de pluriel ou de féminin
+	private boolean accepts(int index, long ending) {
+		if (wordBoundary ? ending == endings[index] : TextNormalizer.startsWith(ending, endings[index])) {
+			return true;
+		}
+		return TextNormalizer.isInflection(ending);
+	}
+
+	// Fin du mot qui suit le k-ième caractère normalisé du caractère i : reste de sa normalisation puis caractères suivants
+	private static long ending(CharSequence text, int i, int k) {
+		long ending = 0;
+		char c = text.charAt(i);
+		for (int j = k + 1; j < TextNormalizer.length(c); j++) {
+			ending = TextNormalizer.append(ending, TextNormalizer.fold(c, j));
+		}
+		for (int p = i + 1; p < text.length() && TextNormalizer.count(ending) <= MAX_ENDING_LENGTH; p++) {
+			c = text.charAt(p);
+			for (int j = 0; j < TextNormalizer.length(c); j++) {
+				char folded = TextNormalizer.fold(c, j);
+				if (!TextNormalizer.isWordChar(folded)) {
+					return ending;
+				}
+				ending = TextNormalizer.append(ending, folded);
+			}
+		}
+		return ending;
+	}
+
+	// Même lecture, le texte se terminant à la position end du tableau
+	private static long ending(char[] text, int end, int i, int k) {
+		long ending = 0;
+		char c = text[i];
+		for (int j = k + 1; j < TextNormalizer.length(c); j++) {
+			ending = TextNormalizer.append(ending, TextNormalizer.fold(c, j));
+		}
+		for (int p = i + 1; p < end && TextNormalizer.count(ending) <= MAX_ENDING_LENGTH; p++) {
+			c = text[p];
+			for (int j = 0; j < TextNormalizer.length(c); j++) {
+				char folded = TextNormalizer.fold(c, j);
+				if (!TextNormalizer.isWordChar(folded)) {
+					return ending;
+				}
+				ending = TextNormalizer.append(ending, folded);
+			}
+		}
+		return ending;
+	}
+
+	private static int[] toArray(List<Integer> values) {
+		int[] array = new int[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+
+}
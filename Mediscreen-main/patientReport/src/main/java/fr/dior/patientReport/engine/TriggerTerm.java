@@ -0,0 +1,52 @@
+package fr.dior.patientReport.engine;
+
+/**
+ * Terme déclencheur normalisé, avec sa langue et le concept qu'il exprime.
+ * Les termes d'un même concept (par exemple "poids" et "weight") comptent pour un seul terme déclencheur.
+ */
+public final class TriggerTerm {
+
+	private final String term;
+
+	// Code de la langue du terme (fr, en...), null si le terme est recherché dans toutes les notes
+	private final String language;
+
+	// Concept exprimé par le terme, le terme lui-même s'il n'en précise pas
+	private final String concept;
+
+	private TriggerTerm(String term, String language, String concept) {
+		this.term = term;
+		this.language = language;
+		this.concept = concept;
+	}
+
+	/**
+	 * Normalise un terme déclencheur, sa langue et son concept
+	 * @param term : Terme tel qu'enregistré en base
+	 * @param language : Code de la langue, null ou vide pour toutes les langues
+	 * @param concept : Concept exprimé, null ou vide pour le terme lui-même
+	 * @return Le terme normalisé, null si le terme est vide
+	 */
+	public static TriggerTerm of(String term, String language, String concept) {
+		String normalizedTerm = TriggerDictionary.normalize(term);
+		if (normalizedTerm == null) {
+			return null;
+		}
+		String normalizedConcept = TriggerDictionary.normalize(concept);
+		return new TriggerTerm(normalizedTerm, TriggerDictionary.normalize(language),
+				normalizedConcept == null ? normalizedTerm : normalizedConcept);
+	}
+
+	public String getTerm() {
+		return term;
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public String getConcept() {
+		return concept;
+	}
+
+}
@@ -0,0 +1,20 @@
+package fr.dior.patientReport.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReportItem {
+
+	// Rapport calculé, null en cas d'erreur
+	private Report report;
+
+	// Message d'erreur propre à ce patient, null si le rapport a été calculé
+	private String error;
+
+}
@@ -0,0 +1,30 @@
+package fr.dior.patientReport.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+
+	private Integer size;
+
+	private Integer maxEntries;
+
+	// Poids estimé des entrées en octets
+	private Long weight;
+
+	// Poids maximal en octets, 0 si seul le nombre d'entrées est borné
+	private Long maxBytes;
+
+	private Long hits;
+
+	private Long misses;
+
+	private Long evictions;
+
+}
@@ -0,0 +1,22 @@
+package fr.dior.patientReport.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStats {
+
+	private Integer inFlight;
+
+	private Long calls;
+
+	private Long computations;
+
+	private Long coalesced;
+
+}
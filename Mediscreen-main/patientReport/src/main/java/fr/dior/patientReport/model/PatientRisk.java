@@ -0,0 +1,62 @@
+package fr.dior.patientReport.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Dernière évaluation du risque de chaque patient, tenue à jour par le recalcul planifié
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "patient_risk", indexes = {
+		@Index(name = "idx_patient_risk_assessment", columnList = "assessment, patientId"),
+		@Index(name = "idx_patient_risk_refresh_on", columnList = "refreshOn") })
+public class PatientRisk {
+
+	@Id
+	private Integer patientId;
+
+	private String assessment;
+
+	private String sex;
+
+	private Integer age;
+
+	// Masque hexadécimal des termes déclencheurs trouvés, relatif à la version du dictionnaire
+	private String triggerMask;
+
+	private Long dictionaryVersion;
+
+	// Empreinte du dictionnaire qui a produit le masque, stable entre deux démarrages contrairement à la version
+	private Long dictionaryFingerprint;
+
+	// Empreinte du dictionnaire et des règles utilisés : le patient est réévalué si elle change
+	private Long modelFingerprint;
+
+	// Empreinte du sexe et de la date de naissance : le patient est réévalué s'ils changent
+	private Long patientFingerprint;
+
+	// Date du prochain anniversaire, à partir de laquelle l'âge doit être recalculé
+	private LocalDate refreshOn;
+
+	// Vrai si les notes du patient ont changé depuis le dernier calcul
+	private Boolean stale;
+
+	private LocalDateTime computedAt;
+
+	// Incrémentée à chaque invalidation : une évaluation commencée avant une invalidation n'est pas enregistrée
+	@Version
+	private Long version;
+
+}
@@ -1,5 +1,7 @@
 package fr.dior.patientReport.model;
 
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +16,16 @@ public class Report {
 	Integer age;
 	
 	String assessment;
+
+	// Version du dictionnaire des termes déclencheurs utilisée pour ce rapport
+	Long dictionaryVersion;
+
+	// Masque hexadécimal des termes trouvés, le bit i correspondant au terme d'index i du dictionnaire
+	String triggerMask;
+
+	// Termes déclencheurs trouvés dans les notes
+	List<String> triggers;
+
+	// Somme des poids des termes trouvés lorsqu'ils sont pondérés selon l'ancienneté des notes, null sinon
+	Double triggerScore;
 }
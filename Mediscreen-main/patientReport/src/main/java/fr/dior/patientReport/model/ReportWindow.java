@@ -0,0 +1,41 @@
+package fr.dior.patientReport.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportWindow {
+
+	// Nombre de mois d'historique pris en compte, 0 ou null pour tout l'historique
+	private Integer lookbackMonths;
+
+	// Demi-vie en mois du poids d'un terme selon l'ancienneté de la note la plus récente qui le contient,
+	// 0 ou null pour compter chaque terme pleinement
+	private Integer halfLifeMonths;
+
+	/**
+	 * @param currentDate : Date actuelle
+	 * @return Le premier jour de la fenêtre, null si tout l'historique est pris en compte
+	 */
+	public LocalDate startDate(LocalDate currentDate) {
+		if (lookbackMonths == null || lookbackMonths <= 0) {
+			return null;
+		}
+		return currentDate.minusMonths(lookbackMonths);
+	}
+
+	/**
+	 * @return Vrai si le poids des termes dépend de l'ancienneté des notes
+	 */
+	public boolean isWeighted() {
+		return halfLifeMonths != null && halfLifeMonths > 0;
+	}
+
+}
@@ -0,0 +1,28 @@
+package fr.dior.patientReport.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Répartition de la population par sexe, tranche d'âge et évaluation du risque
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskHistogram {
+
+	// Date de la photographie de la population
+	private LocalDate date;
+
+	private Integer patients;
+
+	private Integer ageBandWidth;
+
+	// Tranches non vides uniquement
+	private List<RiskHistogramBand> bands;
+
+}
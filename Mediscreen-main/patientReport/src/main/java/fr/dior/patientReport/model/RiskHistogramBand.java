@@ -0,0 +1,26 @@
+package fr.dior.patientReport.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Nombre de patients par évaluation pour un sexe et une tranche d'âge
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskHistogramBand {
+
+	// F, M ou Other
+	private String sex;
+
+	private Integer minAge;
+
+	private Integer maxAge;
+
+	private Map<String, Long> assessments;
+
+}
@@ -0,0 +1,44 @@
+package fr.dior.patientReport.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class RiskRule {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+
+	// Ordre d'évaluation : la première règle satisfaite l'emporte
+	private Integer priority;
+
+	// F ou M, null pour tous les patients
+	private String sex;
+
+	// Âge minimal inclus, null si non borné
+	private Integer minAge;
+
+	// Âge maximal inclus, null si non borné
+	private Integer maxAge;
+
+	// Nombre minimal de termes déclencheurs inclus, null si non borné
+	private Integer minTriggers;
+
+	// Nombre maximal de termes déclencheurs inclus, null si non borné
+	private Integer maxTriggers;
+
+	// Évaluation du risque si la règle est satisfaite
+	private String assessment;
+
+}
@@ -0,0 +1,22 @@
+package fr.dior.patientReport.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskTableStatus {
+
+	// Version de la table de décision
+	private Long version;
+
+	// Règles compilées, dans leur ordre d'évaluation
+	private List<RiskRule> rules;
+
+}
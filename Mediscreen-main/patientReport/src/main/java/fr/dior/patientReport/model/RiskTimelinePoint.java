@@ -0,0 +1,33 @@
+package fr.dior.patientReport.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskTimelinePoint {
+
+	// Date et identifiant de la note
+	private LocalDateTime date;
+
+	private String noteId;
+
+	// Âge du patient à la date de la note
+	private Integer age;
+
+	// Nombre de termes déclencheurs trouvés dans les notes jusqu'à celle-ci incluse
+	private Integer triggersNumber;
+
+	// Termes apparus pour la première fois dans cette note
+	private List<String> newTriggers;
+
+	private String assessment;
+
+}
@@ -0,0 +1,21 @@
+package fr.dior.patientReport.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Règles et termes déclencheurs candidats d'une simulation, null pour garder ceux en production
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationRequest {
+
+	private List<RiskRule> rules;
+
+	private List<String> triggers;
+
+}
@@ -0,0 +1,32 @@
+package fr.dior.patientReport.model;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Matrice de passage des évaluations actuelles aux évaluations proposées
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulationResult {
+
+	// Date de calcul des âges
+	private LocalDate date;
+
+	private Long patients;
+
+	// Nombre de patients dont l'évaluation change
+	private Long changed;
+
+	// Vrai si les notes ont dû être analysées de nouveau (termes absents du dictionnaire)
+	private Boolean rescanned;
+
+	// Nombre de patients par évaluation actuelle puis par évaluation proposée
+	private Map<String, Map<String, Long>> transitions;
+
+}
@@ -0,0 +1,22 @@
+package fr.dior.patientReport.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TriggerDictionaryStatus {
+
+	// Version de la photographie du dictionnaire
+	private Long version;
+
+	// Termes normalisés, dans l'ordre de leurs index
+	private List<String> terms;
+
+}
@@ -0,0 +1,27 @@
+package fr.dior.patientReport.model;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Nombre de patients d'une cohorte chez qui chaque terme déclencheur a été trouvé
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TriggerFrequency {
+
+	// Date de la photographie de la population
+	private LocalDate date;
+
+	// Taille de la cohorte
+	private Long patients;
+
+	// Nombre de patients par terme, dans l'ordre du dictionnaire
+	private Map<String, Long> triggers;
+
+}
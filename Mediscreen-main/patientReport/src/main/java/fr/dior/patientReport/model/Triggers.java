@@ -22,4 +22,15 @@ public class Triggers {
 	
 	private String term;
 
+	// Code de la langue du terme (fr, en), null si le terme est recherché dans toutes les notes
+	private String language;
+
+	// Concept exprimé par le terme, commun à ses traductions ; null si le terme est son propre concept
+	private String concept;
+
+	public Triggers(Integer id, String term) {
+		this.id = id;
+		this.term = term;
+	}
+
 }
@@ -0,0 +1,22 @@
+package fr.dior.patientReport.proxies;
+
+import java.util.List;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import fr.dior.patientReport.model.Patient;
+
+// Déclaration de l'interface Feign Client avec le nom du service distant et son URL
+@FeignClient(name = "mediscreen-patientInfo", url = "${patientReport.patientInfo.url:http://patient-info:8080}")
+public interface PatientInfoProxy {
+
+	// Déclaration d'une méthode GET pour récupérer un patient par son identifiant
+	@GetMapping(value = "/PatientInfo/byId")
+	Patient getPatientById (@RequestParam Integer id);
+
+	// Déclaration d'une méthode GET pour récupérer la liste de tous les patients
+	@GetMapping(value = "/PatientInfo/list")
+	List<Patient> getPatients();
+}
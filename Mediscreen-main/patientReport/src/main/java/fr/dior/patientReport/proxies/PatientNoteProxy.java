@@ -0,0 +1,39 @@
+package fr.dior.patientReport.proxies;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import feign.Response;
+import fr.dior.patientReport.model.Note;
+
+// Déclaration de l'interface Feign Client avec le nom du service distant et son URL
+@FeignClient(name = "mediscreen-patientNote", url = "${patientReport.patientNote.url:http://patient-note:8080}")
+public interface PatientNoteProxy {
+
+	// Déclaration d'une méthode GET pour récupérer les notes d'un patient par son identifiant
+	@GetMapping("/PatientNote/byPatient")
+	List<Note> getNotesByPatientId (@RequestParam Integer patId);
+
+	// Déclaration d'une méthode GET pour récupérer les notes d'un patient écrites sur une période (bornes incluses)
+	@GetMapping("/PatientNote/byPatientAndDate")
+	List<Note> getNotesByPatientIdAndDate (
+			@RequestParam Integer patId,
+			@RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to);
+
+	// Déclaration d'une méthode GET pour récupérer les patients dont au moins une note a été enregistrée depuis une date
+	@GetMapping("/PatientNote/modifiedPatients")
+	List<Integer> getPatientIdsWithNotesModifiedSince (
+			@RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime since);
+
+	// Déclaration d'une méthode GET pour exporter les notes de tous les patients en NDJSON, lues au fil de la réponse
+	@GetMapping("/PatientNote/export")
+	Response exportNotes ();
+}
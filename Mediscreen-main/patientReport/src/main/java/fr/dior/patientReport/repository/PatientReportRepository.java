@@ -1,8 +1,12 @@
 package fr.dior.patientReport.repository;
 
+import java.util.List;
+
 import fr.dior.patientReport.model.Triggers;
 import org.springframework.data.repository.CrudRepository;
 
 public interface PatientReportRepository extends CrudRepository<Triggers, Integer> {
 
+	List<Triggers> findByTerm(String term);
+
 }
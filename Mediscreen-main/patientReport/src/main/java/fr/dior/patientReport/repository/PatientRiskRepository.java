@@ -0,0 +1,32 @@
+package fr.dior.patientReport.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.dior.patientReport.model.PatientRisk;
+
+public interface PatientRiskRepository extends CrudRepository<PatientRisk, Integer> {
+
+	List<PatientRisk> findByAssessmentOrderByPatientIdAsc(String assessment);
+
+	// Nombre de patients par évaluation, sous forme de couples (évaluation, nombre)
+	@Query("select r.assessment, count(r) from PatientRisk r group by r.assessment")
+	List<Object[]> countByAssessment();
+
+	// Colonnes de la photographie de la population, sous forme de quadruplets (patient, sexe, âge, masque)
+	@Query("select r.patientId, r.sex, r.age, r.triggerMask from PatientRisk r"
+			+ " where r.dictionaryFingerprint = :dictionaryFingerprint")
+	List<Object[]> findSnapshotColumns(@Param("dictionaryFingerprint") Long dictionaryFingerprint);
+
+	@Transactional
+	@Modifying
+	// La version est incrémentée pour que l'enregistrement d'une évaluation commencée avant l'invalidation échoue
+	@Query("update PatientRisk r set r.stale = true, r.version = r.version + 1 where r.patientId = :patientId")
+	int markStale(@Param("patientId") Integer patientId);
+
+}
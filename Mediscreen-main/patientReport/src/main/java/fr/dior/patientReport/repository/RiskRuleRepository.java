@@ -0,0 +1,12 @@
+package fr.dior.patientReport.repository;
+
+import java.util.List;
+
+import fr.dior.patientReport.model.RiskRule;
+import org.springframework.data.repository.CrudRepository;
+
+public interface RiskRuleRepository extends CrudRepository<RiskRule, Integer> {
+
+	List<RiskRule> findAllByOrderByPriorityAsc();
+
+}
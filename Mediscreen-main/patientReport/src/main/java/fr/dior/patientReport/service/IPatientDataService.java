@@ -0,0 +1,25 @@
+package fr.dior.patientReport.service;
+
+import java.time.LocalDate;
+
+import fr.dior.patientReport.model.PatientAndNotes;
+
+// Interface définissant le contrat pour la récupération des données d'un patient auprès des autres services
+public interface IPatientDataService {
+
+	/**
+	 * Pour récupérer les informations et les notes médicales d'un patient
+	 * @param patId : L'identifiant du patient
+	 * @return le patient et ses notes médicales, null si le patient n'existe pas
+	 */
+	PatientAndNotes getPatientAndNotes(Integer patId);
+
+	/**
+	 * Pour récupérer les informations d'un patient et ses notes médicales écrites depuis une date
+	 * @param patId : L'identifiant du patient
+	 * @param from : Le premier jour de l'historique récupéré, null pour tout l'historique
+	 * @return le patient et ses notes médicales, null si le patient n'existe pas
+	 */
+	PatientAndNotes getPatientAndNotes(Integer patId, LocalDate from);
+
+}
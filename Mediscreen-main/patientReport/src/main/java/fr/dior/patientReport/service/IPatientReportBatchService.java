@@ -0,0 +1,22 @@
+package fr.dior.patientReport.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import fr.dior.patientReport.model.BatchReportItem;
+import fr.dior.patientReport.model.PatientAndNotes;
+
+// Interface définissant le contrat pour le calcul de rapports par lot
+public interface IPatientReportBatchService {
+
+	/**
+	 * Pour calculer en parallèle le risque de diabète de plusieurs patients
+	 * @param patientsAndNotes : Les patients et leurs notes médicales
+	 * @param currentDate : La date actuelle pour l'évaluation du risque
+	 * @return les rapports indexés par identifiant de patient, avec une erreur par patient en échec
+	 * et pour chaque occurrence d'un patient après la première
+	 */
+	Map<String, BatchReportItem> calculateDiabetesRisks(List<PatientAndNotes> patientsAndNotes, LocalDate currentDate);
+
+}
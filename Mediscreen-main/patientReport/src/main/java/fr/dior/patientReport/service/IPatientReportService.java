@@ -3,7 +3,10 @@ package fr.dior.patientReport.service;
 import java.time.LocalDate;
 import java.util.List;
 
+import fr.dior.patientReport.engine.TriggerDictionary;
 import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.model.ReportWindow;
+import fr.dior.patientReport.model.RiskTimelinePoint;
 import fr.dior.patientReport.model.Note;
 import fr.dior.patientReport.model.Patient;
 
@@ -21,4 +24,45 @@ public interface IPatientReportService {
 	// Méthode pour calculer le risque de diabète en fonction des informations du patient, des notes médicales et de la date actuelle
 	Report calculateDiabetesRisk(Patient patient, List<Note> notes, LocalDate currentDate);
 
+	/**
+	 * Pour calculer le risque de diabète sur une fenêtre de l'historique des notes, les termes pouvant être
+	 * pondérés selon l'ancienneté des notes
+	 * @param patient : Le patient pour lequel calculer le risque
+	 * @param notes : La liste des notes médicales liées au patient, les notes hors de la fenêtre ou sans date
+	 * sont ignorées lorsque la fenêtre est bornée
+	 * @param currentDate : La date actuelle pour l'évaluation du risque
+	 * @param window : La fenêtre d'historique et la demi-vie de la pondération
+	 * @return un rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	 */
+	Report calculateDiabetesRisk(Patient patient, List<Note> notes, LocalDate currentDate, ReportWindow window);
+
+	/**
+	 * Pour calculer le risque de diabète à partir du masque des termes déclencheurs déjà calculé,
+	 * lorsque les notes ont été analysées au fil de leur lecture
+	 * @param patient : Le patient pour lequel calculer le risque
+	 * @param triggerMask : Le masque des termes déclencheurs trouvés dans les notes
+	 * @param dictionary : La photographie du dictionnaire utilisée pour calculer le masque
+	 * @param currentDate : La date actuelle pour l'évaluation du risque
+	 * @return un rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	 */
+	Report calculateDiabetesRisk(Patient patient, long[] triggerMask, TriggerDictionary dictionary, LocalDate currentDate);
+
+	/**
+	 * Pour calculer le masque des termes déclencheurs présents dans les notes d'un patient,
+	 * les notes déjà analysées étant lues dans le cache
+	 * @param notes : La liste des notes médicales du patient
+	 * @param dictionary : La photographie du dictionnaire à utiliser
+	 * @return le masque des termes déclencheurs trouvés
+	 */
+	long[] calculateTriggerMask(List<Note> notes, TriggerDictionary dictionary);
+
+	/**
+	 * Pour suivre l'évolution de l'évaluation du risque note après note
+	 * @param patient : Le patient pour lequel calculer l'évolution
+	 * @param notes : La liste des notes médicales liées au patient, dans n'importe quel ordre
+	 * @param currentDate : La date utilisée pour les notes sans date
+	 * @return un point par note, dans l'ordre chronologique, avec l'évaluation à la date de la note
+	 */
+	List<RiskTimelinePoint> calculateRiskTimeline(Patient patient, List<Note> notes, LocalDate currentDate);
+
 }
@@ -0,0 +1,22 @@
+package fr.dior.patientReport.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+
+import fr.dior.patientReport.model.Report;
+
+// Interface définissant le contrat pour le calcul d'un rapport au fil de la lecture de la requête
+public interface IPatientReportStreamService {
+
+	/**
+	 * Pour calculer le risque de diabète en analysant chaque note dès sa lecture,
+	 * sans construire la liste des notes en mémoire
+	 * @param json : Le document JSON d'un PatientAndNotes
+	 * @param currentDate : La date actuelle pour l'évaluation du risque
+	 * @return un rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	 * @throws IOException si le document ne peut pas être lu ou ne contient pas de patient
+	 */
+	Report calculateDiabetesRisk(InputStream json, LocalDate currentDate) throws IOException;
+
+}
@@ -0,0 +1,46 @@
+package fr.dior.patientReport.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import fr.dior.patientReport.model.PatientRisk;
+
+// Interface définissant le contrat pour la table des risques matérialisée
+public interface IPatientRiskService {
+
+	/**
+	 * Pour réévaluer les patients dont les données d'entrée ont changé, ajouter les nouveaux patients
+	 * et retirer ceux qui n'existent plus
+	 * @param currentDate : La date actuelle pour l'évaluation du risque
+	 * @return le nombre de patients réévalués
+	 */
+	int refresh(LocalDate currentDate);
+
+	/**
+	 * Pour signaler que les notes d'un patient ont changé
+	 * @param patId : L'identifiant du patient, réévalué lors du prochain recalcul
+	 */
+	void invalidate(Integer patId);
+
+	/**
+	 * Pour obtenir la dernière évaluation d'un patient
+	 * @param patId : L'identifiant du patient
+	 * @return la dernière évaluation, null si le patient n'a pas encore été évalué
+	 */
+	PatientRisk getPatientRisk(Integer patId);
+
+	/**
+	 * Pour obtenir les patients ayant une évaluation donnée
+	 * @param assessment : L'évaluation recherchée (None, Borderline, Danger, Early onset)
+	 * @return les patients, par identifiant croissant
+	 */
+	List<PatientRisk> getPatientRisks(String assessment);
+
+	/**
+	 * Pour obtenir le nombre de patients par évaluation
+	 * @return le nombre de patients indexé par évaluation
+	 */
+	Map<String, Long> countByAssessment();
+
+}
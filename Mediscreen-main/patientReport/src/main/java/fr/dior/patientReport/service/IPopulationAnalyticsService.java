@@ -0,0 +1,43 @@
+package fr.dior.patientReport.service;
+
+import java.time.LocalDate;
+
+import fr.dior.patientReport.engine.PopulationSnapshot;
+import fr.dior.patientReport.model.RiskHistogram;
+import fr.dior.patientReport.model.TriggerFrequency;
+
+// Interface définissant le contrat pour les statistiques sur l'ensemble de la population
+public interface IPopulationAnalyticsService {
+
+	/**
+	 * Pour reconstruire la photographie de la population à partir de la table des risques
+	 * @param currentDate : La date de calcul des âges
+	 * @return la nouvelle photographie
+	 */
+	PopulationSnapshot rebuild(LocalDate currentDate);
+
+	/**
+	 * Pour obtenir la photographie courante, construite en arrière-plan au démarrage
+	 * @return la photographie de la population
+	 * @throws IllegalStateException si la première construction est en cours
+	 */
+	PopulationSnapshot getSnapshot();
+
+	/**
+	 * Pour obtenir la répartition des évaluations par sexe et tranche d'âge
+	 * @param ageBandWidth : La largeur des tranches d'âge en années
+	 * @return l'histogramme des évaluations
+	 */
+	RiskHistogram getRiskHistogram(int ageBandWidth);
+
+	/**
+	 * Pour obtenir la fréquence des termes déclencheurs dans une cohorte
+	 * @param sex : Le sexe de la cohorte, null pour tous
+	 * @param minAge : L'âge minimal inclus, null si non borné
+	 * @param maxAge : L'âge maximal inclus, null si non borné
+	 * @param assessment : L'évaluation de la cohorte, null pour toutes
+	 * @return le nombre de patients de la cohorte par terme
+	 */
+	TriggerFrequency getTriggerFrequency(String sex, Integer minAge, Integer maxAge, String assessment);
+
+}
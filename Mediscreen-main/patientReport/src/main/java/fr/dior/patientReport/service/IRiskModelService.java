@@ -0,0 +1,30 @@
+package fr.dior.patientReport.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import fr.dior.patientReport.engine.RiskModelSet;
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.Report;
+
+// Interface définissant le contrat pour l'évaluation des risques de l'ensemble des modèles de dépistage
+public interface IRiskModelService {
+
+	/**
+	 * Pour évaluer le risque d'un patient pour chaque modèle de dépistage, les notes n'étant analysées qu'une fois
+	 * @param patient : Le patient pour lequel calculer les risques
+	 * @param notes : La liste des notes médicales liées au patient
+	 * @param currentDate : La date actuelle pour l'évaluation des risques
+	 * @return un rapport par modèle, indexé par nom de modèle
+	 */
+	Map<String, Report> calculateRisks(Patient patient, List<Note> notes, LocalDate currentDate);
+
+	/**
+	 * Pour obtenir l'union des dictionnaires des modèles, reconstruite si l'un d'eux a changé
+	 * @return la photographie courante de l'union
+	 */
+	RiskModelSet getModelSet();
+
+}
@@ -0,0 +1,20 @@
+package fr.dior.patientReport.service;
+
+import fr.dior.patientReport.engine.RiskTable;
+
+// Interface définissant le contrat pour la gestion des règles d'évaluation du risque
+public interface IRiskRuleService {
+
+	/**
+	 * Pour obtenir la table de décision courante, sans accès à la base de données
+	 * @return la table de décision compilée
+	 */
+	RiskTable getRiskTable();
+
+	/**
+	 * Pour recharger les règles depuis la base de données et recompiler la table de décision
+	 * @return la nouvelle table de décision, ou la table courante si les règles en base sont invalides
+	 */
+	RiskTable reload();
+
+}
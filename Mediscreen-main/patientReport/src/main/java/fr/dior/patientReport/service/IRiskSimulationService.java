@@ -0,0 +1,17 @@
+package fr.dior.patientReport.service;
+
+import fr.dior.patientReport.model.SimulationRequest;
+import fr.dior.patientReport.model.SimulationResult;
+
+// Interface définissant le contrat pour la simulation d'un changement de règles ou de termes déclencheurs
+public interface IRiskSimulationService {
+
+	/**
+	 * Pour mesurer l'effet de règles ou de termes candidats sur toute la population,
+	 * sans modifier ceux utilisés en production
+	 * @param request : Les règles et les termes candidats
+	 * @return la matrice de passage des évaluations actuelles aux évaluations proposées
+	 */
+	SimulationResult simulate(SimulationRequest request);
+
+}
@@ -0,0 +1,36 @@
+package fr.dior.patientReport.service;
+
+import fr.dior.patientReport.engine.TriggerDictionary;
+
+// Interface définissant le contrat pour la gestion du dictionnaire des termes déclencheurs
+public interface ITriggerDictionaryService {
+
+	/**
+	 * Pour obtenir la photographie courante du dictionnaire, sans accès à la base de données
+	 * @return la photographie courante du dictionnaire
+	 */
+	TriggerDictionary getDictionary();
+
+	/**
+	 * Pour ajouter un terme déclencheur puis reconstruire le dictionnaire
+	 * @param term : Le terme à ajouter
+	 * @param language : La langue du terme (fr, en), null pour toutes les notes
+	 * @param concept : Le concept exprimé par le terme, null pour le terme lui-même
+	 * @return la nouvelle photographie du dictionnaire
+	 */
+	TriggerDictionary addTerm(String term, String language, String concept);
+
+	/**
+	 * Pour supprimer un terme déclencheur puis reconstruire le dictionnaire
+	 * @param term : Le terme à supprimer
+	 * @return la nouvelle photographie du dictionnaire
+	 */
+	TriggerDictionary removeTerm(String term);
+
+	/**
+	 * Pour recharger le dictionnaire depuis la base de données
+	 * @return la nouvelle photographie du dictionnaire
+	 */
+	TriggerDictionary reload();
+
+}
@@ -0,0 +1,79 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.proxies.PatientInfoProxy;
+import fr.dior.patientReport.proxies.PatientNoteProxy;
+import fr.dior.patientReport.service.IPatientDataService;
+
+@Service
+public class PatientDataServiceImpl implements IPatientDataService {
+
+	private static final Logger log = LoggerFactory.getLogger(PatientDataServiceImpl.class);
+
+	private final PatientInfoProxy patientInfoProxy;
+
+	private final PatientNoteProxy patientNoteProxy;
+
+	// Pool des appels distants
+	private final ExecutorService fetchExecutor;
+
+	public PatientDataServiceImpl(
+			PatientInfoProxy patientInfoProxy,
+			PatientNoteProxy patientNoteProxy,
+			@Qualifier("fetchExecutor") ExecutorService fetchExecutor) {
+		this.patientInfoProxy = patientInfoProxy;
+		this.patientNoteProxy = patientNoteProxy;
+		this.fetchExecutor = fetchExecutor;
+	}
+
+	/**
+	 * Récupère le patient auprès de PatientInfo et ses notes auprès de PatientNote, les deux appels étant simultanés
+	 * @param patId : Identifiant du patient
+	 * @return Le patient et ses notes, null si le patient n'existe pas
+	 */
+	@Override
+	public PatientAndNotes getPatientAndNotes(Integer patId) {
+		return getPatientAndNotes(patId, null);
+	}
+
+	/**
+	 * Récupère le patient auprès de PatientInfo et ses notes écrites depuis une date auprès de PatientNote,
+	 * les deux appels étant simultanés ; seule la période demandée est lue par PatientNote
+	 * @param patId : Identifiant du patient
+	 * @param from : Premier jour de l'historique récupéré, null pour tout l'historique
+	 * @return Le patient et ses notes, null si le patient n'existe pas
+	 */
+	@Override
+	public PatientAndNotes getPatientAndNotes(Integer patId, LocalDate from) {
+		log.info("Fetch patient and notes since {} for patient with id = {}", from, patId);
+		CompletableFuture<Patient> patient = CompletableFuture.supplyAsync(
+				() -> patientInfoProxy.getPatientById(patId), fetchExecutor);
+		CompletableFuture<List<Note>> notes = CompletableFuture.supplyAsync(
+				() -> from == null
+						? patientNoteProxy.getNotesByPatientId(patId)
+						: patientNoteProxy.getNotesByPatientIdAndDate(patId, from, null),
+				fetchExecutor);
+		if (patient.join() == null || patient.join().getId() == null) {
+			log.error("There is no patient with id = {}", patId);
+			notes.cancel(false);
+			return null;
+		}
+		return PatientAndNotes.builder()
+				.patient(patient.join())
+				.notes(notes.join() == null ? List.of() : notes.join())
+				.build();
+	}
+
+}
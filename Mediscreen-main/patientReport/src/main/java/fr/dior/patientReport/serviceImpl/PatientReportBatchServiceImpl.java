@@ -0,0 +1,111 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.model.BatchReportItem;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.service.IPatientReportBatchService;
+import fr.dior.patientReport.service.IPatientReportService;
+
+@Service
+public class PatientReportBatchServiceImpl implements IPatientReportBatchService {
+
+	private static final Logger log = LoggerFactory.getLogger(PatientReportBatchServiceImpl.class);
+
+	private final IPatientReportService patientReportService;
+
+	// Pool borné partagé par tous les lots
+	private final ForkJoinPool reportExecutor;
+
+	public PatientReportBatchServiceImpl(IPatientReportService patientReportService, ForkJoinPool reportExecutor) {
+		this.patientReportService = patientReportService;
+		this.reportExecutor = reportExecutor;
+	}
+
+	/**
+	 * Calcule les rapports d'un lot de patients en parallèle. Chaque patient est évalué
+	 * indépendamment : une erreur n'interrompt pas le reste du lot. Seule la première occurrence
+	 * d'un patient est évaluée, les suivantes étant rapportées en erreur.
+	 * @param patientsAndNotes : Patients et notes médicales à évaluer
+	 * @param currentDate : Date actuelle pour le calcul de l'âge
+	 * @return Les rapports indexés par identifiant de patient, ou par "item-<rang>" si l'identifiant est absent
+	 * ou déjà présent dans le lot
+	 */
+	@Override
+	public Map<String, BatchReportItem> calculateDiabetesRisks(List<PatientAndNotes> patientsAndNotes, LocalDate currentDate) {
+		log.info("Calculate reports for a batch of {} patients", patientsAndNotes.size());
+		// Un rapport en remplacerait un autre dans le résultat : seule la première occurrence d'un patient est évaluée
+		Set<String> keys = new HashSet<String>();
+		List<Callable<BatchReportItem>> tasks = new ArrayList<Callable<BatchReportItem>>(patientsAndNotes.size());
+		for (int i = 0; i < patientsAndNotes.size(); i++) {
+			PatientAndNotes patientAndNotes = patientsAndNotes.get(i);
+			String key = keyOf(patientAndNotes, i);
+			if (keys.add(key)) {
+				tasks.add(() -> calculateDiabetesRisk(patientAndNotes, currentDate));
+			} else {
+				BatchReportItem duplicate = BatchReportItem.builder()
+						.error("Patient " + key + " appears more than once in the batch").build();
+				tasks.add(() -> duplicate);
+			}
+		}
+		List<Future<BatchReportItem>> results = reportExecutor.invokeAll(tasks);
+
+		Map<String, BatchReportItem> reports = new LinkedHashMap<String, BatchReportItem>();
+		for (int i = 0; i < results.size(); i++) {
+			String key = keyOf(patientsAndNotes.get(i), i);
+			reports.put(reports.containsKey(key) ? "item-" + i : key, resultOf(results.get(i)));
+		}
+		return reports;
+	}
+
+	// Calcul du rapport d'un patient, les erreurs étant converties en résultat
+	private BatchReportItem calculateDiabetesRisk(PatientAndNotes patientAndNotes, LocalDate currentDate) {
+		try {
+			if (patientAndNotes == null || patientAndNotes.getPatient() == null) {
+				return BatchReportItem.builder().error("Missing patient").build();
+			}
+			return BatchReportItem.builder()
+					.report(patientReportService.calculateDiabetesRisk(
+							patientAndNotes.getPatient(),
+							patientAndNotes.getNotes() == null ? List.of() : patientAndNotes.getNotes(),
+							currentDate))
+					.build();
+		} catch (RuntimeException e) {
+			log.error("Report failed for patient {}", patientAndNotes.getPatient().getId(), e);
+			return BatchReportItem.builder().error(String.valueOf(e.getMessage())).build();
+		}
+	}
+
+	private BatchReportItem resultOf(Future<BatchReportItem> result) {
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			return BatchReportItem.builder().error(String.valueOf(e.getCause())).build();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return BatchReportItem.builder().error("Interrupted").build();
+		}
+	}
+
+	private String keyOf(PatientAndNotes patientAndNotes, int rank) {
+		if (patientAndNotes == null || patientAndNotes.getPatient() == null || patientAndNotes.getPatient().getId() == null) {
+			return "item-" + rank;
+		}
+		return String.valueOf(patientAndNotes.getPatient().getId());
+	}
+
+}
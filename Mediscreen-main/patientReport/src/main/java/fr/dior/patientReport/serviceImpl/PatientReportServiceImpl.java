@@ -3,28 +3,83 @@ package fr.dior.patientReport.serviceImpl;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+import fr.dior.patientReport.engine.Fingerprint;
+import fr.dior.patientReport.engine.NoteTriggerCache;
+import fr.dior.patientReport.engine.NoteTriggers;
+import fr.dior.patientReport.engine.ReportCache;
+import fr.dior.patientReport.engine.ReportSingleFlight;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
 import fr.dior.patientReport.model.Report;
-import fr.dior.patientReport.model.Triggers;
+import fr.dior.patientReport.model.ReportWindow;
+import fr.dior.patientReport.model.RiskTimelinePoint;
 import fr.dior.patientReport.service.IPatientReportService;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import fr.dior.patientReport.model.Note;
 import fr.dior.patientReport.model.Patient;
-import fr.dior.patientReport.repository.PatientReportRepository;
 
 @Service
 public class PatientReportServiceImpl implements IPatientReportService {
 
-	// Injection de dépendance du repository nécessaire pour accéder aux données des termes déclencheurs
-	private PatientReportRepository patientReportRepository;
+	// Durée moyenne d'un mois en jours, pour la pondération des termes selon l'ancienneté des notes
+	private static final double DAYS_PER_MONTH = 365.2425 / 12;
+
+	// Formatter pour la conversion des dates de naissance, partagé car calculateAge est appelé pour chaque note
+	private static final DateTimeFormatter DOB_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	// Ordre chronologique des notes, les notes sans date étant les plus récentes
+	private static final Comparator<Note> CHRONOLOGICAL = Comparator.comparing(Note::getDate,
+			Comparator.nullsLast(Comparator.naturalOrder()));
+
+	// Injection de dépendance du service fournissant la photographie en mémoire du dictionnaire des termes déclencheurs
+	private ITriggerDictionaryService triggerDictionaryService;
+
+	// Cache des rapports déjà calculés, indexé par l'empreinte des données d'entrée
+	private ReportCache reportCache;
+
+	// Regroupement des calculs simultanés d'un même rapport, indexé par l'empreinte des données d'entrée
+	private ReportSingleFlight reportSingleFlight;
+
+	// Cache des termes trouvés dans chaque note, pour n'analyser que les notes nouvelles ou modifiées
+	private NoteTriggerCache noteTriggerCache;
+
+	// Service fournissant la table de décision de l'évaluation du risque
+	private IRiskRuleService riskRuleService;
+
+	// Pool utilisé pour analyser en parallèle les notes des patients ayant un long historique
+	private ForkJoinPool reportExecutor;
+
+	// Nombre total de caractères des notes d'un patient à partir duquel elles sont analysées en parallèle
+	private int parallelScanThreshold;
 
 	// Constructeur de la classe qui permet l'injection de dépendance lors de la création de l'instance
-	public PatientReportServiceImpl(PatientReportRepository patientReportRepository) {
-		this.patientReportRepository = patientReportRepository;
+	public PatientReportServiceImpl(
+			ITriggerDictionaryService triggerDictionaryService,
+			IRiskRuleService riskRuleService,
+			ReportCache reportCache,
+			ReportSingleFlight reportSingleFlight,
+			NoteTriggerCache noteTriggerCache,
+			ForkJoinPool reportExecutor,
+			@Value("${patientReport.parallel-scan.threshold:1000000}") int parallelScanThreshold) {
+		this.triggerDictionaryService = triggerDictionaryService;
+		this.riskRuleService = riskRuleService;
+		this.reportCache = reportCache;
+		this.reportSingleFlight = reportSingleFlight;
+		this.noteTriggerCache = noteTriggerCache;
+		this.reportExecutor = reportExecutor;
+		this.parallelScanThreshold = parallelScanThreshold;
 	}
 
 	/**
@@ -38,17 +93,243 @@ public class PatientReportServiceImpl implements IPatientReportService {
 	// Méthode pour calculer le risque de diabète en fonction des informations du patient et de ses notes médicales
 	@Override
 	public Report calculateDiabetesRisk(Patient patient, List<Note> notes, LocalDate currentDate) {
-		// Calcul de l'âge du patient en utilisant la méthode calculateAge
+		// Photographie du dictionnaire utilisée pour l'ensemble du calcul
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		// Table de décision utilisée pour l'ensemble du calcul
+		RiskTable riskTable = riskRuleService.getRiskTable();
+		// Empreinte du corps de chaque note, calculée une seule fois pour le rapport et pour chaque note
+		long[] bodyHashes = bodyHashes(notes);
+		// Le rapport est une fonction pure de ses données d'entrée : il est réutilisé si leur empreinte est connue
+		long fingerprint = fingerprint(patient, bodyHashes, dictionary, riskTable, currentDate);
+		Report cachedReport = reportCache.get(fingerprint);
+		if (cachedReport != null) {
+			return cachedReport;
+		}
+		// Les demandes simultanées d'un même rapport partagent un seul calcul
+		return reportSingleFlight.execute(fingerprint, () -> {
+			// Le même calcul a pu se terminer entre la lecture du cache et l'entrée dans le calcul partagé
+			Report computedReport = reportCache.peek(fingerprint);
+			if (computedReport != null) {
+				return computedReport;
+			}
+			// Calcul du masque complet des termes déclencheurs présents dans les notes médicales : le masque est
+			// mis en cache, matérialisé dans patient_risk et sert à l'ETag, il ne doit pas dépendre de l'ordonnancement
+			long[] triggerMask = calculateTriggerMask(notes, bodyHashes, dictionary);
+			Report report = buildReport(patient, triggerMask, dictionary, riskTable, currentDate);
+			reportCache.put(fingerprint, report);
+			return report;
+		});
+	}
+
+	/**
+	 * Calcule le risque de diabète sur une fenêtre de l'historique des notes. Avec une demi-vie, chaque terme
+	 * pèse selon l'ancienneté de la note la plus récente qui le contient (1 le jour même, divisé par deux à chaque
+	 * demi-vie) et l'évaluation porte sur la somme arrondie des poids
+	 * @param patient : Patient pour lequel le risque est évalué
+	 * @param notes : Liste des notes médicales du patient, les notes antérieures à la fenêtre ou sans date
+	 * sont ignorées lorsque la fenêtre est bornée
+	 * @param currentDate : Date actuelle pour calculer l'âge, la fenêtre et les poids
+	 * @param window : Fenêtre d'historique et demi-vie de la pondération
+	 * @return Rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	 */
+	@Override
+	public Report calculateDiabetesRisk(Patient patient, List<Note> notes, LocalDate currentDate, ReportWindow window) {
+		List<Note> windowNotes = notesSince(notes, window.startDate(currentDate));
+		if (!window.isWeighted()) {
+			return calculateDiabetesRisk(patient, windowNotes, currentDate);
+		}
+		int halfLifeMonths = window.getHalfLifeMonths();
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		RiskTable riskTable = riskRuleService.getRiskTable();
+		long[] bodyHashes = bodyHashes(windowNotes);
+		// Le rapport pondéré dépend aussi de la date des notes et de la demi-vie
+		Fingerprint fingerprint = new Fingerprint()
+				.add(fingerprint(patient, bodyHashes, dictionary, riskTable, currentDate))
+				.add(halfLifeMonths);
+		for (Note note : windowNotes) {
+			fingerprint.add(note.getDate() == null ? Long.MIN_VALUE : note.getDate().toLocalDate().toEpochDay());
+		}
+		long key = fingerprint.value();
+		Report cachedReport = reportCache.get(key);
+		if (cachedReport != null) {
+			return cachedReport;
+		}
+		return reportSingleFlight.execute(key, () -> {
+			Report computedReport = reportCache.peek(key);
+			if (computedReport != null) {
+				return computedReport;
+			}
+			Report report = buildWeightedReport(patient, windowNotes, bodyHashes, dictionary, riskTable, currentDate,
+					halfLifeMonths);
+			reportCache.put(key, report);
+			return report;
+		});
+	}
+
+	// Notes écrites à partir d'une date ; comme pour /PatientNote/byPatientAndDate, une note sans date
+	// n'appartient à aucune fenêtre et n'est retenue que sur tout l'historique
+	private List<Note> notesSince(List<Note> notes, LocalDate startDate) {
+		if (startDate == null) {
+			return notes;
+		}
+		List<Note> windowNotes = new ArrayList<Note>(notes.size());
+		for (Note note : notes) {
+			if (note.getDate() != null && !note.getDate().toLocalDate().isBefore(startDate)) {
+				windowNotes.add(note);
+			}
+		}
+		return windowNotes;
+	}
+
+	// Création d'un rapport dont les termes sont pondérés selon l'ancienneté de la note la plus récente qui les contient
+	private Report buildWeightedReport(Patient patient, List<Note> notes, long[] bodyHashes,
+			TriggerDictionary dictionary, RiskTable riskTable, LocalDate currentDate, int halfLifeMonths) {
+		long[] triggerMask = TriggerMask.empty(dictionary.size());
+		double[] weights = new double[dictionary.size()];
+		for (int i = 0; i < bodyHashes.length; i++) {
+			long[] noteMask = findNoteTriggers(notes.get(i), bodyHashes[i], dictionary);
+			double weight = recencyWeight(notes.get(i), currentDate, halfLifeMonths);
+			for (int word = 0; word < noteMask.length; word++) {
+				for (long bits = noteMask[word]; bits != 0; bits &= bits - 1) {
+					int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+					weights[index] = Math.max(weights[index], weight);
+				}
+			}
+			TriggerMask.or(triggerMask, noteMask);
+		}
+		double score = 0;
+		for (double weight : weights) {
+			score += weight;
+		}
 		Integer age = calculateAge(patient, currentDate);
-		// Calcul du nombre de termes déclencheurs présents dans les notes médicales
-		Integer triggersNumber = calculateTriggersNumber(notes);
+		return Report.builder()
+				.age(age)
+				.assessment(riskTable.assess(RiskTable.sexCode(patient.getSex()), age, (int) Math.round(score)))
+				.dictionaryVersion(dictionary.getVersion())
+				.triggerMask(TriggerMask.toHex(triggerMask))
+				.triggers(TriggerMask.terms(triggerMask, dictionary))
+				.triggerScore(Math.round(score * 100) / 100.0)
+				.build();
+	}
+
+	/**
+	 * Calcule le poids des termes d'une note selon son ancienneté
+	 * @param note : Note médicale, une note sans date ou datée du jour pèse 1
+	 * @param currentDate : Date actuelle
+	 * @param halfLifeMonths : Demi-vie en mois
+	 * @return Le poids, divisé par deux à chaque demi-vie écoulée
+	 */
+	double recencyWeight(Note note, LocalDate currentDate, int halfLifeMonths) {
+		if (note.getDate() == null) {
+			return 1;
+		}
+		long days = ChronoUnit.DAYS.between(note.getDate().toLocalDate(), currentDate);
+		return days <= 0 ? 1 : Math.pow(0.5, days / (halfLifeMonths * DAYS_PER_MONTH));
+	}
 
-		// Création d'un rapport contenant l'âge du patient et l'évaluation du risque de diabète
-		Report report = Report.builder()
+	/**
+	 * Calcule le risque de diabète à partir du masque des termes déclencheurs déjà calculé
+	 * @param patient : Patient pour lequel le risque est évalué
+	 * @param triggerMask : Masque des termes déclencheurs trouvés dans les notes
+	 * @param dictionary : Photographie du dictionnaire utilisée pour calculer le masque
+	 * @param currentDate : Date actuelle pour calculer l'âge
+	 * @return Rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	 */
+	@Override
+	public Report calculateDiabetesRisk(Patient patient, long[] triggerMask, TriggerDictionary dictionary,
+			LocalDate currentDate) {
+		return buildReport(patient, triggerMask, dictionary, riskRuleService.getRiskTable(), currentDate);
+	}
+
+	// Création d'un rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	private Report buildReport(Patient patient, long[] triggerMask, TriggerDictionary dictionary,
+			RiskTable riskTable, LocalDate currentDate) {
+		// Calcul de l'âge du patient en utilisant la méthode calculateAge
+		Integer age = calculateAge(patient, currentDate);
+		Integer triggersNumber = TriggerMask.count(triggerMask);
+		return Report.builder()
 				.age(age)
-				.assessment(assessTheRisk(patient.getSex(),age,triggersNumber))
+				.assessment(riskTable.assess(RiskTable.sexCode(patient.getSex()),age,triggersNumber))
+				.dictionaryVersion(dictionary.getVersion())
+				.triggerMask(TriggerMask.toHex(triggerMask))
+				.triggers(TriggerMask.terms(triggerMask, dictionary))
 				.build();
-		return report;
+	}
+
+	/**
+	 * Calcule l'évolution de l'évaluation du risque note après note, en une seule passe chronologique :
+	 * le masque des termes est cumulé note après note et seuls les termes nouveaux sont comptés,
+	 * sans recalculer un rapport pour chaque préfixe de l'historique
+	 * @param patient : Patient pour lequel l'évolution est calculée
+	 * @param notes : Liste des notes médicales du patient, dans n'importe quel ordre
+	 * @param currentDate : Date utilisée pour les notes sans date
+	 * @return Un point par note, dans l'ordre chronologique
+	 */
+	@Override
+	public List<RiskTimelinePoint> calculateRiskTimeline(Patient patient, List<Note> notes, LocalDate currentDate) {
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		RiskTable riskTable = riskRuleService.getRiskTable();
+		int sexCode = RiskTable.sexCode(patient.getSex());
+		// Les notes arrivent de la plus récente à la plus ancienne : le tri d'une suite décroissante est linéaire
+		List<Note> chronological = new ArrayList<Note>(notes);
+		chronological.sort(CHRONOLOGICAL);
+		long[] triggerMask = TriggerMask.empty(dictionary.size());
+		int triggersNumber = 0;
+		List<RiskTimelinePoint> timeline = new ArrayList<RiskTimelinePoint>(chronological.size());
+		for (Note note : chronological) {
+			long[] noteMask = findNoteTriggers(note, Fingerprint.of(note.getBody()), dictionary);
+			// Termes de la note absents des notes précédentes
+			long[] newMask = new long[noteMask.length];
+			for (int word = 0; word < noteMask.length; word++) {
+				newMask[word] = noteMask[word] & ~triggerMask[word];
+				triggerMask[word] |= noteMask[word];
+			}
+			triggersNumber += TriggerMask.count(newMask);
+			Integer age = calculateAge(patient, note.getDate() == null ? currentDate : note.getDate().toLocalDate());
+			timeline.add(RiskTimelinePoint.builder()
+					.date(note.getDate())
+					.noteId(note.getId())
+					.age(age)
+					.triggersNumber(triggersNumber)
+					.newTriggers(TriggerMask.terms(newMask, dictionary))
+					.assessment(riskTable.assess(sexCode, age, triggersNumber))
+					.build());
+		}
+		return timeline;
+	}
+
+	/**
+	 * Calcule l'empreinte des données d'entrée d'un rapport
+	 * @param patient : Patient (identifiant, sexe et date de naissance)
+	 * @param bodyHashes : Empreintes du corps des notes médicales du patient
+	 * @param dictionary : Photographie du dictionnaire utilisée
+	 * @param riskTable : Table de décision utilisée
+	 * @param currentDate : Date actuelle
+	 * @return L'empreinte, différente dès qu'une des données change
+	 */
+	long fingerprint(Patient patient, long[] bodyHashes, TriggerDictionary dictionary, RiskTable riskTable,
+			LocalDate currentDate) {
+		Fingerprint fingerprint = new Fingerprint()
+				.add(patient.getId() == null ? -1 : patient.getId())
+				.add(patient.getSex())
+				.add(patient.getDob())
+				.add(dictionary.getVersion())
+				.add(riskTable.getVersion())
+				.add(currentDate.toEpochDay())
+				.add(bodyHashes.length);
+		for (long bodyHash : bodyHashes) {
+			fingerprint.add(bodyHash);
+		}
+		return fingerprint.value();
+	}
+
+	// Empreinte du corps de chaque note
+	private long[] bodyHashes(List<Note> notes) {
+		long[] bodyHashes = new long[notes.size()];
+		for (int i = 0; i < bodyHashes.length; i++) {
+			bodyHashes[i] = Fingerprint.of(notes.get(i).getBody());
+		}
+		return bodyHashes;
 	}
 
 	/**
@@ -60,10 +341,8 @@ public class PatientReportServiceImpl implements IPatientReportService {
 
 	// Méthode pour calculer l'âge du patient
 	Integer calculateAge(Patient patient, LocalDate currentDate) {
-		// Formatter pour la conversion des chaînes de date
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 		// Conversion de la date de naissance du patient en objet LocalDate
-		LocalDate birthdate = LocalDate.parse(patient.getDob(), formatter);
+		LocalDate birthdate = LocalDate.parse(patient.getDob(), DOB_FORMATTER);
 		// Calcul de la différence en années entre la date de naissance et la date actuelle
 		return (int) ChronoUnit.YEARS.between(birthdate, currentDate);
 	}
@@ -76,24 +355,134 @@ public class PatientReportServiceImpl implements IPatientReportService {
 
 	// Méthode pour calculer le nombre de termes déclencheurs dans une liste de notes médicales
 	Integer calculateTriggersNumber(List<Note> notes) {
-		// Utilisation d'un ensemble pour éviter les doublons de termes déclencheurs
-		Set<String> triggersTermFound = new HashSet<String>();
-		// Récupération de tous les termes déclencheurs depuis le repository
-		Iterable<Triggers> triggersList = patientReportRepository.findAll();
-		// Parcours de toutes les notes médicales du patient
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		// Retourne le nombre total de termes déclencheurs uniques trouvés dans les notes médicales
+		return TriggerMask.count(calculateTriggerMask(notes, dictionary));
+	}
+
+	/**
+	 * Calcule le masque des termes déclencheurs d'un patient
+	 * @param notes : Liste de notes médicales
+	 * @param dictionary : Photographie du dictionnaire
+	 * @return Le masque des termes déclencheurs trouvés
+	 */
+	@Override
+	public long[] calculateTriggerMask(List<Note> notes, TriggerDictionary dictionary) {
+		return calculateTriggerMask(notes, bodyHashes(notes), dictionary);
+	}
+
+	/**
+	 * Calcule le masque des termes déclencheurs d'un patient, OU des masques de ses notes.
+	 * Les notes sont analysées en séquence, sauf si leur taille totale atteint le seuil d'analyse parallèle
+	 * @param notes : Liste de notes médicales
+	 * @param bodyHashes : Empreintes du corps des notes
+	 * @param dictionary : Photographie du dictionnaire, sans accès à la base de données
+	 * @return Le masque des termes déclencheurs trouvés
+	 */
+	long[] calculateTriggerMask(List<Note> notes, long[] bodyHashes, TriggerDictionary dictionary) {
+		if (totalLength(notes) >= parallelScanThreshold && notes.size() > 1) {
+			return calculateTriggerMaskInParallel(notes, bodyHashes, dictionary);
+		}
+		long[] triggerMask = TriggerMask.empty(dictionary.size());
+		// Fusion des masques de chaque note : seules les notes nouvelles ou modifiées sont analysées
+		for (int i = 0; i < bodyHashes.length; i++) {
+			TriggerMask.or(triggerMask, findNoteTriggers(notes.get(i), bodyHashes[i], dictionary));
+		}
+		return triggerMask;
+	}
+
+	// Nombre total de caractères des notes
+	private long totalLength(List<Note> notes) {
+		long length = 0;
 		for (Note note : notes) {
-			// Parcours de tous les termes déclencheurs disponibles
-			for (Triggers triggers : triggersList) {
-				String term = triggers.getTerm();
+			length += note.getBody() == null ? 0 : note.getBody().length();
+		}
+		return length;
+	}
+
+	// Analyse des notes par tranches fork-join, fusionnées dans un masque partagé
+	private long[] calculateTriggerMaskInParallel(List<Note> notes, long[] bodyHashes, TriggerDictionary dictionary) {
+		AtomicLongArray sharedMask = new AtomicLongArray(TriggerMask.empty(dictionary.size()).length);
+		int leafSize = Math.max(1, notes.size() / (reportExecutor.getParallelism() * 4));
+		reportExecutor.invoke(new NoteRangeScan(notes, bodyHashes, dictionary, sharedMask, leafSize, 0, notes.size()));
+		long[] triggerMask = new long[sharedMask.length()];
+		for (int word = 0; word < triggerMask.length; word++) {
+			triggerMask[word] = sharedMask.get(word);
+		}
+		return triggerMask;
+	}
+
+	// Tâche analysant les notes [from, to[, divisée en deux tant qu'elle dépasse leafSize notes
+	private final class NoteRangeScan extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Note> notes;
+		private final long[] bodyHashes;
+		private final TriggerDictionary dictionary;
+		private final AtomicLongArray sharedMask;
+		private final int leafSize;
+		private final int from;
+		private final int to;
 
-				// Vérification si le terme déclencheur est présent dans le corps de la note médicale (insensible à la casse)
-				if (note.getBody().toLowerCase().contains(term)){
-					triggersTermFound.add(term);
+		private NoteRangeScan(List<Note> notes, long[] bodyHashes, TriggerDictionary dictionary,
+				AtomicLongArray sharedMask, int leafSize, int from, int to) {
+			this.notes = notes;
+			this.bodyHashes = bodyHashes;
+			this.dictionary = dictionary;
+			this.sharedMask = sharedMask;
+			this.leafSize = leafSize;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > leafSize) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new NoteRangeScan(notes, bodyHashes, dictionary, sharedMask, leafSize, from, middle),
+						new NoteRangeScan(notes, bodyHashes, dictionary, sharedMask, leafSize, middle, to));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				long[] noteMask = findNoteTriggers(notes.get(i), bodyHashes[i], dictionary);
+				for (int word = 0; word < noteMask.length; word++) {
+					if (noteMask[word] != 0) {
+						sharedMask.getAndAccumulate(word, noteMask[word], (current, added) -> current | added);
+					}
 				}
 			}
 		}
-		// Retourne le nombre total de termes déclencheurs uniques trouvés dans les notes médicales
-		return triggersTermFound.size();
+
+	}
+
+	/**
+	 * Recherche les termes déclencheurs d'une note, en réutilisant le résultat mémorisé
+	 * si ni le corps de la note ni le dictionnaire n'ont changé
+	 * @param note : Note médicale
+	 * @param bodyHash : Empreinte du corps de la note
+	 * @param dictionary : Photographie du dictionnaire
+	 * @return Le masque des termes trouvés dans la note
+	 */
+	long[] findNoteTriggers(Note note, long bodyHash, TriggerDictionary dictionary) {
+		// Une note sans identifiant (pas encore enregistrée) ne peut pas être mémorisée
+		if (note.getId() == null) {
+			return scanNote(note, dictionary);
+		}
+		NoteTriggers noteTriggers = noteTriggerCache.get(note.getId());
+		if (noteTriggers != null && noteTriggers.matches(bodyHash, dictionary.getVersion())) {
+			return noteTriggers.getMask();
+		}
+		long[] mask = scanNote(note, dictionary);
+		noteTriggerCache.put(note.getId(), new NoteTriggers(bodyHash, dictionary.getVersion(), mask));
+		return mask;
+	}
+
+	// Analyse du corps d'une note en une seule passe (insensible à la casse)
+	private long[] scanNote(Note note, TriggerDictionary dictionary) {
+		long[] mask = TriggerMask.empty(dictionary.size());
+		dictionary.scan(note.getBody(), index -> TriggerMask.set(mask, index));
+		return mask;
 	}
 	/**
 	 * Évalue le risque de diabète en fonction du sexe, de l'âge et du nombre de termes déclencheurs
@@ -105,26 +494,8 @@ public class PatientReportServiceImpl implements IPatientReportService {
 
 	// Méthode pour évaluer le risque de diabète en fonction du sexe, de l'âge et du nombre de termes déclencheurs
 	String assessTheRisk(String sex, Integer age, Integer triggersNumber) {
-		// Si le patient est une femme et a 30 ans ou moins
-		if (sex.equals("F") && age <= 30) {
-			// Évaluation du risque de diabète en fonction du nombre de termes déclencheurs
-			if (triggersNumber > 3 && triggersNumber < 7) {return "Danger";}
-			if (triggersNumber > 6) {return "Early onset";}
-		}
-		// Si le patient est un homme et a 30 ans ou moins
-		if (sex.equals("M") && age <= 30) {
-			// Évaluation du risque de diabète en fonction du nombre de termes déclencheurs
-			if (triggersNumber == 3 || triggersNumber == 4) {return "Danger";}
-			if (triggersNumber > 4) {return "Early onset";}
-		}
-		// Si le patient a plus de 30 ans
-		if (age > 30) {
-			// Si aucun des critères ci-dessus n'est satisfait, le risque de diabète est considéré comme "Aucun"
-			if (triggersNumber > 1 && triggersNumber < 6) {return "Borderline";}
-			if (triggersNumber == 6 || triggersNumber == 7) {return "Danger";}
-			if (triggersNumber > 7) {return "Early onset";}
-		}
-		return "None";
+		// Lecture directe de la table de décision compilée à partir des règles
+		return riskRuleService.getRiskTable().assess(RiskTable.sexCode(sex), age, triggersNumber);
 	}
 
 }
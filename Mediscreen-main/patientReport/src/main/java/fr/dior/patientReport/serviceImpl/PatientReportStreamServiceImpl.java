@@ -0,0 +1,107 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.function.IntConsumer;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.service.IPatientReportService;
+import fr.dior.patientReport.service.IPatientReportStreamService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+/**
+ * Calcul d'un rapport en lisant le document PatientAndNotes jeton par jeton.
+ * Le corps de chaque note est transmis à l'automate directement depuis le tampon du parseur,
+ * puis oublié : la mémoire utilisée ne dépend que de la plus longue note, pas de leur nombre.
+ * Les notes n'étant pas conservées, ce mode n'utilise pas les caches du calcul classique.
+ */
+@Service
+public class PatientReportStreamServiceImpl implements IPatientReportStreamService {
+
+	// Service calculant le rapport à partir du masque des termes déclencheurs
+	private IPatientReportService patientReportService;
+
+	// Service fournissant la photographie en mémoire du dictionnaire des termes déclencheurs
+	private ITriggerDictionaryService triggerDictionaryService;
+
+	// ObjectMapper de l'application, utilisé pour créer le parseur et lire le patient
+	private ObjectMapper objectMapper;
+
+	// Constructeur de la classe qui permet l'injection de dépendance lors de la création de l'instance
+	public PatientReportStreamServiceImpl(
+			IPatientReportService patientReportService,
+			ITriggerDictionaryService triggerDictionaryService,
+			ObjectMapper objectMapper) {
+		this.patientReportService = patientReportService;
+		this.triggerDictionaryService = triggerDictionaryService;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Calcule le risque de diabète au fil de la lecture du document
+	 * @param json : Document JSON d'un PatientAndNotes ; le patient peut précéder ou suivre les notes
+	 * @param currentDate : Date actuelle pour calculer l'âge
+	 * @return Rapport contenant l'âge du patient et l'évaluation du risque de diabète
+	 * @throws IOException si le document est mal formé ou ne contient pas de patient
+	 */
+	@Override
+	public Report calculateDiabetesRisk(InputStream json, LocalDate currentDate) throws IOException {
+		// Photographie du dictionnaire utilisée pour l'ensemble du calcul
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		long[] triggerMask = TriggerMask.empty(dictionary.size());
+		Patient patient = null;
+		try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw JsonMappingException.from(parser, "A PatientAndNotes object is expected");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("patient".equals(field) && token == JsonToken.START_OBJECT) {
+					patient = parser.readValueAs(Patient.class);
+				} else if ("notes".equals(field) && token == JsonToken.START_ARRAY) {
+					scanNotes(parser, dictionary, triggerMask);
+				} else {
+					parser.skipChildren();
+				}
+			}
+			if (patient == null) {
+				throw JsonMappingException.from(parser, "The patient is missing");
+			}
+		}
+		return patientReportService.calculateDiabetesRisk(patient, triggerMask, dictionary, currentDate);
+	}
+
+	// Analyse des notes du tableau courant : seul le corps est lu, les autres champs sont sautés
+	private void scanNotes(JsonParser parser, TriggerDictionary dictionary, long[] triggerMask) throws IOException {
+		IntConsumer onMatch = index -> TriggerMask.set(triggerMask, index);
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			if (parser.currentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("body".equals(field) && token == JsonToken.VALUE_STRING) {
+					// Lecture du corps dans le tampon du parseur, sans création de String
+					dictionary.scan(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(), onMatch);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+}
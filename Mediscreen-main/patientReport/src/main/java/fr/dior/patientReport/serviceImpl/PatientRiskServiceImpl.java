@@ -0,0 +1,247 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.engine.Fingerprint;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.model.PatientRisk;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.proxies.PatientInfoProxy;
+import fr.dior.patientReport.proxies.PatientNoteProxy;
+import fr.dior.patientReport.repository.PatientRiskRepository;
+import fr.dior.patientReport.service.IPatientDataService;
+import fr.dior.patientReport.service.IPatientReportService;
+import fr.dior.patientReport.service.IPatientRiskService;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+/**
+ * Table des risques matérialisée. Le recalcul planifié ne réévalue un patient que si l'une
+ * de ses données d'entrée a changé : notes enregistrées depuis le recalcul précédent (quel que soit
+ * le point d'entrée de PatientNote) ou signalées par invalidate, sexe ou date de naissance,
+ * dictionnaire ou règles, ou âge arrivé à son prochain anniversaire.
+ */
+@Service
+public class PatientRiskServiceImpl implements IPatientRiskService {
+
+	private static final Logger log = LoggerFactory.getLogger(PatientRiskServiceImpl.class);
+
+	// Marge sur la date des notes modifiées, pour couvrir l'écart d'horloge entre les services et la durée d'écriture
+	private static final Duration NOTES_CHECK_MARGIN = Duration.ofMinutes(1);
+
+	private final PatientRiskRepository patientRiskRepository;
+
+	private final PatientInfoProxy patientInfoProxy;
+
+	private final PatientNoteProxy patientNoteProxy;
+
+	private final IPatientDataService patientDataService;
+
+	private final IPatientReportService patientReportService;
+
+	private final ITriggerDictionaryService triggerDictionaryService;
+
+	private final IRiskRuleService riskRuleService;
+
+	// Date de la dernière recherche des notes modifiées, null avant le premier recalcul
+	private LocalDateTime notesCheckedAt;
+
+	public PatientRiskServiceImpl(
+			PatientRiskRepository patientRiskRepository,
+			PatientInfoProxy patientInfoProxy,
+			PatientNoteProxy patientNoteProxy,
+			IPatientDataService patientDataService,
+			IPatientReportService patientReportService,
+			ITriggerDictionaryService triggerDictionaryService,
+			IRiskRuleService riskRuleService) {
+		this.patientRiskRepository = patientRiskRepository;
+		this.patientInfoProxy = patientInfoProxy;
+		this.patientNoteProxy = patientNoteProxy;
+		this.patientDataService = patientDataService;
+		this.patientReportService = patientReportService;
+		this.triggerDictionaryService = triggerDictionaryService;
+		this.riskRuleService = riskRuleService;
+	}
+
+	/**
+	 * Recalcul planifié, désactivé si patientReport.risks.refresh-cron vaut "-"
+	 */
+	@Scheduled(cron = "${patientReport.risks.refresh-cron:0 */5 * * * *}")
+	public void scheduledRefresh() {
+		refresh(LocalDate.now());
+	}
+
+	/**
+	 * Réévalue les patients dont les données d'entrée ont changé
+	 * @param currentDate : Date actuelle pour calculer l'âge
+	 * @return Le nombre de patients réévalués
+	 */
+	@Override
+	public synchronized int refresh(LocalDate currentDate) {
+		long dictionaryFingerprint = triggerDictionaryService.getDictionary().getFingerprint();
+		long modelFingerprint = new Fingerprint()
+				.add(dictionaryFingerprint)
+				.add(riskRuleService.getRiskTable().getFingerprint())
+				.value();
+		Map<Integer, PatientRisk> patientRisks = new HashMap<Integer, PatientRisk>();
+		for (PatientRisk patientRisk : patientRiskRepository.findAll()) {
+			patientRisks.put(patientRisk.getPatientId(), patientRisk);
+		}
+		// Recherche faite avant l'évaluation : une note enregistrée pendant le recalcul sera vue au suivant
+		LocalDateTime checkedAt = LocalDateTime.now();
+		Set<Integer> notesChanged = patientsWithModifiedNotes(patientRisks.values());
+		boolean notesChecked = notesChanged != null;
+		if (!notesChecked) {
+			notesChanged = Set.of();
+		}
+		int updated = 0;
+		for (Patient patient : patientInfoProxy.getPatients()) {
+			PatientRisk patientRisk = patientRisks.remove(patient.getId());
+			if (!notesChanged.contains(patient.getId())
+					&& !needsRefresh(patientRisk, patient, modelFingerprint, currentDate)) {
+				continue;
+			}
+			try {
+				PatientRisk refreshed = evaluate(patient.getId(), patientRisk, dictionaryFingerprint,
+						modelFingerprint, currentDate);
+				if (refreshed != null) {
+					// Chaque patient est enregistré dès son évaluation, si aucune invalidation n'est arrivée entre-temps
+					patientRiskRepository.save(refreshed);
+					updated++;
+				}
+			} catch (ObjectOptimisticLockingFailureException e) {
+				// Les notes ont changé pendant l'évaluation : le patient reste à réévaluer au prochain recalcul
+				log.info("Risk of patient {} invalidated during its evaluation", patient.getId());
+			} catch (RuntimeException e) {
+				// Un patient en échec est retenté au prochain recalcul sans bloquer les autres
+				log.error("Risk refresh failed for patient {}", patient.getId(), e);
+				if (patientRisk != null) {
+					patientRiskRepository.markStale(patient.getId());
+				}
+			}
+		}
+		// Une recherche en échec est refaite depuis la même date au prochain recalcul
+		if (notesChecked) {
+			notesCheckedAt = checkedAt;
+		}
+		// Les patients restants n'existent plus dans PatientInfo
+		patientRiskRepository.deleteAllById(patientRisks.keySet());
+		log.info("Risk table refreshed : {} patients evaluated, {} removed", updated, patientRisks.size());
+		return updated;
+	}
+
+	// Patients dont une note a été enregistrée depuis la recherche précédente ; avant le premier recalcul,
+	// depuis la plus récente des évaluations enregistrées. Null si la recherche a échoué
+	private Set<Integer> patientsWithModifiedNotes(Collection<PatientRisk> patientRisks) {
+		LocalDateTime since = notesCheckedAt;
+		if (since == null) {
+			for (PatientRisk patientRisk : patientRisks) {
+				if (patientRisk.getComputedAt() != null && (since == null || patientRisk.getComputedAt().isAfter(since))) {
+					since = patientRisk.getComputedAt();
+				}
+			}
+			if (since == null) {
+				// Aucune évaluation enregistrée : tous les patients sont évalués
+				return Set.of();
+			}
+		}
+		try {
+			return new HashSet<Integer>(patientNoteProxy.getPatientIdsWithNotesModifiedSince(since.minus(NOTES_CHECK_MARGIN)));
+		} catch (RuntimeException e) {
+			log.error("Patients with modified notes since {} could not be fetched", since, e);
+			return null;
+		}
+	}
+
+	// Vrai si une donnée d'entrée a changé depuis la dernière évaluation
+	private boolean needsRefresh(PatientRisk patientRisk, Patient patient, long modelFingerprint, LocalDate currentDate) {
+		return patientRisk == null
+				|| Boolean.TRUE.equals(patientRisk.getStale())
+				|| patientRisk.getModelFingerprint() == null
+				|| patientRisk.getDictionaryFingerprint() == null
+				|| patientRisk.getModelFingerprint() != modelFingerprint
+				|| patientRisk.getPatientFingerprint() == null
+				|| patientRisk.getPatientFingerprint() != patientFingerprint(patient)
+				|| (patientRisk.getRefreshOn() != null && !patientRisk.getRefreshOn().isAfter(currentDate));
+	}
+
+	// Évaluation d'un patient à partir de ses données récupérées auprès des autres services ; la version de la
+	// dernière évaluation, lue avant la récupération des notes, empêche d'écraser une invalidation arrivée depuis
+	private PatientRisk evaluate(Integer patId, PatientRisk previous, long dictionaryFingerprint, long modelFingerprint,
+			LocalDate currentDate) {
+		PatientAndNotes patientAndNotes = patientDataService.getPatientAndNotes(patId);
+		if (patientAndNotes == null) {
+			return null;
+		}
+		Patient patient = patientAndNotes.getPatient();
+		Report report = patientReportService.calculateDiabetesRisk(patient, patientAndNotes.getNotes(), currentDate);
+		return PatientRisk.builder()
+				.patientId(patId)
+				.assessment(report.getAssessment())
+				.sex(patient.getSex())
+				.age(report.getAge())
+				.triggerMask(report.getTriggerMask())
+				.dictionaryVersion(report.getDictionaryVersion())
+				.dictionaryFingerprint(dictionaryFingerprint)
+				.modelFingerprint(modelFingerprint)
+				.patientFingerprint(patientFingerprint(patient))
+				.refreshOn(nextBirthday(patient, currentDate))
+				.stale(false)
+				.computedAt(LocalDateTime.now())
+				.version(previous == null ? null : previous.getVersion())
+				.build();
+	}
+
+	private long patientFingerprint(Patient patient) {
+		return new Fingerprint().add(patient.getSex()).add(patient.getDob()).value();
+	}
+
+	// Premier anniversaire strictement postérieur à la date actuelle
+	private LocalDate nextBirthday(Patient patient, LocalDate currentDate) {
+		LocalDate birthdate = LocalDate.parse(patient.getDob());
+		LocalDate nextBirthday = birthdate.plusYears(ChronoUnit.YEARS.between(birthdate, currentDate) + 1);
+		return nextBirthday.isAfter(currentDate) ? nextBirthday : currentDate.plusDays(1);
+	}
+
+	@Override
+	public void invalidate(Integer patId) {
+		patientRiskRepository.markStale(patId);
+	}
+
+	@Override
+	public PatientRisk getPatientRisk(Integer patId) {
+		return patientRiskRepository.findById(patId).orElse(null);
+	}
+
+	@Override
+	public List<PatientRisk> getPatientRisks(String assessment) {
+		return patientRiskRepository.findByAssessmentOrderByPatientIdAsc(assessment);
+	}
+
+	@Override
+	public Map<String, Long> countByAssessment() {
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		for (Object[] row : patientRiskRepository.countByAssessment()) {
+			counts.put((String) row[0], (Long) row[1]);
+		}
+		return counts;
+	}
+
+}
@@ -0,0 +1,229 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.engine.PopulationSnapshot;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
+import fr.dior.patientReport.model.RiskHistogram;
+import fr.dior.patientReport.model.RiskHistogramBand;
+import fr.dior.patientReport.model.TriggerFrequency;
+import fr.dior.patientReport.repository.PatientRiskRepository;
+import fr.dior.patientReport.service.IPopulationAnalyticsService;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+@Service
+public class PopulationAnalyticsServiceImpl implements IPopulationAnalyticsService {
+
+	private static final Logger log = LoggerFactory.getLogger(PopulationAnalyticsServiceImpl.class);
+
+	// Libellés des codes de sexe de RiskTable
+	private static final String[] SEX_LABELS = { "F", "M", "Other" };
+
+	private final PatientRiskRepository patientRiskRepository;
+
+	private final ITriggerDictionaryService triggerDictionaryService;
+
+	private final IRiskRuleService riskRuleService;
+
+	// Pool des balayages de la photographie
+	private final ForkJoinPool reportExecutor;
+
+	// Pool de la première construction, faite en arrière-plan
+	private final ExecutorService fetchExecutor;
+
+	// Photographie courante, remplacée de manière atomique à chaque reconstruction
+	private final AtomicReference<PopulationSnapshot> snapshot = new AtomicReference<PopulationSnapshot>();
+
+	// Vrai pendant la première construction, pour ne la lancer qu'une fois
+	private final AtomicBoolean building = new AtomicBoolean();
+
+	public PopulationAnalyticsServiceImpl(
+			PatientRiskRepository patientRiskRepository,
+			ITriggerDictionaryService triggerDictionaryService,
+			IRiskRuleService riskRuleService,
+			ForkJoinPool reportExecutor,
+			@Qualifier("fetchExecutor") ExecutorService fetchExecutor) {
+		this.patientRiskRepository = patientRiskRepository;
+		this.triggerDictionaryService = triggerDictionaryService;
+		this.riskRuleService = riskRuleService;
+		this.reportExecutor = reportExecutor;
+		this.fetchExecutor = fetchExecutor;
+	}
+
+	/**
+	 * Reconstruction planifiée, désactivée si patientReport.analytics.rebuild-cron vaut "-"
+	 */
+	@Scheduled(cron = "${patientReport.analytics.rebuild-cron:0 0 * * * *}")
+	public void scheduledRebuild() {
+		rebuild(LocalDate.now());
+	}
+
+	/**
+	 * Reconstruit la photographie à partir de la table des risques matérialisée : sexe, âge et masque
+	 * de chaque patient y sont déjà calculés, aucune note n'est récupérée ni analysée.
+	 * Les patients évalués avec un autre dictionnaire sont absents jusqu'à leur réévaluation par
+	 * le recalcul des risques, et l'âge est celui de la dernière évaluation, recalculée à chaque anniversaire.
+	 * @param currentDate : Date de la photographie
+	 * @return La nouvelle photographie
+	 */
+	@Override
+	public synchronized PopulationSnapshot rebuild(LocalDate currentDate) {
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		RiskTable riskTable = riskRuleService.getRiskTable();
+		List<Object[]> rows = patientRiskRepository.findSnapshotColumns(dictionary.getFingerprint());
+		int maskWords = TriggerMask.empty(dictionary.size()).length;
+		int[] patientIds = new int[rows.size()];
+		int[] sexCodes = new int[rows.size()];
+		int[] ages = new int[rows.size()];
+		long[] triggerMasks = new long[rows.size() * maskWords];
+		int size = 0;
+		for (Object[] row : rows) {
+			try {
+				long[] mask = TriggerMask.fromHex((String) row[3], dictionary.size());
+				ages[size] = (Integer) row[2];
+				patientIds[size] = (Integer) row[0];
+				sexCodes[size] = RiskTable.sexCode((String) row[1]);
+				System.arraycopy(mask, 0, triggerMasks, size * maskWords, maskWords);
+				size++;
+			} catch (RuntimeException e) {
+				// Un patient en échec est absent de cette photographie sans bloquer les autres
+				log.error("Patient {} could not be added to the population snapshot", row[0], e);
+			}
+		}
+		PopulationSnapshot rebuilt = PopulationSnapshot.of(dictionary, riskTable, currentDate,
+				Arrays.copyOf(patientIds, size), Arrays.copyOf(sexCodes, size), Arrays.copyOf(ages, size),
+				Arrays.copyOf(triggerMasks, size * maskWords));
+		snapshot.set(rebuilt);
+		log.info("Population snapshot rebuilt with {} patients", size);
+		return rebuilt;
+	}
+
+	/**
+	 * Première construction lancée en arrière-plan dès le démarrage, ou au premier appel si elle a échoué
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void buildInBackground() {
+		if (snapshot.get() != null || !building.compareAndSet(false, true)) {
+			return;
+		}
+		CompletableFuture.runAsync(() -> rebuild(LocalDate.now()), fetchExecutor)
+			.whenComplete((result, e) -> {
+				building.set(false);
+				if (e != null) {
+					log.error("Population snapshot could not be built", e);
+				}
+			});
+	}
+
+	/**
+	 * @return La photographie courante
+	 * @throws IllegalStateException si la première construction est en cours
+	 */
+	@Override
+	public PopulationSnapshot getSnapshot() {
+		PopulationSnapshot current = snapshot.get();
+		if (current == null) {
+			buildInBackground();
+			throw new IllegalStateException("The population snapshot is being built, retry later");
+		}
+		return current;
+	}
+
+	/**
+	 * Répartition des évaluations par sexe et tranche d'âge, calculée sur la photographie courante
+	 * @param ageBandWidth : Largeur des tranches d'âge en années, au moins 1
+	 * @return L'histogramme, limité aux tranches non vides
+	 */
+	@Override
+	public RiskHistogram getRiskHistogram(int ageBandWidth) {
+		if (ageBandWidth < 1) {
+			throw new IllegalArgumentException("The age band width must be at least 1");
+		}
+		PopulationSnapshot current = getSnapshot();
+		List<String> assessments = current.getRiskTable().getAssessments();
+		int bandCount = current.ageBandCount(ageBandWidth);
+		long[] counts = current.riskHistogram(ageBandWidth, reportExecutor);
+		List<RiskHistogramBand> bands = new ArrayList<RiskHistogramBand>();
+		for (int sex = 0; sex < SEX_LABELS.length; sex++) {
+			for (int band = 0; band < bandCount; band++) {
+				int offset = (sex * bandCount + band) * assessments.size();
+				Map<String, Long> byAssessment = new LinkedHashMap<String, Long>();
+				long total = 0;
+				for (int assessment = 0; assessment < assessments.size(); assessment++) {
+					byAssessment.put(assessments.get(assessment), counts[offset + assessment]);
+					total += counts[offset + assessment];
+				}
+				if (total > 0) {
+					bands.add(RiskHistogramBand.builder()
+							.sex(SEX_LABELS[sex])
+							.minAge(band * ageBandWidth)
+							.maxAge((band + 1) * ageBandWidth - 1)
+							.assessments(byAssessment)
+							.build());
+				}
+			}
+		}
+		return RiskHistogram.builder()
+				.date(current.getDate())
+				.patients(current.size())
+				.ageBandWidth(ageBandWidth)
+				.bands(bands)
+				.build();
+	}
+
+	/**
+	 * Fréquence des termes déclencheurs dans une cohorte, calculée sur la photographie courante
+	 * @param sex : Sexe de la cohorte, null pour tous
+	 * @param minAge : Âge minimal inclus, null si non borné
+	 * @param maxAge : Âge maximal inclus, null si non borné
+	 * @param assessment : Évaluation de la cohorte, null pour toutes
+	 * @return Le nombre de patients de la cohorte par terme
+	 */
+	@Override
+	public TriggerFrequency getTriggerFrequency(String sex, Integer minAge, Integer maxAge, String assessment) {
+		PopulationSnapshot current = getSnapshot();
+		List<String> terms = current.getDictionary().getTerms();
+		int assessmentCode = assessment == null ? -1 : current.getRiskTable().getAssessments().indexOf(assessment);
+		long[] counts = new long[terms.size() + 1];
+		// Une évaluation inconnue correspond à une cohorte vide
+		if (assessment == null || assessmentCode >= 0) {
+			counts = current.triggerFrequency(
+					sex == null ? -1 : RiskTable.sexCode(sex),
+					minAge == null ? 0 : minAge,
+					maxAge == null ? Integer.MAX_VALUE : maxAge,
+					assessmentCode,
+					reportExecutor);
+		}
+		Map<String, Long> triggers = new LinkedHashMap<String, Long>();
+		for (int index = 0; index < terms.size(); index++) {
+			triggers.put(terms.get(index), counts[index]);
+		}
+		return TriggerFrequency.builder()
+				.date(current.getDate())
+				.patients(counts[terms.size()])
+				.triggers(triggers)
+				.build();
+	}
+
+}
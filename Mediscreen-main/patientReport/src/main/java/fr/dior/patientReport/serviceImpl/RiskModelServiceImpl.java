@@ -0,0 +1,119 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.engine.RiskModel;
+import fr.dior.patientReport.engine.RiskModelSet;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.service.IRiskModelService;
+
+@Service
+public class RiskModelServiceImpl implements IRiskModelService {
+
+	private static final Logger log = LoggerFactory.getLogger(RiskModelServiceImpl.class);
+
+	// Modèles de dépistage déclarés comme beans
+	private final List<RiskModel> models;
+
+	// Union courante des dictionnaires, remplacée de manière atomique lorsqu'un dictionnaire change
+	private final AtomicReference<RiskModelSet> modelSet = new AtomicReference<RiskModelSet>();
+
+	private final AtomicLong versions = new AtomicLong();
+
+	public RiskModelServiceImpl(List<RiskModel> models) {
+		Set<String> names = new HashSet<String>();
+		for (RiskModel model : models) {
+			if (!names.add(model.getName())) {
+				throw new IllegalStateException("Duplicate risk model name " + model.getName());
+			}
+		}
+		this.models = List.copyOf(models);
+	}
+
+	/**
+	 * Évalue le risque d'un patient pour chaque modèle : chaque note est analysée une seule fois avec l'union
+	 * des termes, puis le masque de l'union est réparti entre les modèles
+	 * @param patient : Patient pour lequel les risques sont évalués
+	 * @param notes : Liste des notes médicales du patient
+	 * @param currentDate : Date actuelle pour calculer l'âge
+	 * @return Un rapport par modèle, dans l'ordre de déclaration des modèles
+	 */
+	@Override
+	public Map<String, Report> calculateRisks(Patient patient, List<Note> notes, LocalDate currentDate) {
+		RiskModelSet current = getModelSet();
+		TriggerDictionary dictionary = current.getDictionary();
+		long[] unionMask = TriggerMask.empty(dictionary.size());
+		for (Note note : notes) {
+			dictionary.scan(note.getBody(), index -> TriggerMask.set(unionMask, index));
+		}
+		int age = (int) ChronoUnit.YEARS.between(LocalDate.parse(patient.getDob()), currentDate);
+		Map<String, Report> reports = new LinkedHashMap<String, Report>();
+		for (int model = 0; model < current.getModels().size(); model++) {
+			RiskModel riskModel = current.getModels().get(model);
+			TriggerDictionary modelDictionary = current.getModelDictionary(model);
+			long[] triggerMask = current.modelMask(model, unionMask);
+			reports.put(riskModel.getName(), Report.builder()
+					.age(age)
+					.assessment(riskModel.assess(patient, age, triggerMask))
+					.dictionaryVersion(modelDictionary.getVersion())
+					.triggerMask(TriggerMask.toHex(triggerMask))
+					.triggers(TriggerMask.terms(triggerMask, modelDictionary))
+					.build());
+		}
+		return reports;
+	}
+
+	/**
+	 * Retourne l'union des dictionnaires des modèles, reconstruite si l'empreinte d'un dictionnaire a changé
+	 * @return La photographie courante de l'union
+	 */
+	@Override
+	public RiskModelSet getModelSet() {
+		List<TriggerDictionary> dictionaries = dictionaries();
+		RiskModelSet current = modelSet.get();
+		if (current != null && current.getKey() == RiskModelSet.key(dictionaries)) {
+			return current;
+		}
+		return rebuild(dictionaries);
+	}
+
+	// Photographie courante du dictionnaire de chaque modèle
+	private List<TriggerDictionary> dictionaries() {
+		List<TriggerDictionary> dictionaries = new ArrayList<TriggerDictionary>(models.size());
+		for (RiskModel model : models) {
+			dictionaries.add(model.getDictionary());
+		}
+		return dictionaries;
+	}
+
+	// Reconstruction de l'union, protégée contre les reconstructions concurrentes
+	private synchronized RiskModelSet rebuild(List<TriggerDictionary> dictionaries) {
+		RiskModelSet current = modelSet.get();
+		if (current != null && current.getKey() == RiskModelSet.key(dictionaries)) {
+			return current;
+		}
+		RiskModelSet rebuilt = RiskModelSet.of(versions.incrementAndGet(), models, dictionaries);
+		modelSet.set(rebuilt);
+		log.info("Risk models {} rebuilt with {} distinct trigger terms", rebuilt.getNames(),
+				rebuilt.getDictionary().size());
+		return rebuilt;
+	}
+
+}
@@ -0,0 +1,94 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.model.RiskRule;
+import fr.dior.patientReport.repository.RiskRuleRepository;
+import fr.dior.patientReport.service.IRiskRuleService;
+
+@Service
+public class RiskRuleServiceImpl implements IRiskRuleService {
+
+	private static final Logger log = LoggerFactory.getLogger(RiskRuleServiceImpl.class);
+
+	// Repository des règles, utilisé uniquement lors des recompilations
+	private final RiskRuleRepository riskRuleRepository;
+
+	// Table courante, remplacée de manière atomique à chaque recompilation
+	private final AtomicReference<RiskTable> riskTable = new AtomicReference<RiskTable>();
+
+	public RiskRuleServiceImpl(RiskRuleRepository riskRuleRepository) {
+		this.riskRuleRepository = riskRuleRepository;
+	}
+
+	/**
+	 * Retourne la table de décision courante, compilée au premier appel
+	 * @return La table de décision
+	 */
+	@Override
+	public RiskTable getRiskTable() {
+		RiskTable current = riskTable.get();
+		if (current == null) {
+			return initialize();
+		}
+		return current;
+	}
+
+	/**
+	 * Compile la table au démarrage pour que le premier rapport n'accède pas à la base de données
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		getRiskTable();
+	}
+
+	// Premier chargement, protégé contre les appels concurrents
+	private synchronized RiskTable initialize() {
+		RiskTable current = riskTable.get();
+		if (current == null) {
+			return reload();
+		}
+		return current;
+	}
+
+	/**
+	 * Recharge les règles depuis la base de données, ou les règles par défaut si la table est vide,
+	 * puis remplace la table de décision courante. Des règles invalides en base sont ignorées :
+	 * la table courante est conservée, ou la table des règles par défaut est compilée au premier chargement.
+	 * @return La nouvelle table de décision, ou la table conservée si les règles sont invalides
+	 */
+	@Override
+	public synchronized RiskTable reload() {
+		List<RiskRule> rules = riskRuleRepository.findAllByOrderByPriorityAsc();
+		if (rules.isEmpty()) {
+			log.info("No risk rule in database, default rules are used");
+			rules = RiskTable.defaultRules();
+		}
+		RiskTable current = riskTable.get();
+		long version = current == null ? 1 : current.getVersion() + 1;
+		RiskTable compiled;
+		try {
+			compiled = RiskTable.compile(version, rules);
+		} catch (IllegalArgumentException e) {
+			if (current != null) {
+				log.error("Invalid risk rules in database, risk table version {} is kept", current.getVersion(), e);
+				return current;
+			}
+			log.error("Invalid risk rules in database, default rules are used", e);
+			rules = RiskTable.defaultRules();
+			compiled = RiskTable.compile(version, rules);
+		}
+		riskTable.set(compiled);
+		log.info("Risk table version {} compiled from {} rules", version, rules.size());
+		return compiled;
+	}
+
+}
@@ -0,0 +1,199 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Response;
+import fr.dior.patientReport.engine.PopulationSnapshot;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
+import fr.dior.patientReport.engine.TriggerTerm;
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.RiskRule;
+import fr.dior.patientReport.model.SimulationRequest;
+import fr.dior.patientReport.model.SimulationResult;
+import fr.dior.patientReport.proxies.PatientNoteProxy;
+import fr.dior.patientReport.service.IPopulationAnalyticsService;
+import fr.dior.patientReport.service.IRiskSimulationService;
+
+/**
+ * Simulation d'un changement de règles ou de termes déclencheurs. Les règles et dictionnaires
+ * candidats sont compilés dans des objets propres à la simulation : ni la table de décision,
+ * ni le dictionnaire, ni les caches de production ne sont modifiés.
+ */
+@Service
+public class RiskSimulationServiceImpl implements IRiskSimulationService {
+
+	private static final Logger log = LoggerFactory.getLogger(RiskSimulationServiceImpl.class);
+
+	private final IPopulationAnalyticsService populationAnalyticsService;
+
+	private final PatientNoteProxy patientNoteProxy;
+
+	// ObjectMapper de l'application, utilisé pour lire l'export des notes
+	private final ObjectMapper objectMapper;
+
+	private final ForkJoinPool reportExecutor;
+
+	// Nombre maximal de patients de la photographie pour lequel les notes sont analysées de nouveau
+	private final int maxRescanPatients;
+
+	public RiskSimulationServiceImpl(
+			IPopulationAnalyticsService populationAnalyticsService,
+			PatientNoteProxy patientNoteProxy,
+			ObjectMapper objectMapper,
+			ForkJoinPool reportExecutor,
+			@Value("${patientReport.simulation.max-rescan-patients:100000}") int maxRescanPatients) {
+		this.populationAnalyticsService = populationAnalyticsService;
+		this.patientNoteProxy = patientNoteProxy;
+		this.objectMapper = objectMapper;
+		this.reportExecutor = reportExecutor;
+		this.maxRescanPatients = maxRescanPatients;
+	}
+
+	/**
+	 * Simule les règles et les termes candidats. Si les termes candidats sont tous connus du dictionnaire
+	 * de la photographie de la population, la simulation ne lit que les masques déjà calculés ;
+	 * sinon seuls les termes inconnus sont recherchés dans les notes, lues en un seul export,
+	 * et leurs occurrences sont ajoutées aux masques de la photographie.
+	 * @param request : Règles et termes candidats, null pour garder ceux en production
+	 * @return La matrice de passage des évaluations actuelles aux évaluations proposées
+	 * @throws IllegalArgumentException si une règle candidate est invalide, ou si des termes inconnus sont proposés
+	 * pour une population de plus de maxRescanPatients patients
+	 */
+	@Override
+	public SimulationResult simulate(SimulationRequest request) {
+		if (request.getRules() != null) {
+			RiskTable.validate(request.getRules());
+		}
+		PopulationSnapshot snapshot = populationAnalyticsService.getSnapshot();
+		RiskTable proposedTable = request.getRules() == null
+				? snapshot.getRiskTable()
+				: RiskTable.compile(0, sortByPriority(request.getRules()));
+		if (request.getTriggers() == null) {
+			return fromSnapshot(snapshot, proposedTable, null);
+		}
+		// Masque des concepts candidats dans le dictionnaire de la photographie ; un terme désigne son concept
+		TriggerDictionary dictionary = snapshot.getDictionary();
+		long[] keepMask = TriggerMask.empty(dictionary.size());
+		List<TriggerTerm> addedTerms = new ArrayList<TriggerTerm>();
+		for (String trigger : request.getTriggers()) {
+			String term = TriggerDictionary.normalize(trigger);
+			if (term == null) {
+				continue;
+			}
+			int index = dictionary.indexOf(term);
+			if (index < 0) {
+				addedTerms.add(TriggerTerm.of(term, null, null));
+			} else {
+				TriggerMask.set(keepMask, index);
+			}
+		}
+		if (addedTerms.isEmpty()) {
+			return fromSnapshot(snapshot, proposedTable, keepMask);
+		}
+		return rescan(snapshot, proposedTable, keepMask, addedTerms);
+	}
+
+	// Règles dans leur ordre d'évaluation, celles sans priorité à la fin dans l'ordre de la requête
+	private List<RiskRule> sortByPriority(List<RiskRule> rules) {
+		List<RiskRule> sorted = new ArrayList<RiskRule>(rules);
+		sorted.sort(Comparator.comparing(RiskRule::getPriority, Comparator.nullsLast(Comparator.naturalOrder())));
+		return sorted;
+	}
+
+	// Simulation sur la photographie de la population, sans accès aux notes
+	private SimulationResult fromSnapshot(PopulationSnapshot snapshot, RiskTable proposedTable, long[] keepMask) {
+		long[] transitions = snapshot.transitions(proposedTable, keepMask, reportExecutor);
+		return toResult(snapshot.getDate(), transitions, snapshot.getRiskTable().getAssessments(),
+				proposedTable.getAssessments(), false);
+	}
+
+	// Simulation avec des termes inconnus de la photographie : seuls ces termes sont recherchés dans les notes,
+	// lues par un seul export de PatientNote sans passer par le cache des notes de production ;
+	// les termes connus et l'évaluation actuelle restent ceux de la photographie
+	private SimulationResult rescan(PopulationSnapshot snapshot, RiskTable proposedTable, long[] keepMask,
+			List<TriggerTerm> addedTerms) {
+		if (snapshot.size() > maxRescanPatients) {
+			throw new IllegalArgumentException("New trigger terms can only be simulated on at most " + maxRescanPatients
+					+ " patients, the population has " + snapshot.size());
+		}
+		log.info("{} terms are not in the trigger dictionary, notes are scanned again", addedTerms.size());
+		TriggerDictionary addedDictionary = TriggerDictionary.compile(0, addedTerms,
+				snapshot.getDictionary().isWordBoundary());
+		Map<Integer, long[]> addedMasks = new HashMap<Integer, long[]>();
+		try (Response response = patientNoteProxy.exportNotes()) {
+			if (response.status() != 200 || response.body() == null) {
+				throw new IllegalStateException("Notes could not be exported for the simulation : " + response.status());
+			}
+			try (InputStream body = response.body().asInputStream();
+					MappingIterator<Note> notes = objectMapper.readerFor(Note.class)
+							.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+							.readValues(body)) {
+				while (notes.hasNext()) {
+					Note note = notes.next();
+					if (note.getPatId() == null || note.getBody() == null) {
+						continue;
+					}
+					long[] mask = addedMasks.computeIfAbsent(note.getPatId(),
+							patId -> TriggerMask.empty(addedDictionary.size()));
+					addedDictionary.scan(note.getBody(), index -> TriggerMask.set(mask, index));
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Notes could not be read for the simulation", e);
+		}
+		Map<Integer, Integer> addedTriggers = new HashMap<Integer, Integer>();
+		for (Map.Entry<Integer, long[]> mask : addedMasks.entrySet()) {
+			addedTriggers.put(mask.getKey(), TriggerMask.count(mask.getValue()));
+		}
+		long[] transitions = snapshot.transitions(proposedTable, keepMask, addedTriggers, reportExecutor);
+		return toResult(snapshot.getDate(), transitions, snapshot.getRiskTable().getAssessments(),
+				proposedTable.getAssessments(), true);
+	}
+
+	private SimulationResult toResult(LocalDate date, long[] transitions, List<String> currentAssessments,
+			List<String> proposedAssessments, boolean rescanned) {
+		Map<String, Map<String, Long>> matrix = new LinkedHashMap<String, Map<String, Long>>();
+		long patients = 0;
+		long changed = 0;
+		for (int current = 0; current < currentAssessments.size(); current++) {
+			Map<String, Long> row = new LinkedHashMap<String, Long>();
+			for (int proposed = 0; proposed < proposedAssessments.size(); proposed++) {
+				long count = transitions[current * proposedAssessments.size() + proposed];
+				row.put(proposedAssessments.get(proposed), count);
+				patients += count;
+				if (!currentAssessments.get(current).equals(proposedAssessments.get(proposed))) {
+					changed += count;
+				}
+			}
+			matrix.put(currentAssessments.get(current), row);
+		}
+		return SimulationResult.builder()
+				.date(date)
+				.patients(patients)
+				.changed(changed)
+				.rescanned(rescanned)
+				.transitions(matrix)
+				.build();
+	}
+
+}
@@ -0,0 +1,153 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import fr.dior.patientReport.engine.LanguageDetector;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerTerm;
+import fr.dior.patientReport.model.Triggers;
+import fr.dior.patientReport.repository.PatientReportRepository;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+@Service
+public class TriggerDictionaryServiceImpl implements ITriggerDictionaryService {
+
+	private static final Logger log = LoggerFactory.getLogger(TriggerDictionaryServiceImpl.class);
+
+	// Taille des colonnes term et concept de la table triggers
+	private static final int MAX_TERM_LENGTH = 30;
+
+	// Repository des termes déclencheurs, utilisé uniquement lors des reconstructions
+	private final PatientReportRepository patientReportRepository;
+
+	// Si vrai, un terme n'est retenu que s'il est délimité par des séparateurs
+	private final boolean wordBoundary;
+
+	// Photographie courante, remplacée de manière atomique à chaque reconstruction
+	private final AtomicReference<TriggerDictionary> dictionary = new AtomicReference<TriggerDictionary>();
+
+	public TriggerDictionaryServiceImpl(
+			PatientReportRepository patientReportRepository,
+			@Value("${patientReport.triggers.word-boundary:false}") boolean wordBoundary) {
+		this.patientReportRepository = patientReportRepository;
+		this.wordBoundary = wordBoundary;
+	}
+
+	/**
+	 * Retourne la photographie courante du dictionnaire, chargée au premier appel
+	 * @return La photographie courante du dictionnaire
+	 */
+	@Override
+	public TriggerDictionary getDictionary() {
+		TriggerDictionary current = dictionary.get();
+		if (current == null) {
+			return initialize();
+		}
+		return current;
+	}
+
+	/**
+	 * Charge le dictionnaire au démarrage pour que le premier rapport n'accède pas à la base de données
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		getDictionary();
+	}
+
+	// Premier chargement, protégé contre les appels concurrents
+	private synchronized TriggerDictionary initialize() {
+		TriggerDictionary current = dictionary.get();
+		if (current == null) {
+			return reload();
+		}
+		return current;
+	}
+
+	/**
+	 * Ajoute un terme déclencheur s'il n'existe pas déjà, puis reconstruit le dictionnaire
+	 * @param term : Terme à ajouter
+	 * @param language : Langue du terme, null ou vide pour toutes les notes
+	 * @param concept : Concept exprimé par le terme, null ou vide pour le terme lui-même
+	 * @return La nouvelle photographie du dictionnaire
+	 * @throws IllegalArgumentException si la langue n'est pas détectable, ou si le terme ou le concept est trop long
+	 */
+	@Override
+	public synchronized TriggerDictionary addTerm(String term, String language, String concept) {
+		String normalizedTerm = TriggerDictionary.normalize(term);
+		if (normalizedTerm == null) {
+			log.error("Empty trigger term can't be added");
+			return getDictionary();
+		}
+		String normalizedLanguage = TriggerDictionary.normalize(language);
+		if (normalizedLanguage != null && !LanguageDetector.isSupported(normalizedLanguage)) {
+			throw new IllegalArgumentException("Unsupported trigger term language " + language
+					+ ", expected " + LanguageDetector.FRENCH + " or " + LanguageDetector.ENGLISH);
+		}
+		String normalizedConcept = TriggerDictionary.normalize(concept);
+		if (normalizedTerm.length() > MAX_TERM_LENGTH
+				|| (normalizedConcept != null && normalizedConcept.length() > MAX_TERM_LENGTH)) {
+			throw new IllegalArgumentException("Trigger terms and concepts are limited to " + MAX_TERM_LENGTH + " characters");
+		}
+		if (!patientReportRepository.findByTerm(normalizedTerm).isEmpty()) {
+			log.info("Trigger term {} already exists", normalizedTerm);
+			return getDictionary();
+		}
+		log.info("Add trigger term {} ({}, concept {})", normalizedTerm, normalizedLanguage, normalizedConcept);
+		patientReportRepository.save(Triggers.builder()
+				.term(normalizedTerm)
+				.language(normalizedLanguage)
+				.concept(normalizedConcept)
+				.build());
+		return reload();
+	}
+
+	/**
+	 * Supprime un terme déclencheur, puis reconstruit le dictionnaire
+	 * @param term : Terme à supprimer
+	 * @return La nouvelle photographie du dictionnaire
+	 */
+	@Override
+	public synchronized TriggerDictionary removeTerm(String term) {
+		List<Triggers> triggers = patientReportRepository.findByTerm(TriggerDictionary.normalize(term));
+		if (triggers.isEmpty()) {
+			log.error("There is no trigger term {}", term);
+			return getDictionary();
+		}
+		log.info("Remove trigger term {}", term);
+		patientReportRepository.deleteAll(triggers);
+		return reload();
+	}
+
+	/**
+	 * Recharge les termes depuis la base de données et remplace la photographie courante.
+	 * Les calculs en cours conservent la photographie qu'ils ont déjà obtenue.
+	 * @return La nouvelle photographie du dictionnaire
+	 */
+	@Override
+	public synchronized TriggerDictionary reload() {
+		List<TriggerTerm> terms = new ArrayList<TriggerTerm>();
+		for (Triggers triggers : patientReportRepository.findAll()) {
+			TriggerTerm term = TriggerTerm.of(triggers.getTerm(), triggers.getLanguage(), triggers.getConcept());
+			if (term != null) {
+				terms.add(term);
+			}
+		}
+		TriggerDictionary current = dictionary.get();
+		long version = current == null ? 1 : current.getVersion() + 1;
+		TriggerDictionary rebuilt = TriggerDictionary.compile(version, terms, wordBoundary);
+		dictionary.set(rebuilt);
+		log.info("Trigger dictionary version {} loaded with {} terms and {} concepts", version,
+				rebuilt.getTriggerTerms().size(), rebuilt.size());
+		return rebuilt;
+	}
+
+}
@@ -4,16 +4,28 @@
 
 -- Default values for table 'triggers'
 delete from triggers;
-INSERT INTO triggers (term)
+INSERT INTO triggers (term, language, concept)
 VALUES
-('hémoglobine a1c'),('hemoglobin a1c'),
-('microalbumine'),('microalbumin'),
-('taille'),('height'),
-('poids'),('weight'),
-('fumeur'),('smoker'),
-('anormal'),('abnormal'),
-('cholestérol'),('cholesterol'),
-('vertige'),('dizziness'),
-('rechute'),('relapse'),
-('réaction'),('reaction'),
-('anticorps'),('antibodies');
+('hémoglobine a1c','fr','hémoglobine a1c'),('hemoglobin a1c','en','hémoglobine a1c'),
+('microalbumine','fr','microalbumine'),('microalbumin','en','microalbumine'),
+('taille','fr','taille'),('height','en','taille'),
+('poids','fr','poids'),('weight','en','poids'),
+('fumeur','fr','fumeur'),('smoker','en','fumeur'),
+('anormal','fr','anormal'),('abnormal','en','anormal'),
+('cholestérol','fr','cholestérol'),('cholesterol','en','cholestérol'),
+('vertige','fr','vertige'),('dizziness','en','vertige'),
+('rechute','fr','rechute'),('relapse','en','rechute'),
+('réaction','fr','réaction'),('reaction','en','réaction'),
+('anticorps','fr','anticorps'),('antibodies','en','anticorps');
+
+-- Default values for table 'risk_rule'
+delete from risk_rule;
+INSERT INTO risk_rule (priority, sex, min_age, max_age, min_triggers, max_triggers, assessment)
+VALUES
+(1,'F',NULL,30,4,6,'Danger'),
+(2,'F',NULL,30,7,NULL,'Early onset'),
+(3,'M',NULL,30,3,4,'Danger'),
+(4,'M',NULL,30,5,NULL,'Early onset'),
+(5,NULL,31,NULL,2,5,'Borderline'),
+(6,NULL,31,NULL,6,7,'Danger'),
+(7,NULL,31,NULL,8,NULL,'Early onset');
@@ -4,12 +4,60 @@
 
 -- USE mediscreen;
 DROP TABLE IF EXISTS triggers;
+DROP TABLE IF EXISTS risk_rule;
 
 
 -- Table structure for table `triggers`
+-- language is the language of the term (fr, en), NULL to look for it in every note.
+-- Terms sharing the same concept (translations) count as a single trigger, a NULL concept is the term itself.
 
 CREATE TABLE triggers (
   id INTEGER NOT NULL AUTO_INCREMENT PRIMARY KEY,
-  term VARCHAR(30) 
+  term VARCHAR(30),
+  language VARCHAR(2),
+  concept VARCHAR(30)
   );
 
+
+-- Table structure for table `risk_rule`
+-- Rules are evaluated by ascending priority, the first satisfied rule gives the assessment.
+-- A NULL bound or sex means the criterion is not used.
+
+CREATE TABLE risk_rule (
+  id INTEGER NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  priority INTEGER NOT NULL,
+  sex VARCHAR(1),
+  min_age INTEGER,
+  max_age INTEGER,
+  min_triggers INTEGER,
+  max_triggers INTEGER,
+  assessment VARCHAR(30) NOT NULL
+  );
+
+
+-- Table structure for table `patient_risk`
+-- Last assessment of each patient, kept across restarts and refreshed by the scheduler
+-- when notes, patient information, trigger terms or rules change, or at each birthday.
+-- version is incremented by each invalidation, an evaluation started before it is not saved.
+-- sex, age and trigger_mask are the columns of the population snapshot, trigger_mask is only read
+-- with the dictionary of the same dictionary_fingerprint.
+-- Existing tables : ALTER TABLE patient_risk ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+--                   ALTER TABLE patient_risk ADD COLUMN sex VARCHAR(10), ADD COLUMN dictionary_fingerprint BIGINT;
+
+CREATE TABLE IF NOT EXISTS patient_risk (
+  patient_id INTEGER NOT NULL PRIMARY KEY,
+  assessment VARCHAR(30),
+  sex VARCHAR(10),
+  age INTEGER,
+  trigger_mask VARCHAR(512),
+  dictionary_version BIGINT,
+  dictionary_fingerprint BIGINT,
+  model_fingerprint BIGINT,
+  patient_fingerprint BIGINT,
+  refresh_on DATE,
+  stale BOOLEAN,
+  computed_at DATETIME,
+  version BIGINT NOT NULL DEFAULT 0,
+  INDEX idx_patient_risk_assessment (assessment, patient_id),
+  INDEX idx_patient_risk_refresh_on (refresh_on)
+  );
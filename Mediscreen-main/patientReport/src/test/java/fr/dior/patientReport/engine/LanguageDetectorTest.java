@@ -0,0 +1,26 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class LanguageDetectorTest {
+
+	@Test
+	public void detect_should_count_stop_words_and_accents() {
+		assertThat(LanguageDetector.detect("Le patient déclare qu'il est fumeur depuis très longtemps"))
+			.isEqualTo(LanguageDetector.FRENCH);
+		assertThat(LanguageDetector.detect("The patient states that he has been a smoker for years"))
+			.isEqualTo(LanguageDetector.ENGLISH);
+		assertThat(LanguageDetector.detect("Hémoglobine A1C")).isNull();
+		assertThat(LanguageDetector.detect(null)).isNull();
+	}
+
+	@Test
+	public void detect_should_ignore_longer_words_and_other_alphabets() {
+		// Les mots plus longs ne sont pas confondus avec les mots outils qui les commencent
+		assertThat(LanguageDetector.detect("Theory thereof andante isolated")).isNull();
+		assertThat(LanguageDetector.detect("病人 the 病人 and")).isEqualTo(LanguageDetector.ENGLISH);
+	}
+
+}
@@ -0,0 +1,123 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PopulationSnapshotTest {
+
+	private static final int SIZE = 100000;
+
+	private ForkJoinPool pool;
+
+	private TriggerDictionary dictionary;
+
+	private RiskTable riskTable;
+
+	private int[] sexCodes;
+
+	private int[] ages;
+
+	private long[] masks;
+
+	private PopulationSnapshot snapshot;
+
+	@BeforeEach
+	public void init() {
+		pool = new ForkJoinPool(4);
+		// 70 termes : les masques occupent deux mots par patient
+		String[] terms = new String[70];
+		for (int i = 0; i < terms.length; i++) {
+			terms[i] = "term" + i;
+		}
+		dictionary = TriggerDictionary.of(1, List.of(terms), false);
+		riskTable = RiskTable.compile(1, RiskTable.defaultRules());
+		Random random = new Random(42);
+		int[] patientIds = new int[SIZE];
+		sexCodes = new int[SIZE];
+		ages = new int[SIZE];
+		masks = new long[SIZE * 2];
+		for (int i = 0; i < SIZE; i++) {
+			patientIds[i] = i + 1;
+			sexCodes[i] = random.nextInt(3);
+			ages[i] = random.nextInt(110);
+			for (int t = 0; t < random.nextInt(12); t++) {
+				int index = random.nextInt(terms.length);
+				masks[i * 2 + (index >>> 6)] |= 1L << index;
+			}
+		}
+		snapshot = PopulationSnapshot.of(dictionary, riskTable, LocalDate.of(2023, 4, 10), patientIds, sexCodes, ages, masks);
+	}
+
+	@AfterEach
+	public void close() {
+		pool.shutdown();
+	}
+
+	private int triggers(int i) {
+		return Long.bitCount(masks[i * 2]) + Long.bitCount(masks[i * 2 + 1]);
+	}
+
+	@Test
+	public void riskHistogram_should_match_a_sequential_count() {
+		int bandCount = snapshot.ageBandCount(10);
+		int assessmentCount = riskTable.getAssessments().size();
+		long[] expected = new long[3 * bandCount * assessmentCount];
+		for (int i = 0; i < SIZE; i++) {
+			int assessment = riskTable.assessmentCode(sexCodes[i], ages[i], triggers(i));
+			expected[(sexCodes[i] * bandCount + ages[i] / 10) * assessmentCount + assessment]++;
+		}
+		assertThat(snapshot.riskHistogram(10, pool)).containsExactly(expected);
+	}
+
+	@Test
+	public void triggerFrequency_should_count_the_cohort_only() {
+		int danger = riskTable.getAssessments().indexOf("Danger");
+		long[] expected = new long[dictionary.size() + 1];
+		for (int i = 0; i < SIZE; i++) {
+			if (sexCodes[i] != RiskTable.SEX_F || ages[i] < 30 || ages[i] > 60
+					|| riskTable.assessmentCode(sexCodes[i], ages[i], triggers(i)) != danger) {
+				continue;
+			}
+			expected[dictionary.size()]++;
+			for (int index = 0; index < dictionary.size(); index++) {
+				if ((masks[i * 2 + (index >>> 6)] & (1L << index)) != 0) {
+					expected[index]++;
+				}
+			}
+		}
+		assertThat(expected[dictionary.size()]).isPositive();
+		assertThat(snapshot.triggerFrequency(RiskTable.SEX_F, 30, 60, danger, pool)).containsExactly(expected);
+	}
+
+	@Test
+	public void transitions_should_reevaluate_with_the_proposed_table_and_terms() {
+		assertThat(riskTable.getAssessments()).hasSize(4);
+		long[] identity = snapshot.transitions(riskTable, null, pool);
+		long[] expected = new long[16];
+		for (int i = 0; i < SIZE; i++) {
+			int code = riskTable.assessmentCode(sexCodes[i], ages[i], triggers(i));
+			expected[code * 4 + code]++;
+		}
+		assertThat(identity).containsExactly(expected);
+
+		// Seuls les termes d'index 0 à 63 sont conservés
+		long[] keepMask = { -1L, 0L };
+		long[] subset = snapshot.transitions(riskTable, keepMask, pool);
+		expected = new long[16];
+		for (int i = 0; i < SIZE; i++) {
+			int current = riskTable.assessmentCode(sexCodes[i], ages[i], triggers(i));
+			int proposed = riskTable.assessmentCode(sexCodes[i], ages[i], Long.bitCount(masks[i * 2]));
+			expected[current * 4 + proposed]++;
+		}
+		assertThat(subset).containsExactly(expected);
+	}
+
+}
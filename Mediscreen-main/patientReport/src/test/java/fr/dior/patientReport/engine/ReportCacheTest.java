@@ -0,0 +1,62 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.model.CacheStats;
+
+public class ReportCacheTest {
+
+	@Test
+	public void cache_should_evict_least_recently_used_and_count() {
+		ReportCache reportCache = new ReportCache(2, 0);
+		Report report1 = Report.builder().age(1).build();
+		Report report2 = Report.builder().age(2).build();
+		reportCache.put(1L, report1);
+		reportCache.put(2L, report2);
+		assertThat(reportCache.get(1L)).isSameAs(report1);
+		reportCache.put(3L, Report.builder().age(3).build());
+		assertThat(reportCache.get(2L)).isNull();
+		assertThat(reportCache.get(1L)).isSameAs(report1);
+
+		CacheStats stats = reportCache.getStats();
+		assertThat(stats.getSize()).isEqualTo(2);
+		assertThat(stats.getHits()).isEqualTo(2L);
+		assertThat(stats.getMisses()).isEqualTo(1L);
+		assertThat(stats.getEvictions()).isEqualTo(1L);
+	}
+
+	@Test
+	public void cache_should_evict_least_recently_used_beyond_max_bytes() {
+		Report report = Report.builder().age(1).assessment("None").triggerMask("7")
+				.triggers(List.of("fumeur", "vertige", "rechute")).build();
+		long reportWeight = new ReportCache(10, 0).weigh(report);
+		ReportCache reportCache = new ReportCache(10, 2 * reportWeight);
+		reportCache.put(1L, report);
+		reportCache.put(2L, Report.builder().age(2).assessment("None").triggerMask("7")
+				.triggers(List.of("fumeur", "vertige", "rechute")).build());
+		assertThat(reportCache.get(1L)).isSameAs(report);
+		reportCache.put(3L, Report.builder().age(3).assessment("None").triggerMask("7")
+				.triggers(List.of("fumeur", "vertige", "rechute")).build());
+		assertThat(reportCache.get(2L)).isNull();
+		assertThat(reportCache.get(1L)).isSameAs(report);
+
+		CacheStats stats = reportCache.getStats();
+		assertThat(stats.getSize()).isEqualTo(2);
+		assertThat(stats.getWeight()).isEqualTo(2 * reportWeight);
+		assertThat(stats.getMaxBytes()).isEqualTo(2 * reportWeight);
+		assertThat(stats.getEvictions()).isEqualTo(1L);
+	}
+
+	@Test
+	public void fingerprint_should_separate_fields() {
+		assertThat(new Fingerprint().add("ab").add("c").value())
+			.isNotEqualTo(new Fingerprint().add("a").add("bc").value());
+		assertThat(Fingerprint.of(null)).isNotEqualTo(Fingerprint.of(""));
+	}
+
+}
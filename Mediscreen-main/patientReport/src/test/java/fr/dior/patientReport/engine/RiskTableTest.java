@@ -0,0 +1,79 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.dior.patientReport.model.RiskRule;
+
+public class RiskTableTest {
+
+	// Règles historiques écrites sous forme de conditions, référence de l'équivalence
+	private String legacyAssessTheRisk(String sex, Integer age, Integer triggersNumber) {
+		if (sex.equals("F") && age <= 30) {
+			if (triggersNumber > 3 && triggersNumber < 7) {return "Danger";}
+			if (triggersNumber > 6) {return "Early onset";}
+		}
+		if (sex.equals("M") && age <= 30) {
+			if (triggersNumber == 3 || triggersNumber == 4) {return "Danger";}
+			if (triggersNumber > 4) {return "Early onset";}
+		}
+		if (age > 30) {
+			if (triggersNumber > 1 && triggersNumber < 6) {return "Borderline";}
+			if (triggersNumber == 6 || triggersNumber == 7) {return "Danger";}
+			if (triggersNumber > 7) {return "Early onset";}
+		}
+		return "None";
+	}
+
+	@Test
+	public void default_table_should_match_legacy_rules_for_every_input() {
+		RiskTable riskTable = RiskTable.compile(1, RiskTable.defaultRules());
+		for (String sex : List.of("F", "M", "X", "")) {
+			for (int age = -5; age <= 200; age++) {
+				for (int triggersNumber = 0; triggersNumber <= 100; triggersNumber++) {
+					assertThat(riskTable.assess(RiskTable.sexCode(sex), age, triggersNumber))
+						.as("sex=%s age=%d triggers=%d", sex, age, triggersNumber)
+						.isEqualTo(legacyAssessTheRisk(sex, age, triggersNumber));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void compile_should_apply_first_matching_rule() {
+		RiskTable riskTable = RiskTable.compile(2, List.of(
+				new RiskRule(null, 1, null, 18, 64, 3, null, "High"),
+				new RiskRule(null, 2, null, null, null, 1, null, "Low")));
+		assertThat(riskTable.assess(RiskTable.SEX_F, 40, 5)).isEqualTo("High");
+		assertThat(riskTable.assess(RiskTable.SEX_M, 70, 5)).isEqualTo("Low");
+		assertThat(riskTable.assess(RiskTable.SEX_OTHER, 40, 0)).isEqualTo("None");
+		assertThat(riskTable.getTriggersCap()).isEqualTo(3);
+		assertThat(riskTable.getVersion()).isEqualTo(2L);
+	}
+
+	@Test
+	public void validate_should_reject_rules_that_cannot_be_compiled() {
+		RiskTable.validate(RiskTable.defaultRules());
+		assertThatThrownBy(() -> RiskTable.validate(List.of(new RiskRule(null, 1, null, null, null, 1, null, null))))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> RiskTable.validate(List.of(new RiskRule(null, 1, "X", null, null, 1, null, "High"))))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> RiskTable.validate(List.of(new RiskRule(null, 1, null, 40, 30, null, null, "High"))))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> RiskTable.validate(
+				List.of(new RiskRule(null, 1, null, null, null, null, Integer.MAX_VALUE, "High"))))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> RiskTable.validate(Arrays.asList((RiskRule) null)))
+			.isInstanceOf(IllegalArgumentException.class);
+		// Les règles lues en base sont vérifiées par la compilation
+		assertThatThrownBy(() -> RiskTable.compile(1,
+				List.of(new RiskRule(null, 1, null, null, Integer.MAX_VALUE, null, null, "High"))))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,111 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+	private SingleFlight<Long, String> singleFlight;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void init() {
+		singleFlight = new SingleFlight<Long, String>();
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	// Attend que les appels suivant le premier soient en attente du calcul en cours
+	private void awaitCoalesced(long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (singleFlight.getStats().getCoalesced() < count && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+	}
+
+	@Test
+	public void execute_should_share_one_computation_between_concurrent_calls() throws Exception {
+		AtomicInteger computations = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<Future<String>>();
+		results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+			computations.incrementAndGet();
+			started.countDown();
+			await(release);
+			return "report";
+		})));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		for (int i = 0; i < 7; i++) {
+			results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+				computations.incrementAndGet();
+				return "other";
+			})));
+		}
+		awaitCoalesced(7);
+		assertThat(singleFlight.getStats().getInFlight()).isEqualTo(1);
+		release.countDown();
+		for (Future<String> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("report");
+		}
+		assertThat(computations.get()).isEqualTo(1);
+		assertThat(singleFlight.getStats().getCalls()).isEqualTo(8L);
+		assertThat(singleFlight.getStats().getComputations()).isEqualTo(1L);
+		assertThat(singleFlight.getStats().getCoalesced()).isEqualTo(7L);
+		// La clé est libérée : un nouvel appel effectue un nouveau calcul
+		assertThat(singleFlight.getStats().getInFlight()).isZero();
+		assertThat(singleFlight.execute(1L, () -> "again")).isEqualTo("again");
+	}
+
+	@Test
+	public void execute_should_share_the_error_and_release_the_key() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+			started.countDown();
+			await(release);
+			throw new IllegalStateException("Service indisponible");
+		}));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "other"));
+		awaitCoalesced(1);
+		release.countDown();
+		assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> follower.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+		assertThat(singleFlight.execute(1L, () -> "report")).isEqualTo("report");
+	}
+
+	@Test
+	public void execute_should_not_coalesce_different_keys() {
+		assertThat(singleFlight.execute(1L, () -> singleFlight.execute(2L, () -> "report"))).isEqualTo("report");
+		assertThat(singleFlight.getStats().getCoalesced()).isZero();
+		assertThat(singleFlight.getStats().getComputations()).isEqualTo(2L);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TextNormalizerTest {
+
+	@Test
+	public void fold_should_remove_accents_and_expand_ligatures() {
+		assertThat(TextNormalizer.fold("Hémoglobine A1C")).isEqualTo("hemoglobine a1c");
+		assertThat(TextNormalizer.fold("Cholestérol, Œdème, ÇA")).isEqualTo("cholesterol, oedeme, ca");
+		assertThat(TextNormalizer.fold("élève")).isEqualTo("eleve");
+	}
+
+	@Test
+	public void stem_should_remove_plural_and_feminine_endings_of_the_last_word() {
+		assertThat(TextNormalizer.stem("antibodies")).isEqualTo("antibod");
+		assertThat(TextNormalizer.stem("antibody")).isEqualTo("antibod");
+		assertThat(TextNormalizer.stem("vertiges")).isEqualTo("vertig");
+		assertThat(TextNormalizer.stem("poids")).isEqualTo("poid");
+		assertThat(TextNormalizer.stem("fumeur")).isEqualTo("fumeur");
+		assertThat(TextNormalizer.stem("dizziness")).isEqualTo("dizziness");
+		// Racine trop courte, ou dernier mot contenant un chiffre
+		assertThat(TextNormalizer.stem("toux")).isEqualTo("toux");
+		assertThat(TextNormalizer.stem("hemoglobine a1c")).isEqualTo("hemoglobine a1c");
+	}
+
+	@Test
+	public void endings_should_be_compared_without_strings() {
+		long ending = TextNormalizer.append(TextNormalizer.append(0, 'e'), 's');
+		assertThat(ending).isEqualTo(TextNormalizer.pack("es"));
+		assertThat(TextNormalizer.isInflection(ending)).isTrue();
+		assertThat(TextNormalizer.startsWith(ending, TextNormalizer.pack("e"))).isTrue();
+		long longEnding = TextNormalizer.pack("eur");
+		assertThat(TextNormalizer.isInflection(longEnding)).isFalse();
+		assertThat(TextNormalizer.count(TextNormalizer.append(longEnding, 's'))).isEqualTo(4);
+	}
+
+}
@@ -0,0 +1,76 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class TriggerDictionaryTest {
+
+	// Termes du jeu de données : chaque traduction anglaise partage le concept du terme français
+	private static final List<TriggerTerm> TERMS = List.of(
+			TriggerTerm.of("Microalbumine", "fr", "microalbumine"), TriggerTerm.of("microalbumin", "en", "microalbumine"),
+			TriggerTerm.of("poids", "fr", "poids"), TriggerTerm.of("weight", "en", "poids"),
+			TriggerTerm.of("fumeur", "fr", "fumeur"), TriggerTerm.of("smoker", "en", "fumeur"),
+			TriggerTerm.of("a1c", null, null));
+
+	private Set<String> found(TriggerDictionary dictionary, String text) {
+		Set<String> found = new HashSet<String>();
+		dictionary.scan(text, index -> found.add(dictionary.term(index)));
+		return found;
+	}
+
+	@Test
+	public void scan_should_report_concepts_once_across_languages() {
+		TriggerDictionary dictionary = TriggerDictionary.compile(1, TERMS, false);
+		assertThat(dictionary.size()).isEqualTo(4);
+		assertThat(dictionary.getTerms()).containsExactly("microalbumine", "poids", "fumeur", "a1c");
+		// Note non reconnue : tous les termes sont recherchés, "microalbumine" contient aussi "microalbumin"
+		List<Integer> indexes = new ArrayList<Integer>();
+		dictionary.scan("Microalbumine, weight, poids", indexes::add);
+		assertThat(indexes).containsOnly(0, 1);
+		assertThat(dictionary.indexOf("Weight")).isEqualTo(1);
+		assertThat(dictionary.indexOf("poids")).isEqualTo(1);
+		assertThat(dictionary.indexOf("taille")).isEqualTo(-1);
+		assertThat(dictionary.indexOf("Microalbumíne")).isEqualTo(0);
+	}
+
+	@Test
+	public void scan_should_use_the_terms_of_the_detected_language() {
+		TriggerDictionary dictionary = TriggerDictionary.compile(1, TERMS, false);
+		assertThat(found(dictionary, "The patient is a smoker and has gained weight, A1C is high"))
+			.containsExactlyInAnyOrder("fumeur", "poids", "a1c");
+		// Terme français dans une note en anglais : seul l'automate anglais est utilisé
+		assertThat(found(dictionary, "The patient says that he is no longer fumeur")).isEmpty();
+		assertThat(found(dictionary, "Le patient est fumeur et son poids a augmenté"))
+			.containsExactlyInAnyOrder("fumeur", "poids");
+		char[] buffer = "[Le patient est fumeur et son poids a augmenté]".toCharArray();
+		Set<String> found = new HashSet<String>();
+		dictionary.scan(buffer, 1, buffer.length - 2, index -> found.add(dictionary.term(index)));
+		assertThat(found).containsExactlyInAnyOrder("fumeur", "poids");
+	}
+
+	@Test
+	public void of_should_keep_one_concept_per_term_without_language() {
+		TriggerDictionary dictionary = TriggerDictionary.of(1, List.of("Fumeur", "smoker", "fumeur"), false);
+		assertThat(dictionary.getTerms()).containsExactly("fumeur", "smoker");
+		assertThat(found(dictionary, "Smoker, fumeur")).containsExactlyInAnyOrder("fumeur", "smoker");
+		assertThat(dictionary.getFingerprint())
+			.isNotEqualTo(TriggerDictionary.compile(1, TERMS, false).getFingerprint())
+			.isEqualTo(TriggerDictionary.of(2, List.of("fumeur", "smoker"), false).getFingerprint());
+	}
+
+	@Test
+	public void detect_should_recognize_french_and_english_notes() {
+		assertThat(LanguageDetector.detect("Le patient déclare qu'il est fumeur depuis peu")).isEqualTo(LanguageDetector.FRENCH);
+		assertThat(LanguageDetector.detect("Patient states that they are feeling a great deal of stress at work"))
+			.isEqualTo(LanguageDetector.ENGLISH);
+		assertThat(LanguageDetector.detect("Microalbumine")).isNull();
+		assertThat(LanguageDetector.detect(null)).isNull();
+	}
+
+}
@@ -0,0 +1,52 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+public class TriggerMaskTest {
+
+	@Test
+	public void or_and_count_should_merge_note_masks() {
+		long[] note1 = TriggerMask.empty(70);
+		long[] note2 = TriggerMask.empty(70);
+		TriggerMask.set(note1, 0);
+		TriggerMask.set(note1, 65);
+		TriggerMask.set(note2, 65);
+		TriggerMask.set(note2, 3);
+		long[] profile = TriggerMask.empty(70);
+		TriggerMask.or(profile, note1);
+		TriggerMask.or(profile, note2);
+		assertThat(profile).hasSize(2);
+		assertThat(TriggerMask.count(profile)).isEqualTo(3);
+		assertThat(TriggerMask.get(profile, 3)).isTrue();
+		assertThat(TriggerMask.get(profile, 4)).isFalse();
+	}
+
+	@Test
+	public void toHex_should_put_term_zero_on_the_right() {
+		long[] mask = TriggerMask.empty(70);
+		assertThat(TriggerMask.toHex(mask)).isEqualTo("0");
+		TriggerMask.set(mask, 0);
+		TriggerMask.set(mask, 4);
+		assertThat(TriggerMask.toHex(mask)).isEqualTo("11");
+		TriggerMask.set(mask, 64);
+		assertThat(TriggerMask.toHex(mask)).isEqualTo("10000000000000011");
+		assertThat(TriggerMask.toHex(TriggerMask.empty(0))).isEqualTo("0");
+	}
+
+	@Test
+	public void fromHex_should_read_the_mask_written_by_toHex() {
+		long[] mask = TriggerMask.empty(70);
+		TriggerMask.set(mask, 0);
+		TriggerMask.set(mask, 4);
+		TriggerMask.set(mask, 64);
+		assertThat(TriggerMask.fromHex(TriggerMask.toHex(mask), 70)).isEqualTo(mask);
+		assertThat(TriggerMask.fromHex("0", 70)).isEqualTo(TriggerMask.empty(70));
+		assertThat(TriggerMask.fromHex("0", 0)).isEmpty();
+		assertThatThrownBy(() -> TriggerMask.fromHex("10000000000000011", 10))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
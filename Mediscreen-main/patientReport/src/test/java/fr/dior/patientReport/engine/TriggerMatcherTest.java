@@ -0,0 +1,103 @@
+package fr.dior.patientReport.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class TriggerMatcherTest {
+
+	private static final List<String> TERMS = List.of(
+			"hémoglobine a1c", "hemoglobin a1c", "microalbumine", "microalbumin",
+			"taille", "height", "poids", "weight", "fumeur", "smoker",
+			"anormal", "abnormal", "cholestérol", "cholesterol", "vertige", "dizziness",
+			"rechute", "relapse", "réaction", "reaction", "anticorps", "antibodies");
+
+	private Set<String> found(TriggerMatcher matcher, String text) {
+		Set<String> found = new HashSet<String>();
+		matcher.scan(text, index -> found.add(matcher.term(index)));
+		return found;
+	}
+
+	private Set<String> naive(List<String> terms, String text) {
+		Set<String> found = new HashSet<String>();
+		for (String term : terms) {
+			if (text.toLowerCase().contains(term)) {
+				found.add(term);
+			}
+		}
+		return found;
+	}
+
+	@Test
+	public void scan_should_ignore_case_and_accents_and_find_overlapping_terms() {
+		TriggerMatcher matcher = TriggerMatcher.compile(TERMS);
+		assertThat(found(matcher, "Lab reports Microalbumine and ABNORMAL Cholestérol"))
+			.containsExactlyInAnyOrder("microalbumine", "microalbumin", "abnormal", "cholestérol", "cholesterol");
+		assertThat(found(matcher, "HEMOGLOBINE A1C élevée, reaction cutanée"))
+			.containsExactlyInAnyOrder("hémoglobine a1c", "réaction", "reaction");
+	}
+
+	@Test
+	public void scan_with_word_boundary_should_accept_plural_and_feminine_endings() {
+		TriggerMatcher matcher = TriggerMatcher.compile(TERMS, true);
+		assertThat(found(matcher, "Fumeurs, réactions, anormale"))
+			.containsExactlyInAnyOrder("fumeur", "réaction", "reaction", "anormal");
+		assertThat(found(matcher, "Antibody, Vertiges, rechutes")).containsExactlyInAnyOrder("antibodies", "vertige", "rechute");
+		// Fin de mot qui n'est pas une flexion
+		assertThat(found(matcher, "Tailleur, fumeuse, vertigineux")).isEmpty();
+	}
+
+	@Test
+	public void scan_should_expand_ligatures_and_ignore_combining_accents() {
+		TriggerMatcher matcher = TriggerMatcher.compile(List.of("cœur", "cholestérol"), true);
+		assertThat(found(matcher, "Coeur et CHOLESTE\u0301ROL")).containsExactlyInAnyOrder("cœur", "cholestérol");
+		assertThat(found(matcher, "Cœurs")).containsExactly("cœur");
+	}
+
+	@Test
+	public void scan_should_match_contains_on_random_texts() {
+		List<String> terms = List.of("ab", "abc", "bca", "c", "cab", "aaa");
+		TriggerMatcher matcher = TriggerMatcher.compile(terms);
+		Random random = new Random(42);
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder text = new StringBuilder();
+			int length = random.nextInt(12);
+			for (int i = 0; i < length; i++) {
+				text.append("abcAB ".charAt(random.nextInt(6)));
+			}
+			assertThat(found(matcher, text.toString()))
+				.as(text.toString())
+				.isEqualTo(naive(terms, text.toString()));
+		}
+	}
+
+	@Test
+	public void scan_with_word_boundary_should_ignore_terms_inside_words() {
+		TriggerMatcher matcher = TriggerMatcher.compile(List.of("taille", "poids"), true);
+		assertThat(found(matcher, "Détaillé, poids: 80kg")).containsExactly("poids");
+		assertThat(found(matcher, "Taille")).containsExactly("taille");
+	}
+
+	@Test
+	public void scan_of_char_array_should_match_scan_of_string() {
+		TriggerMatcher matcher = TriggerMatcher.compile(TERMS, true);
+		String text = "xx Poids, ABNORMAL taille détaillée fumeur xx";
+		char[] buffer = ("[" + text + "]").toCharArray();
+		Set<String> found = new HashSet<String>();
+		matcher.scan(buffer, 1, text.length(), index -> found.add(matcher.term(index)));
+		assertThat(found).isEqualTo(found(matcher, text)).containsExactlyInAnyOrder("poids", "abnormal", "taille", "fumeur");
+	}
+
+	@Test
+	public void compile_should_ignore_duplicates_and_null_body() {
+		TriggerMatcher matcher = TriggerMatcher.compile(List.of("fumeur", "fumeur"));
+		assertThat(matcher.size()).isEqualTo(1);
+		assertThat(found(matcher, null)).isEmpty();
+	}
+
+}
@@ -0,0 +1,79 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.proxies.PatientInfoProxy;
+import fr.dior.patientReport.proxies.PatientNoteProxy;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientDataServiceImplTest {
+
+	private PatientDataServiceImpl patientDataService;
+
+	private ExecutorService fetchExecutor;
+
+	@Mock
+	private PatientInfoProxy patientInfoProxy;
+
+	@Mock
+	private PatientNoteProxy patientNoteProxy;
+
+	@BeforeEach
+	public void init() {
+		fetchExecutor = Executors.newFixedThreadPool(2);
+		patientDataService = new PatientDataServiceImpl(patientInfoProxy, patientNoteProxy, fetchExecutor);
+	}
+
+	@AfterEach
+	public void shutdown() {
+		fetchExecutor.shutdown();
+	}
+
+	@Test
+	public void getPatientAndNotes_success() {
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		List<Note> notes = List.of(Note.builder().body("Smoker").build());
+		when(patientInfoProxy.getPatientById(1)).thenReturn(patient);
+		when(patientNoteProxy.getNotesByPatientId(1)).thenReturn(notes);
+		PatientAndNotes patientAndNotes = patientDataService.getPatientAndNotes(1);
+		assertThat(patientAndNotes.getPatient()).isEqualTo(patient);
+		assertThat(patientAndNotes.getNotes()).isEqualTo(notes);
+	}
+
+	@Test
+	public void getPatientAndNotes_no_patient_should_return_null() {
+		when(patientInfoProxy.getPatientById(15)).thenReturn(null);
+		lenient().when(patientNoteProxy.getNotesByPatientId(15)).thenReturn(List.of());
+		assertThat(patientDataService.getPatientAndNotes(15)).isNull();
+	}
+
+	@Test
+	public void getPatientAndNotes_since_a_date_should_fetch_only_this_period() {
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		List<Note> notes = List.of(Note.builder().body("Smoker").build());
+		when(patientInfoProxy.getPatientById(1)).thenReturn(patient);
+		when(patientNoteProxy.getNotesByPatientIdAndDate(1, LocalDate.of(2021, 4, 10), null)).thenReturn(notes);
+		assertThat(patientDataService.getPatientAndNotes(1, LocalDate.of(2021, 4, 10)).getNotes()).isEqualTo(notes);
+		verify(patientNoteProxy, never()).getNotesByPatientId(1);
+	}
+
+}
@@ -0,0 +1,90 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.dior.patientReport.model.BatchReportItem;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.service.IPatientReportService;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientReportBatchServiceImplTest {
+
+	private PatientReportBatchServiceImpl patientReportBatchService;
+
+	private ForkJoinPool reportExecutor;
+
+	@Mock
+	private IPatientReportService patientReportService;
+
+	@BeforeEach
+	public void init() {
+		reportExecutor = new ForkJoinPool(4);
+		patientReportBatchService = new PatientReportBatchServiceImpl(patientReportService, reportExecutor);
+	}
+
+	@AfterEach
+	public void shutdown() {
+		reportExecutor.shutdown();
+	}
+
+	@Test
+	public void calculateDiabetesRisks_should_isolate_errors() {
+		LocalDate currentDate = LocalDate.of(2023, 4, 10);
+		Patient patient1 = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		Patient patient2 = Patient.builder().id(2).sex("F").build();
+		when(patientReportService.calculateDiabetesRisk(eq(patient1), any(), eq(currentDate)))
+			.thenReturn(Report.builder().age(56).assessment("None").build());
+		when(patientReportService.calculateDiabetesRisk(eq(patient2), any(), eq(currentDate)))
+			.thenThrow(new IllegalArgumentException("Missing date of birth"));
+		List<PatientAndNotes> batch = Arrays.asList(
+				new PatientAndNotes(patient1, List.of()),
+				new PatientAndNotes(patient2, null),
+				new PatientAndNotes(null, List.of()));
+
+		Map<String, BatchReportItem> reports = patientReportBatchService.calculateDiabetesRisks(batch, currentDate);
+
+		assertThat(reports).containsOnlyKeys("1", "2", "item-2");
+		assertThat(reports.get("1").getReport().getAssessment()).isEqualTo("None");
+		assertThat(reports.get("2").getError()).isEqualTo("Missing date of birth");
+		assertThat(reports.get("item-2").getError()).isEqualTo("Missing patient");
+	}
+
+	@Test
+	public void calculateDiabetesRisks_should_report_duplicate_patients_as_errors() {
+		LocalDate currentDate = LocalDate.of(2023, 4, 10);
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		when(patientReportService.calculateDiabetesRisk(eq(patient), any(), eq(currentDate)))
+			.thenReturn(Report.builder().age(56).assessment("None").build());
+		List<PatientAndNotes> batch = Arrays.asList(
+				new PatientAndNotes(patient, List.of()),
+				new PatientAndNotes(Patient.builder().id(1).sex("M").dob("1966-11-25").build(), List.of()));
+
+		Map<String, BatchReportItem> reports = patientReportBatchService.calculateDiabetesRisks(batch, currentDate);
+
+		assertThat(reports).containsOnlyKeys("1", "item-1");
+		assertThat(reports.get("1").getReport().getAssessment()).isEqualTo("None");
+		assertThat(reports.get("item-1").getError()).isEqualTo("Patient 1 appears more than once in the batch");
+		verify(patientReportService, times(1)).calculateDiabetesRisk(any(), any(), any());
+	}
+
+}
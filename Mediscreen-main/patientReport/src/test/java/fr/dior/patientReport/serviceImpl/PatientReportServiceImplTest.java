@@ -1,22 +1,34 @@
 package fr.dior.patientReport.serviceImpl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import fr.dior.patientReport.engine.NoteTriggerCache;
+import fr.dior.patientReport.engine.ReportCache;
+import fr.dior.patientReport.engine.ReportSingleFlight;
+import fr.dior.patientReport.engine.TriggerDictionary;
 import fr.dior.patientReport.model.Note;
 import fr.dior.patientReport.model.Patient;
 import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.model.ReportWindow;
+import fr.dior.patientReport.model.RiskTimelinePoint;
 import fr.dior.patientReport.model.Triggers;
 import fr.dior.patientReport.repository.PatientReportRepository;
+import fr.dior.patientReport.repository.RiskRuleRepository;
 
 @ExtendWith(MockitoExtension.class)
 public class PatientReportServiceImplTest {
@@ -26,9 +38,33 @@ public class PatientReportServiceImplTest {
 	@Mock
 	private PatientReportRepository patientReportRepository;
 	
+	@Mock
+	private RiskRuleRepository riskRuleRepository;
+	
+	private NoteTriggerCache noteTriggerCache;
+	
+	private ForkJoinPool reportExecutor;
+	
 	@BeforeEach
 	public void init() {
-		patientReportService = new PatientReportServiceImpl(patientReportRepository);
+		noteTriggerCache = new NoteTriggerCache(100);
+		reportExecutor = new ForkJoinPool(4);
+		patientReportService = newService(Integer.MAX_VALUE);
+	}
+	
+	@AfterEach
+	public void close() {
+		reportExecutor.shutdown();
+	}
+	
+	private PatientReportServiceImpl newService(int parallelScanThreshold) {
+		return new PatientReportServiceImpl(
+				new TriggerDictionaryServiceImpl(patientReportRepository, false),
+				new RiskRuleServiceImpl(riskRuleRepository),
+				new ReportCache(100, 0), new ReportSingleFlight(),
+				noteTriggerCache,
+				reportExecutor,
+				parallelScanThreshold);
 	}
 	
 	@Test
@@ -103,6 +139,213 @@ public class PatientReportServiceImplTest {
 		Report report = patientReportService.calculateDiabetesRisk(patient,notes,currentDate);
 		assertThat(report.getAge()).isEqualTo(56);
 		assertThat(report.getAssessment()).isEqualTo("Borderline");
+		assertThat(report.getDictionaryVersion()).isEqualTo(1L);
+		assertThat(report.getTriggers()).containsExactly("cholestérol","vertige");
+		assertThat(report.getTriggerMask()).isEqualTo("5");
+	}
+
+	@Test
+	public void calculateDiabetesRisk_should_reuse_report_until_inputs_change() {
+		Patient patient = Patient.builder()
+				.id(1)
+				.sex("M")
+				.dob("1966-11-25")
+				.build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		List<Note> notes = List.of(Note.builder().body("Cholestérol").build());
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"cholestérol")));
+		Report report = patientReportService.calculateDiabetesRisk(patient,notes,currentDate);
+		assertThat(patientReportService.calculateDiabetesRisk(patient,List.of(Note.builder().body("Cholestérol").build()),currentDate))
+			.isSameAs(report);
+		assertThat(patientReportService.calculateDiabetesRisk(patient,List.of(Note.builder().body("Cholestérol !").build()),currentDate))
+			.isNotSameAs(report);
+		assertThat(patientReportService.calculateDiabetesRisk(patient,notes,currentDate.plusDays(1)))
+			.isNotSameAs(report);
+		patient.setSex("F");
+		assertThat(patientReportService.calculateDiabetesRisk(patient,notes,currentDate))
+			.isNotSameAs(report);
+	}
+
+	@Test
+	public void calculateTriggersNumber_should_scan_only_new_or_changed_notes() {
+		Note note1 = Note.builder().id("1").body("Lorem Cholestérol Ipsum").build();
+		Note note2 = Note.builder().id("2").body("Vertige Bla Bla").build();
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"cholestérol"), new Triggers(2,"fumeur"), new Triggers(3,"vertige")));
+		assertThat(patientReportService.calculateTriggersNumber(List.of(note1,note2)))
+			.isEqualTo(2);
+		Note note3 = Note.builder().id("3").body("Fumeur").build();
+		Note changedNote2 = Note.builder().id("2").body("Bla Bla").build();
+		assertThat(patientReportService.calculateTriggersNumber(List.of(note1,changedNote2,note3)))
+			.isEqualTo(2);
+		// Seule la note 1 est réutilisée, la note 2 modifiée et la note 3 nouvelle sont analysées
+		assertThat(noteTriggerCache.getStats().getHits()).isEqualTo(2L);
+		assertThat(noteTriggerCache.getStats().getMisses()).isEqualTo(3L);
+	}
+
+	// Historique de 2000 notes, la note de rang i contenant le terme "term" + (i modulo termCount)
+	private List<Note> longHistory(int termCount) {
+		List<Note> notes = new ArrayList<Note>();
+		for (int i = 0; i < 2000; i++) {
+			notes.add(Note.builder().id(String.valueOf(i)).body("Consultation de suivi, term" + (i % termCount) + " noté").build());
+		}
+		return notes;
+	}
+
+	private List<Triggers> terms(int count) {
+		List<Triggers> triggers = new ArrayList<Triggers>();
+		for (int i = 0; i < count; i++) {
+			triggers.add(new Triggers(i, "term" + i));
+		}
+		return triggers;
+	}
+
+	@Test
+	public void calculateTriggerMask_in_parallel_should_match_the_sequential_scan() {
+		when(patientReportRepository.findAll()).thenReturn(terms(20));
+		List<Note> notes = longHistory(20);
+		TriggerDictionary dictionary = new TriggerDictionaryServiceImpl(patientReportRepository, false).getDictionary();
+		long[] parallel = newService(0).calculateTriggerMask(notes, dictionary);
+		assertThat(parallel).containsExactly(0xfffffL);
+		assertThat(patientReportService.calculateTriggerMask(notes, dictionary)).containsExactly(parallel);
+	}
+
+	@Test
+	public void calculateDiabetesRisk_in_parallel_should_return_the_full_trigger_mask() {
+		when(patientReportRepository.findAll()).thenReturn(terms(20));
+		Patient patient = Patient.builder().sex("F").dob("1966-11-25").build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		Report parallel = newService(0).calculateDiabetesRisk(patient, longHistory(20), currentDate);
+		// Le masque mis en cache et matérialisé ne dépend pas de l'ordonnancement : toutes les notes sont analysées
+		assertThat(noteTriggerCache.getStats().getMisses()).isEqualTo(2000L);
+		assertThat(parallel.getTriggers()).hasSize(20);
+		Report sequential = newService(Integer.MAX_VALUE).calculateDiabetesRisk(patient, longHistory(20), currentDate);
+		assertThat(parallel.getTriggerMask()).isEqualTo(sequential.getTriggerMask());
+		assertThat(parallel.getAssessment()).isEqualTo(sequential.getAssessment()).isEqualTo("Early onset");
+	}
+
+	// Notes d'un patient écrites il y a 1, 12, 30 et 60 mois
+	private List<Note> datedHistory(LocalDate currentDate) {
+		return List.of(
+				Note.builder().id("1").date(currentDate.minusMonths(1).atStartOfDay()).body("Fumeur").build(),
+				Note.builder().id("2").date(currentDate.minusMonths(12).atStartOfDay()).body("Vertige, fumeur").build(),
+				Note.builder().id("3").date(currentDate.minusMonths(30).atStartOfDay()).body("Rechute").build(),
+				Note.builder().id("4").date(currentDate.minusMonths(60).atStartOfDay()).body("Poids, réaction").build());
+	}
+
+	@Test
+	public void calculateDiabetesRisk_with_lookback_should_ignore_older_notes() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"fumeur"), new Triggers(2,"vertige"), new Triggers(3,"rechute"),
+					new Triggers(4,"poids"), new Triggers(5,"réaction")));
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		Report report = patientReportService.calculateDiabetesRisk(patient, datedHistory(currentDate), currentDate,
+				ReportWindow.builder().lookbackMonths(24).build());
+		assertThat(report.getTriggers()).containsExactly("fumeur","vertige");
+		assertThat(report.getTriggerScore()).isNull();
+		assertThat(patientReportService.calculateDiabetesRisk(patient, datedHistory(currentDate), currentDate,
+				ReportWindow.builder().lookbackMonths(0).build()).getTriggers())
+			.hasSize(5);
+	}
+
+	@Test
+	public void calculateDiabetesRisk_should_reuse_a_report_cached_after_the_first_lookup() {
+		// Cache dont la première lecture échoue toujours, comme si le calcul concurrent s'était terminé juste après
+		ReportCache lateCache = new ReportCache(100, 0) {
+			@Override
+			public Report get(Long key) {
+				super.get(key);
+				return null;
+			}
+		};
+		PatientReportServiceImpl service = new PatientReportServiceImpl(
+				new TriggerDictionaryServiceImpl(patientReportRepository, false),
+				new RiskRuleServiceImpl(riskRuleRepository),
+				lateCache, new ReportSingleFlight(), noteTriggerCache, reportExecutor, Integer.MAX_VALUE);
+		when(patientReportRepository.findAll()).thenReturn(List.of(new Triggers(1,"fumeur")));
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		List<Note> notes = datedHistory(currentDate);
+		Report report = service.calculateDiabetesRisk(patient, notes, currentDate);
+		assertThat(service.calculateDiabetesRisk(patient, notes, currentDate)).isSameAs(report);
+		ReportWindow weighted = ReportWindow.builder().halfLifeMonths(12).build();
+		Report weightedReport = service.calculateDiabetesRisk(patient, notes, currentDate, weighted);
+		assertThat(service.calculateDiabetesRisk(patient, notes, currentDate, weighted)).isSameAs(weightedReport);
+	}
+
+	@Test
+	public void calculateDiabetesRisk_with_lookback_should_ignore_notes_without_date() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"fumeur"), new Triggers(2,"vertige")));
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		List<Note> notes = List.of(
+				Note.builder().id("1").date(currentDate.minusMonths(1).atStartOfDay()).body("Fumeur").build(),
+				Note.builder().id("2").body("Vertige").build());
+		assertThat(patientReportService.calculateDiabetesRisk(patient, notes, currentDate,
+				ReportWindow.builder().lookbackMonths(24).build()).getTriggers())
+			.containsExactly("fumeur");
+		assertThat(patientReportService.calculateDiabetesRisk(patient, notes, currentDate,
+				ReportWindow.builder().lookbackMonths(0).build()).getTriggers())
+			.containsExactly("fumeur", "vertige");
+	}
+
+	@Test
+	public void calculateDiabetesRisk_with_half_life_should_weight_terms_by_their_most_recent_note() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"fumeur"), new Triggers(2,"vertige"), new Triggers(3,"rechute"),
+					new Triggers(4,"poids"), new Triggers(5,"réaction")));
+		Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		Report report = patientReportService.calculateDiabetesRisk(patient, datedHistory(currentDate), currentDate,
+				ReportWindow.builder().halfLifeMonths(12).build());
+		// fumeur (1 mois) + vertige (12 mois) + rechute (30 mois) + poids et réaction (60 mois)
+		double expected = Math.pow(0.5, 1 / 12.0) + 0.5 + Math.pow(0.5, 2.5) + 2 * Math.pow(0.5, 5);
+		assertThat(report.getTriggers()).hasSize(5);
+		assertThat(report.getTriggerScore()).isCloseTo(expected, within(0.01));
+		// 5 termes donnent "Danger" à 56 ans, leur poids arrondi à 2 donne "Borderline"
+		assertThat(report.getAssessment()).isEqualTo("Borderline");
+		assertThat(patientReportService.calculateDiabetesRisk(patient, datedHistory(currentDate), currentDate,
+				ReportWindow.builder().halfLifeMonths(12).build()))
+			.isSameAs(report);
+	}
+
+	@Test
+	public void recencyWeight_should_halve_at_each_half_life() {
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		assertThat(patientReportService.recencyWeight(Note.builder().build(), currentDate, 6)).isEqualTo(1.0);
+		assertThat(patientReportService.recencyWeight(
+				Note.builder().date(LocalDateTime.of(2023,04,10,9,30)).build(), currentDate, 6)).isEqualTo(1.0);
+		assertThat(patientReportService.recencyWeight(
+				Note.builder().date(currentDate.minusYears(1).atStartOfDay()).build(), currentDate, 6))
+			.isCloseTo(0.25, within(0.001));
+	}
+
+	@Test
+	public void calculateRiskTimeline_should_accumulate_triggers_in_chronological_order() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"fumeur"), new Triggers(2,"vertige"), new Triggers(3,"rechute"),
+					new Triggers(4,"poids"), new Triggers(5,"réaction")));
+		Patient patient = Patient.builder().id(1).sex("M").dob("1990-06-01").build();
+		LocalDate currentDate = LocalDate.of(2023,04,10);
+		// Notes de la plus récente à la plus ancienne, comme renvoyées par PatientNote
+		List<RiskTimelinePoint> timeline = patientReportService.calculateRiskTimeline(patient,
+				List.of(Note.builder().id("3").date(LocalDateTime.of(2023,1,5,10,0)).body("Rechute, fumeur").build(),
+						Note.builder().id("2").date(LocalDateTime.of(2020,3,2,10,0)).body("Vertige, fumeur").build(),
+						Note.builder().id("1").date(LocalDateTime.of(2019,2,1,10,0)).body("Fumeur").build()),
+				currentDate);
+		assertThat(timeline).extracting(RiskTimelinePoint::getNoteId).containsExactly("1","2","3");
+		assertThat(timeline).extracting(RiskTimelinePoint::getAge).containsExactly(28,29,32);
+		assertThat(timeline).extracting(RiskTimelinePoint::getTriggersNumber).containsExactly(1,2,3);
+		assertThat(timeline.get(2).getNewTriggers()).containsExactly("rechute");
+		assertThat(timeline).extracting(RiskTimelinePoint::getAssessment).containsExactly("None","None","Borderline");
+		// Le dernier point correspond au rapport calculé sur tout l'historique à la même date
+		assertThat(patientReportService.calculateDiabetesRisk(patient,
+				List.of(Note.builder().body("Rechute, fumeur").build(), Note.builder().body("Vertige").build()),
+				LocalDate.of(2023,1,5)).getAssessment())
+			.isEqualTo(timeline.get(2).getAssessment());
 	}
 
 }
@@ -0,0 +1,99 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.dior.patientReport.engine.NoteTriggerCache;
+import fr.dior.patientReport.engine.ReportCache;
+import fr.dior.patientReport.engine.ReportSingleFlight;
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.model.Triggers;
+import fr.dior.patientReport.repository.PatientReportRepository;
+import fr.dior.patientReport.repository.RiskRuleRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientReportStreamServiceImplTest {
+
+	private static final LocalDate CURRENT_DATE = LocalDate.of(2023, 4, 10);
+
+	private PatientReportServiceImpl patientReportService;
+
+	private PatientReportStreamServiceImpl patientReportStreamService;
+
+	@Mock
+	private PatientReportRepository patientReportRepository;
+
+	@Mock
+	private RiskRuleRepository riskRuleRepository;
+
+	@BeforeEach
+	public void init() {
+		TriggerDictionaryServiceImpl triggerDictionaryService = new TriggerDictionaryServiceImpl(patientReportRepository, false);
+		patientReportService = new PatientReportServiceImpl(
+				triggerDictionaryService,
+				new RiskRuleServiceImpl(riskRuleRepository),
+				new ReportCache(100, 0), new ReportSingleFlight(),
+				new NoteTriggerCache(100),
+				ForkJoinPool.commonPool(),
+				Integer.MAX_VALUE);
+		patientReportStreamService = new PatientReportStreamServiceImpl(
+				patientReportService, triggerDictionaryService, new ObjectMapper());
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"cholestérol"), new Triggers(2,"fumeur"),
+					new Triggers(3,"vertige"), new Triggers(4,"rechute")));
+	}
+
+	private Report stream(String json) throws IOException {
+		return patientReportStreamService.calculateDiabetesRisk(
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), CURRENT_DATE);
+	}
+
+	@Test
+	public void calculateDiabetesRisk_should_return_the_same_report_as_the_bound_request() throws IOException {
+		Patient patient = Patient.builder().id(1).sex("M").dob("2000-01-01").build();
+		List<Note> notes = List.of(
+				Note.builder().id("a").body("Patient Fumeur, cholestérol élevé").build(),
+				Note.builder().id("b").body("Vertige et rechute").build());
+		Report report = stream("{\"patient\":{\"id\":1,\"sex\":\"M\",\"dob\":\"2000-01-01\",\"family\":\"Test\"},"
+				+ "\"notes\":[{\"id\":\"a\",\"patId\":1,\"date\":\"2023-01-01T10:00:00\",\"body\":\"Patient Fumeur, cholestérol élevé\"},"
+				+ "{\"id\":\"b\",\"body\":\"Vertige et rechute\"}]}");
+		assertThat(report).isEqualTo(patientReportService.calculateDiabetesRisk(patient, notes, CURRENT_DATE));
+		assertThat(report.getAssessment()).isEqualTo("Danger");
+	}
+
+	@Test
+	public void calculateDiabetesRisk_should_accept_notes_before_patient_and_skip_other_fields() throws IOException {
+		Report report = stream("{\"notes\":[null,{\"body\":null},{\"tags\":[\"fumeur\"],\"body\":\"Vertige\"}],"
+				+ "\"comment\":{\"text\":\"rechute\"},\"patient\":{\"sex\":\"F\",\"dob\":\"1966-11-25\"}}");
+		assertThat(report.getAge()).isEqualTo(56);
+		assertThat(report.getTriggers()).containsExactly("vertige");
+	}
+
+	@Test
+	public void calculateDiabetesRisk_should_fail_without_patient() {
+		assertThatThrownBy(() -> stream("{\"notes\":[{\"body\":\"Vertige\"}]}"))
+			.isInstanceOf(JsonProcessingException.class);
+		assertThatThrownBy(() -> stream("[]"))
+			.isInstanceOf(JsonProcessingException.class);
+	}
+
+}
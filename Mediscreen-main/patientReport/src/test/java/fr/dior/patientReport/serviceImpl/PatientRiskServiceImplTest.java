@@ -0,0 +1,217 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import fr.dior.patientReport.engine.Fingerprint;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.model.PatientRisk;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.proxies.PatientInfoProxy;
+import fr.dior.patientReport.proxies.PatientNoteProxy;
+import fr.dior.patientReport.repository.PatientRiskRepository;
+import fr.dior.patientReport.service.IPatientDataService;
+import fr.dior.patientReport.service.IPatientReportService;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientRiskServiceImplTest {
+
+	private static final LocalDate CURRENT_DATE = LocalDate.of(2023, 4, 10);
+
+	private static final LocalDateTime COMPUTED_AT = LocalDateTime.of(2023, 4, 10, 8, 0);
+
+	private PatientRiskServiceImpl patientRiskService;
+
+	@Mock
+	private PatientRiskRepository patientRiskRepository;
+
+	@Mock
+	private PatientInfoProxy patientInfoProxy;
+
+	@Mock
+	private PatientNoteProxy patientNoteProxy;
+
+	@Mock
+	private IPatientDataService patientDataService;
+
+	@Mock
+	private IPatientReportService patientReportService;
+
+	@Mock
+	private ITriggerDictionaryService triggerDictionaryService;
+
+	@Mock
+	private IRiskRuleService riskRuleService;
+
+	@Captor
+	private ArgumentCaptor<PatientRisk> saved;
+
+	private TriggerDictionary dictionary;
+
+	private RiskTable riskTable;
+
+	private Patient patient;
+
+	@BeforeEach
+	public void init() {
+		patientRiskService = new PatientRiskServiceImpl(patientRiskRepository, patientInfoProxy, patientNoteProxy,
+				patientDataService, patientReportService, triggerDictionaryService, riskRuleService);
+		dictionary = TriggerDictionary.of(1, List.of("fumeur", "vertige"), false);
+		riskTable = RiskTable.compile(1, RiskTable.defaultRules());
+		when(triggerDictionaryService.getDictionary()).thenReturn(dictionary);
+		when(riskRuleService.getRiskTable()).thenReturn(riskTable);
+		patient = Patient.builder().id(1).sex("F").dob("1966-11-25").build();
+	}
+
+	private long modelFingerprint() {
+		return new Fingerprint().add(dictionary.getFingerprint()).add(riskTable.getFingerprint()).value();
+	}
+
+	// Évaluation déjà enregistrée et à jour pour le patient
+	private PatientRisk upToDate() {
+		return PatientRisk.builder()
+				.patientId(1)
+				.assessment("None")
+				.dictionaryFingerprint(dictionary.getFingerprint())
+				.modelFingerprint(modelFingerprint())
+				.patientFingerprint(new Fingerprint().add("F").add("1966-11-25").value())
+				.refreshOn(LocalDate.of(2023, 11, 25))
+				.stale(false)
+				.computedAt(COMPUTED_AT)
+				.build();
+	}
+
+	private void stubReport() {
+		when(patientDataService.getPatientAndNotes(1))
+			.thenReturn(PatientAndNotes.builder().patient(patient).notes(List.of()).build());
+		when(patientReportService.calculateDiabetesRisk(eq(patient), eq(List.of()), eq(CURRENT_DATE)))
+			.thenReturn(Report.builder().age(56).assessment("Borderline").dictionaryVersion(1L).triggerMask("3").build());
+	}
+
+	@Test
+	public void refresh_should_evaluate_new_patients_and_remove_deleted_ones() {
+		PatientRisk deleted = PatientRisk.builder().patientId(2).build();
+		when(patientInfoProxy.getPatients()).thenReturn(List.of(patient));
+		when(patientRiskRepository.findAll()).thenReturn(List.of(deleted));
+		stubReport();
+
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isEqualTo(1);
+
+		verify(patientRiskRepository).save(saved.capture());
+		PatientRisk patientRisk = saved.getValue();
+		assertThat(patientRisk.getAssessment()).isEqualTo("Borderline");
+		assertThat(patientRisk.getTriggerMask()).isEqualTo("3");
+		assertThat(patientRisk.getSex()).isEqualTo("F");
+		assertThat(patientRisk.getDictionaryFingerprint()).isEqualTo(dictionary.getFingerprint());
+		assertThat(patientRisk.getRefreshOn()).isEqualTo(LocalDate.of(2023, 11, 25));
+		assertThat(patientRisk.getStale()).isFalse();
+		assertThat(patientRisk.getVersion()).isNull();
+		verify(patientRiskRepository).deleteAllById(Set.of(2));
+	}
+
+	@Test
+	public void refresh_should_skip_patients_whose_inputs_did_not_change() {
+		when(patientInfoProxy.getPatients()).thenReturn(List.of(patient));
+		when(patientRiskRepository.findAll()).thenReturn(List.of(upToDate()));
+
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isZero();
+		verify(patientDataService, never()).getPatientAndNotes(any());
+	}
+
+	@Test
+	public void refresh_should_evaluate_stale_patients_birthdays_and_model_changes() {
+		List<PatientRisk> outdated = new ArrayList<PatientRisk>();
+		PatientRisk stale = upToDate();
+		stale.setStale(true);
+		outdated.add(stale);
+		PatientRisk birthday = upToDate();
+		birthday.setRefreshOn(CURRENT_DATE);
+		outdated.add(birthday);
+		PatientRisk modelChanged = upToDate();
+		modelChanged.setModelFingerprint(modelFingerprint() + 1);
+		outdated.add(modelChanged);
+		PatientRisk patientChanged = upToDate();
+		patientChanged.setPatientFingerprint(0L);
+		outdated.add(patientChanged);
+		when(patientInfoProxy.getPatients()).thenReturn(List.of(patient));
+		stubReport();
+
+		for (PatientRisk patientRisk : outdated) {
+			when(patientRiskRepository.findAll()).thenReturn(List.of(patientRisk));
+			assertThat(patientRiskService.refresh(CURRENT_DATE)).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void refresh_should_keep_patients_invalidated_during_their_evaluation_stale() {
+		PatientRisk stale = upToDate();
+		stale.setStale(true);
+		stale.setVersion(3L);
+		when(patientInfoProxy.getPatients()).thenReturn(List.of(patient));
+		when(patientRiskRepository.findAll()).thenReturn(List.of(stale));
+		stubReport();
+		when(patientRiskRepository.save(any(PatientRisk.class)))
+			.thenThrow(new ObjectOptimisticLockingFailureException(PatientRisk.class, 1));
+
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isZero();
+
+		verify(patientRiskRepository).save(saved.capture());
+		// L'évaluation est enregistrée avec la version lue avant la récupération des notes
+		assertThat(saved.getValue().getVersion()).isEqualTo(3L);
+	}
+
+	@Test
+	public void refresh_should_evaluate_patients_whose_notes_were_saved_in_patientNote() {
+		when(patientInfoProxy.getPatients()).thenReturn(List.of(patient));
+		when(patientRiskRepository.findAll()).thenReturn(List.of(upToDate()));
+		// Avant le premier recalcul, les notes sont recherchées depuis la dernière évaluation, moins la marge
+		when(patientNoteProxy.getPatientIdsWithNotesModifiedSince(COMPUTED_AT.minusMinutes(1))).thenReturn(List.of(1));
+		stubReport();
+
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isEqualTo(1);
+
+		// Le recalcul suivant reprend la recherche à partir du précédent
+		when(patientNoteProxy.getPatientIdsWithNotesModifiedSince(any())).thenReturn(List.of());
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isZero();
+		verify(patientNoteProxy).getPatientIdsWithNotesModifiedSince(argThat(since -> since.isAfter(COMPUTED_AT)));
+	}
+
+	@Test
+	public void refresh_should_retry_the_notes_search_from_the_same_date_after_a_failure() {
+		when(patientInfoProxy.getPatients()).thenReturn(List.of(patient));
+		when(patientRiskRepository.findAll()).thenReturn(List.of(upToDate()));
+		when(patientNoteProxy.getPatientIdsWithNotesModifiedSince(any())).thenThrow(new IllegalStateException("down"));
+
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isZero();
+		assertThat(patientRiskService.refresh(CURRENT_DATE)).isZero();
+
+		verify(patientNoteProxy, times(2)).getPatientIdsWithNotesModifiedSince(COMPUTED_AT.minusMinutes(1));
+	}
+
+}
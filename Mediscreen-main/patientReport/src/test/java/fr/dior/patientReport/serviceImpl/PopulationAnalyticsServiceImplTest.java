@@ -0,0 +1,112 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.dior.patientReport.model.RiskHistogram;
+import fr.dior.patientReport.model.TriggerFrequency;
+import fr.dior.patientReport.model.Triggers;
+import fr.dior.patientReport.repository.PatientReportRepository;
+import fr.dior.patientReport.repository.PatientRiskRepository;
+import fr.dior.patientReport.repository.RiskRuleRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class PopulationAnalyticsServiceImplTest {
+
+	private PopulationAnalyticsServiceImpl populationAnalyticsService;
+
+	@Mock
+	private PatientRiskRepository patientRiskRepository;
+
+	@Mock
+	private PatientReportRepository patientReportRepository;
+
+	@Mock
+	private RiskRuleRepository riskRuleRepository;
+
+	private ForkJoinPool reportExecutor;
+
+	private ExecutorService fetchExecutor;
+
+	@BeforeEach
+	public void init() {
+		reportExecutor = new ForkJoinPool(2);
+		fetchExecutor = Executors.newFixedThreadPool(2);
+		TriggerDictionaryServiceImpl triggerDictionaryService = new TriggerDictionaryServiceImpl(patientReportRepository, false);
+		RiskRuleServiceImpl riskRuleService = new RiskRuleServiceImpl(riskRuleRepository);
+		populationAnalyticsService = new PopulationAnalyticsServiceImpl(patientRiskRepository,
+				triggerDictionaryService, riskRuleService, reportExecutor, fetchExecutor);
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"fumeur"), new Triggers(2,"vertige"), new Triggers(3,"rechute"),
+					new Triggers(4,"poids")));
+		// Colonnes (patient, sexe, âge, masque) de la table des risques, le patient 3 n'a pas d'âge
+		when(patientRiskRepository.findSnapshotColumns(anyLong())).thenReturn(List.of(
+				new Object[] { 1, "F", 23, "f" },
+				new Object[] { 2, "M", 72, "3" },
+				new Object[] { 3, "F", null, "0" },
+				new Object[] { 4, "F", 22, "0" }));
+	}
+
+	@AfterEach
+	public void close() {
+		reportExecutor.shutdown();
+		fetchExecutor.shutdown();
+	}
+
+	@Test
+	public void rebuild_should_skip_patients_in_error() {
+		populationAnalyticsService.rebuild(LocalDate.of(2023, 4, 10));
+		assertThat(populationAnalyticsService.getSnapshot().size()).isEqualTo(3);
+	}
+
+	@Test
+	public void getSnapshot_should_fail_until_the_first_build_is_done() throws InterruptedException {
+		assertThatThrownBy(() -> populationAnalyticsService.getSnapshot()).isInstanceOf(IllegalStateException.class);
+		fetchExecutor.shutdown();
+		fetchExecutor.awaitTermination(10, TimeUnit.SECONDS);
+		assertThat(populationAnalyticsService.getSnapshot().size()).isEqualTo(3);
+	}
+
+	@Test
+	public void getRiskHistogram_should_count_by_sex_age_band_and_assessment() {
+		populationAnalyticsService.rebuild(LocalDate.of(2023, 4, 10));
+		RiskHistogram histogram = populationAnalyticsService.getRiskHistogram(10);
+		assertThat(histogram.getPatients()).isEqualTo(3);
+		assertThat(histogram.getBands()).hasSize(2);
+		assertThat(histogram.getBands().get(0).getSex()).isEqualTo("F");
+		assertThat(histogram.getBands().get(0).getMinAge()).isEqualTo(20);
+		assertThat(histogram.getBands().get(0).getAssessments())
+			.containsEntry("Danger", 1L).containsEntry("None", 1L);
+		assertThat(histogram.getBands().get(1).getSex()).isEqualTo("M");
+		assertThat(histogram.getBands().get(1).getMinAge()).isEqualTo(70);
+		assertThat(histogram.getBands().get(1).getAssessments()).containsEntry("Borderline", 1L);
+	}
+
+	@Test
+	public void getTriggerFrequency_should_count_the_cohort() {
+		populationAnalyticsService.rebuild(LocalDate.of(2023, 4, 10));
+		TriggerFrequency women = populationAnalyticsService.getTriggerFrequency("F", null, null, null);
+		assertThat(women.getPatients()).isEqualTo(2);
+		assertThat(women.getTriggers()).containsEntry("fumeur", 1L).containsEntry("poids", 1L);
+		TriggerFrequency danger = populationAnalyticsService.getTriggerFrequency(null, 18, 40, "Danger");
+		assertThat(danger.getPatients()).isEqualTo(1);
+		assertThat(populationAnalyticsService.getTriggerFrequency(null, null, null, "Unknown").getPatients()).isZero();
+	}
+
+}
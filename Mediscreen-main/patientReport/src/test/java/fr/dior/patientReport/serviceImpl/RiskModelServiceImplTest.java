@@ -0,0 +1,132 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.dior.patientReport.engine.RiskModel;
+import fr.dior.patientReport.engine.RiskModelSet;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.RuleBasedRiskModel;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerMask;
+import fr.dior.patientReport.engine.TriggerTerm;
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.model.RiskRule;
+
+public class RiskModelServiceImplTest {
+
+	private RiskModelServiceImpl riskModelService;
+
+	// Dictionnaire du modèle du diabète, modifiable comme celui enregistré en base
+	private AtomicReference<TriggerDictionary> diabetesDictionary;
+
+	private final Patient patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+
+	private final LocalDate currentDate = LocalDate.of(2023,04,10);
+
+	@BeforeEach
+	public void init() {
+		diabetesDictionary = new AtomicReference<TriggerDictionary>(
+				TriggerDictionary.of(1, List.of("fumeur", "cholestérol", "vertige"), false));
+		RiskModel diabetes = new RiskModel() {
+			private final RiskTable riskTable = RiskTable.compile(1, RiskTable.defaultRules());
+
+			@Override
+			public String getName() {
+				return "diabetes";
+			}
+
+			@Override
+			public TriggerDictionary getDictionary() {
+				return diabetesDictionary.get();
+			}
+
+			@Override
+			public String assess(Patient patient, int age, long[] triggerMask) {
+				return riskTable.assess(RiskTable.sexCode(patient.getSex()), age, TriggerMask.count(triggerMask));
+			}
+		};
+		RiskModel cardiovascular = new RuleBasedRiskModel("cardiovascular",
+				TriggerDictionary.of(1, List.of("Fumeur", "hypertension", "cholestérol"), false),
+				RiskTable.compile(1, List.of(
+						RiskRule.builder().priority(1).minTriggers(3).assessment("High").build(),
+						RiskRule.builder().priority(2).minTriggers(1).assessment("Moderate").build())));
+		riskModelService = new RiskModelServiceImpl(List.of(diabetes, cardiovascular));
+	}
+
+	@Test
+	public void calculateRisks_should_scan_the_union_once_and_assess_each_model() {
+		List<Note> notes = List.of(
+				Note.builder().body("Fumeur, hypertension").build(),
+				Note.builder().body("Cholestérol élevé").build());
+		Map<String, Report> reports = riskModelService.calculateRisks(patient, notes, currentDate);
+		// Les termes communs aux deux modèles ne sont recherchés qu'une fois
+		assertThat(riskModelService.getModelSet().getDictionary().getTerms())
+			.containsExactly("fumeur", "cholestérol", "vertige", "hypertension");
+		assertThat(reports.keySet()).containsExactly("diabetes", "cardiovascular");
+		assertThat(reports.get("diabetes").getTriggers()).containsExactly("fumeur", "cholestérol");
+		assertThat(reports.get("diabetes").getAssessment()).isEqualTo("Borderline");
+		assertThat(reports.get("diabetes").getAge()).isEqualTo(56);
+		assertThat(reports.get("cardiovascular").getTriggers()).containsExactly("fumeur", "hypertension", "cholestérol");
+		assertThat(reports.get("cardiovascular").getTriggerMask()).isEqualTo("7");
+		assertThat(reports.get("cardiovascular").getAssessment()).isEqualTo("High");
+	}
+
+	@Test
+	public void calculateRisks_should_map_a_shared_term_to_the_concept_of_each_model() {
+		// Le terme fumeur est rangé sous le concept tabac par le modèle cardiovasculaire, sous son propre nom par le diabète
+		RiskModel cardiovascular = new RuleBasedRiskModel("cardiovascular",
+				TriggerDictionary.compile(1, List.of(
+						TriggerTerm.of("fumeur", null, "tabac"),
+						TriggerTerm.of("nicotine", null, "tabac"),
+						TriggerTerm.of("hypertension", null, null)), false),
+				RiskTable.compile(1, RiskTable.defaultRules()));
+		RiskModel diabetes = new RuleBasedRiskModel("diabetes",
+				TriggerDictionary.of(1, List.of("vertige", "fumeur"), false),
+				RiskTable.compile(1, RiskTable.defaultRules()));
+		riskModelService = new RiskModelServiceImpl(List.of(cardiovascular, diabetes));
+		Map<String, Report> reports = riskModelService.calculateRisks(patient,
+				List.of(Note.builder().body("Fumeur, nicotine, hypertension").build()), currentDate);
+		assertThat(reports.get("cardiovascular").getTriggers()).containsExactly("tabac", "hypertension");
+		assertThat(reports.get("cardiovascular").getTriggerMask()).isEqualTo("3");
+		assertThat(reports.get("diabetes").getTriggers()).containsExactly("fumeur");
+		assertThat(reports.get("diabetes").getTriggerMask()).isEqualTo("2");
+	}
+
+	@Test
+	public void getModelSet_should_be_rebuilt_only_when_a_dictionary_changes() {
+		RiskModelSet modelSet = riskModelService.getModelSet();
+		assertThat(riskModelService.getModelSet()).isSameAs(modelSet);
+		// Nouvelle version avec les mêmes termes : l'union est conservée
+		diabetesDictionary.set(TriggerDictionary.of(2, List.of("fumeur", "cholestérol", "vertige"), false));
+		assertThat(riskModelService.getModelSet()).isSameAs(modelSet);
+		diabetesDictionary.set(TriggerDictionary.of(3, List.of("fumeur", "cholestérol", "vertige", "rechute"), false));
+		assertThat(riskModelService.getModelSet().getDictionary().getTerms()).contains("rechute");
+		assertThat(riskModelService.calculateRisks(patient, List.of(Note.builder().body("Rechute").build()),
+				currentDate).get("diabetes").getTriggers())
+			.containsExactly("rechute");
+	}
+
+	@Test
+	public void models_should_have_distinct_names_and_the_same_word_boundary_setting() {
+		RiskModel model = new RuleBasedRiskModel("renal", TriggerDictionary.of(1, List.of("créatinine"), false),
+				RiskTable.compile(1, RiskTable.defaultRules()));
+		assertThatThrownBy(() -> new RiskModelServiceImpl(List.of(model, model)))
+			.isInstanceOf(IllegalStateException.class);
+		RiskModel wordBoundaryModel = new RuleBasedRiskModel("cardiovascular",
+				TriggerDictionary.of(1, List.of("fumeur"), true), RiskTable.compile(1, RiskTable.defaultRules()));
+		assertThatThrownBy(() -> new RiskModelServiceImpl(List.of(model, wordBoundaryModel)).getModelSet())
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,51 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.model.RiskRule;
+import fr.dior.patientReport.repository.RiskRuleRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class RiskRuleServiceImplTest {
+
+	private RiskRuleServiceImpl riskRuleService;
+
+	@Mock
+	private RiskRuleRepository riskRuleRepository;
+
+	// Règle dont la borne d'âge allouerait une table démesurée
+	private final RiskRule invalidRule = new RiskRule(null, 1, null, null, Integer.MAX_VALUE, null, null, "High");
+
+	@BeforeEach
+	public void init() {
+		riskRuleService = new RiskRuleServiceImpl(riskRuleRepository);
+	}
+
+	@Test
+	public void reload_should_keep_the_current_table_when_rules_are_invalid() {
+		when(riskRuleRepository.findAllByOrderByPriorityAsc())
+			.thenReturn(List.of(new RiskRule(null, 1, null, null, null, 1, null, "High")))
+			.thenReturn(List.of(invalidRule));
+		RiskTable current = riskRuleService.getRiskTable();
+		assertThat(riskRuleService.reload()).isSameAs(current);
+		assertThat(riskRuleService.getRiskTable()).isSameAs(current);
+		assertThat(current.assess(RiskTable.SEX_F, 40, 1)).isEqualTo("High");
+	}
+
+	@Test
+	public void reload_should_use_default_rules_when_the_first_rules_are_invalid() {
+		when(riskRuleRepository.findAllByOrderByPriorityAsc()).thenReturn(List.of(invalidRule));
+		assertThat(riskRuleService.getRiskTable().getRules()).isEqualTo(RiskTable.defaultRules());
+	}
+
+}
@@ -0,0 +1,155 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Request.HttpMethod;
+import feign.Response;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.model.RiskRule;
+import fr.dior.patientReport.model.SimulationRequest;
+import fr.dior.patientReport.model.SimulationResult;
+import fr.dior.patientReport.model.Triggers;
+import fr.dior.patientReport.proxies.PatientNoteProxy;
+import fr.dior.patientReport.repository.PatientReportRepository;
+import fr.dior.patientReport.repository.PatientRiskRepository;
+import fr.dior.patientReport.repository.RiskRuleRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class RiskSimulationServiceImplTest {
+
+	private RiskSimulationServiceImpl riskSimulationService;
+
+	private TriggerDictionaryServiceImpl triggerDictionaryService;
+
+	private RiskRuleServiceImpl riskRuleService;
+
+	@Mock
+	private PatientNoteProxy patientNoteProxy;
+
+	@Mock
+	private PatientReportRepository patientReportRepository;
+
+	@Mock
+	private PatientRiskRepository patientRiskRepository;
+
+	@Mock
+	private RiskRuleRepository riskRuleRepository;
+
+	private PopulationAnalyticsServiceImpl populationAnalyticsService;
+
+	private ForkJoinPool reportExecutor;
+
+	private ExecutorService fetchExecutor;
+
+	@BeforeEach
+	public void init() {
+		reportExecutor = new ForkJoinPool(2);
+		fetchExecutor = Executors.newFixedThreadPool(2);
+		triggerDictionaryService = new TriggerDictionaryServiceImpl(patientReportRepository, false);
+		riskRuleService = new RiskRuleServiceImpl(riskRuleRepository);
+		populationAnalyticsService = new PopulationAnalyticsServiceImpl(
+				patientRiskRepository, triggerDictionaryService, riskRuleService, reportExecutor, fetchExecutor);
+		riskSimulationService = new RiskSimulationServiceImpl(populationAnalyticsService, patientNoteProxy,
+				new ObjectMapper(), reportExecutor, 2);
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1,"fumeur"), new Triggers(2,"vertige"), new Triggers(3,"rechute")));
+		// Deux hommes de moins de 30 ans, avec 3 termes (Danger) et 2 termes (None)
+		when(patientRiskRepository.findSnapshotColumns(anyLong())).thenReturn(List.of(
+				new Object[] { 1, "M", 23, "7" },
+				new Object[] { 2, "M", 23, "3" }));
+		populationAnalyticsService.rebuild(LocalDate.now());
+	}
+
+	@AfterEach
+	public void close() {
+		reportExecutor.shutdown();
+		fetchExecutor.shutdown();
+	}
+
+	@Test
+	public void simulate_candidate_rules_should_not_change_the_production_rules() {
+		List<RiskRule> rules = new ArrayList<RiskRule>(RiskTable.defaultRules());
+		rules.set(2, new RiskRule(null, 3, "M", null, 30, 2, 4, "Danger"));
+		SimulationResult result = riskSimulationService.simulate(SimulationRequest.builder().rules(rules).build());
+		assertThat(result.getRescanned()).isFalse();
+		assertThat(result.getPatients()).isEqualTo(2);
+		assertThat(result.getChanged()).isEqualTo(1);
+		assertThat(result.getTransitions().get("None")).containsEntry("Danger", 1L);
+		assertThat(result.getTransitions().get("Danger")).containsEntry("Danger", 1L);
+		assertThat(riskRuleService.getRiskTable().getRules()).isEqualTo(RiskTable.defaultRules());
+	}
+
+	@Test
+	public void simulate_known_terms_should_use_the_population_snapshot() {
+		SimulationResult result = riskSimulationService.simulate(
+				SimulationRequest.builder().triggers(List.of("Fumeur", "vertige")).build());
+		assertThat(result.getRescanned()).isFalse();
+		assertThat(result.getTransitions().get("Danger")).containsEntry("None", 1L);
+		assertThat(result.getChanged()).isEqualTo(1);
+	}
+
+	@Test
+	public void simulate_new_terms_should_scan_notes_again_without_changing_the_dictionary() {
+		// Seul le terme inconnu est recherché dans l'export des notes, les autres étant lus dans la photographie
+		when(patientNoteProxy.exportNotes()).thenReturn(export(
+				"{\"id\":\"a\",\"patId\":1,\"body\":\"Anticorps\"}\n"
+				+ "{\"id\":\"b\",\"patId\":2,\"body\":\"Fumeur, vertige, anticorps\",\"preview\":\"Fumeur\"}\n"));
+		SimulationResult result = riskSimulationService.simulate(
+				SimulationRequest.builder().triggers(List.of("fumeur", "vertige", "anticorps")).build());
+		assertThat(result.getRescanned()).isTrue();
+		assertThat(result.getTransitions().get("None")).containsEntry("Danger", 1L);
+		assertThat(result.getTransitions().get("Danger")).containsEntry("Danger", 1L);
+		assertThat(triggerDictionaryService.getDictionary().getTerms()).containsExactly("fumeur", "vertige", "rechute");
+	}
+
+	@Test
+	public void simulate_new_terms_should_be_refused_above_the_rescan_limit() {
+		riskSimulationService = new RiskSimulationServiceImpl(populationAnalyticsService, patientNoteProxy,
+				new ObjectMapper(), reportExecutor, 1);
+		assertThatThrownBy(() -> riskSimulationService.simulate(
+				SimulationRequest.builder().triggers(List.of("anticorps")).build()))
+			.isInstanceOf(IllegalArgumentException.class);
+		verifyNoInteractions(patientNoteProxy);
+	}
+
+	// Réponse de l'export des notes au format NDJSON
+	private Response export(String ndjson) {
+		return Response.builder()
+				.status(200)
+				.request(Request.create(HttpMethod.GET, "/PatientNote/export", Map.of(), null, StandardCharsets.UTF_8, null))
+				.body(ndjson, StandardCharsets.UTF_8)
+				.build();
+	}
+
+	@Test
+	public void simulate_should_reject_a_rule_without_assessment() {
+		List<RiskRule> rules = new ArrayList<RiskRule>(RiskTable.defaultRules());
+		rules.add(new RiskRule(null, 8, null, null, null, 1, null, null));
+		assertThatThrownBy(() -> riskSimulationService.simulate(SimulationRequest.builder().rules(rules).build()))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
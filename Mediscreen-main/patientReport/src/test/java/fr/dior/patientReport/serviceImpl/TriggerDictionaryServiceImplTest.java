@@ -0,0 +1,103 @@
+package fr.dior.patientReport.serviceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.engine.TriggerTerm;
+import fr.dior.patientReport.model.Triggers;
+import fr.dior.patientReport.repository.PatientReportRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class TriggerDictionaryServiceImplTest {
+
+	private TriggerDictionaryServiceImpl triggerDictionaryService;
+
+	@Mock
+	private PatientReportRepository patientReportRepository;
+
+	@BeforeEach
+	public void init() {
+		triggerDictionaryService = new TriggerDictionaryServiceImpl(patientReportRepository, false);
+	}
+
+	@Test
+	public void getDictionary_should_load_once_and_normalize_terms() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1, " Fumeur "), new Triggers(2, "vertige")));
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		assertThat(triggerDictionaryService.getDictionary()).isSameAs(dictionary);
+		assertThat(dictionary.getTerms()).containsExactly("fumeur", "vertige");
+		assertThat(dictionary.getVersion()).isEqualTo(1L);
+		verify(patientReportRepository, times(1)).findAll();
+	}
+
+	@Test
+	public void addTerm_should_save_and_publish_new_version() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1, "fumeur")))
+			.thenReturn(List.of(new Triggers(1, "fumeur"), new Triggers(2, "vertige")));
+		when(patientReportRepository.findByTerm("vertige")).thenReturn(new ArrayList<Triggers>());
+		TriggerDictionary before = triggerDictionaryService.getDictionary();
+		TriggerDictionary after = triggerDictionaryService.addTerm("Vertige", null, null);
+		verify(patientReportRepository).save(any(Triggers.class));
+		assertThat(before.getTerms()).containsExactly("fumeur");
+		assertThat(after.getTerms()).containsExactly("fumeur", "vertige");
+		assertThat(after.getVersion()).isEqualTo(2L);
+	}
+
+	@Test
+	public void addTerm_should_save_the_language_and_concept() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1, "poids")))
+			.thenReturn(List.of(new Triggers(1, "poids"), new Triggers(2, "weight", "en", "poids")));
+		when(patientReportRepository.findByTerm("weight")).thenReturn(new ArrayList<Triggers>());
+		TriggerDictionary dictionary = triggerDictionaryService.addTerm("Weight", "EN", " Poids ");
+		verify(patientReportRepository).save(new Triggers(null, "weight", "en", "poids"));
+		assertThat(dictionary.getTerms()).containsExactly("poids");
+	}
+
+	@Test
+	public void addTerm_should_reject_an_unsupported_language() {
+		assertThatThrownBy(() -> triggerDictionaryService.addTerm("gewicht", "de", null))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> triggerDictionaryService.addTerm("poids", "fr", "x".repeat(31)))
+			.isInstanceOf(IllegalArgumentException.class);
+		verify(patientReportRepository, never()).save(any());
+	}
+
+	@Test
+	public void removeTerm_unknown_should_keep_current_version() {
+		when(patientReportRepository.findAll()).thenReturn(List.of(new Triggers(1, "fumeur")));
+		when(patientReportRepository.findByTerm("vertige")).thenReturn(new ArrayList<Triggers>());
+		TriggerDictionary dictionary = triggerDictionaryService.removeTerm("vertige");
+		assertThat(dictionary.getVersion()).isEqualTo(1L);
+		verify(patientReportRepository, never()).deleteAll(any());
+	}
+
+	@Test
+	public void getDictionary_should_group_translations_into_one_concept() {
+		when(patientReportRepository.findAll())
+			.thenReturn(List.of(new Triggers(1, "poids", "fr", "poids"), new Triggers(2, "Weight", "EN", "Poids"),
+					new Triggers(3, "vertige")));
+		TriggerDictionary dictionary = triggerDictionaryService.getDictionary();
+		assertThat(dictionary.getTerms()).containsExactly("poids", "vertige");
+		assertThat(dictionary.getTriggerTerms()).extracting(TriggerTerm::getLanguage).containsExactly("fr", "en", null);
+		assertThat(dictionary.indexOf("weight")).isZero();
+	}
+
+}
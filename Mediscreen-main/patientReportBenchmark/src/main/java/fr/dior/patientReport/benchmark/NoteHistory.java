@@ -0,0 +1,88 @@
+package fr.dior.patientReport.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import fr.dior.patientReport.engine.TriggerTerm;
+import fr.dior.patientReport.model.Note;
+
+/**
+ * Génération reproductible d'historiques de notes médicales réalistes pour les benchmarks.
+ */
+public final class NoteHistory {
+
+	// Termes déclencheurs du jeu de données de PatientReport (data.sql)
+	public static final List<String> TRIGGER_TERMS = List.of(
+			"hémoglobine a1c", "hemoglobin a1c", "microalbumine", "microalbumin",
+			"taille", "height", "poids", "weight", "fumeur", "smoker",
+			"anormal", "abnormal", "cholestérol", "cholesterol", "vertige", "dizziness",
+			"rechute", "relapse", "réaction", "reaction", "anticorps", "antibodies");
+
+	/**
+	 * @return Les mêmes termes associés à leur langue, chaque traduction anglaise partageant le concept du terme
+	 * français qui la précède (comme dans data.sql)
+	 */
+	public static List<TriggerTerm> languageTerms() {
+		List<TriggerTerm> terms = new ArrayList<TriggerTerm>(TRIGGER_TERMS.size());
+		for (int i = 0; i < TRIGGER_TERMS.size(); i += 2) {
+			terms.add(TriggerTerm.of(TRIGGER_TERMS.get(i), "fr", TRIGGER_TERMS.get(i)));
+			terms.add(TriggerTerm.of(TRIGGER_TERMS.get(i + 1), "en", TRIGGER_TERMS.get(i)));
+		}
+		return terms;
+	}
+
+	// Longueur du corps des notes : SHORT comme les notes du jeu de données, LONG pour un compte rendu détaillé
+	public enum BodyLength {
+		SHORT(150), LONG(4000);
+
+		private final int characters;
+
+		BodyLength(int characters) {
+			this.characters = characters;
+		}
+	}
+
+	private static final String[] WORDS = {
+			"Patient", "states", "that", "they", "are", "feeling", "a", "great", "deal", "of", "stress",
+			"at", "work", "also", "complains", "hearing", "seems", "late", "Lab", "reports", "level",
+			"recommended", "below", "above", "Practitioner's", "notes/recommendations:", "medication",
+			"within", "last", "months", "breathing", "spells", "walking", "up", "stairs", "difficult" };
+
+	private NoteHistory() {
+	}
+
+	/**
+	 * Génère un historique de notes, environ un mot sur quarante étant un terme déclencheur
+	 * @param noteCount : Nombre de notes
+	 * @param bodyLength : Longueur du corps des notes
+	 * @param seed : Graine du générateur, pour des historiques identiques d'une exécution à l'autre
+	 * @return L'historique de notes, de la plus récente à la plus ancienne
+	 */
+	public static List<Note> generate(int noteCount, BodyLength bodyLength, long seed) {
+		Random random = new Random(seed);
+		List<Note> notes = new ArrayList<Note>(noteCount);
+		LocalDateTime date = LocalDateTime.of(2023, 4, 1, 0, 0, 0);
+		for (int i = 0; i < noteCount; i++) {
+			StringBuilder body = new StringBuilder(bodyLength.characters + 32);
+			while (body.length() < bodyLength.characters) {
+				String word = random.nextInt(40) == 0
+						? TRIGGER_TERMS.get(random.nextInt(TRIGGER_TERMS.size()))
+						: WORDS[random.nextInt(WORDS.length)];
+				if (random.nextBoolean()) {
+					word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+				}
+				body.append(word).append(' ');
+			}
+			notes.add(Note.builder()
+					.id(String.valueOf(i))
+					.patId(1)
+					.date(date.minusDays(i))
+					.body(body.toString())
+					.build());
+		}
+		return notes;
+	}
+
+}
@@ -0,0 +1,82 @@
+package fr.dior.patientReport.engine;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.dior.patientReport.benchmark.NoteHistory;
+
+/**
+ * Agrégats de la photographie en colonnes sur une population générée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationSnapshotBenchmark {
+
+	@Param({ "100000", "1000000", "5000000" })
+	public int patientCount;
+
+	private PopulationSnapshot snapshot;
+
+	private ForkJoinPool pool;
+
+	private int dangerCode;
+
+	@Setup
+	public void setUp() {
+		TriggerDictionary dictionary = TriggerDictionary.of(1, NoteHistory.TRIGGER_TERMS, false);
+		RiskTable riskTable = RiskTable.compile(1, RiskTable.defaultRules());
+		int maskWords = TriggerMask.empty(dictionary.size()).length;
+		Random random = new Random(42);
+		int[] patientIds = new int[patientCount];
+		int[] sexCodes = new int[patientCount];
+		int[] ages = new int[patientCount];
+		long[] masks = new long[patientCount * maskWords];
+		for (int i = 0; i < patientCount; i++) {
+			patientIds[i] = i + 1;
+			sexCodes[i] = random.nextInt(2);
+			ages[i] = random.nextInt(100);
+			for (int t = random.nextInt(10); t > 0; t--) {
+				int index = random.nextInt(dictionary.size());
+				masks[i * maskWords + (index >>> 6)] |= 1L << index;
+			}
+		}
+		snapshot = PopulationSnapshot.of(dictionary, riskTable, LocalDate.of(2023, 4, 10), patientIds, sexCodes, ages, masks);
+		pool = new ForkJoinPool();
+		dangerCode = riskTable.getAssessments().indexOf("Danger");
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public long[] riskHistogram() {
+		return snapshot.riskHistogram(10, pool);
+	}
+
+	@Benchmark
+	public long[] triggerFrequency() {
+		return snapshot.triggerFrequency(RiskTable.SEX_F, 30, 60, dangerCode, pool);
+	}
+
+}
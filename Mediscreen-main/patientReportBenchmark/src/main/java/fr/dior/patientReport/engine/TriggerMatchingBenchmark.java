@@ -0,0 +1,86 @@
+package fr.dior.patientReport.engine;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.dior.patientReport.benchmark.NoteHistory;
+import fr.dior.patientReport.model.Note;
+
+/**
+ * Comparaison de la recherche historique (boucle notes × termes avec une copie en minuscules
+ * du corps par terme) et de la recherche par l'automate du dictionnaire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerMatchingBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	public int noteCount;
+
+	@Param({ "SHORT", "LONG" })
+	public NoteHistory.BodyLength bodyLength;
+
+	private List<Note> notes;
+
+	private TriggerDictionary dictionary;
+
+	// Mêmes termes associés à leur langue : chaque note n'est analysée qu'avec les termes de sa langue
+	private TriggerDictionary languageDictionary;
+
+	@Setup
+	public void setUp() {
+		notes = NoteHistory.generate(noteCount, bodyLength, 42);
+		dictionary = TriggerDictionary.of(1, NoteHistory.TRIGGER_TERMS, false);
+		languageDictionary = TriggerDictionary.compile(1, NoteHistory.languageTerms(), false);
+	}
+
+	@Benchmark
+	public int legacyMatcher() {
+		Set<String> triggersTermFound = new HashSet<String>();
+		for (Note note : notes) {
+			for (String term : NoteHistory.TRIGGER_TERMS) {
+				if (note.getBody().toLowerCase().contains(term)) {
+					triggersTermFound.add(term);
+				}
+			}
+		}
+		return triggersTermFound.size();
+	}
+
+	@Benchmark
+	public int triggerMatcher() {
+		long[] mask = TriggerMask.empty(dictionary.size());
+		for (Note note : notes) {
+			dictionary.scan(note.getBody(), index -> TriggerMask.set(mask, index));
+		}
+		return TriggerMask.count(mask);
+	}
+
+	@Benchmark
+	public int languageTriggerMatcher() {
+		long[] mask = TriggerMask.empty(languageDictionary.size());
+		for (Note note : notes) {
+			languageDictionary.scan(note.getBody(), index -> TriggerMask.set(mask, index));
+		}
+		return TriggerMask.count(mask);
+	}
+
+}
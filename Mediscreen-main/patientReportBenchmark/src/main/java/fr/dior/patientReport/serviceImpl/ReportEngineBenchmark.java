@@ -0,0 +1,189 @@
+package fr.dior.patientReport.serviceImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.dior.patientReport.benchmark.NoteHistory;
+import fr.dior.patientReport.engine.NoteTriggerCache;
+import fr.dior.patientReport.engine.ReportCache;
+import fr.dior.patientReport.engine.ReportSingleFlight;
+import fr.dior.patientReport.engine.RiskTable;
+import fr.dior.patientReport.engine.TriggerDictionary;
+import fr.dior.patientReport.model.Note;
+import fr.dior.patientReport.model.Patient;
+import fr.dior.patientReport.model.PatientAndNotes;
+import fr.dior.patientReport.model.Report;
+import fr.dior.patientReport.service.IRiskRuleService;
+import fr.dior.patientReport.service.ITriggerDictionaryService;
+
+/**
+ * Benchmarks du calcul de rapport de PatientReportServiceImpl, sans base de données :
+ * le dictionnaire et la table de décision sont construits en mémoire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportEngineBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	public int noteCount;
+
+	@Param({ "SHORT", "LONG" })
+	public NoteHistory.BodyLength bodyLength;
+
+	private static final LocalDate CURRENT_DATE = LocalDate.of(2023, 4, 10);
+
+	private static final String[] SEXES = { "F", "M" };
+
+	private List<Note> notes;
+
+	private Patient patient;
+
+	// Service sans cache : chaque appel refait le calcul complet
+	private PatientReportServiceImpl uncachedService;
+
+	// Service sans cache analysant les notes en parallèle quelle que soit leur taille
+	private PatientReportServiceImpl parallelService;
+
+	// Service avec caches, interrogé avec les mêmes données : mesure du rapport déjà calculé
+	private PatientReportServiceImpl cachedService;
+
+	// Service analysant les notes au fil de la lecture du document JSON
+	private PatientReportStreamServiceImpl streamService;
+
+	// Document JSON de la requête /PatientReport, lu par les benchmarks de désérialisation
+	private byte[] requestBody;
+
+	private ObjectMapper objectMapper;
+
+	private int iteration;
+
+	@Setup
+	public void setUp() {
+		notes = NoteHistory.generate(noteCount, bodyLength, 42);
+		patient = Patient.builder().id(1).sex("M").dob("1966-11-25").build();
+		uncachedService = newService(0, Integer.MAX_VALUE);
+		parallelService = newService(0, 0);
+		cachedService = newService(10000, Integer.MAX_VALUE);
+		cachedService.calculateDiabetesRisk(patient, notes, CURRENT_DATE);
+		objectMapper = new ObjectMapper().findAndRegisterModules();
+		streamService = new PatientReportStreamServiceImpl(uncachedService,
+				dictionaryService(TriggerDictionary.of(1, NoteHistory.TRIGGER_TERMS, false)), objectMapper);
+		try {
+			requestBody = objectMapper.writeValueAsBytes(new PatientAndNotes(patient, notes));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private PatientReportServiceImpl newService(int cacheEntries, int parallelScanThreshold) {
+		TriggerDictionary dictionary = TriggerDictionary.of(1, NoteHistory.TRIGGER_TERMS, false);
+		RiskTable riskTable = RiskTable.compile(1, RiskTable.defaultRules());
+		ITriggerDictionaryService triggerDictionaryService = dictionaryService(dictionary);
+		IRiskRuleService riskRuleService = new IRiskRuleService() {
+			@Override
+			public RiskTable getRiskTable() {
+				return riskTable;
+			}
+
+			@Override
+			public RiskTable reload() {
+				return riskTable;
+			}
+		};
+		return new PatientReportServiceImpl(triggerDictionaryService, riskRuleService,
+				new ReportCache(cacheEntries), new ReportSingleFlight(), new NoteTriggerCache(cacheEntries),
+				ForkJoinPool.commonPool(), parallelScanThreshold);
+	}
+
+	// Service du dictionnaire renvoyant toujours la même photographie
+	private static ITriggerDictionaryService dictionaryService(TriggerDictionary dictionary) {
+		return new ITriggerDictionaryService() {
+			@Override
+			public TriggerDictionary getDictionary() {
+				return dictionary;
+			}
+
+			@Override
+			public TriggerDictionary addTerm(String term) {
+				return dictionary;
+			}
+
+			@Override
+			public TriggerDictionary removeTerm(String term) {
+				return dictionary;
+			}
+
+			@Override
+			public TriggerDictionary reload() {
+				return dictionary;
+			}
+		};
+	}
+
+	@Benchmark
+	public Integer calculateTriggersNumber() {
+		return uncachedService.calculateTriggersNumber(notes);
+	}
+
+	@Benchmark
+	public Integer calculateAge() {
+		return uncachedService.calculateAge(patient, CURRENT_DATE);
+	}
+
+	@Benchmark
+	public String assessTheRisk() {
+		int i = iteration++;
+		return uncachedService.assessTheRisk(SEXES[i & 1], 20 + (i & 31), i & 15);
+	}
+
+	@Benchmark
+	public Report calculateDiabetesRisk() {
+		return uncachedService.calculateDiabetesRisk(patient, notes, CURRENT_DATE);
+	}
+
+	@Benchmark
+	public Report calculateDiabetesRiskParallel() {
+		return parallelService.calculateDiabetesRisk(patient, notes, CURRENT_DATE);
+	}
+
+	@Benchmark
+	public Report calculateDiabetesRiskCached() {
+		return cachedService.calculateDiabetesRisk(patient, notes, CURRENT_DATE);
+	}
+
+	// Requête /PatientReport : liaison complète du document puis calcul
+	@Benchmark
+	public Report calculateDiabetesRiskFromBoundRequest() throws IOException {
+		PatientAndNotes patientAndNotes = objectMapper.readValue(requestBody, PatientAndNotes.class);
+		return uncachedService.calculateDiabetesRisk(patientAndNotes.getPatient(), patientAndNotes.getNotes(), CURRENT_DATE);
+	}
+
+	// Requête /PatientReport/stream : notes analysées au fil de la lecture
+	@Benchmark
+	public Report calculateDiabetesRiskFromStreamedRequest() throws IOException {
+		return streamService.calculateDiabetesRisk(new ByteArrayInputStream(requestBody), CURRENT_DATE);
+	}
+
+}
@@ -0,0 +1,26 @@
+package fr.dior.patientui.beans;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteHeaderBean {
+
+	private String id; // Identifiant de la note
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
+	private LocalDateTime date; // Date de la note
+
+	private Integer bodyLength; // Nombre de caractères du contenu de la note
+
+	private String preview; // Début du contenu de la note
+}
@@ -0,0 +1,19 @@
+package fr.dior.patientui.beans;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteHeaderPageBean {
+
+	private List<NoteHeaderBean> headers; // En-têtes des notes de la page, de la plus récente à la plus ancienne
+
+	private String next; // Jeton de la page suivante, null pour la dernière page
+}
@@ -1,5 +1,7 @@
 package fr.dior.patientui.beans;
 
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +16,7 @@ public class ReportBean {
 	Integer age;
 	
 	String assessment;
+
+	// Termes déclencheurs trouvés dans les notes du patient
+	List<String> triggers;
 }
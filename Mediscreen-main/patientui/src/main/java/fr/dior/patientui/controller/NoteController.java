@@ -1,6 +1,7 @@
 package fr.dior.patientui.controller;
 
 import fr.dior.patientui.beans.NoteBean;
+import fr.dior.patientui.beans.NoteHeaderPageBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import fr.dior.patientui.beans.PatientBean;
 import fr.dior.patientui.proxies.PatientInfoProxy;
 import fr.dior.patientui.proxies.PatientNoteProxy;
+import fr.dior.patientui.proxies.PatientReportProxy;
 /**
  * Contrôleur gérant les opérations liées aux notes médicales (CRUD).
  */
@@ -26,28 +28,38 @@ public class NoteController {
 	private static final Logger log = LoggerFactory.getLogger(NoteController.class); 
 	private final PatientNoteProxy patientNoteProxy;
 	private final PatientInfoProxy patientInfoProxy;
+	private final PatientReportProxy patientReportProxy;
 	/**
 	 * Constructeur du contrôleur de notes.
 	 * @param patientNoteProxy : Proxy pour les opérations liées aux notes médicales.
 	 * @param patientInfoProxy : Proxy pour les opérations liées aux informations des patients.
+	 * @param patientReportProxy : Proxy pour signaler les changements au service de rapport.
 	 */
-	public NoteController(PatientNoteProxy patientNoteProxy, PatientInfoProxy patientInfoProxy) {
+	public NoteController(PatientNoteProxy patientNoteProxy, PatientInfoProxy patientInfoProxy,
+			PatientReportProxy patientReportProxy) {
 		this.patientNoteProxy = patientNoteProxy;
 		this.patientInfoProxy = patientInfoProxy;
+		this.patientReportProxy = patientReportProxy;
 	}
 	/**
-	 * Affiche la liste des notes pour un patient donné.
+	 * Affiche une page de la liste des notes pour un patient donné, de la plus récente à la plus ancienne.
+	 * Seuls les en-têtes des notes sont chargés, le contenu complet l'étant à l'ouverture d'une note.
 	 * @param patId : Identifiant du patient.
+	 * @param after : Jeton de la page précédente, absent pour les notes les plus récentes.
 	 * @param model : Modèle pour l'affichage des données.
 	 * @return La vue de la liste des notes médicales.
 	 */
 	@GetMapping("/NoteList")
 	public String noteListPage(
 			@RequestParam Integer patId,
+			@RequestParam(required = false) String after,
 			Model model)
 	{
-		log.info("Note Attributes: {}", patientNoteProxy.getNotesByPatientId(patId));
-		model.addAttribute("notes", patientNoteProxy.getNotesByPatientId(patId));
+		NoteHeaderPageBean page = patientNoteProxy.getNoteHeadersPageByPatientId(patId, after);
+		log.info("Note Attributes: {}", page);
+		model.addAttribute("notes", page.getHeaders());
+		model.addAttribute("next", page.getNext());
+		model.addAttribute("after", after);
 		model.addAttribute("patient",patientInfoProxy.getPatientById(patId));
 		return "NoteList";
 	}
@@ -78,6 +90,7 @@ public class NoteController {
 	{
 		NoteBean updatedNote = patientNoteProxy.updateNote(id, note);
 		log.info("Note Attributes: {}",updatedNote);
+		invalidateRisk(updatedNote.getPatId());
 		return "redirect:/NoteList?patId=" + updatedNote.getPatId();
 	}
 	/**
@@ -106,8 +119,21 @@ public class NoteController {
 			@ModelAttribute("note") NoteBean note)
 	{
 		patientNoteProxy.createNote(patId, note);
+		invalidateRisk(patId);
 		return "redirect:/NoteList?patId=" + patId.toString();
 	}
+	/**
+	 * Signale au service de rapport que les notes d'un patient ont changé.
+	 * Un échec n'empêche pas l'enregistrement de la note : le patient sera réévalué plus tard.
+	 * @param patId : Identifiant du patient.
+	 */
+	private void invalidateRisk(Integer patId) {
+		try {
+			patientReportProxy.invalidateRisk(patId);
+		} catch (RuntimeException e) {
+			log.warn("Risk of patient {} could not be invalidated", patId, e);
+		}
+	}
 	
 
 }
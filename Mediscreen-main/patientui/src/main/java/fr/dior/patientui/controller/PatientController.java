@@ -11,11 +11,9 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import fr.dior.patientui.beans.PatientAndNotesBean;
 import fr.dior.patientui.beans.PatientBean;
 import fr.dior.patientui.beans.PatientBeanDTO;
 import fr.dior.patientui.proxies.PatientInfoProxy;
-import fr.dior.patientui.proxies.PatientNoteProxy;
 import fr.dior.patientui.proxies.PatientReportProxy;
 import jakarta.validation.Valid;
 /**
@@ -25,22 +23,18 @@ import jakarta.validation.Valid;
 public class PatientController {
 	// Logger pour le suivi des logs
 	private static final Logger log = LoggerFactory.getLogger(PatientController.class);
-	// Proxies pour les opérations liées aux patients, notes et rapports médicaux
+	// Proxies pour les opérations liées aux patients et aux rapports médicaux
 	private final PatientInfoProxy patientInfoProxy;
-	private final PatientNoteProxy patientNoteProxy;
 	private final PatientReportProxy patientReportProxy;
 	/**
 	 * Constructeur du contrôleur des patients.
 	 * @param patientInfoProxy : Proxy pour les opérations liées aux informations des patients.
-	 * @param patientNoteProxy : Proxy pour les opérations liées aux notes médicales des patients.
 	 * @param patientReportProxy : Proxy pour les opérations liées aux rapports médicaux des patients.
 	 */
 	public PatientController(
 			PatientInfoProxy patientInfoProxy, 
-			PatientNoteProxy patientNoteProxy, 
 			PatientReportProxy patientReportProxy) {
 		this.patientInfoProxy = patientInfoProxy;
-		this.patientNoteProxy = patientNoteProxy;
 		this.patientReportProxy = patientReportProxy;
 	}
 	/**
@@ -115,14 +109,11 @@ public class PatientController {
 	 */
 	@GetMapping("/PatientInfo")
 	public String patientInfoPage(@RequestParam Integer id, Model model){
-		// Récupération des informations du patient et de ses notes médicales
+		// Récupération des informations du patient
 		PatientBean patient = patientInfoProxy.getPatientById(id);
 		model.addAttribute("patient",patient);
-		PatientAndNotesBean patientAndNotes = PatientAndNotesBean.builder()
-				.patient(patient)
-				.notes(patientNoteProxy.getNotesByPatientId(id))
-				.build();
-		model.addAttribute("report",patientReportProxy.getReport(patientAndNotes));
+		// Le service de rapport récupère lui-même les notes médicales : elles ne transitent plus par l'interface
+		model.addAttribute("report",patientReportProxy.getReportByPatientId(id));
 		return "PatientInfo";
 	}
 	/**
@@ -174,6 +165,12 @@ public class PatientController {
 			model.addAttribute("errorMessage",errorMessage);
 			return "PatientUpdate";
 		}
+		// Le sexe ou la date de naissance ont pu changer : le risque du patient doit être réévalué
+		try {
+			patientReportProxy.invalidateRisk(id);
+		} catch (RuntimeException e) {
+			log.warn("Risk of patient {} could not be invalidated", id, e);
+		}
 		// Redirection vers les informations du patient après la mise à jour
 		return "redirect:/PatientInfo?id=" + id;
 	}
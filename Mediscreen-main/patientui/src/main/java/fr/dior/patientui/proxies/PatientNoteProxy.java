@@ -3,6 +3,7 @@ package fr.dior.patientui.proxies;
 import java.util.Optional;
 
 import fr.dior.patientui.beans.NoteBean;
+import fr.dior.patientui.beans.NoteHeaderPageBean;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +19,11 @@ public interface PatientNoteProxy {
 	@GetMapping("/PatientNote/byPatient")
 	Iterable<NoteBean> getNotesByPatientId (@RequestParam Integer patId);
 
+	// Déclaration d'une méthode GET pour récupérer une page des en-têtes des notes d'un patient (sans leur contenu),
+	// after étant le jeton de la page précédente
+	@GetMapping("/PatientNote/headers/byPatient")
+	NoteHeaderPageBean getNoteHeadersPageByPatientId (@RequestParam Integer patId, @RequestParam(required = false) String after);
+
 	// Déclaration d'une méthode GET pour récupérer une note par son identifiant
 	@GetMapping("/PatientNote/byId")
 	public Optional<NoteBean> getNoteById (@RequestParam String id);
@@ -1,8 +1,10 @@
 package fr.dior.patientui.proxies;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import fr.dior.patientui.beans.PatientAndNotesBean;
 import fr.dior.patientui.beans.ReportBean;
@@ -13,4 +15,12 @@ public interface PatientReportProxy {
 	// Déclaration d'une méthode POST pour obtenir un rapport basé sur les informations du patient et de ses notes
 	@PostMapping("/PatientReport")
 	public ReportBean getReport(@RequestBody PatientAndNotesBean patientAndNotes);
+
+	// Déclaration d'une méthode GET pour obtenir un rapport, le service de rapport récupérant lui-même le patient et ses notes
+	@GetMapping("/PatientReport/byPatient")
+	public ReportBean getReportByPatientId(@RequestParam Integer id);
+
+	// Déclaration d'une méthode POST pour signaler que les notes ou les informations d'un patient ont changé
+	@PostMapping("/PatientReport/risks/invalidate")
+	public void invalidateRisk(@RequestParam Integer id);
 }
@@ -1,6 +1,7 @@
 package fr.dior.patientui.controller;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -12,6 +13,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import fr.dior.patientui.beans.NoteBean;
+import fr.dior.patientui.beans.NoteHeaderBean;
+import fr.dior.patientui.beans.NoteHeaderPageBean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -29,6 +32,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.dior.patientui.beans.PatientBean;
 import fr.dior.patientui.proxies.PatientInfoProxy;
 import fr.dior.patientui.proxies.PatientNoteProxy;
+import fr.dior.patientui.proxies.PatientReportProxy;
 
 @SpringBootTest  // Indique que cette classe est un test Spring Boot
 @AutoConfigureMockMvc  // Configure automatiquement le MockMvc
@@ -43,6 +47,9 @@ public class NoteControllerTest {
 	@MockBean
 	private PatientInfoProxy patientInfoProxy;  // Mock pour simuler le proxy d'informations de patients
 
+	@MockBean
+	private PatientReportProxy patientReportProxy;  // Mock pour simuler le proxy du service de rapport
+
 	private static final Logger log = LoggerFactory.getLogger(NoteControllerTest.class);  // Logger
 
 	private NoteBean note1;  // Déclaration de NoteBean pour le test
@@ -78,8 +85,12 @@ public class NoteControllerTest {
 	@Test
 	public void displayNoteListPage() throws Exception {
 		// Simulation de réponses du proxy pour les tests
-		when(patientNoteProxy.getNotesByPatientId(1))
-				.thenReturn(List.of(note1, note2));
+		NoteHeaderBean header1 = NoteHeaderBean.builder()
+				.id("1").date(note1.getDate()).bodyLength(5).preview("Body1").build();
+		NoteHeaderBean header2 = NoteHeaderBean.builder()
+				.id("2").date(note2.getDate()).bodyLength(250).preview("Body2").build();
+		when(patientNoteProxy.getNoteHeadersPageByPatientId(1, null))
+				.thenReturn(NoteHeaderPageBean.builder().headers(List.of(header2, header1)).next("token").build());
 		when(patientInfoProxy.getPatientById(1))
 				.thenReturn(patient1);
 
@@ -91,7 +102,9 @@ public class NoteControllerTest {
 				.andExpect(content().string(containsString("first1")))  // Vérifie la présence du prénom
 				.andExpect(content().string(containsString("notes")))  // Vérifie la présence du mot "notes"
 				.andExpect(content().string(containsString("Body1")))  // Vérifie la présence du corps de la note 1
-				.andExpect(content().string(containsString("Body2")));  // Vérifie la présence du corps de la note 2
+				.andExpect(content().string(containsString("Body2")))  // Vérifie la présence du début du corps de la note 2
+				.andExpect(content().string(containsString("&hellip;")))  // Vérifie que le corps tronqué de la note 2 est signalé
+				.andExpect(content().string(containsString("after=token")));  // Vérifie le lien vers la page suivante
 	}
 
 	@Nested
@@ -113,6 +126,7 @@ public class NoteControllerTest {
 							.flashAttr("note", updatedNote))  // Attribut flash pour passer les données à la vue suivante
 					.andExpect(status().is(302))  // Vérifie le statut de redirection
 					.andExpect(view().name("redirect:/NoteList?patId=1"));  // Vérifie la redirection vers la liste des notes
+			verify(patientReportProxy).invalidateRisk(1);  // Vérifie que le risque du patient est à réévaluer
 		}
 	}
 
@@ -141,6 +155,7 @@ public class NoteControllerTest {
 							.flashAttr("note", newBody))  // Attribut flash pour passer les données à la vue suivante
 					.andExpect(status().is(302))  // Vérifie le statut de redirection
 					.andExpect(view().name("redirect:/NoteList?patId=1"));  // Vérifie la redirection vers la liste des notes
+			verify(patientReportProxy).invalidateRisk(1);  // Vérifie que le risque du patient est à réévaluer
 		}
 	}
 
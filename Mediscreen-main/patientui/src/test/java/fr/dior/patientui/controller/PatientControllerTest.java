@@ -13,7 +13,6 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.util.ArrayList;
 import java.util.List;
 
-import fr.dior.patientui.beans.NoteBean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -27,7 +26,6 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import fr.dior.patientui.beans.PatientAndNotesBean;
 import fr.dior.patientui.beans.PatientBean;
 import fr.dior.patientui.beans.PatientBeanDTO;
 import fr.dior.patientui.beans.ReportBean;
@@ -158,20 +156,14 @@ public class  PatientControllerTest {
 	
 	@Test
 	public void displayPatientInfoPage() throws Exception {
-		List<NoteBean> notes = new ArrayList<>();
-		PatientAndNotesBean patientAndNotes = PatientAndNotesBean.builder()
-				.patient(patient1)
-				.notes(notes)
-				.build();
 		ReportBean report = ReportBean.builder()
 				.age(33)
 				.assessment("None")
+				.triggers(List.of("smoker"))
 				.build();
 		when(patientInfoProxy.getPatientById(1))
 			.thenReturn(patient1);
-		when(patientNoteProxy.getNotesByPatientId(1))
-			.thenReturn(notes);
-		when(patientReportProxy.getReport(patientAndNotes))
+		when(patientReportProxy.getReportByPatientId(1))
 			.thenReturn(report);
 		mockMvc.perform(get("/PatientInfo?id=1"))
         	.andExpect(status().isOk())
@@ -180,7 +172,8 @@ public class  PatientControllerTest {
         	.andExpect(content().string(containsString("last1")))
         	.andExpect(content().string(containsString("first1")))
         	.andExpect(content().string(containsString("33")))
-        	.andExpect(content().string(containsString("None")));
+        	.andExpect(content().string(containsString("None")))
+        	.andExpect(content().string(containsString("smoker")));
 	}
 	
 	@Test